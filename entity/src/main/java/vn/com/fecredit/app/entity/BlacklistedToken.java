@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "blacklisted_tokens")
+@SequenceGenerator(name = "blacklisted_tokens_id_generator", sequenceName = "blacklisted_tokens_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,6 +22,10 @@ public class BlacklistedToken extends AbstractStatusAwareEntity {
     public static final int STATUS_EXPIRED = 0;
     public static final int STATUS_REVOKED = -1;
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blacklisted_tokens_id_generator")
+    private Long id;
+
     @Column(nullable = false, unique = true)
     private String token;
 
@@ -9,7 +9,10 @@ import java.util.stream.Collectors;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 
 /**
  * Entity representing an event in the lucky draw system.
@@ -19,6 +22,9 @@ import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
  */
 @Entity
 @Table(name = "events", schema = "public")
+@SequenceGenerator(name = "events_id_generator", sequenceName = "events_id_seq", allocationSize = 50)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.EVENT)
 @Getter
 @SuperBuilder(toBuilder = true)
 @NoArgsConstructor
@@ -31,7 +37,8 @@ public class Event extends AbstractStatusAwareEntity {
      * Unique identifier for the event.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Setter
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_id_generator")
     private Long id;
 
     /**
@@ -82,7 +89,7 @@ public class Event extends AbstractStatusAwareEntity {
 
     /**
      * The maximum number of spins a participant can use per day.
-     * Default is 5 spins per day.
+     * Default is 5 spins per day; null means no limit.
      */
     @Setter
     @Column(name = "daily_spin_limit")
@@ -118,6 +125,7 @@ public class Event extends AbstractStatusAwareEntity {
         inverseJoinColumns = @JoinColumn(name = "province_id")
     )
     @Builder.Default
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.EVENT_PROVINCES)
     private Set<Province> provinces = new LinkedHashSet<>();
 
     /**
@@ -20,6 +20,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "event_locations", schema = "public")
+@SequenceGenerator(name = "event_locations_id_generator", sequenceName = "event_locations_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @ToString(callSuper = true, onlyExplicitlyIncluded = true)
@@ -28,6 +29,13 @@ import java.util.Set;
 @AllArgsConstructor
 public class EventLocation extends AbstractStatusAwareEntity {
 
+    /**
+     * Unique identifier for the event location.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_locations_id_generator")
+    private Long id;
+
     /**
      * The name of the event location displayed to users.
      */
@@ -57,7 +65,7 @@ public class EventLocation extends AbstractStatusAwareEntity {
 
     /**
      * The maximum number of spins a participant can use per day at this location.
-     * If null, the event's daily spin limit is used.
+     * If null, the event's daily spin limit is used; if that is null too, there is no limit.
      */
     @Column(name = "daily_spin_limit")
     private Integer dailySpinLimit;
@@ -208,12 +216,25 @@ public class EventLocation extends AbstractStatusAwareEntity {
      * Gets the effective daily spin limit for this location.
      * If this location has a specific value, it is used; otherwise, the event's value is used.
      * 
-     * @return the effective daily spin limit
+     * @return the effective daily spin limit, null when neither sets one
      */
     public Integer getEffectiveDailySpinLimit() {
         return dailySpinLimit != null ? dailySpinLimit : event.getDailySpinLimit();
     }
 
+    /**
+     * Checks whether a participant who used a number of spins today may spin again under a
+     * daily spin limit. A null limit means there is none. The spin commit statements of
+     * SpinHistoryRepository apply the same rule in SQL.
+     *
+     * @param dailySpinLimit the effective daily spin limit, or null
+     * @param spinsUsedToday the spins the participant used today
+     * @return true if another spin is allowed today
+     */
+    public static boolean isUnderDailySpinLimit(Integer dailySpinLimit, int spinsUsedToday) {
+        return dailySpinLimit == null || spinsUsedToday < dailySpinLimit;
+    }
+
     /**
      * Gets the effective win probability for this location.
      * Uses a cascading fallback mechanism:
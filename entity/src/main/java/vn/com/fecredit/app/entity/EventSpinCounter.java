@@ -0,0 +1,62 @@
+package vn.com.fecredit.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+/**
+ * Entity representing one shard of the event-wide spin budget.
+ * <p>
+ * The remaining spins of an event are split over several shard rows. A spin decrements
+ * a randomly chosen shard, so spins from every province no longer queue on a single
+ * counter row, and the remaining budget is the sum over all shards. Shards drift apart
+ * as they are drained at random; a periodic compaction evens them out again and writes
+ * the total back to {@link Event#getRemainingSpins()}.
+ */
+@Entity
+@Table(name = "event_spin_counters",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "shard"}))
+@SequenceGenerator(name = "event_spin_counters_id_generator", sequenceName = "event_spin_counters_id_seq", allocationSize = 50)
+@Getter
+@Setter
+@SuperBuilder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSpinCounter extends AbstractStatusAwareEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique identifier for the shard.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_spin_counters_id_generator")
+    private Long id;
+
+    /**
+     * The event whose budget this shard holds a part of.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    private Event event;
+
+    /**
+     * The position of this shard within its event, from 0 to the shard count minus one.
+     */
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    /**
+     * The spins left in this shard.
+     */
+    @Column(name = "remaining", nullable = false)
+    @Builder.Default
+    private Long remaining = 0L;
+
+    @Override
+    public String toString() {
+        return String.format("EventSpinCounter[id=%d, shard=%d, remaining=%d]",
+                getId(), shard, remaining);
+    }
+}
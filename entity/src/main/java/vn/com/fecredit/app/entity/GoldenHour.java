@@ -1,6 +1,7 @@
 package vn.com.fecredit.app.entity;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -21,6 +22,7 @@ import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
  */
 @Entity
 @Table(name = "golden_hours")
+@SequenceGenerator(name = "golden_hours_id_generator", sequenceName = "golden_hours_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -44,7 +46,7 @@ public class GoldenHour extends AbstractStatusAwareEntity {
      * Unique identifier for the golden hour.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "golden_hours_id_generator")
     private Long id;
 
     /**
@@ -114,11 +116,19 @@ public class GoldenHour extends AbstractStatusAwareEntity {
     private Integer dailyLimit;
 
     /**
-     * The count of how many times this golden hour has been used.
+     * The count of how many times this golden hour has been used on {@link #usesDay}.
+     * It counts as zero once that day has passed.
      */
     @Column(name = "total_uses")
     private Integer totalUses;
 
+    /**
+     * The epoch day {@link #totalUses} belongs to. The count is rewritten for the current
+     * day by the next use, so no reset is needed at midnight.
+     */
+    @Column(name = "uses_day")
+    private Long usesDay;
+
     /**
      * Additional metadata stored as a JSON string for extensibility.
      */
@@ -188,30 +198,47 @@ public class GoldenHour extends AbstractStatusAwareEntity {
      * This is called when a participant spins during this golden hour.
      */
     public void incrementUses() {
-        if (totalUses == null) {
-            totalUses = 0;
-        }
-        totalUses++;
+        setTotalUses(getTotalUses() + 1);
     }
 
     /**
-     * Gets the total uses count with null safety.
+     * Gets today's uses count with null safety.
      * 
-     * @return the number of times this golden hour has been used, or 0 if null
+     * @return the number of times this golden hour has been used today, or 0 if null or of an earlier day
      */
     public Integer getTotalUses() {
-        if (totalUses == null) {
-            totalUses = 0;
+        return getTotalUses(LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Gets the number of times this golden hour has been used on a given day.
+     *
+     * @param epochDay the epoch day
+     * @return the number of uses on that day
+     */
+    public int getTotalUses(long epochDay) {
+        if (totalUses == null || usesDay == null || usesDay != epochDay) {
+            return 0;
         }
         return totalUses;
     }
 
+    /**
+     * Sets the number of times this golden hour has been used today.
+     *
+     * @param totalUses the number of uses today
+     */
+    public void setTotalUses(Integer totalUses) {
+        this.totalUses = totalUses;
+        this.usesDay = LocalDate.now().toEpochDay();
+    }
+
     /**
      * Resets the total uses count to zero.
-     * This is typically called at the start of a new day.
+     * Not needed at the start of a new day: a count of an earlier day already reads as zero.
      */
     public void resetUses() {
-        totalUses = 0;
+        setTotalUses(0);
     }
 
     /**
@@ -263,6 +290,18 @@ public class GoldenHour extends AbstractStatusAwareEntity {
         return baseProb * getWinProbabilityMultiplier();
     }
 
+    /**
+     * Calculates the effective win probability during this golden hour on top of an already
+     * resolved location probability, without touching the event location.
+     *
+     * @param locationWinProbability the effective win probability of the location
+     * @return the effective win probability during this golden hour
+     */
+    public double getWinProbability(double locationWinProbability) {
+        double baseProb = winProbability != null ? winProbability : locationWinProbability;
+        return baseProb * getWinProbabilityMultiplier();
+    }
+
     /**
      * Checks if this golden hour's status is active and its event location is active.
      * 
@@ -17,6 +17,7 @@ import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
  */
 @Entity
 @Table(name = "participants")
+@SequenceGenerator(name = "participants_id_generator", sequenceName = "participants_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -30,7 +31,7 @@ public class Participant extends AbstractStatusAwareEntity {
      * Unique identifier for the participant.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participants_id_generator")
     private Long id;
 
     /**
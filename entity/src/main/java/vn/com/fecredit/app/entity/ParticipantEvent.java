@@ -5,6 +5,7 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -21,6 +22,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "participant_events")
+@SequenceGenerator(name = "participant_events_id_generator", sequenceName = "participant_events_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -28,6 +30,13 @@ import java.util.Set;
 @AllArgsConstructor
 public class ParticipantEvent extends AbstractStatusAwareEntity {
 
+    /**
+     * Unique identifier for the participation record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participant_events_id_generator")
+    private Long id;
+
     /**
      * The participant associated with this event participation record.
      * This establishes the many-to-one relationship with the Participant entity.
@@ -89,13 +98,20 @@ public class ParticipantEvent extends AbstractStatusAwareEntity {
     private Integer initialSpins = 0;
 
     /**
-     * The number of spins used by the participant on the current day.
-     * This is reset daily and used to enforce daily spin limits.
+     * The number of spins used by the participant on {@link #dailySpinsDay}.
+     * Used to enforce daily spin limits; it counts as zero once that day has passed.
      */
     @Column(name = "daily_spins_used")
     @Builder.Default
     private Integer dailySpinsUsed = 0;
 
+    /**
+     * The epoch day {@link #dailySpinsUsed} belongs to. The counter is rewritten for the
+     * current day by the next spin, so no reset is needed at midnight.
+     */
+    @Column(name = "daily_spins_day")
+    private Long dailySpinsDay;
+
     /**
      * The total number of winning spins the participant has had in this event.
      */
@@ -231,7 +247,7 @@ public class ParticipantEvent extends AbstractStatusAwareEntity {
     public void addSpinHistory(SpinHistory spinHistory) {
         spinHistories.add(spinHistory);
         spinHistory.setParticipantEvent(this);
-        dailySpinsUsed++;
+        addDailySpins(1);
         remainingSpins--;
     }
 
@@ -244,7 +260,7 @@ public class ParticipantEvent extends AbstractStatusAwareEntity {
     public void removeSpinHistory(SpinHistory spinHistory) {
         if (spinHistories.remove(spinHistory)) {
             spinHistory.setParticipantEvent(null);
-            dailySpinsUsed--;
+            addDailySpins(-1);
             remainingSpins++;
         }
     }
@@ -264,15 +280,34 @@ public class ParticipantEvent extends AbstractStatusAwareEntity {
      * @return true if the daily limit has been reached, false otherwise
      */
     public boolean hasReachedDailyLimit() {
-        return dailySpinsUsed >= eventLocation.getEffectiveDailySpinLimit();
+        return !EventLocation.isUnderDailySpinLimit(eventLocation.getEffectiveDailySpinLimit(), getDailySpinCount());
     }
 
     /**
      * Resets the daily spins used counter to zero.
-     * This is typically called at the start of a new day.
+     * Not needed at the start of a new day: a counter of an earlier day already reads as zero.
      */
     public void resetDailySpins() {
-        dailySpinsUsed = 0;
+        setDailySpinsUsed(0);
+    }
+
+    /**
+     * Gets the number of spins used today.
+     *
+     * @return the spins used today, or 0 if the counter belongs to an earlier day
+     */
+    public Integer getDailySpinsUsed() {
+        return getDailySpinCount(LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Sets the number of spins used today.
+     *
+     * @param dailySpinsUsed the spins used today
+     */
+    public void setDailySpinsUsed(Integer dailySpinsUsed) {
+        this.dailySpinsUsed = dailySpinsUsed;
+        this.dailySpinsDay = LocalDate.now().toEpochDay();
     }
 
     /**
@@ -326,7 +361,7 @@ public class ParticipantEvent extends AbstractStatusAwareEntity {
      */
     public void incrementSpinCount() {
         totalSpins++;
-        dailySpinsUsed++;
+        addDailySpins(1);
         if (remainingSpins > 0) {
             remainingSpins--;
         }
@@ -354,8 +389,32 @@ public class ParticipantEvent extends AbstractStatusAwareEntity {
      * @return the number of spins used today
      */
     public int getDailySpinCount() {
+        return getDailySpinCount(LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Gets the daily spin count for this participant on a given day.
+     *
+     * @param epochDay the epoch day
+     * @return the number of spins used on that day
+     */
+    public int getDailySpinCount(long epochDay) {
+        if (dailySpinsUsed == null || dailySpinsDay == null || dailySpinsDay != epochDay) {
+            return 0;
+        }
         return dailySpinsUsed;
     }
+
+    /**
+     * Adds to today's spin count, starting from zero when the counter belongs to an earlier day.
+     *
+     * @param delta the number of spins to add
+     */
+    private void addDailySpins(int delta) {
+        long today = LocalDate.now().toEpochDay();
+        dailySpinsUsed = Math.max(0, getDailySpinCount(today) + delta);
+        dailySpinsDay = today;
+    }
     
     /**
      * Checks if this participant can spin in this event.
@@ -3,7 +3,10 @@ package vn.com.fecredit.app.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -12,6 +15,9 @@ import java.util.Set;
 
 @Entity
 @Table(name = "provinces")
+@SequenceGenerator(name = "provinces_id_generator", sequenceName = "provinces_id_seq", allocationSize = 50)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PROVINCE)
 @Getter
 @Setter
 @ToString(callSuper = true, onlyExplicitlyIncluded = true)
@@ -20,6 +26,10 @@ import java.util.Set;
 @AllArgsConstructor
 public class Province extends AbstractStatusAwareEntity {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provinces_id_generator")
+    private Long id;
+
     @ToString.Include
     @Column(nullable = false, length = 100)
     private String name;
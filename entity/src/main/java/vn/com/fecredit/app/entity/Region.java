@@ -3,7 +3,10 @@ package vn.com.fecredit.app.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +21,9 @@ import java.util.List;
  */
 @Entity
 @Table(name = "regions", schema = "public")
+@SequenceGenerator(name = "regions_id_generator", sequenceName = "regions_id_seq", allocationSize = 50)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.REGION)
 @Getter
 @Setter
 @ToString(callSuper = true, onlyExplicitlyIncluded = true)
@@ -26,6 +32,13 @@ import java.util.List;
 @AllArgsConstructor
 public class Region extends AbstractStatusAwareEntity {
 
+    /**
+     * Unique identifier for the region.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "regions_id_generator")
+    private Long id;
+
     /**
      * The name of the region displayed to users.
      */
@@ -73,6 +86,7 @@ public class Region extends AbstractStatusAwareEntity {
     @OneToMany(mappedBy = "region", cascade = CascadeType.ALL)
     @Builder.Default
     @ToString.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.REGION_PROVINCES)
     private List<Province> provinces = new ArrayList<>();
 
     /**
@@ -1,5 +1,6 @@
 package vn.com.fecredit.app.entity;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -22,6 +23,7 @@ import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
  */
 @Entity
 @Table(name = "rewards")
+@SequenceGenerator(name = "rewards_id_generator", sequenceName = "rewards_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -35,7 +37,7 @@ public class Reward extends AbstractStatusAwareEntity {
      * Unique identifier for the reward.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rewards_id_generator")
     private Long id;
 
     /**
@@ -96,13 +98,20 @@ public class Reward extends AbstractStatusAwareEntity {
     private Integer dailyLimit;
 
     /**
-     * The count of how many of this reward have been distributed today.
-     * This is reset daily and used to enforce daily limits.
+     * The count of how many of this reward have been distributed on {@link #dailyCountDay}.
+     * Used to enforce daily limits; it counts as zero once that day has passed.
      */
     @Column(name = "daily_count")
     @Builder.Default
     private Integer dailyCount = 0;
 
+    /**
+     * The epoch day {@link #dailyCount} belongs to. The count is rewritten for the current
+     * day by the next win, so no reset is needed at midnight.
+     */
+    @Column(name = "daily_count_day")
+    private Long dailyCountDay;
+
     /**
      * The probability of winning this specific reward when spinning.
      * This can override the location's default win probability.
@@ -122,6 +131,21 @@ public class Reward extends AbstractStatusAwareEntity {
     @Column(name = "valid_until")
     private LocalDateTime validUntil;
 
+    /**
+     * Whether every unit of this reward must be taken from the database synchronously.
+     * Grand prizes set this to bypass the in-memory write-behind inventory.
+     */
+    @Column(name = "strict_inventory", nullable = false)
+    @Builder.Default
+    private boolean strictInventory = false;
+
+    /**
+     * The time up to which in-memory consumption of this reward has been written back
+     * to {@link #remainingQuantity}. Wins recorded after this time are replayed on recovery.
+     */
+    @Column(name = "inventory_synced_at")
+    private LocalDateTime inventorySyncedAt;
+
     /**
      * Additional metadata stored as a JSON string for extensibility.
      */
@@ -149,10 +173,33 @@ public class Reward extends AbstractStatusAwareEntity {
     /**
      * Gets the daily count with null safety.
      * 
-     * @return the number of rewards distributed today, or 0 if null
+     * @return the number of rewards distributed today, or 0 if null or of an earlier day
      */
     public Integer getDailyCount() {
-        return dailyCount != null ? dailyCount : 0;
+        return getDailyCount(LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Gets the number of rewards distributed on a given day.
+     *
+     * @param epochDay the epoch day
+     * @return the number of rewards distributed on that day
+     */
+    public int getDailyCount(long epochDay) {
+        if (dailyCount == null || dailyCountDay == null || dailyCountDay != epochDay) {
+            return 0;
+        }
+        return dailyCount;
+    }
+
+    /**
+     * Sets the number of rewards distributed today.
+     *
+     * @param dailyCount the number of rewards distributed today
+     */
+    public void setDailyCount(Integer dailyCount) {
+        this.dailyCount = dailyCount;
+        this.dailyCountDay = LocalDate.now().toEpochDay();
     }
 
     /**
@@ -160,15 +207,15 @@ public class Reward extends AbstractStatusAwareEntity {
      * This is called when a participant wins this reward.
      */
     public void incrementDailyCount() {
-        this.dailyCount = getDailyCount() + 1;
+        setDailyCount(getDailyCount() + 1);
     }
 
     /**
      * Resets the daily count to zero.
-     * This is typically called at the start of a new day.
+     * Not needed at the start of a new day: a count of an earlier day already reads as zero.
      */
     public void resetDailyLimit() {
-        this.dailyCount = 0;
+        setDailyCount(0);
     }
 
     /**
@@ -0,0 +1,97 @@
+package vn.com.fecredit.app.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+/**
+ * Entity representing a block of reward units leased by one application node.
+ * <p>
+ * When several nodes serve spins, each of them leases units of a reward in blocks and
+ * hands them out from memory, so the nodes never contend on the {@code rewards} row for
+ * single units. Leased units are still part of {@code rewards.remaining_quantity}; a
+ * lease only reserves them for its node until they are consumed, given back, or the
+ * lease expires without being renewed.
+ */
+@Entity
+@Table(name = "reward_leases",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"reward_id", "node_id"}))
+@SequenceGenerator(name = "reward_leases_id_generator", sequenceName = "reward_leases_id_seq", allocationSize = 50)
+@Getter
+@Setter
+@SuperBuilder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardLease extends AbstractStatusAwareEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique identifier for the lease.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reward_leases_id_generator")
+    private Long id;
+
+    /**
+     * The reward whose units are leased.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reward_id", nullable = false)
+    private Reward reward;
+
+    /**
+     * The node holding the lease.
+     */
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    /**
+     * The leased units not yet reported as consumed.
+     */
+    @Column(name = "units", nullable = false)
+    @Builder.Default
+    private Integer units = 0;
+
+    /**
+     * The time up to which consumption of this lease has been reported.
+     */
+    @Column(name = "synced_at", nullable = false)
+    private LocalDateTime syncedAt;
+
+    /**
+     * The time after which the lease may be reclaimed unless renewed.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Records units of this lease as consumed.
+     *
+     * @param consumed the units consumed, negative for units given back to the lease
+     * @param at the time the consumption was counted
+     */
+    public void consume(int consumed, LocalDateTime at) {
+        units = Math.max(0, (units != null ? units : 0) - consumed);
+        syncedAt = at;
+    }
+
+    /**
+     * Checks whether the lease ran out without being renewed.
+     *
+     * @param now the current time
+     * @return true if the lease may be reclaimed
+     */
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RewardLease[id=%d, nodeId=%s, units=%d, expiresAt=%s]",
+                getId(), nodeId, units, expiresAt);
+    }
+}
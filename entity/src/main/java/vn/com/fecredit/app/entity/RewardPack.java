@@ -0,0 +1,133 @@
+package vn.com.fecredit.app.entity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+/**
+ * Entity representing one gift pack of an event location.
+ * <p>
+ * At event start the reward inventory of a location is split into several packs that keep
+ * the global ratio between rewards, plus a number of empty slots that stand for losing
+ * draws. Spins draw from the packs instead of the shared {@code rewards} rows, so
+ * concurrent spins can be spread over packs. The remaining content of each pack is
+ * persisted here so that a restart resumes from exactly the same state.
+ */
+@Entity
+@Table(name = "reward_packs")
+@SequenceGenerator(name = "reward_packs_id_generator", sequenceName = "reward_packs_id_seq", allocationSize = 50)
+@Getter
+@Setter
+@SuperBuilder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardPack extends AbstractStatusAwareEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique identifier for the pack.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reward_packs_id_generator")
+    private Long id;
+
+    /**
+     * The event location whose reward inventory this pack belongs to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_location_id", nullable = false)
+    private EventLocation eventLocation;
+
+    /**
+     * The position of this pack within its location, starting at 1.
+     */
+    @Column(name = "pack_number", nullable = false)
+    private Integer packNumber;
+
+    /**
+     * The number of losing slots still left in this pack.
+     */
+    @Column(name = "empty_slots", nullable = false)
+    @Builder.Default
+    private Integer emptySlots = 0;
+
+    /**
+     * The remaining quantity of each reward in this pack, keyed by reward id.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "reward_pack_items", joinColumns = @JoinColumn(name = "pack_id"))
+    @MapKeyColumn(name = "reward_id")
+    @Column(name = "remaining_quantity", nullable = false)
+    @Builder.Default
+    private Map<Long, Integer> rewardQuantities = new LinkedHashMap<>();
+
+    /**
+     * Gets the number of slots, winning and losing, still left in this pack.
+     *
+     * @return the remaining slot count
+     */
+    public int getRemainingSlots() {
+        int remaining = emptySlots != null ? emptySlots : 0;
+        for (Integer quantity : rewardQuantities.values()) {
+            remaining += quantity != null ? quantity : 0;
+        }
+        return remaining;
+    }
+
+    /**
+     * Checks whether every slot of this pack has been drawn.
+     *
+     * @return true if nothing is left in the pack
+     */
+    public boolean isExhausted() {
+        return getRemainingSlots() == 0;
+    }
+
+    /**
+     * Gets the remaining quantity of a reward in this pack.
+     *
+     * @param rewardId the reward id
+     * @return the remaining quantity, or 0 if the pack does not hold the reward
+     */
+    public int getRewardQuantity(Long rewardId) {
+        Integer quantity = rewardQuantities.get(rewardId);
+        return quantity != null ? quantity : 0;
+    }
+
+    /**
+     * Takes one unit of a reward out of this pack.
+     *
+     * @param rewardId the reward id
+     * @throws IllegalStateException if the pack has no unit of the reward left
+     */
+    public void takeReward(Long rewardId) {
+        int quantity = getRewardQuantity(rewardId);
+        if (quantity <= 0) {
+            throw new IllegalStateException("Pack " + packNumber + " has no reward " + rewardId + " left");
+        }
+        rewardQuantities.put(rewardId, quantity - 1);
+    }
+
+    /**
+     * Takes one losing slot out of this pack.
+     *
+     * @throws IllegalStateException if the pack has no empty slot left
+     */
+    public void takeEmptySlot() {
+        if (emptySlots == null || emptySlots <= 0) {
+            throw new IllegalStateException("Pack " + packNumber + " has no empty slot left");
+        }
+        emptySlots--;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RewardPack[id=%d, packNumber=%d, rewards=%s, empty=%d]",
+                getId(), packNumber, rewardQuantities, emptySlots);
+    }
+}
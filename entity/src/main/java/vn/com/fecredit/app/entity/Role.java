@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -11,8 +12,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,12 +25,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 import vn.com.fecredit.app.enums.Permission;
 import vn.com.fecredit.app.enums.RoleName;
 
 @Entity
 @Table(name = "roles")
+@SequenceGenerator(name = "roles_id_generator", sequenceName = "roles_id_seq", allocationSize = 50)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ROLE)
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -33,6 +44,10 @@ import vn.com.fecredit.app.enums.RoleName;
 @AllArgsConstructor
 public class Role extends AbstractStatusAwareEntity {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_id_generator")
+    private Long id;
+
     @Enumerated(EnumType.STRING)
     @Column(length = 20)
     private RoleName name;
@@ -53,6 +68,7 @@ public class Role extends AbstractStatusAwareEntity {
     @Column(name = "permission")
     @Enumerated(EnumType.STRING)
     @Builder.Default
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ROLE_PERMISSIONS)
     private Set<Permission> permissions = new HashSet<>();
 
     @ManyToMany(mappedBy = "roles")
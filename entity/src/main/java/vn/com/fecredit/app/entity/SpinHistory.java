@@ -17,6 +17,18 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "spin_histories")
+@SequenceGenerator(name = "spin_histories_id_generator", sequenceName = "spin_histories_id_seq", allocationSize = 50)
+@NamedEntityGraph(name = SpinHistory.DETAILS_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode(value = "participantEvent", subgraph = "participantEvent"),
+        @NamedAttributeNode("reward")
+    },
+    subgraphs = @NamedSubgraph(name = "participantEvent",
+        attributeNodes = {
+            @NamedAttributeNode("participant"),
+            @NamedAttributeNode("event"),
+            @NamedAttributeNode("eventLocation")
+        }))
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -24,6 +36,19 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class SpinHistory extends AbstractStatusAwareEntity {
 
+    /**
+     * Fetches the participant event with its participant, event and location, and the
+     * reward, which are everything a spin history response reads.
+     */
+    public static final String DETAILS_GRAPH = "SpinHistory.details";
+
+    /**
+     * Unique identifier for the spin history.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spin_histories_id_generator")
+    private Long id;
+
     /**
      * The participant event record associated with this spin.
      * This establishes the many-to-one relationship with the ParticipantEvent entity.
@@ -93,6 +118,35 @@ public class SpinHistory extends AbstractStatusAwareEntity {
     @Column(name = "metadata")
     private String metadata;
 
+    /**
+     * The key the client submitted the spin with, if any.
+     * A retried spin carries the same key and is answered with this record instead of
+     * consuming another spin.
+     */
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    /**
+     * The node whose in-memory stock the unit of this win was taken from, null when the
+     * unit was taken from the database. Lets a node tell its unflushed wins from those of
+     * other nodes when it recovers its inventory.
+     */
+    @Column(name = "inventory_node_id", length = 100)
+    private String inventoryNodeId;
+
+    /**
+     * The seed of the generator the outcome was drawn from, null when it was not recorded.
+     * Replaying the seed with the same algorithm yields the same outcome.
+     */
+    @Column(name = "random_seed")
+    private Long randomSeed;
+
+    /**
+     * The per-thread stream the seed was taken from, in the order the node split them.
+     */
+    @Column(name = "random_stream")
+    private Integer randomStream;
+
     /**
      * Initializes default values for new spin history records before they are persisted.
      * Sets the spin time to the current time if not already set.
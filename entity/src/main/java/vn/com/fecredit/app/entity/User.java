@@ -10,6 +10,7 @@ import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
 
 @Entity
 @Table(name = "users")
+@SequenceGenerator(name = "users_id_generator", sequenceName = "users_id_seq", allocationSize = 50)
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
@@ -20,7 +21,7 @@ public class User extends AbstractStatusAwareEntity {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_generator")
     private Long id;
 
     @Column(name = "username", unique = true, nullable = false)
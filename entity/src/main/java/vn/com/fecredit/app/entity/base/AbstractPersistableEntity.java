@@ -9,6 +9,14 @@ import org.springframework.data.domain.Persistable;
 
 import java.io.Serializable;
 
+/**
+ * Base of every entity: the version and the identity semantics of a {@link Persistable}.
+ * <p>
+ * Each entity declares its own {@code id}, taken from the {@code <table>_id_seq} sequence
+ * of its table through a {@code <table>_id_generator} sequence generator with
+ * {@code allocationSize = 50}, so that Hibernate can batch inserts; identity columns would
+ * force one insert statement per row. Generator names are global, hence one per table.
+ */
 @MappedSuperclass
 @Getter
 @Setter
@@ -18,11 +26,6 @@ public abstract class AbstractPersistableEntity implements Persistable<Long>, Se
 
     private static final long serialVersionUID = 1L;
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", nullable = false, updatable = false)
-    private Long id;
-
     @Version
     @Column(name = "version", nullable = false)
     private Long version;
@@ -31,9 +34,11 @@ public abstract class AbstractPersistableEntity implements Persistable<Long>, Se
         this.version = 0L;
     }
 
+    public abstract void setId(Long id);
+
     @Override
     public boolean isNew() {
-        return id == null;
+        return getId() == null;
     }
 
     @Override
@@ -45,12 +50,12 @@ public abstract class AbstractPersistableEntity implements Persistable<Long>, Se
             return false;
         }
         AbstractPersistableEntity other = (AbstractPersistableEntity) obj;
-        return id != null && id.equals(other.getId());
+        return getId() != null && getId().equals(other.getId());
     }
 
     @Override
     public int hashCode() {
-        return id != null ? id.hashCode() : super.hashCode();
+        return getId() != null ? getId().hashCode() : super.hashCode();
     }
 
     @Override
@@ -59,7 +64,7 @@ public abstract class AbstractPersistableEntity implements Persistable<Long>, Se
     }
 
     public boolean isPersisted() {
-        return id != null;
+        return getId() != null;
     }
 
     public boolean isModified() {
@@ -69,7 +74,7 @@ public abstract class AbstractPersistableEntity implements Persistable<Long>, Se
     public AbstractPersistableEntity toReference() {
         try {
             AbstractPersistableEntity reference = getClass().getDeclaredConstructor().newInstance();
-            reference.setId(this.id);
+            reference.setId(getId());
             return reference;
         } catch (Exception e) {
             throw new RuntimeException("Could not create reference for " + getClass(), e);
@@ -77,6 +82,6 @@ public abstract class AbstractPersistableEntity implements Persistable<Long>, Se
     }
 
     public boolean isReference() {
-        return id != null && version == null;
+        return getId() != null && version == null;
     }
 }
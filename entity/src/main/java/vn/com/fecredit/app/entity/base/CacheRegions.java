@@ -0,0 +1,24 @@
+package vn.com.fecredit.app.entity.base;
+
+/**
+ * Names of the second-level cache regions. Each region is sized and expired in
+ * {@code caffeine.conf}; a region missing there is created with the provider defaults.
+ */
+public final class CacheRegions {
+
+    public static final String REGION = "reference.region";
+    public static final String REGION_PROVINCES = "reference.region.provinces";
+    public static final String PROVINCE = "reference.province";
+    public static final String ROLE = "reference.role";
+    public static final String ROLE_PERMISSIONS = "reference.role.permissions";
+    public static final String EVENT = "reference.event";
+    public static final String EVENT_PROVINCES = "reference.event.provinces";
+
+    /**
+     * Results of the reference data lookups marked cacheable in the repositories.
+     */
+    public static final String QUERIES = "reference.queries";
+
+    private CacheRegions() {
+    }
+}
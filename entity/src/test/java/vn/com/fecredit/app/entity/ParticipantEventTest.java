@@ -3,6 +3,7 @@ package vn.com.fecredit.app.entity;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -134,6 +135,43 @@ class ParticipantEventTest {
         assertThat(participantEvent.hasReachedDailyLimit()).isTrue();
     }
 
+    /**
+     * Tests that a participant never reaches a daily limit that neither the location
+     * nor the event sets.
+     */
+    @Test
+    void whenNoDailySpinLimitIsSet_thenLimitIsNeverReached() {
+        event.setDailySpinLimit(null);
+        participantEvent.setDailySpinsUsed(1_000);
+        participantEvent.setDailySpinsDay(LocalDate.now().toEpochDay());
+
+        assertThat(participantEvent.hasReachedDailyLimit()).isFalse();
+        assertThat(EventLocation.isUnderDailySpinLimit(null, 1_000)).isTrue();
+        assertThat(EventLocation.isUnderDailySpinLimit(3, 3)).isFalse();
+    }
+
+    /**
+     * Tests that spins counted on an earlier day no longer count
+     * towards the daily limit and that the next spin starts a new count.
+     */
+    @Test
+    void whenDailySpinsBelongToEarlierDay_thenCountIsZero() {
+        // Given
+        participantEvent.setDailySpinsUsed(10);
+        participantEvent.setDailySpinsDay(LocalDate.now().minusDays(1).toEpochDay());
+
+        // Then
+        assertThat(participantEvent.hasReachedDailyLimit()).isFalse();
+        assertThat(participantEvent.getDailySpinCount()).isZero();
+
+        // When
+        participantEvent.incrementSpinCount();
+
+        // Then
+        assertThat(participantEvent.getDailySpinCount()).isEqualTo(1);
+        assertThat(participantEvent.getDailySpinsDay()).isEqualTo(LocalDate.now().toEpochDay());
+    }
+
     /**
      * Tests that the resetDailySpins method correctly resets
      * the daily spins used counter to zero.
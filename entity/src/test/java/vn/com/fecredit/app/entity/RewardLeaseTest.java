@@ -0,0 +1,55 @@
+package vn.com.fecredit.app.entity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the RewardLease entity.
+ * This class tests unit accounting of a lease:
+ * - Consuming and giving back units
+ * - Expiry detection
+ */
+class RewardLeaseTest {
+
+    private LocalDateTime now;
+    private RewardLease lease;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        lease = RewardLease.builder()
+                .nodeId("node-1")
+                .units(50)
+                .syncedAt(now.minusMinutes(1))
+                .expiresAt(now.plusSeconds(30))
+                .build();
+    }
+
+    @Test
+    void testConsume() {
+        lease.consume(20, now);
+
+        assertEquals(30, lease.getUnits());
+        assertEquals(now, lease.getSyncedAt());
+
+        lease.consume(-5, now);
+        assertEquals(35, lease.getUnits());
+    }
+
+    @Test
+    void testConsumeNeverGoesBelowZero() {
+        lease.consume(60, now);
+
+        assertEquals(0, lease.getUnits());
+    }
+
+    @Test
+    void testExpiry() {
+        assertFalse(lease.isExpired(now));
+        assertTrue(lease.isExpired(now.plusMinutes(1)));
+    }
+}
@@ -0,0 +1,72 @@
+package vn.com.fecredit.app.entity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the RewardPack entity.
+ * This class tests slot accounting of a gift pack:
+ * - Remaining slot calculation across rewards and empty slots
+ * - Taking rewards and empty slots
+ * - Exhaustion detection
+ */
+class RewardPackTest {
+
+    private RewardPack pack;
+
+    @BeforeEach
+    void setUp() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(1L, 2);
+        quantities.put(2L, 1);
+
+        pack = RewardPack.builder()
+                .packNumber(1)
+                .emptySlots(1)
+                .rewardQuantities(quantities)
+                .build();
+    }
+
+    @Test
+    void testRemainingSlots() {
+        assertEquals(4, pack.getRemainingSlots());
+        assertEquals(2, pack.getRewardQuantity(1L));
+        assertEquals(0, pack.getRewardQuantity(3L));
+        assertFalse(pack.isExhausted());
+    }
+
+    @Test
+    void testTakeRewardAndEmptySlot() {
+        pack.takeReward(1L);
+        pack.takeEmptySlot();
+
+        assertEquals(1, pack.getRewardQuantity(1L));
+        assertEquals(0, pack.getEmptySlots());
+        assertEquals(2, pack.getRemainingSlots());
+    }
+
+    @Test
+    void testTakeBeyondRemainingFails() {
+        pack.takeReward(2L);
+        pack.takeEmptySlot();
+
+        assertThrows(IllegalStateException.class, () -> pack.takeReward(2L));
+        assertThrows(IllegalStateException.class, () -> pack.takeEmptySlot());
+        assertThrows(IllegalStateException.class, () -> pack.takeReward(3L));
+    }
+
+    @Test
+    void testExhausted() {
+        pack.takeReward(1L);
+        pack.takeReward(1L);
+        pack.takeReward(2L);
+        pack.takeEmptySlot();
+
+        assertTrue(pack.isExhausted());
+    }
+}
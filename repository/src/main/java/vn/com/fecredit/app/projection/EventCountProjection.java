@@ -0,0 +1,7 @@
+package vn.com.fecredit.app.projection;
+
+public interface EventCountProjection {
+    Long getEventId();
+    long getLocations();
+    long getParticipants();
+}
@@ -0,0 +1,10 @@
+package vn.com.fecredit.app.projection;
+
+public interface RewardPackItemProjection {
+    Long getPackId();
+    Integer getPackNumber();
+    Integer getEmptySlots();
+    int getStatus();
+    String getRewardCode();
+    Integer getRemainingQuantity();
+}
@@ -0,0 +1,10 @@
+package vn.com.fecredit.app.projection;
+
+public interface SpinBatchCommitProjection {
+    long getOrd();
+    Long getSpinId();
+    boolean getParticipantFound();
+    boolean getHasRemainingSpins();
+    boolean getUnderDailyLimit();
+    boolean getDuplicate();
+}
@@ -0,0 +1,9 @@
+package vn.com.fecredit.app.projection;
+
+public interface SpinCommitProjection {
+    Long getSpinId();
+    boolean getParticipantFound();
+    boolean getHasRemainingSpins();
+    boolean getUnderDailyLimit();
+    boolean getRewardGranted();
+}
@@ -0,0 +1,7 @@
+package vn.com.fecredit.app.projection;
+
+public interface SpinCountProjection {
+    String getCode();
+    long getSpins();
+    long getWins();
+}
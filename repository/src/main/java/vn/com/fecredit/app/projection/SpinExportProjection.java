@@ -0,0 +1,25 @@
+package vn.com.fecredit.app.projection;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Columns of a spin written to a spin export, read by a constructor expression so that
+ * streaming millions of rows never fills the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class SpinExportProjection {
+
+    private final Long id;
+    private final LocalDateTime spinTime;
+    private final String locationCode;
+    private final String participantAccount;
+    private final String participantName;
+    private final Boolean win;
+    private final String rewardCode;
+    private final Integer pointsEarned;
+    private final Boolean finalized;
+}
@@ -0,0 +1,11 @@
+package vn.com.fecredit.app.projection;
+
+import java.time.LocalDateTime;
+
+public interface SpinStatisticsProjection {
+    long getTotalSpins();
+    long getWinningSpins();
+    long getTotalPoints();
+    LocalDateTime getFirstSpinTime();
+    LocalDateTime getLastSpinTime();
+}
@@ -0,0 +1,23 @@
+package vn.com.fecredit.app.projection;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Summary columns of a spin with the names of its participant, event and location, read
+ * by a constructor expression so that no entity is loaded or managed.
+ */
+@Getter
+@AllArgsConstructor
+public class SpinSummaryProjection {
+
+    private final Long id;
+    private final String eventName;
+    private final String locationName;
+    private final String participantName;
+    private final Boolean win;
+    private final Integer pointsEarned;
+    private final LocalDateTime spinTime;
+}
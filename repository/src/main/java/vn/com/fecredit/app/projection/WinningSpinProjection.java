@@ -0,0 +1,13 @@
+package vn.com.fecredit.app.projection;
+
+import java.time.LocalDateTime;
+
+public interface WinningSpinProjection {
+    Long getId();
+    Long getParticipantId();
+    LocalDateTime getSpinTime();
+    Long getRewardId();
+    String getRewardName();
+    String getRewardCode();
+    Integer getPointsEarned();
+}
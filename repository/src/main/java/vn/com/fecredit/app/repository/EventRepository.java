@@ -1,19 +1,29 @@
 package vn.com.fecredit.app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.base.CacheRegions;
+import vn.com.fecredit.app.projection.EventCountProjection;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     Optional<Event> findByCode(String code);
     
     boolean existsByCode(String code);
@@ -47,11 +57,29 @@ public interface EventRepository extends JpaRepository<Event, Long> {
            "WHERE e.id = :id")
     Optional<Event> findByIdWithDetails(@Param("id") Long id);
 
+    @Query("SELECT DISTINCT e FROM Event e LEFT JOIN FETCH e.eventLocations")
+    List<Event> findAllWithLocations();
+
+    /**
+     * Counts the locations and participant registrations of each of the given events in one
+     * query. Events without locations have no row.
+     */
+    @Query("SELECT el.event.id AS eventId, COUNT(DISTINCT el.id) AS locations, COUNT(pe.id) AS participants " +
+           "FROM EventLocation el " +
+           "LEFT JOIN el.participantEvents pe " +
+           "WHERE el.event.id IN :eventIds " +
+           "GROUP BY el.event.id")
+    List<EventCountProjection> countLocationsAndParticipants(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT r.eventLocation.event FROM Reward r WHERE r.id = :rewardId")
+    Optional<Event> findByRewardId(@Param("rewardId") Long rewardId);
+
     @Query("SELECT e FROM Event e " + 
            "WHERE e.startTime <= CURRENT_TIMESTAMP " +
            "AND e.endTime >= CURRENT_TIMESTAMP " + 
            "AND e.status = 1 " +
-           "AND e.remainingSpins > 0")
+           "AND ((e.remainingSpins > 0 AND NOT EXISTS (SELECT c FROM EventSpinCounter c WHERE c.event = e)) " +
+           "OR EXISTS (SELECT c FROM EventSpinCounter c WHERE c.event = e AND c.remaining > 0))")
     List<Event> findActiveEventsWithRemainingSpins();
 
     @Query("SELECT DISTINCT e FROM Event e " +
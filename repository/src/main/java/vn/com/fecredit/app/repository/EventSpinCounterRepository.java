@@ -0,0 +1,119 @@
+package vn.com.fecredit.app.repository;
+
+import java.util.List;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fecredit.app.entity.EventSpinCounter;
+import vn.com.fecredit.app.repository.base.BaseRepository;
+
+/**
+ * The native updates below name the tables they write as query spaces; without them
+ * Hibernate treats every native update as touching any table and clears the whole
+ * second-level cache, on every spin.
+ */
+@Repository
+public interface EventSpinCounterRepository extends BaseRepository<EventSpinCounter, Long> {
+
+    @Query("SELECT c FROM EventSpinCounter c WHERE c.event.id = :eventId ORDER BY c.shard")
+    List<EventSpinCounter> findAllByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT COUNT(c) FROM EventSpinCounter c WHERE c.event.id = :eventId")
+    int countShardsByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT COALESCE(SUM(c.remaining), 0) FROM EventSpinCounter c WHERE c.event.id = :eventId")
+    long sumRemainingByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT DISTINCT c.event.id FROM EventSpinCounter c")
+    List<Long> findShardedEventIds();
+
+    /**
+     * Splits the remaining spins of an event over {@code shards} rows and records the split
+     * total in {@code events.sharded_spins}. Does nothing for an event that is already
+     * sharded or has no spin budget.
+     *
+     * @return 1 if this call sharded the event, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH inserted AS (" +
+                   "    INSERT INTO event_spin_counters (event_id, shard, remaining) " +
+                   "    SELECT e.id, s.shard, e.remaining_spins / :shards " +
+                   "    + CASE WHEN s.shard < e.remaining_spins % :shards THEN 1 ELSE 0 END " +
+                   "    FROM events e CROSS JOIN generate_series(0, :shards - 1) AS s(shard) " +
+                   "    WHERE e.id = :eventId AND e.remaining_spins IS NOT NULL " +
+                   "    ON CONFLICT (event_id, shard) DO NOTHING " +
+                   "    RETURNING remaining) " +
+                   "UPDATE events SET sharded_spins = (SELECT SUM(remaining) FROM inserted) " +
+                   "WHERE id = :eventId AND EXISTS (SELECT 1 FROM inserted)",
+           nativeQuery = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_spin_counters"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "events")
+    })
+    int createShards(@Param("eventId") Long eventId, @Param("shards") int shards);
+
+    /**
+     * Takes one spin from the first shard with spins left, looking from {@code start} on.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE event_spin_counters SET remaining = remaining - 1 " +
+                   "WHERE id = (SELECT id FROM event_spin_counters " +
+                   "WHERE event_id = :eventId AND remaining > 0 " +
+                   "ORDER BY (shard - :start + :shards) % :shards LIMIT 1 FOR UPDATE)",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_spin_counters"))
+    int decrement(@Param("eventId") Long eventId, @Param("start") int start, @Param("shards") int shards);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE event_spin_counters SET remaining = remaining + 1 " +
+                   "WHERE event_id = :eventId AND shard = :shard",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_spin_counters"))
+    int increment(@Param("eventId") Long eventId, @Param("shard") int shard);
+
+    /**
+     * Evens out the shards of an event and writes their total back to
+     * {@code events.remaining_spins}. An edit made to {@code remaining_spins} since the
+     * shards last agreed with it, as recorded in {@code sharded_spins}, is added to the
+     * shards first instead of being overwritten. Shards are locked in order, and the event
+     * after them, so compaction cannot deadlock with spins, which lock a single shard. The
+     * write-back bumps the event version, so an edit made from a copy loaded before fails
+     * rather than restoring the old count. The cached event is not evicted; callers evict
+     * it once the update commits.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH locked AS (" +
+                   "    SELECT id, shard, remaining FROM event_spin_counters " +
+                   "    WHERE event_id = :eventId ORDER BY shard FOR UPDATE), " +
+                   "edited AS (" +
+                   "    SELECT COALESCE(remaining_spins - sharded_spins, 0) AS delta FROM events " +
+                   "    WHERE id = :eventId FOR UPDATE), " +
+                   "total AS (" +
+                   "    SELECT GREATEST(CAST(SUM(l.remaining) AS BIGINT) + COALESCE((SELECT delta FROM edited), 0), 0) " +
+                   "        AS remaining, COUNT(*) AS shards " +
+                   "    FROM locked l), " +
+                   "rebalanced AS (" +
+                   "    UPDATE event_spin_counters c " +
+                   "    SET remaining = t.remaining / t.shards " +
+                   "        + CASE WHEN l.shard < t.remaining % t.shards THEN 1 ELSE 0 END " +
+                   "    FROM locked l, total t WHERE c.id = l.id " +
+                   "    RETURNING c.remaining) " +
+                   "UPDATE events SET remaining_spins = r.total, sharded_spins = r.total, version = version + 1 " +
+                   "FROM (SELECT SUM(remaining) AS total FROM rebalanced) r " +
+                   "WHERE id = :eventId AND r.total IS NOT NULL",
+           nativeQuery = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_spin_counters"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "events")
+    })
+    int compact(@Param("eventId") Long eventId);
+}
@@ -25,6 +25,17 @@ public interface GoldenHourRepository extends BaseRepository<GoldenHour, Long> {
         @Param("now") LocalDateTime now
     );
 
+    @Query("SELECT gh FROM GoldenHour gh " +
+           "WHERE gh.eventLocation.id = :locationId " +
+           "AND gh.status = :status " +
+           "AND gh.endTime >= :from " +
+           "ORDER BY gh.startTime ASC")
+    List<GoldenHour> findScheduled(
+        @Param("locationId") Long locationId,
+        @Param("status") int status,
+        @Param("from") LocalDateTime from
+    );
+
     @Query("SELECT gh FROM GoldenHour gh " +
            "WHERE gh.eventLocation = :location " +
            "AND gh.startTime <= :now " +
@@ -69,6 +80,20 @@ public interface GoldenHourRepository extends BaseRepository<GoldenHour, Long> {
         @Param("end") LocalDateTime end
     );
 
+    @Query("SELECT COUNT(gh) > 0 FROM GoldenHour gh " +
+           "WHERE gh.eventLocation.id = :locationId " +
+           "AND gh.status = :status " +
+           "AND gh.startTime <= :end " +
+           "AND gh.endTime >= :start " +
+           "AND gh.id <> COALESCE(:excludedId, -1)")
+    boolean hasOverlappingHoursExcluding(
+        @Param("locationId") Long locationId,
+        @Param("status") int status,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("excludedId") Long excludedId
+    );
+
     @Query("SELECT gh FROM GoldenHour gh " +
            "WHERE gh.endTime < :expireBefore " +
            "AND gh.status = :status")
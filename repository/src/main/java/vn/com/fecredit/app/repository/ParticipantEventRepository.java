@@ -22,6 +22,13 @@ public interface ParticipantEventRepository extends BaseRepository<ParticipantEv
         @Param("eventLocation") EventLocation eventLocation
     );
 
+    @Query("SELECT pe FROM ParticipantEvent pe " +
+           "JOIN FETCH pe.participant " +
+           "JOIN FETCH pe.event " +
+           "LEFT JOIN FETCH pe.eventLocation " +
+           "WHERE pe.id = :id")
+    Optional<ParticipantEvent> findWithDetailsById(@Param("id") Long id);
+
     @Query("SELECT pe FROM ParticipantEvent pe WHERE pe.eventLocation = :eventLocation AND pe.status = 1")
     Set<ParticipantEvent> findActiveByLocation(@Param("eventLocation") EventLocation eventLocation);
 
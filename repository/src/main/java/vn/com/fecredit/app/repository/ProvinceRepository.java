@@ -1,11 +1,15 @@
 package vn.com.fecredit.app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.com.fecredit.app.entity.Province;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 import vn.com.fecredit.app.repository.base.BaseRepository;
 
 import java.util.List;
@@ -14,8 +18,16 @@ import java.util.Optional;
 @Repository
 public interface ProvinceRepository extends BaseRepository<Province, Long> {
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     Optional<Province> findByCode(String code);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Province> findAllByStatus(Integer status);
     
     Page<Province> findAllByStatus(Integer status, Pageable pageable);
@@ -26,8 +38,16 @@ public interface ProvinceRepository extends BaseRepository<Province, Long> {
            "WHERE p.province.id = :provinceId AND p.status = 1")
     boolean hasActiveParticipants(@Param("provinceId") Long provinceId);
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Province> findAllByRegionId(Long regionId);
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Province> findAllByRegionIdAndStatus(Long regionId, Integer status);
 
     @Query("SELECT p FROM Province p " +
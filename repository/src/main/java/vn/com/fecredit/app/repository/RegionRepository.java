@@ -1,11 +1,15 @@
 package vn.com.fecredit.app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 import vn.com.fecredit.app.repository.base.BaseRepository;
 
 import java.util.List;
@@ -14,10 +18,18 @@ import java.util.Optional;
 @Repository
 public interface RegionRepository extends BaseRepository<Region, Long> {
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     Optional<Region> findByCode(String code);
     
     boolean existsByCode(String code);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Region> findAllByStatus(Integer status);
     
     Page<Region> findAllByStatus(Integer status, Pageable pageable);
@@ -0,0 +1,37 @@
+package vn.com.fecredit.app.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fecredit.app.entity.RewardLease;
+import vn.com.fecredit.app.repository.base.BaseRepository;
+
+@Repository
+public interface RewardLeaseRepository extends BaseRepository<RewardLease, Long> {
+
+    @Query("SELECT l FROM RewardLease l WHERE l.reward.id = :rewardId AND l.nodeId = :nodeId")
+    Optional<RewardLease> findByRewardIdAndNodeId(
+        @Param("rewardId") Long rewardId,
+        @Param("nodeId") String nodeId
+    );
+
+    @Query("SELECT COALESCE(SUM(l.units), 0) FROM RewardLease l WHERE l.reward.id = :rewardId")
+    long sumUnitsByRewardId(@Param("rewardId") Long rewardId);
+
+    @Query("SELECT l FROM RewardLease l WHERE l.expiresAt < :now")
+    List<RewardLease> findExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RewardLease l SET l.expiresAt = :expiresAt WHERE l.reward.id = :rewardId AND l.nodeId = :nodeId")
+    int renew(
+        @Param("rewardId") Long rewardId,
+        @Param("nodeId") String nodeId,
+        @Param("expiresAt") LocalDateTime expiresAt
+    );
+}
@@ -0,0 +1,57 @@
+package vn.com.fecredit.app.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fecredit.app.entity.RewardPack;
+import vn.com.fecredit.app.projection.RewardPackItemProjection;
+import vn.com.fecredit.app.repository.base.BaseRepository;
+
+@Repository
+public interface RewardPackRepository extends BaseRepository<RewardPack, Long> {
+
+    @Query("SELECT p FROM RewardPack p WHERE p.eventLocation.id = :locationId AND p.status = :status ORDER BY p.packNumber")
+    List<RewardPack> findAllByEventLocationIdAndStatus(
+        @Param("locationId") Long locationId,
+        @Param("status") int status
+    );
+
+    /**
+     * Streams one row per pack and reward left in it, or one row with no reward for a pack
+     * without items, in pack order.
+     */
+    @Query("""
+        SELECT p.id AS packId, p.packNumber AS packNumber, p.emptySlots AS emptySlots, p.status AS status,
+            r.code AS rewardCode, VALUE(q) AS remainingQuantity
+        FROM RewardPack p
+        LEFT JOIN p.rewardQuantities q
+        LEFT JOIN Reward r ON r.id = KEY(q)
+        WHERE p.eventLocation.id = :locationId
+        ORDER BY p.packNumber, r.code
+        """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<RewardPackItemProjection> streamItemsByEventLocationId(@Param("locationId") Long locationId);
+
+    @Query("SELECT COUNT(p) > 0 FROM RewardPack p WHERE p.eventLocation.id = :locationId")
+    boolean existsByEventLocationId(@Param("locationId") Long locationId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE reward_pack_items SET remaining_quantity = remaining_quantity - 1 " +
+                   "WHERE pack_id = :packId AND reward_id = :rewardId AND remaining_quantity > 0",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reward_pack_items"))
+    int decrementRewardQuantity(@Param("packId") Long packId, @Param("rewardId") Long rewardId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RewardPack p SET p.emptySlots = p.emptySlots - 1 WHERE p.id = :packId AND p.emptySlots > 0")
+    int decrementEmptySlots(@Param("packId") Long packId);
+}
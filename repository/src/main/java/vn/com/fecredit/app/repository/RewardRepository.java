@@ -3,12 +3,18 @@ package vn.com.fecredit.app.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import vn.com.fecredit.app.entity.EventLocation;
 import vn.com.fecredit.app.entity.Reward;
 import vn.com.fecredit.app.repository.base.BaseRepository;
@@ -17,6 +23,10 @@ import vn.com.fecredit.app.repository.base.BaseRepository;
 public interface RewardRepository extends BaseRepository<Reward, Long> {
     
     Optional<Reward> findByCode(String code);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reward r WHERE r.id = :id")
+    Optional<Reward> findByIdForUpdate(@Param("id") Long id);
     
     @Query("SELECT r FROM Reward r WHERE r.eventLocation = :location AND r.status = :status")
     List<Reward> findByLocationAndStatus(
@@ -30,11 +40,13 @@ public interface RewardRepository extends BaseRepository<Reward, Long> {
            "AND r.validFrom <= :now " +
            "AND r.validUntil >= :now " +
            "AND r.remainingQuantity > 0 " +
-           "AND (r.dailyLimit IS NULL OR r.dailyCount < r.dailyLimit)")
+           "AND (r.dailyLimit IS NULL OR r.dailyCountDay IS NULL OR r.dailyCountDay <> :today " +
+           "OR r.dailyCount < r.dailyLimit)")
     List<Reward> findAvailable(
         @Param("location") EventLocation location,
         @Param("status") int status,
-        @Param("now") LocalDateTime now
+        @Param("now") LocalDateTime now,
+        @Param("today") long today
     );
 
     @Query("SELECT r FROM Reward r " +
@@ -58,13 +70,26 @@ public interface RewardRepository extends BaseRepository<Reward, Long> {
         Pageable pageable
     );
 
+    /**
+     * Counts the wins of a reward whose unit was taken from the in-memory stock of a node.
+     */
     @Query("SELECT COUNT(sh) FROM SpinHistory sh " +
-           "WHERE sh.reward = :reward " +
-           "AND sh.timestamp >= :since " +
+           "WHERE sh.reward.id = :rewardId " +
+           "AND sh.inventoryNodeId = :nodeId " +
            "AND sh.win = true")
-    long countWinsSince(
-        @Param("reward") Reward reward,
-        @Param("since") LocalDateTime since
+    long countWinsByNode(
+        @Param("rewardId") Long rewardId,
+        @Param("nodeId") String nodeId
+    );
+
+    /**
+     * Returns the units a node has flushed from its in-memory stock of a reward so far.
+     */
+    @Query(value = "SELECT COALESCE(MAX(flushed_units), 0) FROM reward_inventory_nodes " +
+                   "WHERE reward_id = :rewardId AND node_id = :nodeId", nativeQuery = true)
+    long findFlushedUnits(
+        @Param("rewardId") Long rewardId,
+        @Param("nodeId") String nodeId
     );
 
     @Query("SELECT r FROM Reward r " +
@@ -89,7 +114,93 @@ public interface RewardRepository extends BaseRepository<Reward, Long> {
     @Query("UPDATE Reward r SET r.remainingQuantity = :quantity WHERE r.id = :id")
     void updateRemainingQuantity(@Param("id") Long id, @Param("quantity") Integer quantity);
 
+    /**
+     * Moves units out of a reward's stock, into gift packs. Nothing is taken unless the
+     * reward still has all of them.
+     *
+     * @return 1 if the units were taken, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reward r SET r.remainingQuantity = r.remainingQuantity - :quantity " +
+           "WHERE r.id = :id AND r.remainingQuantity >= :quantity")
+    int takeQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reward r SET r.remainingQuantity = r.remainingQuantity - 1, " +
+           "r.dailyCount = CASE WHEN r.dailyCountDay = :today THEN COALESCE(r.dailyCount, 0) + 1 ELSE 1 END, " +
+           "r.dailyCountDay = :today " +
+           "WHERE r.id = :id AND r.remainingQuantity > 0 " +
+           "AND (r.dailyLimit IS NULL OR r.dailyCountDay IS NULL OR r.dailyCountDay <> :today " +
+           "OR COALESCE(r.dailyCount, 0) < r.dailyLimit)")
+    int decrementRemainingQuantityById(@Param("id") Long id, @Param("today") long today);
+
     @Modifying
-    @Query("UPDATE Reward r SET r.remainingQuantity = r.remainingQuantity - 1 WHERE r.id = :id AND r.remainingQuantity > 0")
-    void decrementRemainingQuantityById(@Param("id") Long id);
+    @Transactional
+    @Query("UPDATE Reward r SET r.remainingQuantity = r.remainingQuantity - :consumed, " +
+           "r.dailyCount = CASE WHEN r.dailyCountDay = :today THEN COALESCE(r.dailyCount, 0) + :consumed " +
+           "ELSE GREATEST(:consumed, 0) END, " +
+           "r.dailyCountDay = :today, " +
+           "r.inventorySyncedAt = :syncedAt " +
+           "WHERE r.id = :id")
+    int applyInventoryDelta(
+        @Param("id") Long id,
+        @Param("consumed") int consumed,
+        @Param("syncedAt") LocalDateTime syncedAt,
+        @Param("today") long today
+    );
+
+    /**
+     * Writes units consumed from a node's in-memory stock to the reward, and adds them to
+     * the units that node has flushed, in one statement. A node's wins less its flushed
+     * units are then exactly the units it took but never wrote back.
+     *
+     * @param consumed the units consumed, negative for units handed back after a flush
+     * @return 1 if the reward exists, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        WITH node AS (
+            INSERT INTO reward_inventory_nodes (reward_id, node_id, flushed_units, synced_at)
+            SELECT r.id, :nodeId, :consumed, :syncedAt FROM rewards r WHERE r.id = :id
+            ON CONFLICT (reward_id, node_id) DO UPDATE
+            SET flushed_units = reward_inventory_nodes.flushed_units + EXCLUDED.flushed_units,
+                synced_at = EXCLUDED.synced_at
+        )
+        UPDATE rewards
+        SET remaining_quantity = remaining_quantity - :consumed,
+            daily_count = CASE WHEN daily_count_day = :today THEN COALESCE(daily_count, 0) + :consumed
+                               ELSE GREATEST(:consumed, 0) END,
+            daily_count_day = :today,
+            inventory_synced_at = :syncedAt
+        WHERE id = :id
+        """, nativeQuery = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rewards"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reward_inventory_nodes")
+    })
+    int applyNodeInventoryDelta(
+        @Param("id") Long id,
+        @Param("nodeId") String nodeId,
+        @Param("consumed") int consumed,
+        @Param("syncedAt") LocalDateTime syncedAt,
+        @Param("today") long today
+    );
+
+    /**
+     * Sets the units a node has flushed from its stock of a reward, without touching the
+     * reward, for units it flushed whose spins were never committed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE reward_inventory_nodes SET flushed_units = :units " +
+                   "WHERE reward_id = :rewardId AND node_id = :nodeId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reward_inventory_nodes"))
+    int resetFlushedUnits(
+        @Param("rewardId") Long rewardId,
+        @Param("nodeId") String nodeId,
+        @Param("units") long units
+    );
 }
@@ -4,21 +4,33 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.com.fecredit.app.entity.Role;
+import vn.com.fecredit.app.entity.base.CacheRegions;
 import vn.com.fecredit.app.enums.RoleName;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     Optional<Role> findByName(RoleName name);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Role> findByNameIn(Set<RoleName> names);
     
     boolean existsByName(RoleName name);
@@ -27,6 +39,10 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
 
     Page<Role> findByNameAndStatus(RoleName name, int status, Pageable pageable);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Role> findByStatus(int status);
 
     @Query("SELECT r FROM Role r JOIN r.users u WHERE u.id = :userId")
@@ -35,6 +51,10 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     @Query("SELECT COUNT(u) FROM Role r JOIN r.users u WHERE r.id = :roleId")
     long countUsersByRoleId(@Param("roleId") Long roleId);
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Role> findByNameInAndStatus(Set<RoleName> names, int status);
 
     // Additional useful queries
@@ -59,6 +79,10 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     @Query("SELECT r FROM Role r " +
            "WHERE r.status = :status " +
            "ORDER BY r.priority DESC, r.name ASC")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.QUERIES)
+    })
     List<Role> findByStatusOrderByPriorityDescNameAsc(@Param("status") int status);
 
     @Query("SELECT COUNT(DISTINCT u) FROM Role r JOIN r.users u " +
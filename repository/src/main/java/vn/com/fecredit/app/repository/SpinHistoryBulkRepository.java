@@ -0,0 +1,23 @@
+package vn.com.fecredit.app.repository;
+
+/**
+ * Bulk loading of spin histories with {@code COPY}, mixed into {@link SpinHistoryRepository}.
+ */
+public interface SpinHistoryBulkRepository {
+
+    /**
+     * The columns of a row passed to {@link #copySpins(String)}, in order.
+     */
+    String COPY_COLUMNS = "id, participant_event_id, event_location_id, golden_hour_id, reward_id, win, "
+        + "points_earned, finalized, spin_time, metadata, status, version, created_at, updated_at";
+
+    /**
+     * Inserts spin histories streamed with {@code COPY} in one transaction. The rows are
+     * copied into a temporary table first and rows whose id and spin time already exist
+     * are skipped, so the same rows may be loaded again without creating duplicates.
+     *
+     * @param csv rows in CSV format with the columns of {@link #COPY_COLUMNS}
+     * @return the number of rows inserted
+     */
+    int copySpins(String csv);
+}
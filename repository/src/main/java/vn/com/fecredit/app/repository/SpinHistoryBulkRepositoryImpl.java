@@ -0,0 +1,39 @@
+package vn.com.fecredit.app.repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class SpinHistoryBulkRepositoryImpl implements SpinHistoryBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int copySpins(String csv) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE spin_histories_copy "
+                    + "(LIKE spin_histories INCLUDING DEFAULTS) ON COMMIT DROP");
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY spin_histories_copy (" + COPY_COLUMNS + ") FROM STDIN (FORMAT csv)",
+                    new StringReader(csv));
+                int inserted = statement.executeUpdate("INSERT INTO spin_histories (" + COPY_COLUMNS + ") "
+                    + "SELECT " + COPY_COLUMNS + " FROM spin_histories_copy ON CONFLICT DO NOTHING");
+                statement.execute("DROP TABLE spin_histories_copy");
+                return inserted;
+            } catch (IOException e) {
+                throw new SQLException("Failed to copy spin histories", e);
+            }
+        });
+    }
+}
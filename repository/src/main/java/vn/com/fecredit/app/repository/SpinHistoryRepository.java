@@ -1,43 +1,125 @@
 package vn.com.fecredit.app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fecredit.app.entity.EventLocation;
 import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.projection.SpinBatchCommitProjection;
+import vn.com.fecredit.app.projection.SpinCommitProjection;
+import vn.com.fecredit.app.projection.SpinCountProjection;
+import vn.com.fecredit.app.projection.SpinExportProjection;
+import vn.com.fecredit.app.projection.SpinStatisticsProjection;
+import vn.com.fecredit.app.projection.SpinSummaryProjection;
+import vn.com.fecredit.app.projection.WinningSpinProjection;
+import vn.com.fecredit.app.repository.base.BaseRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
+/**
+ * Spin history data access. Every finder returning spins the service maps to responses
+ * loads them with {@link SpinHistory#DETAILS_GRAPH}, so mapping a page costs one query
+ * instead of one per spin and association.
+ */
 @Repository
-public interface SpinHistoryRepository extends JpaRepository<SpinHistory, Long> {
+public interface SpinHistoryRepository extends BaseRepository<SpinHistory, Long>, SpinHistoryBulkRepository {
+
+    /**
+     * Selects the summary columns of spins joined once with their participant, event and
+     * location, for queries that append their own WHERE clause.
+     */
+    String SUMMARY_SELECT = """
+        SELECT new vn.com.fecredit.app.projection.SpinSummaryProjection(
+            sh.id, e.name, el.name, p.name, sh.win, sh.pointsEarned, sh.spinTime)
+        FROM SpinHistory sh
+        JOIN sh.participantEvent pe
+        JOIN pe.participant p
+        JOIN pe.event e
+        JOIN pe.eventLocation el
+        """;
+
+    /**
+     * Rows fetched per round trip by the streaming summary queries.
+     */
+    String SUMMARY_FETCH_SIZE = "1000";
+
+
+    @Override
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
+    Optional<SpinHistory> findById(Long id);
+
+    @Override
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
+    Page<SpinHistory> findAll(Pageable pageable);
 
     // Basic queries
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
     Page<SpinHistory> findAllByParticipantEventId(Long participantEventId, Pageable pageable);
-    
-    Set<SpinHistory> findAllByParticipantEventIdAndSpinTimeBetween(
-        Long participantEventId, 
-        LocalDateTime startTime, 
-        LocalDateTime endTime
-    );
 
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
+    Window<SpinHistory> findAllByParticipantEventId(Long participantEventId, ScrollPosition position, Sort sort,
+        Limit limit);
+
+    /**
+     * Finds the spins of a participant event from {@code from} inclusive to {@code until}
+     * exclusive. spin_histories is partitioned by month of spin time, so only the months
+     * overlapping the period are read.
+     */
     @Query("""
-        SELECT sh FROM SpinHistory sh 
-        WHERE sh.participantEvent.id = :participantEventId 
-        AND CAST(sh.spinTime AS date) = CURRENT_DATE
+        SELECT sh FROM SpinHistory sh
+        WHERE sh.participantEvent.id = :participantEventId
+        AND sh.spinTime >= :from AND sh.spinTime < :until
         """)
-    Set<SpinHistory> findTodaySpins(@Param("participantEventId") Long participantEventId);
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
+    Set<SpinHistory> findSpinsInPeriod(
+        @Param("participantEventId") Long participantEventId,
+        @Param("from") LocalDateTime from,
+        @Param("until") LocalDateTime until
+    );
 
+    /**
+     * Counts the spins of a participant event from {@code from} inclusive to {@code until}
+     * exclusive, reading only the partitions overlapping the period.
+     */
     @Query("""
-        SELECT COUNT(sh) FROM SpinHistory sh 
-        WHERE sh.participantEvent.id = :participantEventId 
-        AND CAST(sh.spinTime AS date) = CURRENT_DATE
+        SELECT COUNT(sh) FROM SpinHistory sh
+        WHERE sh.participantEvent.id = :participantEventId
+        AND sh.spinTime >= :from AND sh.spinTime < :until
         """)
-    long countTodaySpins(@Param("participantEventId") Long participantEventId);
+    long countSpinsInPeriod(
+        @Param("participantEventId") Long participantEventId,
+        @Param("from") LocalDateTime from,
+        @Param("until") LocalDateTime until
+    );
+
+    default Set<SpinHistory> findTodaySpins(Long participantEventId) {
+        LocalDate today = LocalDate.now();
+        return findSpinsInPeriod(participantEventId, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
+
+    default long countTodaySpins(Long participantEventId) {
+        LocalDate today = LocalDate.now();
+        return countSpinsInPeriod(participantEventId, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
+
+    long countByParticipantEventId(Long participantEventId);
 
     @Query("""
         SELECT COUNT(sh) FROM SpinHistory sh 
@@ -53,32 +135,116 @@ public interface SpinHistoryRepository extends JpaRepository<SpinHistory, Long>
     Integer sumPointsEarned(@Param("participantEventId") Long participantEventId);
 
     // Latest spin query
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
     Optional<SpinHistory> findFirstByParticipantEventIdOrderBySpinTimeDesc(Long participantEventId);
 
     // Recent spins with limit
+    @EntityGraph(SpinHistory.DETAILS_GRAPH)
     List<SpinHistory> findByParticipantEventIdOrderBySpinTimeDesc(Long participantEventId, Pageable pageable);
 
     // State validation queries
     boolean existsByParticipantEventIdAndFinalizedFalse(Long participantEventId);
 
     // Event and location based queries
+    @Query(value = SUMMARY_SELECT + "WHERE pe.event.id = :eventId",
+        countQuery = "SELECT COUNT(sh) FROM SpinHistory sh WHERE sh.participantEvent.event.id = :eventId")
+    Page<SpinSummaryProjection> findSummariesByEventId(@Param("eventId") Long eventId, Pageable pageable);
+
+    /**
+     * Streams the summaries of every spin of an event through a cursor of
+     * {@link #SUMMARY_FETCH_SIZE} rows. The stream must be consumed inside a transaction,
+     * without which the PostgreSQL driver reads the whole result at once, and closed.
+     */
+    @Query(SUMMARY_SELECT + "WHERE pe.event.id = :eventId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = SUMMARY_FETCH_SIZE))
+    Stream<SpinSummaryProjection> streamSummariesByEventId(@Param("eventId") Long eventId);
+
+    @Query(value = SUMMARY_SELECT + "WHERE pe.eventLocation.id = :locationId",
+        countQuery = "SELECT COUNT(sh) FROM SpinHistory sh WHERE sh.participantEvent.eventLocation.id = :locationId")
+    Page<SpinSummaryProjection> findSummariesByEventLocationId(@Param("locationId") Long locationId,
+        Pageable pageable);
+
+    /**
+     * Streams the summaries of every spin at an event location, like
+     * {@link #streamSummariesByEventId(Long)}.
+     */
+    @Query(SUMMARY_SELECT + "WHERE pe.eventLocation.id = :locationId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = SUMMARY_FETCH_SIZE))
+    Stream<SpinSummaryProjection> streamSummariesByEventLocationId(@Param("locationId") Long locationId);
+
+    /**
+     * Streams the export rows of every spin at an event location in spin time order, through
+     * a cursor like {@link #streamSummariesByEventId(Long)}.
+     */
     @Query("""
-        SELECT sh FROM SpinHistory sh 
-        WHERE sh.participantEvent.event.id = :eventId
+        SELECT new vn.com.fecredit.app.projection.SpinExportProjection(
+            sh.id, sh.spinTime, el.code, p.account, p.name, sh.win, r.code, sh.pointsEarned, sh.finalized)
+        FROM SpinHistory sh
+        JOIN sh.eventLocation el
+        JOIN sh.participantEvent pe
+        JOIN pe.participant p
+        LEFT JOIN sh.reward r
+        WHERE el.id = :locationId
+        ORDER BY sh.spinTime, sh.id
         """)
-    Set<SpinHistory> findAllByEventId(@Param("eventId") Long eventId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = SUMMARY_FETCH_SIZE))
+    Stream<SpinExportProjection> streamExportRowsByEventLocationId(@Param("locationId") Long locationId);
 
     @Query("""
-        SELECT sh FROM SpinHistory sh 
-        WHERE sh.participantEvent.eventLocation.id = :locationId
+        SELECT el.code AS code, COUNT(sh) AS spins,
+            SUM(CASE WHEN sh.win = true THEN 1 ELSE 0 END) AS wins
+        FROM SpinHistory sh
+        JOIN sh.participantEvent pe
+        JOIN pe.eventLocation el
+        WHERE pe.event.id = :eventId
+        GROUP BY el.code
         """)
-    Set<SpinHistory> findAllByEventLocationId(@Param("locationId") Long locationId);
+    List<SpinCountProjection> countSpinsByLocation(@Param("eventId") Long eventId);
 
-    // Time-based aggregate queries
     @Query("""
-        SELECT COUNT(sh) FROM SpinHistory sh 
-        WHERE sh.participantEvent.id = :participantEventId 
-        AND sh.spinTime BETWEEN :startTime AND :endTime
+        SELECT el.code AS code, COUNT(sh) AS spins,
+            SUM(CASE WHEN sh.win = true THEN 1 ELSE 0 END) AS wins
+        FROM SpinHistory sh
+        JOIN sh.participantEvent pe
+        JOIN pe.eventLocation el
+        WHERE el.id = :locationId
+        GROUP BY el.code
+        """)
+    Optional<SpinCountProjection> countSpinsAtLocation(@Param("locationId") Long locationId);
+
+    @Query("""
+        SELECT r.code AS code, COUNT(sh) AS spins,
+            SUM(CASE WHEN sh.win = true THEN 1 ELSE 0 END) AS wins
+        FROM SpinHistory sh
+        JOIN sh.participantEvent pe
+        JOIN sh.reward r
+        WHERE pe.event.id = :eventId
+        GROUP BY r.code
+        """)
+    List<SpinCountProjection> countSpinsByReward(@Param("eventId") Long eventId);
+
+    @Query("""
+        SELECT sh.id AS id, pe.participant.id AS participantId, sh.spinTime AS spinTime,
+            r.id AS rewardId, r.name AS rewardName, r.code AS rewardCode, sh.pointsEarned AS pointsEarned
+        FROM SpinHistory sh
+        JOIN sh.participantEvent pe
+        LEFT JOIN sh.reward r
+        WHERE pe.event.id = :eventId
+        AND pe.eventLocation.id = :locationId
+        AND sh.win = true
+        ORDER BY sh.spinTime DESC
+        """)
+    List<WinningSpinProjection> findWinningSpins(@Param("eventId") Long eventId,
+        @Param("locationId") Long locationId);
+
+    /**
+     * Counts the spins of a participant event from {@code startTime} inclusive to
+     * {@code endTime} exclusive.
+     */
+    @Query("""
+        SELECT COUNT(sh) FROM SpinHistory sh
+        WHERE sh.participantEvent.id = :participantEventId
+        AND sh.spinTime >= :startTime AND sh.spinTime < :endTime
         """)
     long countSpinsInTimeRange(
         @Param("participantEventId") Long participantEventId,
@@ -96,4 +262,309 @@ public interface SpinHistoryRepository extends JpaRepository<SpinHistory, Long>
         WHERE sh.participantEvent.id = :participantEventId
         """)
     Optional<Object[]> getSpinStats(@Param("participantEventId") Long participantEventId);
+
+    /**
+     * Aggregates the spins of a participant event in the database, so its statistics are
+     * read without loading the spins themselves.
+     */
+    @Query("""
+        SELECT COUNT(sh) AS totalSpins,
+               COALESCE(SUM(CASE WHEN sh.win = true THEN 1 ELSE 0 END), 0) AS winningSpins,
+               COALESCE(SUM(sh.pointsEarned), 0) AS totalPoints,
+               MIN(sh.spinTime) AS firstSpinTime,
+               MAX(sh.spinTime) AS lastSpinTime
+        FROM SpinHistory sh
+        WHERE sh.participantEvent.id = :participantEventId
+        """)
+    SpinStatisticsProjection summarizeSpins(@Param("participantEventId") Long participantEventId);
+
+    /**
+     * Finds the spins a participant committed in an event under an idempotency key, with
+     * their rewards. Keys are unique per participant event, so more than one spin is only
+     * found when the same key was used at several locations.
+     */
+    @Query("""
+        SELECT sh FROM SpinHistory sh
+        LEFT JOIN FETCH sh.reward
+        WHERE sh.participantEvent.participant.id = :participantId
+        AND sh.participantEvent.event.id = :eventId
+        AND sh.idempotencyKey = :idempotencyKey
+        ORDER BY sh.spinTime
+        """)
+    List<SpinHistory> findByIdempotencyKey(
+        @Param("participantId") Long participantId,
+        @Param("eventId") Long eventId,
+        @Param("idempotencyKey") String idempotencyKey
+    );
+
+    /**
+     * Commits a spin in one statement: locks the participant event, checks its remaining
+     * spins and daily limit, optionally takes one unit of the reward, updates the
+     * participant counters and inserts a finalized spin history. Nothing is written when
+     * a participant guard fails; a spin whose stock guard fails is recorded as a loss.
+     * Daily counters belong to the epoch day they were last written on and restart from
+     * zero on the first spin of a later day. A null daily spin limit, on the location and its
+     * event, means no limit, as in {@link EventLocation#isUnderDailySpinLimit}. The
+     * idempotency key of the spin is recorded in {@code spin_idempotency_keys}; a spin whose
+     * key was already committed for the participant event violates its primary key and
+     * nothing is written.
+     *
+     * @param decrementStock whether the reward stock is taken here rather than by the caller
+     * @param idempotencyKey the key the client submitted the spin with, or null
+     * @param randomSeed the seed the outcome was drawn with, or null
+     * @param randomStream the per-thread stream the seed was taken from, or null
+     * @param inventoryNodeId the node whose in-memory stock the unit was taken from, or null
+     */
+    @Query(value = """
+        WITH state AS (
+            SELECT pe.id,
+                   pe.remaining_spins > 0 AS has_spins,
+                   (COALESCE(el.daily_spin_limit, e.daily_spin_limit) IS NULL
+                       OR pe.daily_spins_day IS DISTINCT FROM CAST(:spinTime AS DATE) - DATE '1970-01-01'
+                       OR pe.daily_spins_used < COALESCE(el.daily_spin_limit, e.daily_spin_limit)) AS under_limit
+            FROM participant_events pe
+            JOIN event_locations el ON el.id = pe.event_location_id
+            JOIN events e ON e.id = pe.event_id
+            WHERE pe.id = :participantEventId AND pe.status = 1
+            FOR UPDATE OF pe
+        ),
+        eligible AS (
+            SELECT id FROM state WHERE has_spins AND under_limit
+        ),
+        stock AS (
+            UPDATE rewards r
+            SET remaining_quantity = r.remaining_quantity - 1,
+                daily_count = CASE WHEN r.daily_count_day = CAST(:spinTime AS DATE) - DATE '1970-01-01'
+                                   THEN COALESCE(r.daily_count, 0) + 1 ELSE 1 END,
+                daily_count_day = CAST(:spinTime AS DATE) - DATE '1970-01-01',
+                version = r.version + 1
+            WHERE r.id = CAST(:rewardId AS BIGINT) AND :decrementStock
+              AND EXISTS (SELECT 1 FROM eligible)
+              AND r.remaining_quantity > 0
+              AND (r.daily_limit IS NULL
+                   OR r.daily_count_day IS DISTINCT FROM CAST(:spinTime AS DATE) - DATE '1970-01-01'
+                   OR COALESCE(r.daily_count, 0) < r.daily_limit)
+            RETURNING r.id
+        ),
+        outcome AS (
+            SELECT CAST(:rewardId AS BIGINT) IS NOT NULL
+                   AND (NOT :decrementStock OR EXISTS (SELECT 1 FROM stock)) AS win
+        ),
+        counters AS (
+            UPDATE participant_events p
+            SET remaining_spins = p.remaining_spins - 1,
+                daily_spins_used = CASE WHEN p.daily_spins_day = CAST(:spinTime AS DATE) - DATE '1970-01-01'
+                                        THEN p.daily_spins_used + 1 ELSE 1 END,
+                daily_spins_day = CAST(:spinTime AS DATE) - DATE '1970-01-01',
+                total_spins = p.total_spins + 1,
+                total_wins = p.total_wins + CASE WHEN o.win THEN 1 ELSE 0 END,
+                total_points = p.total_points + CASE WHEN o.win THEN :points ELSE 0 END,
+                version = p.version + 1,
+                updated_at = :spinTime
+            FROM eligible, outcome o
+            WHERE p.id = eligible.id
+            RETURNING p.id
+        ),
+        spin AS (
+            INSERT INTO spin_histories (participant_event_id, event_location_id, golden_hour_id, reward_id,
+                                        win, points_earned, finalized, spin_time, metadata, idempotency_key,
+                                        inventory_node_id, random_seed, random_stream, status, version,
+                                        created_at, updated_at)
+            SELECT c.id, :locationId, CAST(:goldenHourId AS BIGINT),
+                   CASE WHEN o.win THEN CAST(:rewardId AS BIGINT) END,
+                   o.win, CASE WHEN o.win THEN :points ELSE 0 END, true, :spinTime, :metadata,
+                   CAST(:idempotencyKey AS VARCHAR), CASE WHEN o.win THEN CAST(:inventoryNodeId AS VARCHAR) END,
+                   CAST(:randomSeed AS BIGINT), CAST(:randomStream AS INTEGER), 1, 0, :spinTime, :spinTime
+            FROM counters c, outcome o
+            RETURNING id, participant_event_id, spin_time
+        ),
+        spin_key AS (
+            INSERT INTO spin_idempotency_keys (participant_event_id, idempotency_key, spin_history_id, created_at)
+            SELECT participant_event_id, CAST(:idempotencyKey AS VARCHAR), id, spin_time
+            FROM spin
+            WHERE CAST(:idempotencyKey AS VARCHAR) IS NOT NULL
+        )
+        SELECT (SELECT id FROM spin) AS "spinId",
+               EXISTS (SELECT 1 FROM state) AS "participantFound",
+               COALESCE((SELECT has_spins FROM state), false) AS "hasRemainingSpins",
+               COALESCE((SELECT under_limit FROM state), false) AS "underDailyLimit",
+               EXISTS (SELECT 1 FROM spin) AND (SELECT win FROM outcome) AS "rewardGranted"
+        """, nativeQuery = true)
+    SpinCommitProjection commitSpin(
+        @Param("participantEventId") Long participantEventId,
+        @Param("locationId") Long locationId,
+        @Param("rewardId") Long rewardId,
+        @Param("points") int points,
+        @Param("decrementStock") boolean decrementStock,
+        @Param("goldenHourId") Long goldenHourId,
+        @Param("metadata") String metadata,
+        @Param("idempotencyKey") String idempotencyKey,
+        @Param("randomSeed") Long randomSeed,
+        @Param("randomStream") Integer randomStream,
+        @Param("inventoryNodeId") String inventoryNodeId,
+        @Param("spinTime") LocalDateTime spinTime
+    );
+
+    /**
+     * Commits a batch of spins whose outcomes and reward stock were already decided, in one
+     * statement. Entry {@code i} of every array describes spin {@code i + 1}; a participant
+     * event may appear only once per batch. Participant events are locked in id order and
+     * each spin is applied only when its remaining-spins and daily-limit guards pass. The
+     * idempotency key of a spin that passes them is claimed with {@code ON CONFLICT DO
+     * NOTHING} under an id drawn for the spin up front; a spin whose key was already
+     * committed for its participant event, even by a transaction that committed while this
+     * statement ran, is skipped and reported as a duplicate while the rest of the batch
+     * commits. {@code inventoryNodeIds} names, for each win, the node whose in-memory stock
+     * its unit was taken from. The random seed, stream and golden hour of each spin are
+     * stored as {@link #commitSpin} stores them, so batched spins can be replayed too.
+     *
+     * @return one row per spin, ordered by its 1-based position in the arrays
+     */
+    @Query(value = """
+        WITH input AS (
+            SELECT t.participant_event_id, t.reward_id, t.points, t.metadata, t.idempotency_key,
+                   t.inventory_node_id, t.random_seed, t.random_stream, t.golden_hour_id, t.ord,
+                   nextval('spin_histories_id_seq') AS spin_id
+            FROM unnest(CAST(:participantEventIds AS BIGINT[]), CAST(:rewardIds AS BIGINT[]),
+                        CAST(:points AS INTEGER[]), CAST(:metadata AS TEXT[]),
+                        CAST(:idempotencyKeys AS TEXT[]), CAST(:inventoryNodeIds AS TEXT[]),
+                        CAST(:randomSeeds AS BIGINT[]), CAST(:randomStreams AS INTEGER[]),
+                        CAST(:goldenHourIds AS BIGINT[]))
+                 WITH ORDINALITY AS t(participant_event_id, reward_id, points, metadata, idempotency_key,
+                                      inventory_node_id, random_seed, random_stream, golden_hour_id, ord)
+        ),
+        state AS (
+            SELECT pe.id,
+                   pe.remaining_spins > 0 AS has_spins,
+                   (COALESCE(el.daily_spin_limit, e.daily_spin_limit) IS NULL
+                       OR pe.daily_spins_day IS DISTINCT FROM CAST(:spinTime AS DATE) - DATE '1970-01-01'
+                       OR pe.daily_spins_used < COALESCE(el.daily_spin_limit, e.daily_spin_limit)) AS under_limit
+            FROM participant_events pe
+            JOIN event_locations el ON el.id = pe.event_location_id
+            JOIN events e ON e.id = pe.event_id
+            WHERE pe.id IN (SELECT participant_event_id FROM input) AND pe.status = 1
+            ORDER BY pe.id
+            FOR UPDATE OF pe
+        ),
+        claimed AS (
+            INSERT INTO spin_idempotency_keys (participant_event_id, idempotency_key, spin_history_id, created_at)
+            SELECT i.participant_event_id, i.idempotency_key, i.spin_id, :spinTime
+            FROM input i JOIN state s ON s.id = i.participant_event_id
+            WHERE i.idempotency_key IS NOT NULL AND s.has_spins AND s.under_limit
+            ON CONFLICT (participant_event_id, idempotency_key) DO NOTHING
+            RETURNING participant_event_id
+        ),
+        duplicates AS (
+            SELECT i.ord
+            FROM input i LEFT JOIN state s ON s.id = i.participant_event_id
+            WHERE i.idempotency_key IS NOT NULL
+              AND CASE WHEN s.has_spins AND s.under_limit
+                       THEN NOT EXISTS (SELECT 1 FROM claimed k WHERE k.participant_event_id = i.participant_event_id)
+                       ELSE EXISTS (SELECT 1 FROM spin_idempotency_keys k
+                                    WHERE k.participant_event_id = i.participant_event_id
+                                      AND k.idempotency_key = i.idempotency_key) END
+        ),
+        counters AS (
+            UPDATE participant_events p
+            SET remaining_spins = p.remaining_spins - 1,
+                daily_spins_used = CASE WHEN p.daily_spins_day = CAST(:spinTime AS DATE) - DATE '1970-01-01'
+                                        THEN p.daily_spins_used + 1 ELSE 1 END,
+                daily_spins_day = CAST(:spinTime AS DATE) - DATE '1970-01-01',
+                total_spins = p.total_spins + 1,
+                total_wins = p.total_wins + CASE WHEN i.reward_id IS NOT NULL THEN 1 ELSE 0 END,
+                total_points = p.total_points + CASE WHEN i.reward_id IS NOT NULL THEN i.points ELSE 0 END,
+                version = p.version + 1,
+                updated_at = :spinTime
+            FROM input i JOIN state s ON s.id = i.participant_event_id
+            WHERE p.id = s.id AND s.has_spins AND s.under_limit
+              AND NOT EXISTS (SELECT 1 FROM duplicates d WHERE d.ord = i.ord)
+            RETURNING p.id, p.event_location_id
+        ),
+        spins AS (
+            INSERT INTO spin_histories (id, participant_event_id, event_location_id, golden_hour_id, reward_id,
+                                        win, points_earned, finalized, spin_time, metadata, idempotency_key,
+                                        inventory_node_id, random_seed, random_stream, status, version,
+                                        created_at, updated_at)
+            SELECT i.spin_id, i.participant_event_id, c.event_location_id, i.golden_hour_id, i.reward_id,
+                   i.reward_id IS NOT NULL, CASE WHEN i.reward_id IS NOT NULL THEN i.points ELSE 0 END,
+                   true, :spinTime, i.metadata, i.idempotency_key,
+                   CASE WHEN i.reward_id IS NOT NULL THEN i.inventory_node_id END, i.random_seed, i.random_stream,
+                   1, 0, :spinTime, :spinTime
+            FROM input i JOIN counters c ON c.id = i.participant_event_id
+            RETURNING id, participant_event_id
+        )
+        SELECT i.ord AS "ord",
+               sp.id AS "spinId",
+               s.id IS NOT NULL AS "participantFound",
+               COALESCE(s.has_spins, false) AS "hasRemainingSpins",
+               COALESCE(s.under_limit, false) AS "underDailyLimit",
+               EXISTS (SELECT 1 FROM duplicates d WHERE d.ord = i.ord) AS "duplicate"
+        FROM input i
+        LEFT JOIN state s ON s.id = i.participant_event_id
+        LEFT JOIN spins sp ON sp.participant_event_id = i.participant_event_id
+        ORDER BY i.ord
+        """, nativeQuery = true)
+    List<SpinBatchCommitProjection> commitSpinBatch(
+        @Param("participantEventIds") Long[] participantEventIds,
+        @Param("rewardIds") Long[] rewardIds,
+        @Param("points") Integer[] points,
+        @Param("metadata") String[] metadata,
+        @Param("idempotencyKeys") String[] idempotencyKeys,
+        @Param("inventoryNodeIds") String[] inventoryNodeIds,
+        @Param("randomSeeds") Long[] randomSeeds,
+        @Param("randomStreams") Integer[] randomStreams,
+        @Param("goldenHourIds") Long[] goldenHourIds,
+        @Param("spinTime") LocalDateTime spinTime
+    );
+
+    /**
+     * Creates the monthly spin_histories partitions from the month of {@code fromMonth} on
+     * that do not exist yet.
+     *
+     * @return the number of partitions created
+     */
+    @Transactional
+    @Query(value = "SELECT create_spin_history_partitions(:fromMonth, :months)", nativeQuery = true)
+    int createPartitions(@Param("fromMonth") LocalDate fromMonth, @Param("months") int months);
+
+    /**
+     * Detaches, or drops together with their rows, the monthly spin_histories partitions
+     * ending on or before the month of {@code beforeMonth}.
+     *
+     * @return the number of partitions removed
+     */
+    @Transactional
+    @Query(value = "SELECT remove_spin_history_partitions(:beforeMonth, :dropRows)", nativeQuery = true)
+    int removePartitions(@Param("beforeMonth") LocalDate beforeMonth, @Param("dropRows") boolean dropRows);
+
+    /**
+     * Forgets the idempotency keys committed before the given time.
+     *
+     * @return the number of keys deleted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM spin_idempotency_keys WHERE created_at < :before", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "spin_idempotency_keys"))
+    int deleteIdempotencyKeysBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Reserves a block of spin history ids. The sequence is incremented by the block size,
+     * so the ids from the returned value minus the block size, exclusive, up to the
+     * returned value belong to the caller alone, as they do for Hibernate's pooled
+     * optimizer.
+     */
+    @Query(value = "SELECT nextval('spin_histories_id_seq')", nativeQuery = true)
+    long reserveIdBlock();
+
+    /**
+     * Gets the increment of {@code spin_histories_id_seq}, the size of the blocks
+     * {@link #reserveIdBlock()} reserves.
+     *
+     * @return the increment, or null if the sequence is not in the current schema
+     */
+    @Query(value = "SELECT increment_by FROM pg_sequences " +
+                   "WHERE schemaname = current_schema() AND sequencename = 'spin_histories_id_seq'",
+           nativeQuery = true)
+    Long findIdBlockIncrement();
 }
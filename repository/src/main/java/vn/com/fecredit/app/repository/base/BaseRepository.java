@@ -1,9 +1,20 @@
 package vn.com.fecredit.app.repository.base;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
 @NoRepositoryBean
 public interface BaseRepository<T, ID> extends JpaRepository<T, ID> {
-    // Add custom methods here if needed
+
+    /**
+     * Finds the entities following a scroll position, without counting them. With a keyset
+     * position the next window starts with a range condition on the sort keys instead of
+     * an offset, so deep windows cost as much as the first; the sort must end with a unique
+     * property such as the id.
+     */
+    Window<T> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
@@ -0,0 +1,125 @@
+package vn.com.fecredit.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import vn.com.fecredit.app.BaseRepositoryTest;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventSpinCounter;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+class EventSpinCounterRepositoryTest extends BaseRepositoryTest {
+
+    @Autowired
+    private EventSpinCounterRepository eventSpinCounterRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        event = Event.builder()
+            .name("Test Event")
+            .code("TEST_EVENT")
+            .startTime(LocalDateTime.now().minusDays(1))
+            .endTime(LocalDateTime.now().plusDays(30))
+            .remainingSpins(10L)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(event);
+        clear();
+    }
+
+    @Test
+    void createShards_ShouldSplitRemainingSpinsOnce() {
+        assertThat(eventSpinCounterRepository.createShards(event.getId(), 4)).isEqualTo(1);
+        assertThat(eventSpinCounterRepository.createShards(event.getId(), 4)).isZero();
+
+        assertThat(remainingPerShard()).containsExactly(3L, 3L, 2L, 2L);
+        assertThat(eventSpinCounterRepository.countShardsByEventId(event.getId())).isEqualTo(4);
+        assertThat(eventSpinCounterRepository.sumRemainingByEventId(event.getId())).isEqualTo(10);
+        assertThat(eventSpinCounterRepository.findShardedEventIds()).containsExactly(event.getId());
+    }
+
+    @Test
+    void decrement_ShouldSkipDrainedShards() {
+        eventSpinCounterRepository.createShards(event.getId(), 4);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(eventSpinCounterRepository.decrement(event.getId(), 1, 4)).isEqualTo(1);
+        }
+        assertThat(eventSpinCounterRepository.decrement(event.getId(), 1, 4)).isEqualTo(1);
+        clear();
+
+        assertThat(remainingPerShard()).containsExactly(3L, 0L, 1L, 2L);
+        assertThat(eventSpinCounterRepository.sumRemainingByEventId(event.getId())).isEqualTo(6);
+    }
+
+    @Test
+    void compact_ShouldEvenOutShardsAndWriteBackTotal() {
+        eventSpinCounterRepository.createShards(event.getId(), 4);
+        for (int i = 0; i < 3; i++) {
+            eventSpinCounterRepository.decrement(event.getId(), 0, 4);
+        }
+        eventSpinCounterRepository.increment(event.getId(), 3);
+
+        assertThat(eventSpinCounterRepository.compact(event.getId())).isEqualTo(1);
+        clear();
+
+        assertThat(remainingPerShard()).containsExactly(2L, 2L, 2L, 2L);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getRemainingSpins()).isEqualTo(8L);
+    }
+
+    @Test
+    void compact_ShouldApplyEditMadeSinceSharding() {
+        eventSpinCounterRepository.createShards(event.getId(), 4);
+        for (int i = 0; i < 3; i++) {
+            eventSpinCounterRepository.decrement(event.getId(), 0, 4);
+        }
+        // An admin grants 5 more spins on the stale snapshot of 10
+        Event edited = eventRepository.findById(event.getId()).orElseThrow();
+        edited.setRemainingSpins(15L);
+        eventRepository.saveAndFlush(edited);
+        clear();
+
+        assertThat(eventSpinCounterRepository.compact(event.getId())).isEqualTo(1);
+        clear();
+
+        assertThat(remainingPerShard()).containsExactly(3L, 3L, 3L, 3L);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getRemainingSpins()).isEqualTo(12L);
+
+        // Applied once: the next compaction only evens out
+        assertThat(eventSpinCounterRepository.compact(event.getId())).isEqualTo(1);
+        clear();
+        assertThat(eventSpinCounterRepository.sumRemainingByEventId(event.getId())).isEqualTo(12);
+    }
+
+    @Test
+    void findActiveEventsWithRemainingSpins_ShouldUseShardsOnceSharded() {
+        assertThat(eventRepository.findActiveEventsWithRemainingSpins()).extracting(Event::getId)
+            .contains(event.getId());
+
+        eventSpinCounterRepository.createShards(event.getId(), 2);
+        for (int i = 0; i < 10; i++) {
+            eventSpinCounterRepository.decrement(event.getId(), 0, 2);
+        }
+        clear();
+
+        // events.remaining_spins still says 10 until the next compaction
+        assertThat(eventRepository.findActiveEventsWithRemainingSpins()).extracting(Event::getId)
+            .doesNotContain(event.getId());
+    }
+
+    private List<Long> remainingPerShard() {
+        return eventSpinCounterRepository.findAllByEventId(event.getId()).stream()
+            .map(EventSpinCounter::getRemaining)
+            .toList();
+    }
+}
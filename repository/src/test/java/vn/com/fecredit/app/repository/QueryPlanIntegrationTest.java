@@ -0,0 +1,357 @@
+package vn.com.fecredit.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Participant;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+/**
+ * Checks that the spin history queries are answered from indexes, against the local test
+ * database.
+ * <p>
+ * Each test runs in a schema of its own, dropped afterwards, so the shared test schema is
+ * never touched; tables the entities pin to {@code public} are created there as well. The
+ * migrations before {@link #FIRST_MIGRATION} predate the entities and cannot build their
+ * tables, so Hibernate creates them and every migration from {@link #FIRST_MIGRATION} on,
+ * written against those tables, is applied as is: spin_histories is partitioned by month
+ * and given its indexes. Columns the entities already map are only added if missing, and
+ * any other statement that fails fails the test. The schema is then filled with enough
+ * participant events and spins for the planner to prefer an index wherever one applies. Each repository method is called once while the SQL Hibernate
+ * prepares is captured, and every statement is explained as a generic plan, which needs
+ * PostgreSQL 16 or later. A sequential scan of spin_histories, any of its partitions, or
+ * participant_events fails the test; small lookup tables such as events may be scanned.
+ */
+class QueryPlanIntegrationTest {
+
+    private static final String DATABASE_URL = "jdbc:postgresql://localhost:5432/test_lucky_draw";
+    private static final String USERNAME = "postgres";
+    private static final String PASSWORD = "postgres";
+    private static final Path MIGRATIONS = Path.of("..", "src", "main", "resources", "db", "migration");
+    private static final long FIRST_MIGRATION = 202502221707L;
+    private static final Pattern MIGRATION_VERSION = Pattern.compile("V(\\d+)__.*\\.sql");
+    private static final Pattern ADD_COLUMN = Pattern.compile("ADD COLUMN (?!IF NOT EXISTS)");
+    private static final List<String> LARGE_TABLES = List.of("spin_histories", "participant_events");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final int PARTICIPANTS = 1_000;
+    private static final int SPINS_PER_PARTICIPANT = 40;
+    private static final int BATCH_SIZE = 100;
+
+    private String schema;
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private SpinHistoryRepository spinHistoryRepository;
+    private RewardRepository rewardRepository;
+
+    private Event event;
+    private Reward reward;
+    private Participant participant;
+    private ParticipantEvent participantEvent;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        schema = "query_plan_test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        execute(DATABASE_URL, "CREATE SCHEMA " + schema);
+        IsolatedSchemaNamingStrategy.schema = schema;
+        context = new SpringApplicationBuilder(QueryPlanConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + DATABASE_URL + "?currentSchema=" + schema,
+                "spring.datasource.username=" + USERNAME,
+                "spring.datasource.password=" + PASSWORD,
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.jpa.hibernate.naming.physical-strategy=" + IsolatedSchemaNamingStrategy.class.getName(),
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + BATCH_SIZE,
+                "spring.jpa.properties.hibernate.order_inserts=true",
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + CapturingStatementInspector.class.getName(),
+                "spring.flyway.enabled=false",
+                "spring.sql.init.mode=never")
+            .run();
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        spinHistoryRepository = context.getBean(SpinHistoryRepository.class);
+        rewardRepository = context.getBean(RewardRepository.class);
+        applyMigrations();
+        createFixture();
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        try {
+            if (context != null) {
+                context.close();
+            }
+        } finally {
+            execute(DATABASE_URL, "DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    @Test
+    void participantEventQueries_ShouldNotScanSpinHistories() {
+        Long id = participantEvent.getId();
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+
+        assertIndexed("findAllByParticipantEventId",
+            () -> spinHistoryRepository.findAllByParticipantEventId(id, PageRequest.of(0, 20)));
+        assertIndexed("findSpinsInPeriod",
+            () -> spinHistoryRepository.findSpinsInPeriod(id, startOfDay, startOfDay.plusDays(1)));
+        assertIndexed("countSpinsInPeriod",
+            () -> spinHistoryRepository.countSpinsInPeriod(id, startOfDay, startOfDay.plusDays(1)));
+        assertIndexed("countSpinsInTimeRange",
+            () -> spinHistoryRepository.countSpinsInTimeRange(id, startOfDay, startOfDay.plusDays(1)));
+        assertIndexed("countByParticipantEventId",
+            () -> spinHistoryRepository.countByParticipantEventId(id));
+        assertIndexed("countWinningSpins",
+            () -> spinHistoryRepository.countWinningSpins(id));
+        assertIndexed("sumPointsEarned",
+            () -> spinHistoryRepository.sumPointsEarned(id));
+        assertIndexed("getSpinStats",
+            () -> spinHistoryRepository.getSpinStats(id));
+        assertIndexed("findFirstByParticipantEventIdOrderBySpinTimeDesc",
+            () -> spinHistoryRepository.findFirstByParticipantEventIdOrderBySpinTimeDesc(id));
+        assertIndexed("findByParticipantEventIdOrderBySpinTimeDesc",
+            () -> spinHistoryRepository.findByParticipantEventIdOrderBySpinTimeDesc(id, PageRequest.of(0, 10)));
+        assertIndexed("existsByParticipantEventIdAndFinalizedFalse",
+            () -> spinHistoryRepository.existsByParticipantEventIdAndFinalizedFalse(id));
+    }
+
+    @Test
+    void idempotencyAndRewardQueries_ShouldNotScanSpinHistories() {
+        assertIndexed("findByIdempotencyKey",
+            () -> spinHistoryRepository.findByIdempotencyKey(participant.getId(), event.getId(), "key-0-0"));
+        assertIndexed("countWinsByNode",
+            () -> rewardRepository.countWinsByNode(reward.getId(), "node-a"));
+    }
+
+    private void assertIndexed(String query, Runnable call) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> call.run());
+        List<String> statements = new ArrayList<>(CapturingStatementInspector.STATEMENTS);
+        assertThat(statements).as("SQL of %s", query).isNotEmpty();
+
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN (GENERIC_PLAN) " + numberParameters(sql), String.class));
+            Matcher matcher = SEQ_SCAN.matcher(plan);
+            while (matcher.find()) {
+                String table = matcher.group(1);
+                assertThat(LARGE_TABLES)
+                    .as("%s scans %s:%n%s%n%s", query, table, sql, plan)
+                    .noneMatch(large -> table.equals(large) || table.startsWith(large + "_"));
+            }
+        }
+    }
+
+    /**
+     * Replaces the JDBC placeholders with the numbered parameters EXPLAIN accepts.
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    /**
+     * Applies the migrations from {@link #FIRST_MIGRATION} on, in version order, each in one
+     * round trip so functions and DO blocks reach the server whole.
+     */
+    private void applyMigrations() throws IOException {
+        List<Path> scripts;
+        try (Stream<Path> files = Files.list(MIGRATIONS)) {
+            scripts = files.filter(file -> version(file) >= FIRST_MIGRATION)
+                .sorted(Comparator.comparingLong(QueryPlanIntegrationTest::version))
+                .toList();
+        }
+        assertThat(scripts).as("migrations from V%d", FIRST_MIGRATION).isNotEmpty();
+        for (Path script : scripts) {
+            execute(DATABASE_URL + "?currentSchema=" + schema,
+                ADD_COLUMN.matcher(Files.readString(script)).replaceAll("ADD COLUMN IF NOT EXISTS "));
+        }
+    }
+
+    private static long version(Path script) {
+        Matcher matcher = MIGRATION_VERSION.matcher(script.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static void execute(String url, String sql) {
+        try (Connection connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to run " + sql, e);
+        }
+    }
+
+    private void createFixture() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Region region = Region.builder()
+                .name("Plan Region")
+                .code("PLAN_REGION")
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(region);
+            event = Event.builder()
+                .name("Plan Event")
+                .code("PLAN_EVENT")
+                .startTime(LocalDateTime.now().minusDays(30))
+                .endTime(LocalDateTime.now().plusDays(30))
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(event);
+            EventLocation location = EventLocation.builder()
+                .event(event)
+                .region(region)
+                .name("Plan Location")
+                .code("PLAN_LOC")
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(location);
+            reward = Reward.builder()
+                .eventLocation(location)
+                .name("Plan Reward")
+                .code("PLAN_REWARD")
+                .totalQuantity(PARTICIPANTS)
+                .remainingQuantity(PARTICIPANTS)
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(reward);
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int p = 0; p < PARTICIPANTS; p++) {
+            int index = p;
+            transactionTemplate.executeWithoutResult(status -> {
+                Participant current = Participant.builder()
+                    .account("plan" + index)
+                    .name("Plan Participant " + index)
+                    .phone(String.format("09%08d", index))
+                    .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                    .build();
+                entityManager.persist(current);
+                ParticipantEvent currentEvent = ParticipantEvent.builder()
+                    .participant(current)
+                    .event(entityManager.getReference(Event.class, event.getId()))
+                    .eventLocation(entityManager.getReference(EventLocation.class,
+                        reward.getEventLocation().getId()))
+                    .remainingSpins(SPINS_PER_PARTICIPANT)
+                    .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                    .build();
+                entityManager.persist(currentEvent);
+                for (int s = 0; s < SPINS_PER_PARTICIPANT; s++) {
+                    boolean win = s % 20 == 0;
+                    entityManager.persist(SpinHistory.builder()
+                        .participantEvent(currentEvent)
+                        .eventLocation(currentEvent.getEventLocation())
+                        .reward(win ? entityManager.getReference(Reward.class, reward.getId()) : null)
+                        .spinTime(now.minusHours(s * 12L))
+                        .win(win)
+                        .pointsEarned(win ? 10 : 0)
+                        .finalized(true)
+                        .idempotencyKey("key-" + index + "-" + s)
+                        .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                        .build());
+                }
+                if (index == 0) {
+                    participant = current;
+                    participantEvent = currentEvent;
+                }
+            });
+        }
+    }
+
+    /**
+     * Collects the SQL Hibernate prepares, unchanged.
+     */
+    public static final class CapturingStatementInspector implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    /**
+     * Places the tables the entities pin to {@code public} in the schema of the test.
+     */
+    public static final class IsolatedSchemaNamingStrategy extends CamelCaseToUnderscoresNamingStrategy {
+
+        static volatile String schema;
+
+        @Override
+        public Identifier toPhysicalSchemaName(Identifier logicalName, JdbcEnvironment jdbcEnvironment) {
+            if (logicalName != null && "public".equalsIgnoreCase(logicalName.getText())) {
+                return Identifier.toIdentifier(schema);
+            }
+            return super.toPhysicalSchemaName(logicalName, jdbcEnvironment);
+        }
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = SpinHistory.class)
+    static class QueryPlanConfiguration {
+    }
+}
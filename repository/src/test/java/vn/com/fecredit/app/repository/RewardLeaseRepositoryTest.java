@@ -0,0 +1,105 @@
+package vn.com.fecredit.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import vn.com.fecredit.app.BaseRepositoryTest;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.RewardLease;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+class RewardLeaseRepositoryTest extends BaseRepositoryTest {
+
+    @Autowired
+    private RewardLeaseRepository rewardLeaseRepository;
+
+    private Reward reward;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        Region region = Region.builder()
+            .name("Test Region")
+            .code("TEST_REGION")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(region);
+
+        Event event = Event.builder()
+            .name("Test Event")
+            .code("TEST_EVENT")
+            .startTime(LocalDateTime.now().minusDays(1))
+            .endTime(LocalDateTime.now().plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(event);
+
+        EventLocation location = EventLocation.builder()
+            .event(event)
+            .region(region)
+            .name("Test Location")
+            .code("TEST_LOC")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(location);
+
+        reward = Reward.builder()
+            .eventLocation(location)
+            .name("Test Reward")
+            .code("TEST_REWARD")
+            .totalQuantity(200)
+            .remainingQuantity(200)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(reward);
+
+        persistAndFlush(lease("node-1", 50, now.plusSeconds(30)));
+        persistAndFlush(lease("node-2", 20, now.minusSeconds(1)));
+        clear();
+    }
+
+    @Test
+    void sumUnitsByRewardId_ShouldAddUpLeasesOfAllNodes() {
+        assertThat(rewardLeaseRepository.sumUnitsByRewardId(reward.getId())).isEqualTo(70);
+        assertThat(rewardLeaseRepository.sumUnitsByRewardId(-1L)).isZero();
+    }
+
+    @Test
+    void findExpired_ShouldOnlyReturnLapsedLeases() {
+        List<RewardLease> expired = rewardLeaseRepository.findExpired(now);
+
+        assertThat(expired).extracting(RewardLease::getNodeId).containsExactly("node-2");
+    }
+
+    @Test
+    void renew_ShouldOnlyExtendLeaseOfGivenNode() {
+        assertThat(rewardLeaseRepository.renew(reward.getId(), "node-2", now.plusSeconds(30))).isEqualTo(1);
+        assertThat(rewardLeaseRepository.renew(reward.getId(), "node-3", now.plusSeconds(30))).isZero();
+        clear();
+
+        assertThat(rewardLeaseRepository.findExpired(now)).isEmpty();
+        assertThat(rewardLeaseRepository.findByRewardIdAndNodeId(reward.getId(), "node-3")).isEmpty();
+    }
+
+    private RewardLease lease(String nodeId, int units, LocalDateTime expiresAt) {
+        return RewardLease.builder()
+            .reward(reward)
+            .nodeId(nodeId)
+            .units(units)
+            .syncedAt(now)
+            .expiresAt(expiresAt)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+    }
+}
@@ -0,0 +1,111 @@
+package vn.com.fecredit.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import vn.com.fecredit.app.BaseRepositoryTest;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.RewardPack;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+class RewardPackRepositoryTest extends BaseRepositoryTest {
+
+    @Autowired
+    private RewardPackRepository rewardPackRepository;
+
+    private EventLocation location;
+    private Reward reward;
+    private RewardPack pack;
+
+    @BeforeEach
+    void setUp() {
+        Region region = Region.builder()
+            .name("Test Region")
+            .code("TEST_REGION")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(region);
+
+        Event event = Event.builder()
+            .name("Test Event")
+            .code("TEST_EVENT")
+            .startTime(LocalDateTime.now().minusDays(1))
+            .endTime(LocalDateTime.now().plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(event);
+
+        location = EventLocation.builder()
+            .event(event)
+            .region(region)
+            .name("Test Location")
+            .code("TEST_LOC")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(location);
+
+        reward = Reward.builder()
+            .eventLocation(location)
+            .name("Test Reward")
+            .code("TEST_REWARD")
+            .totalQuantity(2)
+            .remainingQuantity(2)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(reward);
+
+        pack = RewardPack.builder()
+            .eventLocation(location)
+            .packNumber(1)
+            .emptySlots(1)
+            .rewardQuantities(new LinkedHashMap<>(Map.of(reward.getId(), 1)))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        persistAndFlush(pack);
+        clear();
+    }
+
+    @Test
+    void findAllByEventLocationIdAndStatus_ShouldReturnPacksWithContents() {
+        List<RewardPack> packs = rewardPackRepository.findAllByEventLocationIdAndStatus(
+            location.getId(), AbstractStatusAwareEntity.STATUS_ACTIVE);
+
+        assertThat(packs).hasSize(1);
+        assertThat(packs.get(0).getRewardQuantity(reward.getId())).isEqualTo(1);
+        assertThat(packs.get(0).getEmptySlots()).isEqualTo(1);
+        assertThat(rewardPackRepository.existsByEventLocationId(location.getId())).isTrue();
+    }
+
+    @Test
+    void decrementRewardQuantity_ShouldNotGoBelowZero() {
+        assertThat(rewardPackRepository.decrementRewardQuantity(pack.getId(), reward.getId())).isEqualTo(1);
+        assertThat(rewardPackRepository.decrementRewardQuantity(pack.getId(), reward.getId())).isZero();
+        clear();
+
+        RewardPack reloaded = rewardPackRepository.findById(pack.getId()).orElseThrow();
+        assertThat(reloaded.getRewardQuantity(reward.getId())).isZero();
+    }
+
+    @Test
+    void decrementEmptySlots_ShouldNotGoBelowZero() {
+        assertThat(rewardPackRepository.decrementEmptySlots(pack.getId())).isEqualTo(1);
+        assertThat(rewardPackRepository.decrementEmptySlots(pack.getId())).isZero();
+        clear();
+
+        RewardPack reloaded = rewardPackRepository.findById(pack.getId()).orElseThrow();
+        assertThat(reloaded.getEmptySlots()).isZero();
+        assertThat(reloaded.isExhausted()).isFalse();
+    }
+}
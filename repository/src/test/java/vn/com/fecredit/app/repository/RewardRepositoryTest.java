@@ -91,6 +91,7 @@ class RewardRepositoryTest extends BaseRepositoryTest {
     void findAvailable_ShouldReturnOnlyAvailableRewards() {
         // Given
         LocalDateTime now = LocalDateTime.now();
+        long today = now.toLocalDate().toEpochDay();
         
         Reward available = Reward.builder()
             .eventLocation(location)
@@ -102,6 +103,7 @@ class RewardRepositoryTest extends BaseRepositoryTest {
             .remainingQuantity(100)
             .dailyLimit(10)
             .dailyCount(5)
+            .dailyCountDay(today)
             .winProbability(0.1)
             .validFrom(now.minusDays(1))
             .validUntil(now.plusDays(30))
@@ -134,20 +136,56 @@ class RewardRepositoryTest extends BaseRepositoryTest {
             .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
             .build();
 
+        Reward limitReached = Reward.builder()
+            .eventLocation(location)
+            .name("Limit Reached")
+            .code("LIMIT_REACHED")
+            .points(100)
+            .pointsRequired(50)
+            .totalQuantity(100)
+            .remainingQuantity(100)
+            .dailyLimit(10)
+            .dailyCount(10)
+            .dailyCountDay(today)
+            .validFrom(now.minusDays(1))
+            .validUntil(now.plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+
+        Reward limitReachedYesterday = Reward.builder()
+            .eventLocation(location)
+            .name("Limit Reached Yesterday")
+            .code("LIMIT_REACHED_YESTERDAY")
+            .points(100)
+            .pointsRequired(50)
+            .totalQuantity(100)
+            .remainingQuantity(100)
+            .dailyLimit(10)
+            .dailyCount(10)
+            .dailyCountDay(today - 1)
+            .validFrom(now.minusDays(1))
+            .validUntil(now.plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+
         persistAndFlush(available);
         persistAndFlush(expired);
         persistAndFlush(outOfStock);
+        persistAndFlush(limitReached);
+        persistAndFlush(limitReachedYesterday);
 
         // When
         List<Reward> availableRewards = rewardRepository.findAvailable(
             location, 
             AbstractStatusAwareEntity.STATUS_ACTIVE,
-            now
+            now,
+            today
         );
 
         // Then
-        assertThat(availableRewards).hasSize(1);
-        assertEquals("Available Reward", availableRewards.get(0).getName());
+        assertThat(availableRewards)
+            .extracting(Reward::getName)
+            .containsExactlyInAnyOrder("Available Reward", "Limit Reached Yesterday");
     }
 
     @Test
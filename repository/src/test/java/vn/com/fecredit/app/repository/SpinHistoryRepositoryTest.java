@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +20,7 @@ import vn.com.fecredit.app.entity.EventLocation;
 import vn.com.fecredit.app.entity.ParticipantEvent;
 import vn.com.fecredit.app.entity.Reward;
 import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.projection.SpinSummaryProjection;
 
 /**
  * Repository test class for SpinHistory entity.
@@ -102,6 +104,7 @@ class SpinHistoryRepositoryTest {
      * Verifies that:
      * - The result is not empty
      * - The spin times of returned records are within the specified range
+     * - A spin at the end of the range is left to the next one
      */
     @Test
     void whenFindByTimeRange_thenReturnSet() {
@@ -112,15 +115,22 @@ class SpinHistoryRepositoryTest {
 
         // When
         Set<SpinHistory> result = spinHistoryRepository
-            .findAllByParticipantEventIdAndSpinTimeBetween(
+            .findSpinsInPeriod(
                 participantEvent.getId(), 
                 start, 
                 end
             );
+        Set<SpinHistory> endingAtSpin = spinHistoryRepository
+            .findSpinsInPeriod(
+                participantEvent.getId(),
+                spinHistory.getSpinTime().minusDays(1),
+                spinHistory.getSpinTime()
+            );
 
         // Then
         assertThat(result).isNotEmpty();
         assertThat(result.iterator().next().getSpinTime()).isBetween(start, end);
+        assertThat(endingAtSpin).extracting(SpinHistory::getId).doesNotContain(spinHistory.getId());
     }
 
     /**
@@ -198,4 +208,47 @@ class SpinHistoryRepositoryTest {
         // Then
         assertThat(hasUnfinalized).isTrue();
     }
+
+    /**
+     * Tests paging the spin summaries of an event.
+     * Verifies that the summary carries the participant, event and location names.
+     */
+    @Test
+    void whenFindSummariesByEvent_thenReturnNames() {
+        // Given
+        spinHistory = spinHistoryRepository.save(spinHistory);
+
+        // When
+        Page<SpinSummaryProjection> result = spinHistoryRepository
+            .findSummariesByEventId(participantEvent.getEvent().getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getContent()).extracting(SpinSummaryProjection::getId).contains(spinHistory.getId());
+        SpinSummaryProjection summary = result.getContent().stream()
+            .filter(s -> s.getId().equals(spinHistory.getId()))
+            .findFirst().orElseThrow();
+        assertThat(summary.getEventName()).isEqualTo(participantEvent.getEvent().getName());
+        assertThat(summary.getLocationName()).isEqualTo(participantEvent.getEventLocation().getName());
+        assertThat(summary.getParticipantName()).isEqualTo(participantEvent.getParticipant().getName());
+    }
+
+    /**
+     * Tests streaming the spin summaries of an event location.
+     * Verifies that the stream contains the saved spin.
+     */
+    @Test
+    void whenStreamSummariesByLocation_thenReturnSpins() {
+        // Given
+        spinHistory = spinHistoryRepository.save(spinHistory);
+
+        // When
+        List<Long> ids;
+        try (Stream<SpinSummaryProjection> result = spinHistoryRepository
+                .streamSummariesByEventLocationId(participantEvent.getEventLocation().getId())) {
+            ids = result.map(SpinSummaryProjection::getId).toList();
+        }
+
+        // Then
+        assertThat(ids).contains(spinHistory.getId());
+    }
 }
@@ -1,4 +1,9 @@
 -- Clean all tables in reverse order of dependencies
+TRUNCATE TABLE event_spin_counters CASCADE;
+TRUNCATE TABLE reward_leases CASCADE;
+TRUNCATE TABLE reward_inventory_nodes CASCADE;
+TRUNCATE TABLE reward_pack_items CASCADE;
+TRUNCATE TABLE reward_packs CASCADE;
 TRUNCATE TABLE spin_histories CASCADE;
 TRUNCATE TABLE golden_hours CASCADE;
 TRUNCATE TABLE rewards CASCADE;
@@ -13,6 +18,7 @@ TRUNCATE TABLE roles CASCADE;
 TRUNCATE TABLE users CASCADE;
 
 -- Reset sequences
+ALTER SEQUENCE reward_packs_id_seq RESTART WITH 1;
 ALTER SEQUENCE spin_histories_id_seq RESTART WITH 1;
 ALTER SEQUENCE golden_hours_id_seq RESTART WITH 1;
 ALTER SEQUENCE rewards_id_seq RESTART WITH 1;
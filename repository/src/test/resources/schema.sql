@@ -1,4 +1,10 @@
 -- Drop tables in correct order
+DROP TABLE IF EXISTS event_spin_counters;
+DROP TABLE IF EXISTS reward_leases;
+DROP TABLE IF EXISTS reward_inventory_nodes;
+DROP TABLE IF EXISTS reward_pack_items;
+DROP TABLE IF EXISTS reward_packs;
+DROP TABLE IF EXISTS spin_idempotency_keys;
 DROP TABLE IF EXISTS spin_histories;
 DROP TABLE IF EXISTS golden_hours;
 DROP TABLE IF EXISTS rewards;
@@ -44,7 +50,8 @@ CREATE TABLE events (
     daily_spin_limit INTEGER DEFAULT 5,
     default_win_probability DOUBLE PRECISION DEFAULT 0.1,
     metadata TEXT,
-    remaining_spins BIGINT
+    remaining_spins BIGINT,
+    sharded_spins BIGINT
 );
 
 -- Create provinces table
@@ -150,6 +157,8 @@ CREATE TABLE rewards (
     total_quantity INTEGER NOT NULL,
     available_quantity INTEGER NOT NULL,
     win_probability DOUBLE PRECISION NOT NULL,
+    strict_inventory BOOLEAN NOT NULL DEFAULT false,
+    inventory_synced_at TIMESTAMP,
     event_id BIGINT REFERENCES events(id)
 );
 
@@ -172,9 +181,9 @@ CREATE TABLE participant_events (
     UNIQUE(participant_id, event_id)
 );
 
--- Create spin_histories table
+-- Create spin_histories table, partitioned by month of spin_time
 CREATE TABLE spin_histories (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP,
     updated_at TIMESTAMP,
@@ -185,7 +194,23 @@ CREATE TABLE spin_histories (
     reward_id BIGINT REFERENCES rewards(id),
     spin_time TIMESTAMP NOT NULL,
     is_win BOOLEAN NOT NULL DEFAULT false,
-    is_finalized BOOLEAN NOT NULL DEFAULT false
+    is_finalized BOOLEAN NOT NULL DEFAULT false,
+    idempotency_key VARCHAR(64),
+    inventory_node_id VARCHAR(100),
+    random_seed BIGINT,
+    random_stream INTEGER,
+    PRIMARY KEY (id, spin_time)
+) PARTITION BY RANGE (spin_time);
+
+CREATE TABLE spin_histories_default PARTITION OF spin_histories DEFAULT;
+
+-- Create spin_idempotency_keys table
+CREATE TABLE spin_idempotency_keys (
+    participant_event_id BIGINT NOT NULL REFERENCES participant_events(id),
+    idempotency_key VARCHAR(64) NOT NULL,
+    spin_history_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (participant_event_id, idempotency_key)
 );
 
 -- Create event_provinces junction table
@@ -194,3 +219,67 @@ CREATE TABLE event_provinces (
     province_id BIGINT REFERENCES provinces(id),
     PRIMARY KEY (event_id, province_id)
 );
+
+-- Create reward_packs table
+CREATE TABLE reward_packs (
+    id BIGSERIAL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    status INTEGER NOT NULL DEFAULT 1,
+    event_location_id BIGINT NOT NULL REFERENCES event_locations(id),
+    pack_number INTEGER NOT NULL,
+    empty_slots INTEGER NOT NULL DEFAULT 0,
+    UNIQUE(event_location_id, pack_number)
+);
+
+-- Create reward_pack_items table
+CREATE TABLE reward_pack_items (
+    pack_id BIGINT NOT NULL REFERENCES reward_packs(id),
+    reward_id BIGINT NOT NULL REFERENCES rewards(id),
+    remaining_quantity INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (pack_id, reward_id)
+);
+
+-- Create reward_leases table
+CREATE TABLE reward_leases (
+    id BIGSERIAL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    status INTEGER NOT NULL DEFAULT 1,
+    reward_id BIGINT NOT NULL REFERENCES rewards(id),
+    node_id VARCHAR(100) NOT NULL,
+    units INTEGER NOT NULL DEFAULT 0,
+    synced_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    UNIQUE(reward_id, node_id)
+);
+
+-- Create reward_inventory_nodes table
+CREATE TABLE reward_inventory_nodes (
+    reward_id BIGINT NOT NULL REFERENCES rewards(id),
+    node_id VARCHAR(100) NOT NULL,
+    flushed_units BIGINT NOT NULL DEFAULT 0,
+    synced_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (reward_id, node_id)
+);
+
+-- Create event_spin_counters table
+CREATE TABLE event_spin_counters (
+    id BIGSERIAL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    status INTEGER NOT NULL DEFAULT 1,
+    event_id BIGINT NOT NULL REFERENCES events(id),
+    shard INTEGER NOT NULL,
+    remaining BIGINT NOT NULL DEFAULT 0,
+    UNIQUE(event_id, shard)
+);
@@ -0,0 +1,183 @@
+package vn.com.fecredit.app.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Participant;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+
+/**
+ * Compares bulk inserts of participant events and spin histories with identity ids and
+ * with the pooled sequence ids the entities use, against the local test database.
+ * <p>
+ * The identity baseline maps the same entities through {@code identity-ids.orm.xml}, so
+ * every insert reads its generated id back and Hibernate sends it on its own. With
+ * sequence ids the same inserts go out in JDBC batches of {@link #BATCH_SIZE}. Each trial
+ * runs in a schema of its own, created by Hibernate and dropped afterwards, so the
+ * benchmark never touches the tables of the shared test schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final String DATABASE_URL = "jdbc:postgresql://localhost:5432/test_lucky_draw";
+    private static final String USERNAME = "postgres";
+    private static final String PASSWORD = "postgres";
+    private static final int ROWS = 1_000;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"identity", "sequence"})
+    private String ids;
+
+    private String schema;
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    private Event event;
+    private EventLocation location;
+    private Participant participant;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        schema = "bulk_insert_benchmark_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        execute("CREATE SCHEMA " + schema);
+        List<String> properties = new ArrayList<>(List.of(
+            "spring.datasource.url=" + DATABASE_URL + "?currentSchema=" + schema,
+            "spring.datasource.username=" + USERNAME,
+            "spring.datasource.password=" + PASSWORD,
+            "spring.jpa.hibernate.ddl-auto=create",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=" + BATCH_SIZE,
+            "spring.jpa.properties.hibernate.order_inserts=true",
+            "spring.flyway.enabled=false",
+            "spring.sql.init.mode=never"));
+        if ("identity".equals(ids)) {
+            properties.add("spring.jpa.mapping-resources=META-INF/identity-ids.orm.xml");
+        }
+        context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .properties(properties.toArray(String[]::new))
+            .run();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+            context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        createFixture();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            context.close();
+        } finally {
+            execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * ROWS)
+    public void insertParticipantEventsWithSpins() {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < ROWS; i++) {
+                ParticipantEvent participantEvent = ParticipantEvent.builder()
+                    .participant(participant)
+                    .event(event)
+                    .eventLocation(location)
+                    .remainingSpins(10)
+                    .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                    .build();
+                entityManager.persist(participantEvent);
+                entityManager.persist(SpinHistory.builder()
+                    .participantEvent(participantEvent)
+                    .eventLocation(location)
+                    .spinTime(now)
+                    .win(false)
+                    .finalized(true)
+                    .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                    .build());
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+
+    private void createFixture() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Region region = Region.builder()
+                .name("Benchmark Region")
+                .code("BENCH_REGION")
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(region);
+            event = Event.builder()
+                .name("Benchmark Event")
+                .code("BENCH_EVENT")
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(30))
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(event);
+            location = EventLocation.builder()
+                .event(event)
+                .region(region)
+                .name("Benchmark Location")
+                .code("BENCH_LOC")
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(location);
+            participant = Participant.builder()
+                .account("bench")
+                .name("Benchmark Participant")
+                .phone("0900000000")
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build();
+            entityManager.persist(participant);
+        });
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = DriverManager.getConnection(DATABASE_URL, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to run " + sql, e);
+        }
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = SpinHistory.class)
+    public static class BenchmarkConfiguration {
+    }
+}
@@ -0,0 +1,159 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import vn.com.fecredit.app.dto.SpinCommitDTO;
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.projection.SpinBatchCommitProjection;
+import vn.com.fecredit.app.projection.SpinCommitProjection;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardSelectionService;
+
+/**
+ * Compares the per-request spin commit path with the micro-batching pipeline.
+ * <p>
+ * The database is simulated: every statement holds one of {@link #POOL_SIZE} connections for
+ * {@link #ROUND_TRIP_MICROS} plus {@link #ROW_MICROS} per row. The figures therefore show how
+ * both paths queue on the pool, not what PostgreSQL itself costs per spin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpinBatchBenchmark {
+
+    private static final int LOCATIONS = 4;
+    private static final int POOL_SIZE = 10;
+    private static final long ROUND_TRIP_MICROS = 1_000;
+    private static final long ROW_MICROS = 20;
+
+    private final Semaphore connections = new Semaphore(POOL_SIZE);
+
+    private SpinCommitServiceImpl perRequest;
+    private SpinBatchServiceImpl batched;
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicLong PARTICIPANTS = new AtomicLong();
+
+        long participant;
+        long location;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            participant = PARTICIPANTS.incrementAndGet();
+            location = participant % LOCATIONS + 1;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        perRequest = new SpinCommitServiceImpl(perRequestRepository(), inventory());
+        batched = new SpinBatchServiceImpl(batchRepository(), selection(), inventory(),
+            mock(PlatformTransactionManager.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(batched, "maxDelayMs", 2L);
+        batched.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        batched.stop();
+    }
+
+    @Benchmark
+    public SpinCommitDTO.Result perRequestCommit(Client client) {
+        return perRequest.commit(SpinCommitDTO.Request.builder()
+            .participantEventId(client.participant)
+            .locationId(client.location)
+            .build());
+    }
+
+    @Benchmark
+    public SpinResultDTO microBatchedCommit(Client client) {
+        return batched.submit(SpinRequest.builder()
+            .eventId(1L)
+            .participantId(client.participant)
+            .eventLocationId(client.location)
+            .build(), client.participant).join();
+    }
+
+    private SpinHistoryRepository perRequestRepository() {
+        SpinHistoryRepository repository = mock(SpinHistoryRepository.class, withSettings().stubOnly());
+        SpinCommitProjection committed = mock(SpinCommitProjection.class, withSettings().stubOnly());
+        when(committed.getSpinId()).thenReturn(1L);
+        when(committed.getParticipantFound()).thenReturn(true);
+        when(committed.getHasRemainingSpins()).thenReturn(true);
+        when(committed.getUnderDailyLimit()).thenReturn(true);
+        when(repository.commitSpin(any(), any(), any(), anyInt(), anyBoolean(), any(), any(), any(), any(), any(), any(), any()))
+            .thenAnswer(invocation -> {
+                statement(1);
+                return committed;
+            });
+        return repository;
+    }
+
+    private SpinHistoryRepository batchRepository() {
+        SpinHistoryRepository repository = mock(SpinHistoryRepository.class, withSettings().stubOnly());
+        SpinBatchCommitProjection committed = mock(SpinBatchCommitProjection.class, withSettings().stubOnly());
+        when(committed.getSpinId()).thenReturn(1L);
+        when(committed.getParticipantFound()).thenReturn(true);
+        when(committed.getHasRemainingSpins()).thenReturn(true);
+        when(committed.getUnderDailyLimit()).thenReturn(true);
+        when(repository.commitSpinBatch(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Long[] participantEventIds = invocation.getArgument(0);
+            statement(participantEventIds.length);
+            List<SpinBatchCommitProjection> rows = new ArrayList<>(participantEventIds.length);
+            for (int i = 0; i < participantEventIds.length; i++) {
+                rows.add(committed);
+            }
+            return rows;
+        });
+        return repository;
+    }
+
+    private RewardSelectionService selection() {
+        RewardSelectionService selection = mock(RewardSelectionService.class, withSettings().stubOnly());
+        when(selection.selectRandomReward(anyLong(), anyLong(), anyLong()))
+            .thenReturn(SpinResultResponse.builder().win(false).points(0).build());
+        return selection;
+    }
+
+    private RewardInventoryService inventory() {
+        return mock(RewardInventoryService.class, withSettings().stubOnly());
+    }
+
+    private void statement(int rows) throws InterruptedException {
+        connections.acquire();
+        try {
+            long until = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(ROUND_TRIP_MICROS + ROW_MICROS * rows);
+            while (System.nanoTime() < until) {
+                TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextLong(50, 150));
+            }
+        } finally {
+            connections.release();
+        }
+    }
+}
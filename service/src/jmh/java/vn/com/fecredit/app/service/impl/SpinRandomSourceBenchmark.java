@@ -0,0 +1,57 @@
+package vn.com.fecredit.app.service.impl;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import vn.com.fecredit.app.model.AliasTable;
+import vn.com.fecredit.app.service.SpinRandomSource;
+
+/**
+ * Compares candidate {@link SpinRandomSource} generators under concurrent spins.
+ * <p>
+ * Every spin takes a seed, creates the spin's generator from it and samples an
+ * {@link AliasTable} of eight outcomes, which is the random work of a real draw. The shared
+ * {@link Random} shows what a single contended generator costs, and plain
+ * {@link ThreadLocalRandom} is the floor without replayable seeds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(32)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpinRandomSourceBenchmark {
+
+    private final AliasTable table = AliasTable.of(new double[] {0.3, 0.2, 0.1, 0.05, 0.05, 0.05, 0.05, 0.2});
+    private final Random shared = new Random();
+
+    @Param({"SplittableRandom", "L32X64MixRandom", "L64X128MixRandom", "L128X128MixRandom"})
+    private String algorithm;
+
+    private SpinRandomSource source;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = new SplittableSpinRandomSource(algorithm);
+    }
+
+    @Benchmark
+    public int spinRandomSource() {
+        return table.sample(source.forSeed(source.nextSeed()));
+    }
+
+    @Benchmark
+    public int sharedRandom() {
+        return table.sample(new SplittableRandom(shared.nextLong()));
+    }
+
+    @Benchmark
+    public int threadLocalRandomWithoutSeed() {
+        return table.sample(ThreadLocalRandom.current());
+    }
+}
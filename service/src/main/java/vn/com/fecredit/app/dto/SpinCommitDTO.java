@@ -0,0 +1,58 @@
+package vn.com.fecredit.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO classes for committing the outcome of a spin.
+ */
+public class SpinCommitDTO {
+
+    /**
+     * The outcome drawn for a spin, ready to be persisted.
+     * A null reward id commits a losing spin; a null idempotency key is never deduplicated.
+     * A reward drawn from a gift pack is committed with {@code stockTaken}, its unit having
+     * already been taken from the pack, in the transaction it was drawn in. The random seed and stream, when set, are stored with
+     * the spin so its outcome can be replayed.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        private Long participantEventId;
+        private Long locationId;
+        private Long rewardId;
+        private Integer points;
+        private Long goldenHourId;
+        private String metadata;
+        private String idempotencyKey;
+        private Long randomSeed;
+        private Integer randomStream;
+        private boolean stockTaken;
+    }
+
+    /**
+     * What was committed, together with the guards that were evaluated.
+     * The spin id is null when a participant guard failed and nothing was written.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private Long spinId;
+        private boolean hasRemainingSpins;
+        private boolean underDailyLimit;
+        private boolean inStock;
+        private boolean win;
+        private Long rewardId;
+        private Integer pointsEarned;
+
+        public boolean isCommitted() {
+            return spinId != null;
+        }
+    }
+}
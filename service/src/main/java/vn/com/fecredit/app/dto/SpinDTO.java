@@ -15,7 +15,8 @@ public class SpinDTO {
     /**
      * Response DTO for spin result operations.
      * Contains information about the result of a spin, including whether it was a win
-     * and any reward information.
+     * and any reward information. The random seed and stream, and the golden hour whose win
+     * probability the draw used, are what a replay of the spin needs.
      */
     @Data
     @Builder
@@ -33,6 +34,10 @@ public class SpinDTO {
         private String rewardCode;
         private Integer points;
         private String message;
+        private Long randomSeed;
+        private Integer randomStream;
+        private Long goldenHourId;
+        private String metadata;
     }
     
     /**
@@ -1,6 +1,7 @@
 package vn.com.fecredit.app.dto;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -36,6 +37,10 @@ public class SpinRequest {
     private String channel;
     private String source;
 
+    // Generated by the client once per spin and sent again with every retry of it
+    @Size(max = 64, message = "Idempotency key must not exceed 64 characters")
+    private String idempotencyKey;
+
     public enum SpinRequestType {
         STANDARD,
         GOLDEN_HOUR,
@@ -33,6 +33,9 @@ public class SpinResultDTO {
     private String message;
     private LocalDateTime timestamp;
 
+    // Set with RATE_LIMITED: how long the client should wait before spinning again
+    private Long retryAfterMs;
+
     // Reward details if won
     private String rewardName;
     private String rewardCode;
@@ -67,7 +70,8 @@ public class SpinResultDTO {
         SYSTEM_ERROR,
         QUOTA_EXCEEDED,
         TIME_CONSTRAINT,
-        LOCATION_INVALID
+        LOCATION_INVALID,
+        RATE_LIMITED
     }
 
     // Helper methods
@@ -0,0 +1,40 @@
+package vn.com.fecredit.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO classes for the spin waiting room.
+ */
+public class WaitingRoomDTO {
+
+    public enum TicketStatus {
+        WAITING,
+        RUNNING,
+        DONE,
+        FULL
+    }
+
+    /**
+     * The state of a ticket as shown to the client polling for it.
+     * The result is only set once the spin is done.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Ticket {
+        private String ticketId;
+        private Long eventId;
+        private TicketStatus status;
+        private Long position;
+        private Long estimatedWaitMs;
+        private SpinResultDTO result;
+
+        public boolean isDone() {
+            return TicketStatus.DONE.equals(status);
+        }
+    }
+}
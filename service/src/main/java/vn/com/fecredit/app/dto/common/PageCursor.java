@@ -0,0 +1,121 @@
+package vn.com.fecredit.app.dto.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import vn.com.fecredit.app.exception.BusinessException;
+
+/**
+ * Opaque continuation token of a keyset page: the sort keys of the last row returned,
+ * each with its property name and type, Base64 encoded for use in a URL.
+ */
+public final class PageCursor {
+
+    private static final byte VERSION = 1;
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encodes the position after which the next page starts.
+     *
+     * @param position the keyset position of the last row of a page
+     * @return the token to send back for the next page
+     */
+    public static String encode(KeysetScrollPosition position) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeShort(position.getKeys().size());
+            for (Map.Entry<String, Object> key : position.getKeys().entrySet()) {
+                out.writeUTF(key.getKey());
+                writeValue(out, key.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes a token into the position the next page reads forward from.
+     *
+     * @param cursor a token made by {@link #encode(KeysetScrollPosition)}
+     * @return the keyset position
+     * @throws BusinessException if the token is not a valid cursor
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new BusinessException("Invalid page cursor");
+            }
+            int count = in.readUnsignedShort();
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                keys.put(in.readUTF(), readValue(in));
+            }
+            if (keys.isEmpty() || in.available() > 0) {
+                throw new BusinessException("Invalid page cursor");
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid page cursor");
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte('N');
+        } else if (value instanceof Long number) {
+            out.writeByte('L');
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte('I');
+            out.writeInt(number);
+        } else if (value instanceof Double number) {
+            out.writeByte('F');
+            out.writeDouble(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte('B');
+            out.writeBoolean(flag);
+        } else if (value instanceof String text) {
+            out.writeByte('S');
+            out.writeUTF(text);
+        } else if (value instanceof LocalDateTime time) {
+            out.writeByte('T');
+            out.writeUTF(time.toString());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte('D');
+            out.writeUTF(date.toString());
+        } else {
+            throw new IllegalArgumentException("Unsupported sort key type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        return switch (in.readByte()) {
+            case 'N' -> null;
+            case 'L' -> in.readLong();
+            case 'I' -> in.readInt();
+            case 'F' -> in.readDouble();
+            case 'B' -> in.readBoolean();
+            case 'S' -> in.readUTF();
+            case 'T' -> LocalDateTime.parse(in.readUTF());
+            case 'D' -> LocalDate.parse(in.readUTF());
+            default -> throw new IllegalArgumentException("Unknown sort key type");
+        };
+    }
+}
@@ -7,6 +7,12 @@ import jakarta.validation.constraints.Min;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import vn.com.fecredit.app.exception.BusinessException;
 
@@ -28,6 +34,22 @@ public class PageRequest extends BaseRequest {
     private String sortBy;
     private String sortDirection;
 
+    /**
+     * Continuation token of a keyset page, returned with the previous page. A cursor
+     * selects keyset pagination and takes the place of the page number.
+     */
+    private String cursor;
+
+    /**
+     * Requests keyset pagination starting at the first page.
+     */
+    private Boolean keyset;
+
+    /**
+     * Whether a keyset page also counts all matching rows, which costs a full count query.
+     */
+    private Boolean includeCount;
+
     public PageRequest() {
         this.page = DEFAULT_PAGE;
         this.size = DEFAULT_SIZE;
@@ -69,6 +91,57 @@ public class PageRequest extends BaseRequest {
         return toSpringPageRequest();
     }
 
+    @JsonIgnore
+    public boolean isKeysetMode() {
+        return Boolean.TRUE.equals(keyset) || cursor != null;
+    }
+
+    @JsonIgnore
+    public boolean isCountRequested() {
+        return Boolean.TRUE.equals(includeCount);
+    }
+
+    /**
+     * Gets the position a keyset page reads forward from. A cursor must hold a non-null key
+     * for every property of the sort and for no other, as one made for a different order
+     * would skip or repeat rows.
+     *
+     * @param sort the order of the page, from {@link #toKeysetSort(String, Sort.Direction)}
+     * @throws BusinessException if the cursor is invalid or does not match the sort
+     */
+    @JsonIgnore
+    public ScrollPosition toScrollPosition(Sort sort) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        KeysetScrollPosition position = PageCursor.decode(cursor);
+        Set<String> properties = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!position.getKeys().keySet().equals(properties) || position.getKeys().containsValue(null)) {
+            throw new BusinessException("Page cursor does not match the sort order");
+        }
+        return position;
+    }
+
+    /**
+     * Gets the order of a keyset page: the requested property or the default, then the id
+     * in the same direction so that every row has a distinct position.
+     */
+    @JsonIgnore
+    public Sort toKeysetSort(String defaultSortBy, Sort.Direction defaultDirection) {
+        String property = sortBy != null && !sortBy.trim().isEmpty() ? sortBy.trim() : defaultSortBy;
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sortDirection)
+                .orElse(defaultDirection != null ? defaultDirection : Sort.Direction.ASC);
+        if (property == null || "id".equals(property)) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    @JsonIgnore
+    public Limit toLimit() {
+        return Limit.of(size != null ? size : DEFAULT_SIZE);
+    }
+
     @Override
     protected void validateFields() {
         if (page != null && page < 0) {
@@ -91,6 +164,10 @@ public class PageRequest extends BaseRequest {
                 throw new BusinessException("Invalid sort direction. Must be ASC or DESC");
             }
         }
+
+        if (cursor != null) {
+            PageCursor.decode(cursor);
+        }
     }
 
     public static PageRequest of(int page, int size) {
@@ -119,4 +196,11 @@ public class PageRequest extends BaseRequest {
     public static PageRequest first(int size) {
         return of(0, size);
     }
+
+    public static PageRequest after(String cursor, int size) {
+        PageRequest request = first(size);
+        request.setKeyset(true);
+        request.setCursor(cursor);
+        return request;
+    }
 }
@@ -3,7 +3,9 @@ package vn.com.fecredit.app.dto.common;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
@@ -29,17 +31,20 @@ public class PageResponse<T> extends BaseResponse {
 
     private final List<T> content;
     private final Pagination pagination;
+    private final CursorPagination cursor;
 
-    private PageResponse(List<T> content, Pagination pagination) {
+    private PageResponse(List<T> content, Pagination pagination, CursorPagination cursor) {
         super(true, null, null);
         this.content = content;
         this.pagination = pagination;
+        this.cursor = cursor;
     }
 
     private PageResponse(String message, String errorCode) {
         super(false, message, errorCode);
         this.content = null;
         this.pagination = null;
+        this.cursor = null;
     }
 
     public static <T> PageResponse<T> of(Page<T> page) {
@@ -54,12 +59,32 @@ public class PageResponse<T> extends BaseResponse {
                 page.isLast(),
                 page.hasNext(),
                 page.hasPrevious()
-            )
+            ),
+            null
         );
     }
 
     public static <T> PageResponse<T> of(List<T> content, Pagination pagination) {
-        return new PageResponse<>(content, pagination);
+        return new PageResponse<>(content, pagination, null);
+    }
+
+    /**
+     * Creates a keyset page; its cursor continues after the last row of the window.
+     *
+     * @param window rows read from a keyset scroll position
+     * @param totalElements the count of all matching rows, or null when not requested
+     */
+    public static <T> PageResponse<T> of(Window<T> window, Long totalElements) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()
+                && window.positionAt(window.size() - 1) instanceof KeysetScrollPosition position) {
+            nextCursor = PageCursor.encode(position);
+        }
+        return new PageResponse<>(
+            window.getContent(),
+            null,
+            new CursorPagination(window.size(), totalElements, window.hasNext(), nextCursor)
+        );
     }
 
     public static <T> PageResponse<T> errorResult(String message) {
@@ -105,11 +130,20 @@ public class PageResponse<T> extends BaseResponse {
         }
     }
 
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class CursorPagination {
+        private final int pageSize;
+        private final Long totalElements;
+        private final boolean hasNext;
+        private final String nextCursor;
+    }
+
     @Override
     public String toString() {
         return String.format("PageResponse(success=%s, message=%s, errorCode=%s, content.size=%d, pagination=%s)",
             isSuccess(), getMessage(), getErrorCode(),
             content != null ? content.size() : 0,
-            pagination);
+            pagination != null ? pagination : cursor);
     }
 }
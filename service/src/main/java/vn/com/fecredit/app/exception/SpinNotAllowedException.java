@@ -38,6 +38,17 @@ public class SpinNotAllowedException extends BusinessException {
         return new SpinNotAllowedException("Participant with id: " + participantId + " cannot spin. Reason: " + reason);
     }
 
+    /**
+     * Constructs a new SpinNotAllowedException with a formatted message for the specified participant event and reason.
+     *
+     * @param participantEventId the identifier of the participant's registration for the event
+     * @param reason the reason why the spin is not allowed
+     * @return a new SpinNotAllowedException with a formatted message
+     */
+    public static SpinNotAllowedException forParticipantEvent(Long participantEventId, String reason) {
+        return new SpinNotAllowedException("Participant event with id: " + participantEventId + " cannot spin. Reason: " + reason);
+    }
+
     /**
      * Constructs a new SpinNotAllowedException with a formatted message for daily limit reached.
      *
@@ -18,13 +18,17 @@ public interface EventMapper {
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntity(@MappingTarget Event entity, EventDTO.UpdateRequest dto);
 
-    @Mapping(target = "locationCount", expression = "java(event != null && event.getEventLocations() != null ? event.getEventLocations().size() : 0)")
+    @Mapping(target = "locationCount", ignore = true) // Counted by the service in one query per page
     @Mapping(target = "rewardCount", constant = "0")
-    @Mapping(target = "participantCount", expression = "java((int) countParticipants(event))")
+    @Mapping(target = "participantCount", ignore = true)
     @Mapping(target = "spinCount", constant = "0")
     EventDTO.Response toResponse(Event event);
 
-    default EventDTO.Statistics toStatistics(List<Event> events) {
+    /**
+     * Summarizes events whose locations are already loaded; the participant total is
+     * counted by the caller rather than by loading every location's registrations.
+     */
+    default EventDTO.Statistics toStatistics(List<Event> events, long totalParticipants) {
         if (events == null) events = Collections.emptyList();
         
         return EventDTO.Statistics.builder()
@@ -32,29 +36,18 @@ public interface EventMapper {
             .activeEvents(events.stream().filter(e -> e != null && e.isActive()).count())
             .totalLocations(countLocations(events))
             .totalRewards(0L)
-            .totalParticipants(countTotalParticipants(events))
+            .totalParticipants(totalParticipants)
             .totalSpins(0L)
             .totalWins(0L)
             .winRate(0.0)
             .averageRewardsPerEvent(0.0)
             .averageLocationsPerEvent(calculateAverage(countLocations(events), events.size()))
-            .averageParticipantsPerEvent(calculateAverage(countTotalParticipants(events), events.size()))
+            .averageParticipantsPerEvent(calculateAverage(totalParticipants, events.size()))
             .topLocations(getTopLocations(events))
             .topRewards(Collections.emptySet())
             .build();
     }
 
-    default long countParticipants(Event event) {
-        if (event == null || event.getEventLocations() == null) return 0;
-        
-        return event.getEventLocations().stream()
-            .filter(Objects::nonNull)
-            .map(location -> location.getParticipantEvents())
-            .filter(Objects::nonNull)
-            .mapToLong(Set::size)
-            .sum();
-    }
-
     default long countLocations(List<Event> events) {
         if (events == null) return 0;
         
@@ -66,15 +59,6 @@ public interface EventMapper {
             .sum();
     }
 
-    default long countTotalParticipants(List<Event> events) {
-        if (events == null) return 0;
-        
-        return events.stream()
-            .filter(Objects::nonNull)
-            .mapToLong(this::countParticipants)
-            .sum();
-    }
-
     default double calculateAverage(long total, long count) {
         return count == 0 ? 0.0 : (double) total / count;
     }
@@ -5,14 +5,15 @@ import vn.com.fecredit.app.dto.SpinHistoryDTO;
 import vn.com.fecredit.app.entity.ParticipantEvent;
 import vn.com.fecredit.app.entity.Reward;
 import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.projection.SpinStatisticsProjection;
+import vn.com.fecredit.app.projection.SpinSummaryProjection;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Comparator;
 
 @Mapper(
     componentModel = "spring",
-    imports = {LocalDateTime.class, Comparator.class},
+    imports = {LocalDateTime.class},
     nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE,
     nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS
 )
@@ -44,6 +45,8 @@ public interface SpinHistoryMapper {
     @Mapping(target = "participantName", source = "participantEvent.participant.name")
     SpinHistoryDTO.Summary toSummary(SpinHistory entity);
 
+    SpinHistoryDTO.Summary toSummary(SpinSummaryProjection projection);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "reward", source = "rewardId", qualifiedByName = "rewardIdToEntity")
     void updateEntity(@MappingTarget SpinHistory entity, SpinHistoryDTO.UpdateRequest dto);
@@ -54,17 +57,17 @@ public interface SpinHistoryMapper {
     @IterableMapping(elementTargetType = SpinHistoryDTO.Summary.class)
     List<SpinHistoryDTO.Summary> toSummaryList(List<SpinHistory> entities);
 
-    @Mapping(target = "participantEventId", source = "id")
-    @Mapping(target = "participantName", source = "participant.name")
-    @Mapping(target = "eventName", source = "event.name")
-    @Mapping(target = "locationName", source = "eventLocation.name")
-    @Mapping(target = "totalSpins", expression = "java(entity.getSpinHistories().size())")
-    @Mapping(target = "winningSpins", expression = "java(countWinningSpins(entity))")
-    @Mapping(target = "totalPoints", expression = "java(calculateTotalPoints(entity))")
-    @Mapping(target = "winRate", expression = "java(calculateWinRate(entity))")
-    @Mapping(target = "firstSpinTime", expression = "java(findFirstSpinTime(entity))")
-    @Mapping(target = "lastSpinTime", expression = "java(findLastSpinTime(entity))")
-    SpinHistoryDTO.Statistics toStatistics(ParticipantEvent entity);
+    @Mapping(target = "participantEventId", source = "entity.id")
+    @Mapping(target = "participantName", source = "entity.participant.name")
+    @Mapping(target = "eventName", source = "entity.event.name")
+    @Mapping(target = "locationName", source = "entity.eventLocation.name")
+    @Mapping(target = "totalSpins", source = "spins.totalSpins")
+    @Mapping(target = "winningSpins", source = "spins.winningSpins")
+    @Mapping(target = "totalPoints", source = "spins.totalPoints")
+    @Mapping(target = "winRate", expression = "java(calculateWinRate(spins))")
+    @Mapping(target = "firstSpinTime", source = "spins.firstSpinTime")
+    @Mapping(target = "lastSpinTime", source = "spins.lastSpinTime")
+    SpinHistoryDTO.Statistics toStatistics(ParticipantEvent entity, SpinStatisticsProjection spins);
 
     @Named("participantEventIdToEntity")
     default ParticipantEvent participantEventIdToEntity(Long id) {
@@ -82,49 +85,10 @@ public interface SpinHistoryMapper {
         return Reward.builder().id(id).build();
     }
 
-    default int countWinningSpins(ParticipantEvent entity) {
-        if (entity == null || entity.getSpinHistories() == null) {
-            return 0;
-        }
-        return (int) entity.getSpinHistories().stream()
-                .filter(SpinHistory::isWin)
-                .count();
-    }
-
-    default int calculateTotalPoints(ParticipantEvent entity) {
-        if (entity == null || entity.getSpinHistories() == null) {
-            return 0;
-        }
-        return entity.getSpinHistories().stream()
-                .mapToInt(sh -> sh.getPointsEarned() != null ? sh.getPointsEarned() : 0)
-                .sum();
-    }
-
-    default double calculateWinRate(ParticipantEvent entity) {
-        if (entity == null || entity.getSpinHistories() == null) {
+    default double calculateWinRate(SpinStatisticsProjection spins) {
+        if (spins == null || spins.getTotalSpins() == 0) {
             return 0.0;
         }
-        int total = entity.getSpinHistories().size();
-        return total > 0 ? (double) countWinningSpins(entity) / total : 0.0;
-    }
-
-    default LocalDateTime findFirstSpinTime(ParticipantEvent entity) {
-        if (entity == null || entity.getSpinHistories() == null) {
-            return null;
-        }
-        return entity.getSpinHistories().stream()
-                .map(SpinHistory::getSpinTime)
-                .min(Comparator.naturalOrder())
-                .orElse(null);
-    }
-
-    default LocalDateTime findLastSpinTime(ParticipantEvent entity) {
-        if (entity == null || entity.getSpinHistories() == null) {
-            return null;
-        }
-        return entity.getSpinHistories().stream()
-                .map(SpinHistory::getSpinTime)
-                .max(Comparator.naturalOrder())
-                .orElse(null);
+        return (double) spins.getWinningSpins() / spins.getTotalSpins();
     }
 }
@@ -0,0 +1,151 @@
+package vn.com.fecredit.app.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to the latency it observes.
+ * <p>
+ * Work is admitted while fewer than {@link #getLimit()} callers are in flight. Every
+ * completion reports its latency: as long as it stays within {@code tolerance} times the
+ * best latency seen recently, the limit grows by about one per round of completions;
+ * once latency rises above that, or work fails because a resource ran out, the limit is
+ * cut by {@code backoff}, at most once per smoothed latency so that a burst of slow
+ * completions caused by the same overload counts once. This keeps in-flight work close to
+ * what the downstream resources can serve without queueing, and sheds the rest at once.
+ * The baseline latency is forgotten every {@code probeInterval} samples so a lasting change
+ * in downstream speed is picked up. Instances are safe to share between threads.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final int probeInterval;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private volatile long smoothedLatencyNanos;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long decreasedAt;
+    private int samples;
+
+    /**
+     * Creates a limit.
+     *
+     * @param initialLimit the limit to start with
+     * @param minLimit the lowest limit, at least 1
+     * @param maxLimit the highest limit
+     * @param tolerance how much slower than the baseline a completion may be before the
+     *                  limit is cut, e.g. 2.0
+     * @param backoff the factor the limit is multiplied with when it is cut, e.g. 0.9
+     * @param probeInterval the number of samples after which the baseline is reset
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    double backoff, int probeInterval) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.probeInterval = probeInterval;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} callers are in flight.
+     * Every successful call must be followed by exactly one call to
+     * {@link #onSuccess(long)}, {@link #onDropped()} or {@link #onIgnored()}.
+     *
+     * @return true if the caller was admitted
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot and adjusts the limit to the latency of the completed work.
+     *
+     * @param latencyNanos the time the admitted work took
+     */
+    public void onSuccess(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (++samples >= probeInterval) {
+                samples = 0;
+                baselineNanos = Long.MAX_VALUE;
+            }
+            baselineNanos = Math.min(baselineNanos, latencyNanos);
+            long smoothed = smoothedLatencyNanos;
+            smoothedLatencyNanos = smoothed == 0 ? latencyNanos : (smoothed * 7 + latencyNanos) / 8;
+
+            if (latencyNanos > baselineNanos * tolerance) {
+                decrease(System.nanoTime());
+            } else if (current * 2 >= limit) {
+                // Only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot after the admitted work failed for lack of capacity, for example
+     * because no database connection became available in time, and cuts the limit.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            decrease(System.nanoTime());
+        }
+    }
+
+    /**
+     * Gives back a slot without a sample, for work that ended for reasons unrelated to load.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the maximum number of callers admitted at once
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets the number of admitted callers that have not completed yet.
+     *
+     * @return the callers in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the exponentially smoothed latency of the completed work.
+     *
+     * @return the smoothed latency in nanoseconds, or 0 before the first sample
+     */
+    public long getSmoothedLatencyNanos() {
+        return smoothedLatencyNanos;
+    }
+
+    private void decrease(long now) {
+        if (decreasedAt != 0 && now - decreasedAt < smoothedLatencyNanos) {
+            return;
+        }
+        decreasedAt = now;
+        limit = Math.max(minLimit, limit * backoff);
+    }
+}
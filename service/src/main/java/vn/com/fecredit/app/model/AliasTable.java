@@ -0,0 +1,111 @@
+package vn.com.fecredit.app.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.random.RandomGenerator;
+
+/**
+ * Immutable Walker/Vose alias table for sampling a discrete distribution in O(1).
+ * <p>
+ * The table is built once in O(n) from non-negative weights; each draw then costs one
+ * bounded random integer and one random double regardless of the number of outcomes.
+ * Instances are safe to share between threads as long as each caller supplies its own
+ * {@link RandomGenerator}.
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    private AliasTable(double[] probability, int[] alias) {
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * Builds an alias table from the given weights using Vose's method.
+     * Weights do not need to sum to one; they are normalized internally.
+     *
+     * @param weights the non-negative weight of each outcome
+     * @return the alias table
+     * @throws IllegalArgumentException if weights is empty, contains a negative or non-finite
+     *                                  value, or sums to zero
+     */
+    public static AliasTable of(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Alias table requires at least one outcome");
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || !Double.isFinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Sum of weights must be positive");
+        }
+
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small.push(more);
+            } else {
+                large.push(more);
+            }
+        }
+        // Whatever is left is 1.0 up to floating point error
+        while (!large.isEmpty()) {
+            int index = large.pop();
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (!small.isEmpty()) {
+            int index = small.pop();
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+
+        return new AliasTable(probability, alias);
+    }
+
+    /**
+     * Draws an outcome index.
+     *
+     * @param random the random generator to draw from
+     * @return an index in {@code [0, size())} distributed according to the build weights
+     */
+    public int sample(RandomGenerator random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Gets the number of outcomes in this table.
+     *
+     * @return the number of outcomes
+     */
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,126 @@
+package vn.com.fecredit.app.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Thread-safe in-memory cache holding at most a fixed number of entries.
+ * <p>
+ * Keys are spread over a number of stripes, each an access-ordered {@link LinkedHashMap}
+ * guarded by its own lock, so concurrent callers only contend when their keys share a
+ * stripe. Every stripe holds its share of the capacity and drops its least recently used
+ * entry when it is full; the cache as a whole therefore evicts in approximate LRU order,
+ * which is enough for a cache that only has to remember recent keys.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class BoundedLruCache<K, V> {
+
+    private final Stripe<K, V>[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the maximum number of entries
+     * @param stripes the number of stripes, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedLruCache(int capacity, int stripes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        size = Math.min(size, Integer.highestOneBit(capacity));
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe<>(capacity / size + (i < capacity % size ? 1 : 0));
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Looks up an entry and marks it as recently used.
+     *
+     * @param key the key
+     * @return the value, or null if the key is not cached
+     */
+    public V get(K key) {
+        Stripe<K, V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * Caches a value unless the key is already cached.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the value already cached, or null if {@code value} was added
+     */
+    public V putIfAbsent(K key, V value) {
+        Stripe<K, V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            V existing = stripe.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            stripe.put(key, value);
+            return null;
+        }
+    }
+
+    /**
+     * Removes an entry if the key is still mapped to the given value.
+     *
+     * @param key the key
+     * @param value the value expected to be cached
+     * @return true if the entry was removed
+     */
+    public boolean remove(K key, V value) {
+        Stripe<K, V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            return stripe.remove(key, value);
+        }
+    }
+
+    /**
+     * Counts the cached entries. The count is not a snapshot when the cache is in use.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<K, V> stripeOf(K key) {
+        int hash = Objects.hashCode(key);
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package vn.com.fecredit.app.model;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * Progress of one running export, updated by the threads writing its segments and read by
+ * anyone polling it.
+ */
+public final class ExportProgress {
+
+    @Getter
+    private final String exportId;
+
+    @Getter
+    private final String kind;
+
+    @Getter
+    private final Long eventId;
+
+    @Getter
+    private final int totalSegments;
+
+    @Getter
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final AtomicInteger completedSegments = new AtomicInteger();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public ExportProgress(String exportId, String kind, Long eventId, int totalSegments) {
+        this.exportId = exportId;
+        this.kind = kind;
+        this.eventId = eventId;
+        this.totalSegments = totalSegments;
+    }
+
+    /**
+     * Gets the segments already written to the output.
+     *
+     * @return the number of completed segments
+     */
+    public int getCompletedSegments() {
+        return completedSegments.get();
+    }
+
+    /**
+     * Gets the rows read from the database so far, including those of segments not yet
+     * written to the output.
+     *
+     * @return the number of rows
+     */
+    public long getRows() {
+        return rows.get();
+    }
+
+    /**
+     * Gets the compressed bytes written to the output so far.
+     *
+     * @return the number of bytes
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public void addRows(long count) {
+        rows.addAndGet(count);
+    }
+
+    public void segmentWritten(long segmentBytes) {
+        bytes.addAndGet(segmentBytes);
+        completedSegments.incrementAndGet();
+    }
+
+    public void headerWritten(long headerBytes) {
+        bytes.addAndGet(headerBytes);
+    }
+}
@@ -0,0 +1,183 @@
+package vn.com.fecredit.app.model;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+import lombok.Getter;
+
+/**
+ * In-memory state of one persisted gift pack.
+ * <p>
+ * Each pack holds a remaining count per gift plus a count of empty (losing) slots, and
+ * its own lock so that concurrent draws on different packs never contend. All methods
+ * that read or change the counts must be called while holding {@link #getLock()}.
+ */
+public final class GiftPack {
+
+    /**
+     * Slot index returned by {@link #draw(RandomGenerator)} for a losing draw.
+     */
+    public static final int EMPTY = -1;
+
+    /**
+     * Slot index returned by {@link #draw(RandomGenerator)} when the pack is exhausted.
+     */
+    public static final int NONE = -2;
+
+    @Getter
+    private final Long packId;
+
+    @Getter
+    private final int packNumber;
+
+    @Getter
+    private final List<Gift> gifts;
+
+    @Getter
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final int[] remaining;
+    private int emptySlots;
+    private volatile int total;
+
+    public GiftPack(Long packId, int packNumber, List<Gift> gifts, int[] remaining, int emptySlots) {
+        if (gifts.size() != remaining.length) {
+            throw new IllegalArgumentException("Each gift needs exactly one remaining count");
+        }
+        this.packId = packId;
+        this.packNumber = packNumber;
+        this.gifts = List.copyOf(gifts);
+        this.remaining = remaining.clone();
+        this.emptySlots = emptySlots;
+        this.total = sum(remaining) + emptySlots;
+    }
+
+    /**
+     * Draws one slot uniformly among everything left in the pack and removes it.
+     *
+     * @param random the random generator to draw from
+     * @return the index of the drawn gift, {@link #EMPTY} for a losing slot, or {@link #NONE}
+     *         if the pack is exhausted
+     */
+    public int draw(RandomGenerator random) {
+        if (total == 0) {
+            return NONE;
+        }
+        int pick = random.nextInt(total);
+        total--;
+        for (int i = 0; i < remaining.length; i++) {
+            if (pick < remaining[i]) {
+                remaining[i]--;
+                return i;
+            }
+            pick -= remaining[i];
+        }
+        emptySlots--;
+        return EMPTY;
+    }
+
+    /**
+     * Puts a drawn slot back, used when persisting the draw failed.
+     *
+     * @param slot the slot returned by {@link #draw(RandomGenerator)}
+     */
+    public void undo(int slot) {
+        if (slot == NONE) {
+            return;
+        }
+        if (slot == EMPTY) {
+            emptySlots++;
+        } else {
+            remaining[slot]++;
+        }
+        total++;
+    }
+
+    /**
+     * Gets the remaining count of a gift.
+     *
+     * @param slot the gift index
+     * @return the remaining count
+     */
+    public int getRemaining(int slot) {
+        return remaining[slot];
+    }
+
+    /**
+     * Gets the number of losing slots left.
+     *
+     * @return the remaining empty slots
+     */
+    public int getEmptySlots() {
+        return emptySlots;
+    }
+
+    /**
+     * Checks whether the pack is exhausted. Safe to call without holding the lock, in
+     * which case the answer may be momentarily stale.
+     *
+     * @return true if nothing is left in the pack
+     */
+    public boolean isExhausted() {
+        return total == 0;
+    }
+
+    /**
+     * Splits quantities over a number of packs keeping the same ratio in every pack.
+     * <p>
+     * Every pack receives {@code quantity / packCount} units of each item; the remainders are
+     * handed out one per pack, starting at a different pack for each item so no pack
+     * collects all the leftovers.
+     *
+     * @param quantities the total quantity of each item
+     * @param packCount the number of packs
+     * @return the quantity of each item per pack, indexed by pack then item
+     */
+    public static int[][] split(int[] quantities, int packCount) {
+        if (packCount <= 0) {
+            throw new IllegalArgumentException("Pack count must be positive");
+        }
+        int[][] packs = new int[packCount][quantities.length];
+        int offset = 0;
+        for (int item = 0; item < quantities.length; item++) {
+            int base = quantities[item] / packCount;
+            int extra = quantities[item] % packCount;
+            for (int pack = 0; pack < packCount; pack++) {
+                packs[pack][item] = base;
+            }
+            for (int i = 0; i < extra; i++) {
+                packs[(offset + i) % packCount][item]++;
+            }
+            offset = (offset + extra) % packCount;
+        }
+        return packs;
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * A gift kind held by a pack.
+     */
+    @Getter
+    public static final class Gift {
+
+        private final Long rewardId;
+        private final String code;
+        private final String name;
+        private final Integer points;
+
+        public Gift(Long rewardId, String code, String name, Integer points) {
+            this.rewardId = rewardId;
+            this.code = code;
+            this.name = name;
+            this.points = points;
+        }
+    }
+}
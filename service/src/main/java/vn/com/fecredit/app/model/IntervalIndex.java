@@ -0,0 +1,180 @@
+package vn.com.fecredit.app.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable index of closed time intervals answering stabbing and overlap queries in
+ * O(log n).
+ * <p>
+ * Items are sorted by start time and laid over an implicit segment tree that keeps the
+ * latest end time of every subtree. "Which interval covers t" becomes a binary search for
+ * the last start at or before {@code t} followed by a descent to the right-most item in
+ * that prefix whose end is not before {@code t}. Overlap queries prune every subtree that
+ * ends before the probed range. Instances are safe to share between threads.
+ *
+ * @param <T> the indexed item
+ */
+public final class IntervalIndex<T> {
+
+    private final List<T> items;
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] maxEnd;
+    private final int leaves;
+
+    private IntervalIndex(List<T> items, LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.items = items;
+        this.starts = starts;
+        int size = 1;
+        while (size < starts.length) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.maxEnd = new LocalDateTime[2 * size];
+        for (int i = 0; i < ends.length; i++) {
+            maxEnd[size + i] = ends[i];
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            maxEnd[node] = later(maxEnd[2 * node], maxEnd[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Builds an index. Items without a start or end time are left out.
+     *
+     * @param items the items to index
+     * @param start the start time of an item, inclusive
+     * @param end the end time of an item, inclusive
+     * @return the index
+     */
+    public static <T> IntervalIndex<T> of(Iterable<T> items, Function<T, LocalDateTime> start,
+                                          Function<T, LocalDateTime> end) {
+        List<T> sorted = new ArrayList<>();
+        for (T item : items) {
+            if (start.apply(item) != null && end.apply(item) != null) {
+                sorted.add(item);
+            }
+        }
+        sorted.sort(Comparator.comparing(start));
+
+        LocalDateTime[] starts = new LocalDateTime[sorted.size()];
+        LocalDateTime[] ends = new LocalDateTime[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            starts[i] = start.apply(sorted.get(i));
+            ends[i] = end.apply(sorted.get(i));
+        }
+        return new IntervalIndex<>(List.copyOf(sorted), starts, ends);
+    }
+
+    /**
+     * Finds the interval covering a point in time. When intervals overlap, the one that
+     * started last wins.
+     *
+     * @param at the point in time
+     * @return the covering item, or null
+     */
+    public T find(LocalDateTime at) {
+        int last = upperBound(at) - 1;
+        if (last < 0) {
+            return null;
+        }
+        int index = rightmost(1, 0, leaves - 1, last, at);
+        return index >= 0 ? items.get(index) : null;
+    }
+
+    /**
+     * Finds every interval sharing at least one instant with a range, both ends included.
+     *
+     * @param start the start of the range
+     * @param end the end of the range
+     * @return the overlapping items in start order
+     */
+    public List<T> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<T> result = new ArrayList<>();
+        int last = upperBound(end) - 1;
+        if (last >= 0) {
+            collect(1, 0, leaves - 1, last, start, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the first start time strictly after a point in time.
+     *
+     * @param at the point in time
+     * @return the next start, or null when no interval starts later
+     */
+    public LocalDateTime nextStartAfter(LocalDateTime at) {
+        int index = upperBound(at);
+        return index < starts.length ? starts[index] : null;
+    }
+
+    /**
+     * Gets the indexed items in start order.
+     *
+     * @return the items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the number of indexed items.
+     *
+     * @return the item count
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /** Index of the first start after {@code at}. */
+    private int upperBound(LocalDateTime at) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid].isAfter(at)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /** Right-most leaf in {@code [0, last]} below {@code node} whose end is not before {@code at}. */
+    private int rightmost(int node, int low, int high, int last, LocalDateTime at) {
+        if (low > last || maxEnd[node] == null || maxEnd[node].isBefore(at)) {
+            return -1;
+        }
+        if (low == high) {
+            return low;
+        }
+        int mid = (low + high) >>> 1;
+        int right = rightmost(2 * node + 1, mid + 1, high, last, at);
+        return right >= 0 ? right : rightmost(2 * node, low, mid, last, at);
+    }
+
+    private void collect(int node, int low, int high, int last, LocalDateTime start, List<T> result) {
+        if (low > last || maxEnd[node] == null || maxEnd[node].isBefore(start)) {
+            return;
+        }
+        if (low == high) {
+            result.add(items.get(low));
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        collect(2 * node, low, mid, last, start, result);
+        collect(2 * node + 1, mid + 1, high, last, start, result);
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,301 @@
+package vn.com.fecredit.app.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import lombok.Getter;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+
+/**
+ * Immutable snapshot of everything the spin path needs to know about one event location.
+ * <p>
+ * The effective settings of a location cascade from the location over its region to its
+ * event, and golden hours add their own probability on top. Resolving that on every spin
+ * walks lazy associations, so the cascade is resolved once when the profile is compiled and
+ * the result is kept as plain values. A profile never changes; when one of its sources is
+ * edited, the owner compiles a new profile and swaps it in.
+ * <p>
+ * Golden hours are held in an {@link IntervalIndex}, so finding the window that covers a
+ * spin costs O(log n) however many are scheduled. Only golden hours that end on or after
+ * {@link #getGoldenHourHorizon()} are part of the profile. Stock and usage counters are not
+ * part of the profile, they change with every win.
+ */
+@Getter
+public final class LocationSpinProfile {
+
+    private final Long locationId;
+    private final String locationCode;
+    private final Long eventId;
+    private final Long regionId;
+    private final boolean active;
+    private final double winProbability;
+    private final Integer dailySpinLimit;
+    private final int initialSpins;
+    private final List<RewardProfile> rewards;
+    private final LocalDateTime builtAt;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final IntervalIndex<GoldenHourWindow> goldenHourIndex;
+
+    private LocationSpinProfile(EventLocation location, Long eventId, Long regionId, double winProbability,
+                                Integer dailySpinLimit, int initialSpins, List<RewardProfile> rewards,
+                                List<GoldenHourWindow> goldenHours, LocalDateTime builtAt) {
+        this.locationId = location.getId();
+        this.locationCode = location.getCode();
+        this.eventId = eventId;
+        this.regionId = regionId;
+        this.active = location.isActive();
+        this.winProbability = winProbability;
+        this.dailySpinLimit = dailySpinLimit;
+        this.initialSpins = initialSpins;
+        this.rewards = List.copyOf(rewards);
+        this.goldenHourIndex = IntervalIndex.of(goldenHours, GoldenHourWindow::getStartTime,
+            GoldenHourWindow::getEndTime);
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * Compiles the profile of a location.
+     * <p>
+     * The location must be loaded with its event and region. Rewards and golden hours are
+     * expected to be the active ones of the location, golden hours at least those ending on
+     * or after {@link #goldenHourHorizon(LocalDateTime)}; golden hours without a time window
+     * are ignored.
+     *
+     * @param location the event location with its event and region
+     * @param rewards the active rewards of the location
+     * @param goldenHours the active golden hours of the location
+     * @param now the build time
+     * @return the profile
+     */
+    public static LocationSpinProfile compile(EventLocation location, Collection<Reward> rewards,
+                                              Collection<GoldenHour> goldenHours, LocalDateTime now) {
+        Event event = location.getEvent();
+        Region region = location.getRegion();
+        double winProbability = valueOf(location.getEffectiveWinProbability());
+
+        List<RewardProfile> rewardProfiles = new ArrayList<>(rewards.size());
+        for (Reward reward : rewards) {
+            rewardProfiles.add(new RewardProfile(reward.getId(), reward.getCode(), reward.getName(),
+                reward.getPoints(), reward.getWinProbability(), reward.getValidFrom(), reward.getValidUntil(),
+                reward.getDailyLimit()));
+        }
+
+        List<GoldenHourWindow> windows = new ArrayList<>(goldenHours.size());
+        for (GoldenHour goldenHour : goldenHours) {
+            windows.add(new GoldenHourWindow(goldenHour.getId(), goldenHour.getStartTime(), goldenHour.getEndTime(),
+                goldenHour.getWinProbability(winProbability), goldenHour.getPointsMultiplier(),
+                goldenHour.getDailyLimit()));
+        }
+
+        return new LocationSpinProfile(location,
+            event != null ? event.getId() : null,
+            region != null ? region.getId() : null,
+            winProbability,
+            location.getEffectiveDailySpinLimit(),
+            valueOf(location.getEffectiveInitialSpins()),
+            rewardProfiles,
+            windows,
+            now);
+    }
+
+    /**
+     * Gets the earliest end time a golden hour must have to be part of a profile built at
+     * a given time.
+     *
+     * @param builtAt the build time
+     * @return the start of the build day
+     */
+    public static LocalDateTime goldenHourHorizon(LocalDateTime builtAt) {
+        return builtAt.toLocalDate().atStartOfDay();
+    }
+
+    /**
+     * Gets the earliest end time of the golden hours held by this profile. Questions about
+     * golden hours ending before it cannot be answered from the profile.
+     *
+     * @return the golden hour horizon
+     */
+    public LocalDateTime getGoldenHourHorizon() {
+        return goldenHourHorizon(builtAt);
+    }
+
+    /**
+     * Gets the golden hour windows in start order.
+     *
+     * @return the golden hour windows
+     */
+    public List<GoldenHourWindow> getGoldenHours() {
+        return goldenHourIndex.getItems();
+    }
+
+    /**
+     * Gets the golden hour whose window contains a point in time.
+     * When windows overlap, the one that started last wins.
+     *
+     * @param at the point in time
+     * @return the golden hour window, or null outside of every window
+     */
+    public GoldenHourWindow getGoldenHour(LocalDateTime at) {
+        return goldenHourIndex.find(at);
+    }
+
+    /**
+     * Gets the golden hours sharing at least one instant with a range, both ends included.
+     *
+     * @param start the start of the range
+     * @param end the end of the range
+     * @return the overlapping golden hour windows in start order
+     */
+    public List<GoldenHourWindow> getOverlappingGoldenHours(LocalDateTime start, LocalDateTime end) {
+        return goldenHourIndex.findOverlapping(start, end);
+    }
+
+    /**
+     * Gets the win probability in effect at a point in time, taking golden hours into account.
+     *
+     * @param at the point in time
+     * @return the win probability
+     */
+    public double getWinProbability(LocalDateTime at) {
+        GoldenHourWindow goldenHour = getGoldenHour(at);
+        return goldenHour != null ? goldenHour.getWinProbability() : winProbability;
+    }
+
+    /**
+     * Gets the first instant after {@code at} at which {@link #getWinProbability(LocalDateTime)}
+     * may change, i.e. the next start or end of a golden hour.
+     *
+     * @param at the point in time
+     * @return the next boundary, or null when no golden hour is ahead
+     */
+    public LocalDateTime getNextBoundary(LocalDateTime at) {
+        LocalDateTime next = goldenHourIndex.nextStartAfter(at);
+        GoldenHourWindow current = goldenHourIndex.find(at);
+        if (current != null) {
+            // Covering windows that started earlier only matter once the current one ends
+            LocalDateTime end = current.getEndTime().plusNanos(1);
+            if (next == null || end.isBefore(next)) {
+                next = end;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Checks whether a participant who used a number of spins today may spin again here.
+     *
+     * @param spinsUsedToday the spins used today
+     * @return true if the location has no daily spin limit or it is not reached yet
+     * @see EventLocation#isUnderDailySpinLimit(Integer, int)
+     */
+    public boolean isUnderDailySpinLimit(int spinsUsedToday) {
+        return EventLocation.isUnderDailySpinLimit(dailySpinLimit, spinsUsedToday);
+    }
+
+    /**
+     * Gets the ids of the active rewards.
+     *
+     * @return the reward ids in profile order
+     */
+    public List<Long> getRewardIds() {
+        return rewards.stream().map(RewardProfile::getId).toList();
+    }
+
+    /**
+     * Checks whether this profile depends on an event.
+     *
+     * @param eventId the event id
+     * @return true if the location belongs to the event
+     */
+    public boolean belongsToEvent(Long eventId) {
+        return Objects.equals(this.eventId, eventId);
+    }
+
+    /**
+     * Checks whether this profile depends on a region.
+     *
+     * @param regionId the region id
+     * @return true if the location belongs to the region
+     */
+    public boolean belongsToRegion(Long regionId) {
+        return Objects.equals(this.regionId, regionId);
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * The settings of an active reward.
+     */
+    @Getter
+    public static final class RewardProfile {
+
+        private final Long id;
+        private final String code;
+        private final String name;
+        private final Integer points;
+        private final Double winProbability;
+        private final LocalDateTime validFrom;
+        private final LocalDateTime validUntil;
+        private final Integer dailyLimit;
+
+        RewardProfile(Long id, String code, String name, Integer points, Double winProbability,
+                      LocalDateTime validFrom, LocalDateTime validUntil, Integer dailyLimit) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+            this.points = points;
+            this.winProbability = winProbability;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.dailyLimit = dailyLimit;
+        }
+    }
+
+    /**
+     * The resolved settings of a golden hour.
+     */
+    @Getter
+    public static final class GoldenHourWindow {
+
+        private final Long id;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final double winProbability;
+        private final double pointsMultiplier;
+        private final Integer dailyLimit;
+
+        GoldenHourWindow(Long id, LocalDateTime startTime, LocalDateTime endTime, double winProbability,
+                         Double pointsMultiplier, Integer dailyLimit) {
+            this.id = id;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.winProbability = winProbability;
+            this.pointsMultiplier = pointsMultiplier != null ? pointsMultiplier : 1.0;
+            this.dailyLimit = dailyLimit;
+        }
+
+        /**
+         * Checks whether a point in time is inside this window, both ends included.
+         *
+         * @param at the point in time
+         * @return true if the window contains the point in time
+         */
+        public boolean contains(LocalDateTime at) {
+            return !at.isBefore(startTime) && !at.isAfter(endTime);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package vn.com.fecredit.app.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+import lombok.Getter;
+import vn.com.fecredit.app.entity.Reward;
+
+/**
+ * Precomputed draw table for the rewards of a single event location.
+ * <p>
+ * Each available reward occupies one slot of an {@link AliasTable} weighted by its win
+ * probability, and one extra slot holds the probability of not winning anything. The table
+ * also carries the number of units each reward may still hand out, so a draw can claim a
+ * unit without reading the database. A table is valid until {@link #getExpiresAt()}; after
+ * that, or once a reward runs out, the owner is expected to build a new one.
+ */
+@Getter
+public final class RewardAliasTable {
+
+    private final Long locationId;
+    private final Long eventId;
+    private final List<Slot> slots;
+    private final LocalDateTime builtAt;
+    private final LocalDateTime expiresAt;
+    private final double winProbability;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final AliasTable aliasTable;
+
+    private RewardAliasTable(Long locationId, Long eventId, List<Slot> slots, AliasTable aliasTable,
+                             LocalDateTime builtAt, LocalDateTime expiresAt, double winProbability) {
+        this.locationId = locationId;
+        this.eventId = eventId;
+        this.slots = Collections.unmodifiableList(slots);
+        this.aliasTable = aliasTable;
+        this.builtAt = builtAt;
+        this.expiresAt = expiresAt;
+        this.winProbability = winProbability;
+    }
+
+    /**
+     * Builds the draw table for a location.
+     * <p>
+     * A reward takes part when it is inside its validity window, has remaining quantity and
+     * has not reached its daily limit. Rewards with an explicit {@code winProbability} use it
+     * as their weight; rewards without one share {@code defaultWinProbability} equally. If the
+     * weights add up to less than one, the remainder becomes the losing slot, otherwise the
+     * weights are normalized and every draw wins.
+     *
+     * @param locationId the event location id
+     * @param eventId the event id
+     * @param rewards the active rewards of the location
+     * @param defaultWinProbability the effective win probability of the location
+     * @param now the build time
+     * @return the draw table
+     */
+    public static RewardAliasTable build(Long locationId, Long eventId, Collection<Reward> rewards,
+                                         double defaultWinProbability, LocalDateTime now) {
+        LocalDateTime expiresAt = now.toLocalDate().plusDays(1).atStartOfDay();
+        List<Reward> candidates = new ArrayList<>();
+        int unassigned = 0;
+
+        for (Reward reward : rewards) {
+            if (reward.getValidFrom() != null && reward.getValidFrom().isAfter(now)) {
+                expiresAt = min(expiresAt, reward.getValidFrom());
+                continue;
+            }
+            if (reward.getValidFrom() == null || reward.getValidUntil() == null
+                    || reward.getValidUntil().isBefore(now) || capacityOf(reward) <= 0) {
+                continue;
+            }
+            candidates.add(reward);
+            expiresAt = min(expiresAt, reward.getValidUntil().plusNanos(1));
+            if (reward.getWinProbability() == null) {
+                unassigned++;
+            }
+        }
+
+        double sharedWeight = unassigned > 0 ? Math.max(0, defaultWinProbability) / unassigned : 0;
+        double[] weights = new double[candidates.size() + 1];
+        double totalWin = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Reward reward = candidates.get(i);
+            weights[i] = reward.getWinProbability() != null
+                ? Math.max(0, reward.getWinProbability())
+                : sharedWeight;
+            totalWin += weights[i];
+        }
+        // Whatever is not won is lost; a table without any weight always loses
+        weights[candidates.size()] = totalWin > 0 ? Math.max(0, 1.0 - totalWin) : 1.0;
+        double total = totalWin + weights[candidates.size()];
+
+        List<Slot> slots = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Reward reward = candidates.get(i);
+            slots.add(new Slot(reward.getId(), reward.getCode(), reward.getName(), reward.getPoints(),
+                weights[i] / total, capacityOf(reward)));
+        }
+
+        return new RewardAliasTable(locationId, eventId, slots, AliasTable.of(weights),
+            now, expiresAt, totalWin / total);
+    }
+
+    /**
+     * Draws a slot and tries to claim one unit of its reward.
+     *
+     * @param random the random generator to draw from
+     * @return the claimed slot, or null when the draw lost or the drawn reward is exhausted
+     */
+    public Slot draw(RandomGenerator random) {
+        int index = aliasTable.sample(random);
+        if (index >= slots.size()) {
+            return null;
+        }
+        Slot slot = slots.get(index);
+        return slot.tryClaim() ? slot : null;
+    }
+
+    /**
+     * Checks whether this table must be rebuilt, either because it has expired or because
+     * one of its rewards ran out of units.
+     *
+     * @param now the current time
+     * @return true if the table is stale
+     */
+    public boolean isStale(LocalDateTime now) {
+        if (!now.isBefore(expiresAt)) {
+            return true;
+        }
+        for (Slot slot : slots) {
+            if (slot.getRemaining() <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int capacityOf(Reward reward) {
+        int remaining = reward.getRemainingQuantity() != null ? reward.getRemainingQuantity() : 0;
+        if (reward.getDailyLimit() != null) {
+            remaining = Math.min(remaining, reward.getDailyLimit() - reward.getDailyCount());
+        }
+        return remaining;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * A reward entry in the draw table.
+     */
+    @Getter
+    public static final class Slot {
+
+        private final Long rewardId;
+        private final String rewardCode;
+        private final String rewardName;
+        private final Integer points;
+        private final double probability;
+
+        @Getter(lombok.AccessLevel.NONE)
+        private final AtomicInteger remaining;
+
+        Slot(Long rewardId, String rewardCode, String rewardName, Integer points,
+             double probability, int remaining) {
+            this.rewardId = rewardId;
+            this.rewardCode = rewardCode;
+            this.rewardName = rewardName;
+            this.points = points;
+            this.probability = probability;
+            this.remaining = new AtomicInteger(remaining);
+        }
+
+        /**
+         * Gets the number of units this slot may still hand out.
+         *
+         * @return the remaining units
+         */
+        public int getRemaining() {
+            return remaining.get();
+        }
+
+        boolean tryClaim() {
+            int current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package vn.com.fecredit.app.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of records kept in memory-mapped segment files.
+ * <p>
+ * Each record is stored as its payload length, a CRC32C of the payload and the payload.
+ * Segments have a fixed size and are zero-filled when created, so a length of zero marks
+ * the end of a segment's records; a record that does not fit in the rest of a segment
+ * starts the next one. Appending only copies the record into the mapped file, which the
+ * operating system writes out even if the process dies; how often the pages are forced to
+ * the device is chosen with {@link Fsync}.
+ * <p>
+ * Records are consumed in order from a checkpoint, which is stored in its own file and
+ * replaced atomically; segments entirely before the checkpoint are deleted. When a
+ * journal is opened, every segment from the checkpoint on is scanned and ends at its
+ * first record that is incomplete or fails its checksum, so a record torn by a crash is
+ * dropped together with everything written after it, and the rest of that segment is
+ * zeroed before appending continues. A record found corrupt later, once the journal is
+ * open, is still handed to the reader, marked as such, so that it can be set aside and
+ * checkpointed past instead of blocking every record behind it.
+ * <p>
+ * Appends are serialized by the journal; a single consumer may read concurrently.
+ */
+public final class SpinJournal implements Closeable {
+
+    /**
+     * When appended records are forced to the storage device.
+     */
+    public enum Fsync {
+        /**
+         * Every record before its append returns.
+         */
+        ALWAYS,
+        /**
+         * Whenever {@link #force()} is called, typically on a timer.
+         */
+        INTERVAL,
+        /**
+         * Left to the operating system; records survive a crash of the process but not
+         * of the machine.
+         */
+        NONE
+    }
+
+    private static final int HEADER = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Fsync fsync;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment head;
+    private int unforced;
+    private volatile Position checkpoint;
+
+    /**
+     * Opens the journal in a directory, creating it if needed, and recovers its end.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of a segment file in bytes
+     * @param fsync when appended records are forced to the device
+     * @throws IOException if the journal cannot be read or created
+     */
+    public SpinJournal(Path directory, int segmentSize, Fsync fsync) throws IOException {
+        if (segmentSize < 4 * HEADER) {
+            throw new IllegalArgumentException("Segment size too small");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = Objects.requireNonNull(fsync);
+        Files.createDirectories(directory);
+        checkpoint = readCheckpoint();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long index = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                    if (index < checkpoint.segment) {
+                        Files.delete(file);
+                    } else {
+                        segments.put(index, Segment.open(file, index, segmentSize));
+                    }
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(checkpoint.segment, createSegment(checkpoint.segment));
+        }
+        for (Segment segment : segments.values()) {
+            segment.recover();
+        }
+        head = segments.lastEntry().getValue();
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param payload the record, not empty
+     * @return the position just after the record
+     * @throws UncheckedIOException if a new segment cannot be created
+     */
+    public synchronized Position append(byte[] payload) {
+        int length = HEADER + payload.length;
+        if (payload.length == 0 || length > segmentSize) {
+            throw new IllegalArgumentException("Record must be between 1 and " + (segmentSize - HEADER) + " bytes");
+        }
+        if (head.limit + length > segmentSize) {
+            roll();
+        }
+        int offset = head.limit;
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        head.buffer.putInt(offset + 4, (int) crc.getValue());
+        head.buffer.put(offset + HEADER, payload);
+        head.buffer.putInt(offset, payload.length);
+        if (fsync == Fsync.ALWAYS) {
+            head.buffer.force(offset, length);
+        } else {
+            unforced++;
+        }
+        // Publishing the new limit makes the record visible to the consumer
+        head.limit = offset + length;
+        return new Position(head.index, head.limit);
+    }
+
+    /**
+     * Forces the records appended since the last call to the storage device.
+     */
+    public synchronized void force() {
+        if (unforced > 0) {
+            head.buffer.force();
+            unforced = 0;
+        }
+    }
+
+    /**
+     * Reads records in order.
+     *
+     * @param from the position to read from, usually the checkpoint
+     * @param max the maximum number of records
+     * @return the records, empty when {@code from} is the end of the journal; a record that
+     *     fails its checksum is returned {@linkplain Entry#isCorrupt() corrupt}, and when its
+     *     length is damaged too it spans the rest of its segment
+     */
+    public List<Entry> read(Position from, int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, 1024));
+        for (Segment segment : segments.tailMap(from.segment, true).values()) {
+            int offset = segment.index == from.segment ? from.offset : 0;
+            int limit = segment.limit;
+            while (offset < limit && entries.size() < max) {
+                int length = segment.buffer.getInt(offset);
+                if (length <= 0 || length > limit - offset - HEADER) {
+                    // The length itself is damaged, so the rest of the segment cannot be walked
+                    byte[] payload = new byte[limit - offset];
+                    segment.buffer.get(offset, payload);
+                    entries.add(new Entry(new Position(segment.index, offset), new Position(segment.index, limit),
+                        payload, true));
+                    break;
+                }
+                byte[] payload = new byte[length];
+                segment.buffer.get(offset + HEADER, payload);
+                boolean corrupt = segment.buffer.getInt(offset + 4) != checksum(payload);
+                Position position = new Position(segment.index, offset);
+                offset += HEADER + length;
+                entries.add(new Entry(position, new Position(segment.index, offset), payload, corrupt));
+            }
+            if (entries.size() >= max) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything before a position has been consumed and deletes the
+     * segments no longer needed.
+     *
+     * @param position the position just after the last consumed record
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public synchronized void checkpoint(Position position) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer data = ByteBuffer.allocate(16).putLong(position.segment).putInt(position.offset);
+        CRC32C crc = new CRC32C();
+        crc.update(data.array(), 0, 12);
+        data.putInt((int) crc.getValue()).flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(data);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = position;
+
+        while (segments.firstKey() < position.segment) {
+            Segment segment = segments.pollFirstEntry().getValue();
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+        }
+    }
+
+    /**
+     * Gets the position consumption continues from.
+     *
+     * @return the last checkpoint
+     */
+    public Position getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Gets the bytes appended after the checkpoint.
+     *
+     * @return the size of the records not consumed yet, headers included
+     */
+    public long getBacklogBytes() {
+        Position from = checkpoint;
+        long bytes = 0;
+        for (Segment segment : segments.tailMap(from.segment, true).values()) {
+            bytes += segment.limit - (segment.index == from.segment ? from.offset : 0);
+        }
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (fsync != Fsync.NONE) {
+            force();
+        }
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    private void roll() {
+        if (fsync == Fsync.INTERVAL) {
+            force();
+        }
+        long index = head.index + 1;
+        try {
+            Segment segment = createSegment(index);
+            segments.put(index, segment);
+            head = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + index, e);
+        }
+    }
+
+    private Segment createSegment(long index) throws IOException {
+        return Segment.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX)),
+            index, segmentSize);
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return new Position(0, 0);
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32C crc = new CRC32C();
+        crc.update(data.array(), 0, Math.min(12, data.limit()));
+        if (data.limit() != 16 || data.getInt(12) != (int) crc.getValue()) {
+            throw new IOException("Corrupt journal checkpoint " + file);
+        }
+        return new Position(data.getLong(0), data.getInt(8));
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A place in the journal: a segment and a byte offset within it.
+     */
+    public static final class Position implements Comparable<Position> {
+
+        private final long segment;
+        private final int offset;
+
+        public Position(long segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public long getSegment() {
+            return segment;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Position position && compareTo(position) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(segment) * 31 + offset;
+        }
+
+        @Override
+        public String toString() {
+            return segment + ":" + offset;
+        }
+    }
+
+    /**
+     * A record read from the journal.
+     */
+    public static final class Entry {
+
+        private final Position position;
+        private final Position next;
+        private final byte[] payload;
+        private final boolean corrupt;
+
+        private Entry(Position position, Position next, byte[] payload, boolean corrupt) {
+            this.position = position;
+            this.next = next;
+            this.payload = payload;
+            this.corrupt = corrupt;
+        }
+
+        public Position getPosition() {
+            return position;
+        }
+
+        /**
+         * Gets the position just after this record, to checkpoint once it is consumed.
+         *
+         * @return the position of the following record
+         */
+        public Position getNext() {
+            return next;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+
+        /**
+         * Tells whether the record failed its checksum after the journal was opened, in
+         * which case the payload holds the bytes as read and must not be trusted.
+         *
+         * @return {@code true} if the record is corrupt
+         */
+        public boolean isCorrupt() {
+            return corrupt;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        /**
+         * Bytes holding complete records, written only under the journal lock.
+         */
+        private volatile int limit;
+
+        private Segment(Path file, long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path file, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(file, index, channel, buffer);
+        }
+
+        private void recover() {
+            int size = buffer.capacity();
+            int offset = 0;
+            while (offset + HEADER <= size) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || length > size - offset - HEADER) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER, payload);
+                if (buffer.getInt(offset + 4) != checksum(payload)) {
+                    break;
+                }
+                offset += HEADER + length;
+            }
+            limit = offset;
+            // Zero a torn tail so that it can never be read back as a record
+            for (int i = offset; i < size; i++) {
+                if (buffer.get(i) != 0) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package vn.com.fecredit.app.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executor that runs tasks with the same key one after another, in submission order.
+ * <p>
+ * Tasks are spread by key over a fixed number of lanes, each backed by a single thread and
+ * a bounded queue. Two tasks for the same key always land on the same lane and therefore
+ * never overlap, while tasks for keys on different lanes run in parallel. A task submitted
+ * to a full lane is rejected instead of piling up.
+ */
+public final class StripedExecutor {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final int mask;
+
+    /**
+     * Creates an executor.
+     *
+     * @param name the prefix of the lane thread names
+     * @param lanes the number of lanes, rounded up to a power of two
+     * @param queueCapacity the maximum number of waiting tasks per lane
+     */
+    public StripedExecutor(String name, int lanes, int queueCapacity) {
+        int size = lanes <= 1 ? 1 : Integer.highestOneBit(lanes - 1) << 1;
+        this.lanes = new ThreadPoolExecutor[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            String threadName = name + "-" + i;
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    /**
+     * Queues a task behind every task already submitted for the same key.
+     *
+     * @param key the key to serialize on
+     * @param task the task
+     * @return the result of the task
+     * @throws RejectedExecutionException if the lane of the key is full or shut down
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[laneOf(key)]);
+    }
+
+    /**
+     * Gets the lane a key is serialized on.
+     *
+     * @param key the key
+     * @return the lane index
+     */
+    public int laneOf(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Gets the number of tasks waiting on a lane, not counting the running one.
+     *
+     * @param lane the lane index
+     * @return the queue depth
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    /**
+     * Gets the number of tasks waiting on all lanes.
+     *
+     * @return the total queue depth
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            depth += lane.getQueue().size();
+        }
+        return depth;
+    }
+
+    /**
+     * Gets the number of lanes.
+     *
+     * @return the lane count
+     */
+    public int getLanes() {
+        return lanes.length;
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued ones to finish.
+     *
+     * @param timeout the maximum time to wait per lane
+     * @param unit the unit of {@code timeout}
+     * @return true if every lane drained in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        boolean terminated = true;
+        for (ThreadPoolExecutor lane : lanes) {
+            terminated &= lane.awaitTermination(timeout, unit);
+        }
+        return terminated;
+    }
+}
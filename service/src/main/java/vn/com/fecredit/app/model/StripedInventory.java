@@ -0,0 +1,198 @@
+package vn.com.fecredit.app.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free in-memory stock of a single reward.
+ * <p>
+ * The remaining units are partitioned over a number of stripes, each on its own cache
+ * line, and a thread first takes from the stripe its id maps to. Because units are only
+ * ever moved out of a stripe with a compare-and-set that refuses to go below zero, the
+ * sum of what is handed out can never exceed the stock the inventory was created with.
+ * An optional daily allowance is enforced the same way with a bounded counter that
+ * refills when the day changes. Units taken since the last call to
+ * {@link #drainConsumed()} are tracked so they can be written back in batches.
+ */
+public final class StripedInventory {
+
+    /**
+     * Distance between two stripes in the backing array: 16 longs = 128 bytes, enough to
+     * keep neighbouring stripes off the same cache line even with adjacent-line prefetch.
+     */
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+    private final LongAdder consumed = new LongAdder();
+
+    private final Integer dailyLimit;
+    private final AtomicInteger dailyRemaining;
+    private volatile long day;
+
+    /**
+     * Creates an inventory.
+     *
+     * @param stripes the number of stripes, rounded up to a power of two
+     * @param remaining the units in stock
+     * @param dailyLimit the maximum units per day, or null for no limit
+     * @param dailyUsed the units already handed out on {@code day}
+     * @param day the epoch day {@code dailyUsed} belongs to
+     */
+    public StripedInventory(int stripes, long remaining, Integer dailyLimit, int dailyUsed, long day) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = stripes <= 1 ? 1 : size;
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        long units = Math.max(0, remaining);
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PADDING, units / this.stripes + (i < units % this.stripes ? 1 : 0));
+        }
+        this.dailyLimit = dailyLimit;
+        this.dailyRemaining = new AtomicInteger(dailyLimit != null ? Math.max(0, dailyLimit - dailyUsed) : 0);
+        this.day = day;
+    }
+
+    /**
+     * Takes one unit.
+     *
+     * @param today the current epoch day
+     * @return true if a unit was taken, false if the stock or today's allowance is used up
+     */
+    public boolean tryAcquire(long today) {
+        if (dailyLimit != null && !tryAcquireDaily(today)) {
+            return false;
+        }
+        int home = probe();
+        for (int i = 0; i < stripes; i++) {
+            if (tryDecrement(((home + i) & (stripes - 1)) * PADDING)) {
+                consumed.increment();
+                return true;
+            }
+        }
+        if (dailyLimit != null) {
+            dailyRemaining.incrementAndGet();
+        }
+        return false;
+    }
+
+    /**
+     * Gives back a unit taken with {@link #tryAcquire(long)}, for example because the spin
+     * that won it could not be recorded.
+     */
+    public void release() {
+        cells.incrementAndGet(probe() * PADDING);
+        consumed.decrement();
+        if (dailyLimit != null) {
+            dailyRemaining.incrementAndGet();
+        }
+    }
+
+    /**
+     * Puts additional units into stock, spread over the stripes.
+     *
+     * @param units the units to add
+     */
+    public void addUnits(long units) {
+        if (units <= 0) {
+            return;
+        }
+        for (int i = 0; i < stripes; i++) {
+            long share = units / stripes + (i < units % stripes ? 1 : 0);
+            if (share > 0) {
+                cells.addAndGet(i * PADDING, share);
+            }
+        }
+    }
+
+    /**
+     * Takes every unit left out of stock, for example to hand it back to a shared pool.
+     * Units taken concurrently by {@link #tryAcquire(long)} are not included.
+     *
+     * @return the units removed
+     */
+    public long drainRemaining() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * Gets the units in stock. The value is exact only when no thread is acquiring.
+     *
+     * @return the remaining units
+     */
+    public long getRemaining() {
+        long remaining = 0;
+        for (int i = 0; i < stripes; i++) {
+            remaining += cells.get(i * PADDING);
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns the net units taken since the previous call and resets the count.
+     *
+     * @return the units to write back
+     */
+    public long drainConsumed() {
+        return consumed.sumThenReset();
+    }
+
+    /**
+     * Puts back a count returned by {@link #drainConsumed()} that could not be written.
+     *
+     * @param units the units to account for again
+     */
+    public void restoreConsumed(long units) {
+        consumed.add(units);
+    }
+
+    /**
+     * Gets the number of stripes.
+     *
+     * @return the stripe count
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    private boolean tryAcquireDaily(long today) {
+        if (today != day) {
+            rollOver(today);
+        }
+        int current;
+        do {
+            current = dailyRemaining.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!dailyRemaining.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    private synchronized void rollOver(long today) {
+        if (today > day) {
+            dailyRemaining.set(dailyLimit);
+            day = today;
+        }
+    }
+
+    private boolean tryDecrement(int index) {
+        long current;
+        do {
+            current = cells.get(index);
+            if (current <= 0) {
+                return false;
+            }
+        } while (!cells.compareAndSet(index, current, current - 1));
+        return true;
+    }
+
+    private int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & (stripes - 1);
+    }
+}
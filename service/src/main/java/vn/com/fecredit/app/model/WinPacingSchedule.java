@@ -0,0 +1,142 @@
+package vn.com.fecredit.app.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evenly spaced win slots of one reward.
+ * <p>
+ * The units of a reward are spread over its window: slot {@code i} of {@code n} opens at
+ * {@code start + i * (end - start) / n}. A win may only be awarded while a slot is open
+ * that nobody claimed yet, so a reward cannot be drained in the first minutes of a
+ * campaign. Slots nobody claimed stay open and carry over, which lets a quiet morning be
+ * made up later in the day. A schedule built after part of the window has passed starts
+ * with the units already awarded counted as claimed. Checking and claiming a slot is a
+ * single compare-and-set, and instances are safe to share between threads.
+ */
+public final class WinPacingSchedule {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long slots;
+    private final long startNanos;
+    private final double intervalNanos;
+    private final AtomicLong claimed = new AtomicLong();
+
+    private WinPacingSchedule(long slots, long claimed, long startNanos, double intervalNanos) {
+        this.slots = slots;
+        this.startNanos = startNanos;
+        this.intervalNanos = intervalNanos;
+        this.claimed.set(claimed);
+    }
+
+    /**
+     * Spreads units over a window. When the window is empty or already over, every slot
+     * opens at its start.
+     *
+     * @param units the units to award
+     * @param start the opening time of the first slot
+     * @param end the end of the window
+     * @return the schedule
+     */
+    public static WinPacingSchedule of(long units, LocalDateTime start, LocalDateTime end) {
+        return of(units, 0, start, end);
+    }
+
+    /**
+     * Spreads units over a window of which some were already awarded.
+     *
+     * @param units all units of the window, awarded or not
+     * @param awarded the units awarded so far, which claim the first slots
+     * @param start the opening time of the first slot
+     * @param end the end of the window
+     * @return the schedule
+     */
+    public static WinPacingSchedule of(long units, long awarded, LocalDateTime start, LocalDateTime end) {
+        long slots = Math.max(0, units);
+        long from = toNanos(start);
+        long span = Math.max(0, toNanos(end) - from);
+        return new WinPacingSchedule(slots, Math.min(slots, Math.max(0, awarded)), from,
+            slots > 0 ? (double) span / slots : 0);
+    }
+
+    /**
+     * Creates a schedule whose slots are always open.
+     *
+     * @return the schedule
+     */
+    public static WinPacingSchedule unpaced() {
+        return new WinPacingSchedule(Long.MAX_VALUE, 0, Long.MIN_VALUE, 0);
+    }
+
+    /**
+     * Claims the next slot if it is open.
+     *
+     * @param at the current time
+     * @return true if a slot was claimed
+     */
+    public boolean tryClaim(LocalDateTime at) {
+        long now = toNanos(at);
+        while (true) {
+            long next = claimed.get();
+            if (next >= slots || opensAt(next) > now) {
+                return false;
+            }
+            if (claimed.compareAndSet(next, next + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a claimed slot whose win was not awarded after all.
+     */
+    public void release() {
+        claimed.getAndUpdate(current -> current > 0 ? current - 1 : 0);
+    }
+
+    /**
+     * Gets the number of slots open and not claimed yet.
+     *
+     * @param at the current time
+     * @return the open slots
+     */
+    public long getOpenSlots(LocalDateTime at) {
+        return Math.max(0, getOpenedSlots(at) - claimed.get());
+    }
+
+    /**
+     * Gets the number of slots opened so far, claimed or not.
+     *
+     * @param at the current time
+     * @return the opened slots
+     */
+    public long getOpenedSlots(LocalDateTime at) {
+        long now = toNanos(at);
+        if (now < startNanos) {
+            return 0;
+        }
+        return intervalNanos == 0
+            ? slots
+            : Math.min(slots, (long) ((now - startNanos) / intervalNanos) + 1);
+    }
+
+    /**
+     * Gets the number of slots claimed so far.
+     *
+     * @return the claimed slots
+     */
+    public long getClaimed() {
+        return claimed.get();
+    }
+
+    private long opensAt(long slot) {
+        return startNanos + (long) (slot * intervalNanos);
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        // Only differences matter, so any fixed offset will do
+        return time.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + time.getNano();
+    }
+}
@@ -0,0 +1,12 @@
+package vn.com.fecredit.app.service;
+
+public interface EventSpinBudgetService {
+
+    boolean tryConsume(Long eventId);
+
+    void release(Long eventId);
+
+    long getRemaining(Long eventId);
+
+    void compact();
+}
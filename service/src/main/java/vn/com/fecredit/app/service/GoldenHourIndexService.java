@@ -0,0 +1,17 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.model.LocationSpinProfile.GoldenHourWindow;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface GoldenHourIndexService {
+
+    Optional<GoldenHourWindow> findActive(Long locationId, LocalDateTime at);
+
+    boolean isGoldenHourActive(Long eventId, Long locationId, LocalDateTime at);
+
+    double getGoldenHourMultiplier(Long eventId, Long locationId, LocalDateTime at);
+
+    boolean hasOverlappingHours(Long locationId, LocalDateTime start, LocalDateTime end, Long excludedId);
+}
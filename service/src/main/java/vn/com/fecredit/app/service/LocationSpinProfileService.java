@@ -0,0 +1,14 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.model.LocationSpinProfile;
+
+public interface LocationSpinProfileService {
+
+    LocationSpinProfile getProfile(Long locationId);
+
+    void invalidateLocation(Long locationId);
+
+    void invalidateEvent(Long eventId);
+
+    void invalidateRegion(Long regionId);
+}
@@ -0,0 +1,16 @@
+package vn.com.fecredit.app.service;
+
+public interface ReferenceDataCacheService {
+
+    void evictRegion(Long regionId);
+
+    void evictProvince(Long provinceId, Long regionId);
+
+    void evictRole(Long roleId);
+
+    void evictEvent(Long eventId);
+
+    void evictAll();
+
+    double getHitRatio(String region);
+}
@@ -0,0 +1,18 @@
+package vn.com.fecredit.app.service;
+
+public interface RewardInventoryService {
+
+    String getNodeId();
+
+    boolean isStrict(Long rewardId);
+
+    boolean tryConsume(Long rewardId);
+
+    void release(Long rewardId);
+
+    long getRemaining(Long rewardId);
+
+    void flush();
+
+    void evict(Long rewardId);
+}
@@ -0,0 +1,18 @@
+package vn.com.fecredit.app.service;
+
+import java.time.LocalDateTime;
+
+public interface RewardLeaseService {
+
+    int acquire(Long rewardId, String nodeId, int units, LocalDateTime expiresAt);
+
+    boolean renew(Long rewardId, String nodeId, LocalDateTime expiresAt);
+
+    void applyConsumption(Long rewardId, String nodeId, int consumed, LocalDateTime syncedAt);
+
+    void giveBack(Long rewardId, String nodeId, int units);
+
+    void recover(Long rewardId, String nodeId);
+
+    int reclaimExpired();
+}
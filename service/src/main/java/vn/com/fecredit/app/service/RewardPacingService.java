@@ -0,0 +1,16 @@
+package vn.com.fecredit.app.service;
+
+import java.time.LocalDateTime;
+
+public interface RewardPacingService {
+
+    boolean tryClaim(Long rewardId);
+
+    void release(Long rewardId);
+
+    long getOpenSlots(Long rewardId);
+
+    long getOpenedSlots(Long rewardId, LocalDateTime at);
+
+    void evict(Long rewardId);
+}
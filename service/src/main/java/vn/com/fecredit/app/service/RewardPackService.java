@@ -0,0 +1,15 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import java.util.Map;
+
+public interface RewardPackService {
+
+    Map<Integer, Map<String, Integer>> initializePacks(Long locationId, int packCount);
+
+    SpinResultResponse draw(Long eventId, Long participantId, Long locationId);
+
+    Map<Integer, Map<String, Integer>> getPackContents(Long locationId);
+
+    void evictLocation(Long locationId);
+}
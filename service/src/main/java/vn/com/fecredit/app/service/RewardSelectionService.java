@@ -8,9 +8,9 @@ public interface RewardSelectionService {
 
     SpinResultResponse selectRandomReward(Long eventId, Long participantId, Long locationId);
     
-    Map<String, Double> calculateRewardProbabilities(Long eventId);
+    Map<Long, Double> calculateRewardProbabilities(Long eventId);
     
-    Map<String, Integer> getRewardDistribution(Long eventId);
+    Map<Long, Integer> getRewardDistribution(Long eventId);
     
     List<SpinResultResponse> getWinningHistory(Long eventId, Long locationId);
     
@@ -20,7 +20,9 @@ public interface RewardSelectionService {
     
     Map<String, Object> getLocationStatistics(Long eventId, Long locationId);
     
-    Map<String, Double> recalculateProbabilities(Long eventId);
+    Map<Long, Double> recalculateProbabilities(Long eventId);
     
     void validateSpinEligibility(Long eventId, Long participantId, Long locationId);
+
+    void invalidateLocation(Long locationId);
 }
@@ -0,0 +1,18 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public interface SpinAdmissionService {
+
+    SpinResultDTO execute(SpinRequest request, Supplier<SpinResultDTO> spin);
+
+    CompletableFuture<SpinResultDTO> submit(SpinRequest request, Supplier<CompletableFuture<SpinResultDTO>> spin);
+
+    int getInFlight(Long eventId);
+
+    int getLimit(Long eventId);
+}
@@ -0,0 +1,11 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface SpinBatchService {
+
+    CompletableFuture<SpinResultDTO> submit(SpinRequest request, Long participantEventId);
+}
@@ -0,0 +1,8 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.dto.SpinCommitDTO;
+
+public interface SpinCommitService {
+
+    SpinCommitDTO.Result commit(SpinCommitDTO.Request request);
+}
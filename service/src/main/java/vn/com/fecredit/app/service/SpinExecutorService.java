@@ -0,0 +1,13 @@
+package vn.com.fecredit.app.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public interface SpinExecutorService {
+
+    <T> CompletableFuture<T> submit(Long participantEventId, Supplier<T> spin);
+
+    <T> T execute(Long participantEventId, Supplier<T> spin);
+
+    int getQueueDepth();
+}
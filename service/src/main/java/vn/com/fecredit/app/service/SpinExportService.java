@@ -0,0 +1,17 @@
+package vn.com.fecredit.app.service;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import vn.com.fecredit.app.model.ExportProgress;
+
+public interface SpinExportService {
+
+    ExportProgress exportEventSpins(Long eventId, OutputStream output);
+
+    ExportProgress exportEventSpins(Long eventId, String filename);
+
+    ExportProgress exportRewardPacks(Long eventId, OutputStream output);
+
+    List<ExportProgress> getRunningExports();
+}
@@ -0,0 +1,10 @@
+package vn.com.fecredit.app.service;
+
+import java.time.LocalDate;
+
+public interface SpinHistoryPartitionService {
+
+    void maintain();
+
+    void maintain(LocalDate today);
+}
@@ -3,10 +3,13 @@ package vn.com.fecredit.app.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import vn.com.fecredit.app.dto.SpinHistoryDTO;
+import vn.com.fecredit.app.dto.common.PageRequest;
+import vn.com.fecredit.app.dto.common.PageResponse;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SpinHistoryService {
 
@@ -20,8 +23,13 @@ public interface SpinHistoryService {
     SpinHistoryDTO.Response getById(Long id);
     Page<SpinHistoryDTO.Response> findAll(Pageable pageable);
     Page<SpinHistoryDTO.Response> findAllByParticipantEvent(Long participantEventId, Pageable pageable);
-    List<SpinHistoryDTO.Summary> findAllByEventId(Long eventId);
-    List<SpinHistoryDTO.Summary> findAllByEventLocation(Long locationId);
+    PageResponse<SpinHistoryDTO.Response> scrollByParticipantEvent(Long participantEventId, PageRequest pageRequest);
+    Page<SpinHistoryDTO.Summary> findAllByEventId(Long eventId, Pageable pageable);
+    Page<SpinHistoryDTO.Summary> findAllByEventLocation(Long locationId, Pageable pageable);
+
+    // Streams are read through a database cursor; call them inside a transaction and close them
+    Stream<SpinHistoryDTO.Summary> streamAllByEventId(Long eventId);
+    Stream<SpinHistoryDTO.Summary> streamAllByEventLocation(Long locationId);
     Optional<SpinHistoryDTO.Response> findLatestSpin(Long participantEventId);
     
     // Statistics operations
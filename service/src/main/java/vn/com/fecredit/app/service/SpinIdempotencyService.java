@@ -0,0 +1,13 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+
+import java.util.function.Supplier;
+
+public interface SpinIdempotencyService {
+
+    SpinResultDTO execute(SpinRequest request, Supplier<SpinResultDTO> spin);
+
+    int getCachedKeys();
+}
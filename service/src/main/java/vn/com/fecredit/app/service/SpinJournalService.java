@@ -0,0 +1,12 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.entity.SpinHistory;
+
+public interface SpinJournalService {
+
+    SpinHistory append(SpinHistory spinHistory);
+
+    int load();
+
+    long getBacklogBytes();
+}
@@ -0,0 +1,28 @@
+package vn.com.fecredit.app.service;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of randomness for spin outcomes.
+ * <p>
+ * Every spin takes its own seed from {@link #nextSeed()} and draws from the generator
+ * returned by {@link #forSeed(long)}. Implementations must hand out seeds without shared
+ * mutable state between threads, and {@code forSeed} must be deterministic, so a recorded
+ * seed replays the exact random stream of a spin. {@link #getStreamIndex()} identifies the
+ * per-thread stream the calling thread takes its seeds from; it is recorded with the seed
+ * so an audit can tell which stream handed out a seed.
+ */
+public interface SpinRandomSource {
+
+    long nextSeed();
+
+    RandomGenerator forSeed(long seed);
+
+    int getStreamIndex();
+
+    String getAlgorithm();
+
+    default String describe(long seed) {
+        return "{\"rng\":\"" + getAlgorithm() + "\",\"seed\":" + seed + "}";
+    }
+}
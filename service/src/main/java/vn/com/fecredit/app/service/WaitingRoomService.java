@@ -0,0 +1,16 @@
+package vn.com.fecredit.app.service;
+
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.dto.WaitingRoomDTO;
+
+import java.util.function.Supplier;
+
+public interface WaitingRoomService {
+
+    WaitingRoomDTO.Ticket enter(SpinRequest request, Supplier<SpinResultDTO> spin);
+
+    WaitingRoomDTO.Ticket getTicket(String ticketId);
+
+    int getQueueLength(Long eventId);
+}
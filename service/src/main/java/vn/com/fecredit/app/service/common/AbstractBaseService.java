@@ -2,13 +2,17 @@ package vn.com.fecredit.app.service.common;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
 import vn.com.fecredit.app.dto.common.PageRequest;
+import vn.com.fecredit.app.dto.common.PageResponse;
 import vn.com.fecredit.app.dto.common.SearchRequest;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
 import vn.com.fecredit.app.exception.BusinessException;
 import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.repository.base.BaseRepository;
 import vn.com.fecredit.app.util.LoggingUtils;
 
 import java.util.List;
@@ -110,11 +114,26 @@ public abstract class AbstractBaseService<T extends AbstractStatusAwareEntity, I
 
     @Override
     public Page<R> getPage(PageRequest pageRequest) {
+        if (pageRequest.isKeysetMode()) {
+            throw new BusinessException("Cursor pages are read with scroll");
+        }
         return getRepository()
                 .findAll(pageRequest.toSpringPageRequest())
                 .map(this::mapToResponse);
     }
 
+    @Override
+    public PageResponse<R> scroll(PageRequest pageRequest) {
+        if (!(getRepository() instanceof BaseRepository<T, ID> repository)) {
+            throw new BusinessException("Cursor pages are not supported for " + getEntityClass().getSimpleName());
+        }
+        Sort sort = pageRequest.toKeysetSort("id", Sort.Direction.ASC);
+        Window<R> window = repository
+                .findAllBy(pageRequest.toScrollPosition(sort), sort, pageRequest.toLimit())
+                .map(this::mapToResponse);
+        return PageResponse.of(window, pageRequest.isCountRequested() ? count() : null);
+    }
+
     @Override
     public Page<R> search(SearchRequest searchRequest) {
         validateSearchRequest(searchRequest);
@@ -2,6 +2,7 @@ package vn.com.fecredit.app.service.common;
 
 import org.springframework.data.domain.Page;
 import vn.com.fecredit.app.dto.common.PageRequest;
+import vn.com.fecredit.app.dto.common.PageResponse;
 import vn.com.fecredit.app.dto.common.SearchRequest;
 import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
 
@@ -58,6 +59,11 @@ public interface BaseService<T extends AbstractStatusAwareEntity, ID, R, C, U> {
      */
     Page<R> getPage(PageRequest pageRequest);
 
+    /**
+     * Get a keyset page after the request's cursor, counted only when requested
+     */
+    PageResponse<R> scroll(PageRequest pageRequest);
+
     /**
      * Search with criteria
      */
@@ -10,9 +10,16 @@ import vn.com.fecredit.app.dto.EventDTO;
 import vn.com.fecredit.app.entity.Event;
 import vn.com.fecredit.app.exception.ResourceNotFoundException;
 import vn.com.fecredit.app.mapper.EventMapper;
+import vn.com.fecredit.app.projection.EventCountProjection;
 import vn.com.fecredit.app.repository.EventRepository;
 import vn.com.fecredit.app.service.EventService;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,12 +28,14 @@ public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public EventDTO.Response createEvent(EventDTO.CreateRequest request) {
         Event event = eventMapper.toEntity(request);
         event.setStatus(AbstractStatusAwareEntity.STATUS_ACTIVE);
         event = eventRepository.save(event);
+        referenceDataCacheService.evictEvent(event.getId());
         return eventMapper.toResponse(event);
     }
 
@@ -37,21 +46,22 @@ public class EventServiceImpl implements EventService {
             
         eventMapper.updateEntity(event, request);
         event = eventRepository.save(event);
-        return eventMapper.toResponse(event);
+        referenceDataCacheService.evictEvent(event.getId());
+        return toResponse(event);
     }
 
     @Override
     public EventDTO.Response getEventById(Long id) {
         Event event = eventRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Event", id));
-        return eventMapper.toResponse(event);
+        return toResponse(event);
     }
 
     @Override
     public EventDTO.Response findByCode(String code) {
         Event event = eventRepository.findByCode(code)
             .orElseThrow(() -> new ResourceNotFoundException("Event", "code", code));
-        return eventMapper.toResponse(event);
+        return toResponse(event);
     }
 
     @Override
@@ -60,17 +70,17 @@ public class EventServiceImpl implements EventService {
             .orElseThrow(() -> new ResourceNotFoundException("Event", id));
         event.setStatus(AbstractStatusAwareEntity.STATUS_DELETED);
         eventRepository.save(event);
+        referenceDataCacheService.evictEvent(id);
     }
 
     @Override
     public Page<EventDTO.Response> getAllEvents(Pageable pageable) {
-        return eventRepository.findAll(pageable).map(eventMapper::toResponse);
+        return toResponses(eventRepository.findAll(pageable));
     }
 
     @Override
     public Page<EventDTO.Response> listEvents(int status, Pageable pageable) {
-        return eventRepository.findByStatus(status, pageable)
-            .map(eventMapper::toResponse);
+        return toResponses(eventRepository.findByStatus(status, pageable));
     }
 
     @Override
@@ -79,20 +89,19 @@ public class EventServiceImpl implements EventService {
                                               LocalDateTime endDate, 
                                               int status, 
                                               Pageable pageable) {
-        return eventRepository.findBySearchCriteria(searchText, startDate, endDate, status, pageable)
-            .map(eventMapper::toResponse);
+        return toResponses(eventRepository.findBySearchCriteria(searchText, startDate, endDate, status, pageable));
     }
 
     @Override
     public EventDTO.Statistics getEventStatistics() {
-        return eventMapper.toStatistics(eventRepository.findAll());
+        return toStatistics(eventRepository.findAllWithLocations());
     }
 
     @Override
     public EventDTO.Statistics getEventStatistics(Long eventId) {
-        Event event = eventRepository.findById(eventId)
+        Event event = eventRepository.findByIdWithDetails(eventId)
             .orElseThrow(() -> new ResourceNotFoundException("Event", eventId));
-        return eventMapper.toStatistics(java.util.List.of(event));
+        return toStatistics(List.of(event));
     }
 
     @Override
@@ -101,7 +110,8 @@ public class EventServiceImpl implements EventService {
             .orElseThrow(() -> new ResourceNotFoundException("Event", id));
         event.setStatus(status);
         event = eventRepository.save(event);
-        return eventMapper.toResponse(event);
+        referenceDataCacheService.evictEvent(event.getId());
+        return toResponse(event);
     }
 
     @Override
@@ -125,4 +135,42 @@ public class EventServiceImpl implements EventService {
     public boolean canCreateNewEvent() {
         return !hasActiveEvent();
     }
+
+    private Page<EventDTO.Response> toResponses(Page<Event> events) {
+        Map<Long, EventCountProjection> counts = countLocationsAndParticipants(events.getContent());
+        return events.map(event -> toResponse(event, counts.get(event.getId())));
+    }
+
+    private EventDTO.Response toResponse(Event event) {
+        return toResponse(event, countLocationsAndParticipants(List.of(event)).get(event.getId()));
+    }
+
+    private EventDTO.Response toResponse(Event event, EventCountProjection counts) {
+        EventDTO.Response response = eventMapper.toResponse(event);
+        if (response != null && counts != null) {
+            response.setLocationCount((int) counts.getLocations());
+            response.setParticipantCount((int) counts.getParticipants());
+        }
+        return response;
+    }
+
+    private EventDTO.Statistics toStatistics(List<Event> events) {
+        long participants = countLocationsAndParticipants(events).values().stream()
+            .mapToLong(EventCountProjection::getParticipants)
+            .sum();
+        return eventMapper.toStatistics(events, participants);
+    }
+
+    /**
+     * Counts the locations and participants of the given events in one query, instead of
+     * loading every event's locations and their registrations.
+     */
+    private Map<Long, EventCountProjection> countLocationsAndParticipants(Collection<Event> events) {
+        if (events.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> eventIds = events.stream().map(Event::getId).toList();
+        return eventRepository.countLocationsAndParticipants(eventIds).stream()
+            .collect(Collectors.toMap(EventCountProjection::getEventId, Function.identity()));
+    }
 }
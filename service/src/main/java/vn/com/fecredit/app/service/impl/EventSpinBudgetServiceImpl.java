@@ -0,0 +1,142 @@
+package vn.com.fecredit.app.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.EventSpinCounterRepository;
+import vn.com.fecredit.app.service.EventSpinBudgetService;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Event-wide spin budget kept in sharded counter rows.
+ * <p>
+ * On first use the {@code remaining_spins} of an event are split over {@code shards}
+ * rows of {@code event_spin_counters}. Taking a spin decrements the first shard with
+ * spins left, starting from a random one, so concurrent spins of one event spread their
+ * row locks over all shards instead of queueing on the {@code events} row. The budget left
+ * is the sum over the shards. Events without {@code remaining_spins} have no event-wide
+ * budget and are never limited.
+ * <p>
+ * Random draining leaves some shards empty while others still hold spins, which makes
+ * spins probe further. Compaction periodically evens the shards out again and writes
+ * their total back to {@code events.remaining_spins}, which from then on is a snapshot.
+ * An admin edit of {@code remaining_spins} is not lost to that write-back: compaction
+ * applies the difference to the shards, so the edit takes effect within one interval.
+ * Compaction also forgets which events this node found without a budget, so a budget
+ * added since is sharded on its next spin. Shards counted inside a transaction are only
+ * remembered once it commits, so a rollback cannot leave this node counting shards that
+ * were never written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventSpinBudgetServiceImpl implements EventSpinBudgetService {
+
+    private final EventSpinCounterRepository eventSpinCounterRepository;
+    private final EventRepository eventRepository;
+    private final ReferenceDataCacheService referenceDataCacheService;
+
+    @Value("${app.spin.budget.shards:16}")
+    private int shards = 16;
+
+    /**
+     * Shard count per event, 0 for events without a budget.
+     */
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryConsume(Long eventId) {
+        int count = getShardCount(eventId);
+        if (count == 0) {
+            return true;
+        }
+        for (int attempt = 0; attempt < count; attempt++) {
+            int start = ThreadLocalRandom.current().nextInt(count);
+            if (eventSpinCounterRepository.decrement(eventId, start, count) == 1) {
+                return true;
+            }
+            // The chosen shard may have been drained concurrently while others still hold spins
+            if (eventSpinCounterRepository.sumRemainingByEventId(eventId) == 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void release(Long eventId) {
+        int count = getShardCount(eventId);
+        if (count > 0) {
+            eventSpinCounterRepository.increment(eventId, ThreadLocalRandom.current().nextInt(count));
+        }
+    }
+
+    /**
+     * Gets the spins left in the budget of an event.
+     *
+     * @param eventId the event id
+     * @return the sum over all shards, or {@link Long#MAX_VALUE} for an event without a budget
+     */
+    @Override
+    public long getRemaining(Long eventId) {
+        if (getShardCount(eventId) == 0) {
+            return Long.MAX_VALUE;
+        }
+        return eventSpinCounterRepository.sumRemainingByEventId(eventId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.spin.budget.compaction-interval-ms:60000}")
+    public void compact() {
+        shardCounts.values().removeIf(count -> count == 0);
+        for (Long eventId : eventSpinCounterRepository.findShardedEventIds()) {
+            try {
+                eventSpinCounterRepository.compact(eventId);
+                referenceDataCacheService.evictEvent(eventId);
+            } catch (RuntimeException e) {
+                log.error("Failed to compact spin budget of event {}", eventId, e);
+            }
+        }
+    }
+
+    private int getShardCount(Long eventId) {
+        Integer count = shardCounts.get(eventId);
+        if (count != null) {
+            return count;
+        }
+        // Loaded outside the map: computeIfAbsent would hold the bin for the reads and the shard insert
+        int counted = eventSpinCounterRepository.countShardsByEventId(eventId);
+        int loaded = counted > 0 ? counted : createShards(eventId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The shards counted may be this transaction's own, not committed yet
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    shardCounts.putIfAbsent(eventId, loaded);
+                }
+            });
+            return loaded;
+        }
+        Integer raced = shardCounts.putIfAbsent(eventId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private int createShards(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", eventId);
+        }
+        // Concurrent nodes create the same split, the loser's rows are skipped
+        eventSpinCounterRepository.createShards(eventId, shards);
+        return eventSpinCounterRepository.countShardsByEventId(eventId);
+    }
+}
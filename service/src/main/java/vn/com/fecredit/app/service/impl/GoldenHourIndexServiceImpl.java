@@ -0,0 +1,70 @@
+package vn.com.fecredit.app.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.model.LocationSpinProfile;
+import vn.com.fecredit.app.model.LocationSpinProfile.GoldenHourWindow;
+import vn.com.fecredit.app.repository.GoldenHourRepository;
+import vn.com.fecredit.app.service.GoldenHourIndexService;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Golden hour lookups answered from the interval index of the location's
+ * {@link LocationSpinProfile} instead of {@link GoldenHourRepository#findActive}.
+ * <p>
+ * The index is part of the profile, so it is recompiled and swapped in after every golden
+ * hour create, update or delete together with the rest of the profile. Usage limits of a
+ * golden hour are counters, not schedule, and stay with the caller. Overlap checks for a
+ * range starting before the profile's golden hour horizon fall back to the repository,
+ * because those golden hours are not indexed.
+ */
+@Service
+@RequiredArgsConstructor
+public class GoldenHourIndexServiceImpl implements GoldenHourIndexService {
+
+    private final LocationSpinProfileService locationSpinProfileService;
+    private final GoldenHourRepository goldenHourRepository;
+
+    @Override
+    public Optional<GoldenHourWindow> findActive(Long locationId, LocalDateTime at) {
+        return Optional.ofNullable(locationSpinProfileService.getProfile(locationId).getGoldenHour(at));
+    }
+
+    @Override
+    public boolean isGoldenHourActive(Long eventId, Long locationId, LocalDateTime at) {
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(locationId);
+        return profile.belongsToEvent(eventId) && profile.getGoldenHour(at) != null;
+    }
+
+    @Override
+    public double getGoldenHourMultiplier(Long eventId, Long locationId, LocalDateTime at) {
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(locationId);
+        if (!profile.belongsToEvent(eventId)) {
+            return 1.0;
+        }
+        GoldenHourWindow goldenHour = profile.getGoldenHour(at);
+        return goldenHour != null ? goldenHour.getPointsMultiplier() : 1.0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasOverlappingHours(Long locationId, LocalDateTime start, LocalDateTime end, Long excludedId) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new InvalidOperationException("Golden hour must end after it starts");
+        }
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(locationId);
+        if (start.isBefore(profile.getGoldenHourHorizon())) {
+            return goldenHourRepository.hasOverlappingHoursExcluding(locationId,
+                AbstractStatusAwareEntity.STATUS_ACTIVE, start, end, excludedId);
+        }
+        return profile.getOverlappingGoldenHours(start, end).stream()
+            .anyMatch(window -> !Objects.equals(window.getId(), excludedId));
+    }
+}
@@ -0,0 +1,124 @@
+package vn.com.fecredit.app.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+
+import java.util.Set;
+
+/**
+ * Invalidates {@link LocationSpinProfileService} profiles whenever an entity they are
+ * compiled from is committed.
+ * <p>
+ * Hooking into Hibernate instead of the individual services catches every write path,
+ * including cascades and entities saved through other aggregates. Updates that only touch
+ * counters the profile does not hold, such as reward stock or golden hour uses, are ignored
+ * so a busy location is not recompiled on every win.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationSpinProfileInvalidator implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> SOURCES = Set.of(
+        Event.class, Region.class, EventLocation.class, GoldenHour.class, Reward.class);
+
+    private static final Set<String> VOLATILE_PROPERTIES = Set.of(
+        "remainingQuantity", "dailyCount", "dailyCountDay", "inventorySyncedAt", "totalUses", "usesDay",
+        "version", "updatedAt", "updatedBy");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final LocationSpinProfileService locationSpinProfileService;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (touchesProfile(event)) {
+            changed(event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was committed, the profile is still current
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, the profile is still current
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was committed, the profile is still current
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return SOURCES.contains(persister.getMappedClass());
+    }
+
+    private boolean touchesProfile(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (!VOLATILE_PROPERTIES.contains(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void changed(Object entity) {
+        if (entity instanceof EventLocation location) {
+            locationSpinProfileService.invalidateLocation(location.getId());
+        } else if (entity instanceof Reward reward && reward.getEventLocation() != null) {
+            locationSpinProfileService.invalidateLocation(reward.getEventLocation().getId());
+        } else if (entity instanceof GoldenHour goldenHour && goldenHour.getEventLocation() != null) {
+            locationSpinProfileService.invalidateLocation(goldenHour.getEventLocation().getId());
+        } else if (entity instanceof Event event) {
+            locationSpinProfileService.invalidateEvent(event.getId());
+        } else if (entity instanceof Region region) {
+            locationSpinProfileService.invalidateRegion(region.getId());
+        }
+    }
+}
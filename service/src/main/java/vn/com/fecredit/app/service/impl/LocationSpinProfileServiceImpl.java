@@ -0,0 +1,159 @@
+package vn.com.fecredit.app.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.model.LocationSpinProfile;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.GoldenHourRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Registry of compiled {@link LocationSpinProfile}s.
+ * <p>
+ * A profile is compiled on first use and then served from memory, so the spin path reads
+ * plain values instead of walking the location, region, event and golden hour entities.
+ * When one of those sources changes, the affected profiles are recompiled on a single
+ * background thread and swapped in with one map write: readers keep the previous profile
+ * until the new one is complete and never see a partial or missing one. Invalidations
+ * made inside a transaction only take effect after it commits, so the new profile is
+ * compiled from the committed data. Rebuilds run one after another in invalidation order,
+ * so the last one always wins.
+ * <p>
+ * Readers that find no profile compile one each and register the first that is done. A
+ * rebuild only sees profiles already in the registry, so an invalidation that lands while
+ * a profile is first compiled would miss it. Every invalidation therefore bumps a version
+ * before its rebuild is queued, and a first compile that saw the version move queues a
+ * rebuild of its own location once the profile is registered.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocationSpinProfileServiceImpl implements LocationSpinProfileService {
+
+    private final EventLocationRepository eventLocationRepository;
+    private final RewardRepository rewardRepository;
+    private final GoldenHourRepository goldenHourRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, LocationSpinProfile> profiles = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private ExecutorService rebuilder;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spin-profile-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        rebuilder.shutdown();
+        rebuilder.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public LocationSpinProfile getProfile(Long locationId) {
+        LocationSpinProfile profile = profiles.get(locationId);
+        if (profile != null) {
+            return profile;
+        }
+        long compiledAt = version.get();
+        // Compiled outside the map: computeIfAbsent would hold the bin for the whole database read
+        LocationSpinProfile compiled = compile(locationId);
+        LocationSpinProfile raced = profiles.putIfAbsent(locationId, compiled);
+        profile = raced != null ? raced : compiled;
+        if (version.get() != compiledAt) {
+            rebuild(candidate -> candidate.getLocationId().equals(locationId));
+        }
+        return profile;
+    }
+
+    @Override
+    public void invalidateLocation(Long locationId) {
+        afterCommit(() -> rebuild(profile -> profile.getLocationId().equals(locationId)));
+    }
+
+    @Override
+    public void invalidateEvent(Long eventId) {
+        afterCommit(() -> rebuild(profile -> profile.belongsToEvent(eventId)));
+    }
+
+    @Override
+    public void invalidateRegion(Long regionId) {
+        afterCommit(() -> rebuild(profile -> profile.belongsToRegion(regionId)));
+    }
+
+    private void rebuild(Predicate<LocationSpinProfile> affected) {
+        version.incrementAndGet();
+        rebuilder.execute(() -> {
+            List<Long> locationIds = profiles.values().stream()
+                .filter(affected)
+                .map(LocationSpinProfile::getLocationId)
+                .toList();
+            for (Long locationId : locationIds) {
+                try {
+                    profiles.put(locationId, compile(locationId));
+                } catch (RuntimeException e) {
+                    // Deleted or unreadable: drop it and let the next reader compile or fail
+                    log.debug("Dropping spin profile of location {}: {}", locationId, e.getMessage());
+                    profiles.remove(locationId);
+                }
+            }
+        });
+    }
+
+    private LocationSpinProfile compile(Long locationId) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            EventLocation location = eventLocationRepository.findByIdWithRelationships(locationId)
+                .orElseThrow(() -> new ResourceNotFoundException("EventLocation", locationId));
+            return LocationSpinProfile.compile(
+                location,
+                rewardRepository.findByLocationAndStatus(location, AbstractStatusAwareEntity.STATUS_ACTIVE),
+                goldenHourRepository.findScheduled(locationId, AbstractStatusAwareEntity.STATUS_ACTIVE,
+                    LocationSpinProfile.goldenHourHorizon(now)),
+                now);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
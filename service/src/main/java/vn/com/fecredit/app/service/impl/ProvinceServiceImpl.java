@@ -12,6 +12,7 @@ import vn.com.fecredit.app.exception.InvalidOperationException;
 import vn.com.fecredit.app.mapper.ProvinceMapper;
 import vn.com.fecredit.app.repository.ProvinceRepository;
 import vn.com.fecredit.app.service.ProvinceService;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +24,7 @@ public class ProvinceServiceImpl implements ProvinceService {
 
     private final ProvinceRepository provinceRepository;
     private final ProvinceMapper provinceMapper;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public ProvinceDTO.Response createProvince(ProvinceDTO.CreateRequest request) {
@@ -31,6 +33,7 @@ public class ProvinceServiceImpl implements ProvinceService {
         }
         Province province = provinceMapper.toEntity(request);
         province = provinceRepository.save(province);
+        referenceDataCacheService.evictProvince(province.getId(), regionId(province));
         return provinceMapper.toResponse(province);
     }
 
@@ -41,8 +44,13 @@ public class ProvinceServiceImpl implements ProvinceService {
             provinceRepository.existsByCode(request.getCode())) {
             throw new InvalidOperationException("Province with code " + request.getCode() + " already exists");
         }
+        Long previousRegionId = regionId(province);
         provinceMapper.updateEntity(province, request);
         province = provinceRepository.save(province);
+        referenceDataCacheService.evictProvince(id, regionId(province));
+        if (previousRegionId != null && !previousRegionId.equals(regionId(province))) {
+            referenceDataCacheService.evictProvince(id, previousRegionId);
+        }
         return provinceMapper.toResponse(province);
     }
 
@@ -60,6 +68,7 @@ public class ProvinceServiceImpl implements ProvinceService {
             throw new InvalidOperationException("Cannot delete province with active participants");
         }
         provinceRepository.delete(province);
+        referenceDataCacheService.evictProvince(id, regionId(province));
     }
 
     @Override
@@ -104,6 +113,7 @@ public class ProvinceServiceImpl implements ProvinceService {
         Province province = findProvinceById(id);
         province.setStatus(1);
         provinceRepository.save(province);
+        referenceDataCacheService.evictProvince(id, regionId(province));
     }
 
     @Override
@@ -114,6 +124,7 @@ public class ProvinceServiceImpl implements ProvinceService {
         }
         province.setStatus(0);
         provinceRepository.save(province);
+        referenceDataCacheService.evictProvince(id, regionId(province));
     }
 
     @Override
@@ -157,4 +168,8 @@ public class ProvinceServiceImpl implements ProvinceService {
         return provinceRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Province", id));
     }
+
+    private static Long regionId(Province province) {
+        return province.getRegion() != null ? province.getRegion().getId() : null;
+    }
 }
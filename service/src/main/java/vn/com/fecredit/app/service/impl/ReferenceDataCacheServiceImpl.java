@@ -0,0 +1,162 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.Province;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Role;
+import vn.com.fecredit.app.entity.base.CacheRegions;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Evicts regions, provinces, roles and events from the Hibernate second-level cache when
+ * their services write them.
+ * <p>
+ * Hibernate keeps the cached copy of an entity saved through the session current, and
+ * drops cached query results once a table they read is written. It does not touch a
+ * cached collection from its inverse side, so {@code Region.provinces} would keep listing
+ * a province that was created, moved or deleted, and it cannot know about rows changed by
+ * SQL it did not run. Each write therefore evicts the entity, the collections it appears
+ * in and the reference query results, once right away and once more after the transaction
+ * commits, so a reader that loaded the old row in between does not leave it cached.
+ * <p>
+ * The cache is local to each node. A write on another node reaches this one only when
+ * the entries expire, as configured in {@code caffeine.conf}.
+ * <p>
+ * Published metrics, tagged by region: {@code cache.reference.hits},
+ * {@code cache.reference.misses} and {@code cache.reference.hit.ratio}. They need
+ * {@code hibernate.generate_statistics}, without which they stay at zero.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataCacheServiceImpl implements ReferenceDataCacheService {
+
+    static final List<String> REGIONS = List.of(
+        CacheRegions.REGION, CacheRegions.REGION_PROVINCES, CacheRegions.PROVINCE, CacheRegions.ROLE,
+        CacheRegions.ROLE_PERMISSIONS, CacheRegions.EVENT, CacheRegions.EVENT_PROVINCES, CacheRegions.QUERIES);
+
+    private static final String REGION_PROVINCES = Region.class.getName() + ".provinces";
+    private static final String ROLE_PERMISSIONS = Role.class.getName() + ".permissions";
+    private static final String EVENT_PROVINCES = Event.class.getName() + ".provinces";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    private SessionFactory sessionFactory;
+
+    @PostConstruct
+    void start() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        for (String region : REGIONS) {
+            FunctionCounter.builder("cache.reference.hits", region, name -> count(name, CacheRegionStatistics::getHitCount))
+                .description("Second-level cache lookups answered from the cache")
+                .tag("region", region)
+                .register(meterRegistry);
+            FunctionCounter.builder("cache.reference.misses", region, name -> count(name, CacheRegionStatistics::getMissCount))
+                .description("Second-level cache lookups that went to the database")
+                .tag("region", region)
+                .register(meterRegistry);
+            Gauge.builder("cache.reference.hit.ratio", region, this::getHitRatio)
+                .description("Share of second-level cache lookups answered from the cache")
+                .tag("region", region)
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void evictRegion(Long regionId) {
+        evict(cache -> {
+            cache.evictEntityData(Region.class, regionId);
+            cache.evictCollectionData(REGION_PROVINCES, regionId);
+        });
+    }
+
+    @Override
+    public void evictProvince(Long provinceId, Long regionId) {
+        evict(cache -> {
+            cache.evictEntityData(Province.class, provinceId);
+            if (regionId != null) {
+                cache.evictCollectionData(REGION_PROVINCES, regionId);
+            }
+        });
+    }
+
+    @Override
+    public void evictRole(Long roleId) {
+        evict(cache -> {
+            cache.evictEntityData(Role.class, roleId);
+            cache.evictCollectionData(ROLE_PERMISSIONS, roleId);
+        });
+    }
+
+    @Override
+    public void evictEvent(Long eventId) {
+        evict(cache -> {
+            cache.evictEntityData(Event.class, eventId);
+            cache.evictCollectionData(EVENT_PROVINCES, eventId);
+        });
+    }
+
+    @Override
+    public void evictAll() {
+        evict(Cache::evictAllRegions);
+    }
+
+    /**
+     * Gets the share of lookups in a region that were answered from the cache.
+     *
+     * @param region one of the {@link CacheRegions}
+     * @return the hit ratio, or NaN before the first lookup
+     */
+    @Override
+    public double getHitRatio(String region) {
+        long hits = count(region, CacheRegionStatistics::getHitCount);
+        long lookups = hits + count(region, CacheRegionStatistics::getMissCount);
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    private void evict(Consumer<Cache> eviction) {
+        Cache cache = sessionFactory.getCache();
+        eviction.accept(cache);
+        cache.evictQueryRegion(CacheRegions.QUERIES);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.accept(cache);
+                    cache.evictQueryRegion(CacheRegions.QUERIES);
+                }
+            });
+        }
+    }
+
+    private long count(String region, ToLongFunction<CacheRegionStatistics> counter) {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheRegionStatistics regionStatistics;
+        try {
+            regionStatistics = CacheRegions.QUERIES.equals(region)
+                ? statistics.getQueryRegionStatistics(region)
+                : statistics.getDomainDataRegionStatistics(region);
+        } catch (IllegalArgumentException e) {
+            // The region does not exist, as when the second-level cache is disabled
+            return 0;
+        }
+        return regionStatistics == null ? 0 : counter.applyAsLong(regionStatistics);
+    }
+}
@@ -11,6 +11,7 @@ import vn.com.fecredit.app.exception.EntityNotFoundException;
 import vn.com.fecredit.app.exception.InvalidOperationException;
 import vn.com.fecredit.app.mapper.RegionMapper;
 import vn.com.fecredit.app.repository.RegionRepository;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 import vn.com.fecredit.app.service.RegionService;
 
 import java.util.List;
@@ -23,6 +24,7 @@ public class RegionServiceImpl implements RegionService {
 
     private final RegionRepository regionRepository;
     private final RegionMapper regionMapper;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public RegionDTO.Response createRegion(RegionDTO.CreateRequest request) {
@@ -32,6 +34,7 @@ public class RegionServiceImpl implements RegionService {
 
         Region region = regionMapper.toEntity(request);
         region = regionRepository.save(region);
+        referenceDataCacheService.evictRegion(region.getId());
         return regionMapper.toResponse(region);
     }
 
@@ -41,6 +44,7 @@ public class RegionServiceImpl implements RegionService {
 
         regionMapper.updateEntity(region, request);
         region = regionRepository.save(region);
+        referenceDataCacheService.evictRegion(region.getId());
         return regionMapper.toResponse(region);
     }
 
@@ -63,6 +67,7 @@ public class RegionServiceImpl implements RegionService {
         }
 
         regionRepository.delete(region);
+        referenceDataCacheService.evictRegion(id);
     }
 
     @Override
@@ -103,6 +108,7 @@ public class RegionServiceImpl implements RegionService {
         Region region = findRegionById(id);
         region.setStatus(1);
         regionRepository.save(region);
+        referenceDataCacheService.evictRegion(id);
     }
 
     @Override
@@ -118,6 +124,7 @@ public class RegionServiceImpl implements RegionService {
 
         region.setStatus(0);
         regionRepository.save(region);
+        referenceDataCacheService.evictRegion(id);
     }
 
     @Override
@@ -0,0 +1,478 @@
+package vn.com.fecredit.app.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.model.StripedInventory;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardLeaseService;
+import vn.com.fecredit.app.service.RewardPacingService;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind reward inventory.
+ * <p>
+ * The stock of each reward is held in a {@link StripedInventory} loaded on first use, so
+ * consuming a unit is a compare-and-set in memory instead of an update on a hot
+ * {@code rewards} row. Consumed units are flushed to {@code rewards.remaining_quantity}
+ * and today's {@code daily_count} periodically. The same statement adds them to the units
+ * this node has flushed in {@code reward_inventory_nodes}.
+ * <p>
+ * Recovery after a crash relies on spin histories: every win whose unit was taken from
+ * memory records the node it was taken on. The first time a node loads a reward, its wins
+ * less its flushed units are exactly the units it took but never wrote back, whatever other
+ * nodes did meanwhile, and they are applied to the stock before anything is handed out.
+ * Recovery commits on its own, whatever transaction loaded the reward, and a reward counts
+ * as recovered only once it has. This needs a {@code app.inventory.lease.node-id} that stays
+ * the same across restarts and that no two running nodes share; it defaults to the host
+ * name, and the service does not start without one. Rewards flagged with
+ * {@code strictInventory} skip all of this and are decremented in the database on every
+ * win.
+ * <p>
+ * A unit is only handed out while {@link RewardPacingService} has an open win slot for the
+ * reward, so stock is spread over the reward's window instead of going to the first spins.
+ * Leased units were paced when they were granted and are handed out without another claim.
+ * <p>
+ * With {@code app.inventory.lease.enabled} several nodes can share the stock. A node then
+ * starts each reward empty and leases {@code block-size} units at a time through
+ * {@link RewardLeaseService}, hands them out from memory, and reports consumption against
+ * its lease on every flush, which also renews the lease. A node stops using a lease at half
+ * its {@code ttl-ms} unless it was renewed, so it is done with the units before any other
+ * node may reclaim them. Units of a lease left idle for {@code ttl-ms}, of an edited reward
+ * and of every reward on shutdown are given back to the shared stock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RewardInventoryServiceImpl implements RewardInventoryService {
+
+    private final RewardRepository rewardRepository;
+    private final RewardPacingService rewardPacingService;
+    private final RewardLeaseService rewardLeaseService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.inventory.stripes:8}")
+    private int stripes = 8;
+
+    @Value("${app.inventory.lease.enabled:false}")
+    private boolean leasing = false;
+
+    @Value("${app.inventory.lease.block-size:50}")
+    private int leaseBlockSize = 50;
+
+    @Value("${app.inventory.lease.ttl-ms:30000}")
+    private long leaseTtlMs = 30000;
+
+    @Value("${app.inventory.lease.node-id:}")
+    private String nodeId = "";
+
+    private final Map<Long, StripedInventory> inventories = new ConcurrentHashMap<>();
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final Set<Long> strictRewards = ConcurrentHashMap.newKeySet();
+    private final Set<Long> recoveredRewards = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Object> recoveryLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Evictions seen per reward. An inventory loaded while its reward was evicted is
+     * loaded again instead of cached.
+     */
+    private final Map<Long, Long> evictions = new ConcurrentHashMap<>();
+
+    private TransactionTemplate recovery;
+
+    @PostConstruct
+    void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            try {
+                nodeId = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(
+                    "app.inventory.lease.node-id is not set and the host name cannot be resolved", e);
+            }
+        }
+        recovery = new TransactionTemplate(transactionManager);
+        recovery.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean isStrict(Long rewardId) {
+        return getInventory(rewardId) == null;
+    }
+
+    @Override
+    public boolean tryConsume(Long rewardId) {
+        StripedInventory inventory = getInventory(rewardId);
+        boolean paced = !leasing || inventory == null;
+        if (paced && !rewardPacingService.tryClaim(rewardId)) {
+            return false;
+        }
+        long today = LocalDate.now().toEpochDay();
+        boolean consumed;
+        if (inventory == null) {
+            consumed = rewardRepository.decrementRemainingQuantityById(rewardId, today) == 1;
+        } else if (leasing) {
+            consumed = tryAcquireLeased(rewardId, inventory, today);
+        } else {
+            consumed = inventory.tryAcquire(today);
+        }
+        if (!consumed && paced) {
+            rewardPacingService.release(rewardId);
+        }
+        return consumed;
+    }
+
+    @Override
+    public void release(Long rewardId) {
+        StripedInventory inventory = getInventory(rewardId);
+        if (!leasing || inventory == null) {
+            rewardPacingService.release(rewardId);
+        }
+        if (inventory == null) {
+            LocalDateTime now = LocalDateTime.now();
+            rewardRepository.applyInventoryDelta(rewardId, -1, now, now.toLocalDate().toEpochDay());
+            return;
+        }
+        inventory.release();
+    }
+
+    @Override
+    public long getRemaining(Long rewardId) {
+        StripedInventory inventory = getInventory(rewardId);
+        if (inventory == null || leasing) {
+            // With leases the local stock is only this node's share
+            return rewardRepository.findById(rewardId)
+                .map(Reward::getRemainingQuantity)
+                .orElse(0);
+        }
+        return inventory.getRemaining();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        inventories.forEach(this::flush);
+        if (leasing) {
+            try {
+                int reclaimed = rewardLeaseService.reclaimExpired();
+                if (reclaimed > 0) {
+                    log.warn("Reclaimed {} expired reward leases", reclaimed);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to reclaim expired reward leases", e);
+            }
+        }
+    }
+
+    @Override
+    public void evict(Long rewardId) {
+        strictRewards.remove(rewardId);
+        rewardPacingService.evict(rewardId);
+        discard(rewardId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Reload from the committed row, not from one loaded while the edit was in flight
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    strictRewards.remove(rewardId);
+                    rewardPacingService.evict(rewardId);
+                    discard(rewardId);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        leases.keySet().forEach(this::discard);
+    }
+
+    /**
+     * Takes a unit from this node's lease, leasing another block once it is used up.
+     */
+    private boolean tryAcquireLeased(Long rewardId, StripedInventory inventory, long today) {
+        Lease lease = leases.get(rewardId);
+        if (lease == null) {
+            return false;
+        }
+        if (lease.isValid() && inventory.tryAcquire(today)) {
+            return true;
+        }
+        synchronized (lease) {
+            if (lease.closed) {
+                return false;
+            }
+            if (!lease.isValid()) {
+                renew(rewardId, inventory, lease);
+            }
+            if (inventory.tryAcquire(today)) {
+                return true;
+            }
+            if (inventory.getRemaining() > 0) {
+                // Stock is left, today's allowance is not
+                return false;
+            }
+            int granted = rewardLeaseService.acquire(rewardId, nodeId, leaseBlockSize, leaseExpiry());
+            if (granted == 0) {
+                return false;
+            }
+            lease.extend(leaseTtlMs);
+            lease.lastActiveAt = System.nanoTime();
+            inventory.addUnits(granted);
+            return inventory.tryAcquire(today);
+        }
+    }
+
+    private void flush(Long rewardId, StripedInventory inventory) {
+        if (leasing) {
+            Lease lease = leases.get(rewardId);
+            if (lease != null) {
+                synchronized (lease) {
+                    if (!lease.closed) {
+                        flushLease(rewardId, inventory, lease);
+                    }
+                }
+            }
+            return;
+        }
+        long consumed = inventory.drainConsumed();
+        if (consumed == 0) {
+            return;
+        }
+        LocalDateTime syncedAt = LocalDateTime.now();
+        try {
+            rewardRepository.applyNodeInventoryDelta(rewardId, nodeId, Math.toIntExact(consumed), syncedAt,
+                syncedAt.toLocalDate().toEpochDay());
+        } catch (RuntimeException e) {
+            inventory.restoreConsumed(consumed);
+            log.error("Failed to flush {} consumed units of reward {}", consumed, rewardId, e);
+        }
+    }
+
+    /**
+     * Reports consumption against the lease, then renews it or gives it back when idle.
+     * Runs while holding the lease.
+     */
+    private void flushLease(Long rewardId, StripedInventory inventory, Lease lease) {
+        long consumed = inventory.drainConsumed();
+        if (consumed != 0) {
+            LocalDateTime syncedAt = LocalDateTime.now();
+            try {
+                rewardLeaseService.applyConsumption(rewardId, nodeId, Math.toIntExact(consumed), syncedAt);
+                lease.lastActiveAt = System.nanoTime();
+            } catch (RuntimeException e) {
+                inventory.restoreConsumed(consumed);
+                log.error("Failed to flush {} consumed units of reward {}", consumed, rewardId, e);
+                return;
+            }
+        }
+        if (inventory.getRemaining() == 0) {
+            return;
+        }
+        if (System.nanoTime() - lease.lastActiveAt > TimeUnit.MILLISECONDS.toNanos(leaseTtlMs)) {
+            giveBack(rewardId, inventory);
+        } else {
+            renew(rewardId, inventory, lease);
+        }
+    }
+
+    private void renew(Long rewardId, StripedInventory inventory, Lease lease) {
+        try {
+            if (!rewardLeaseService.renew(rewardId, nodeId, leaseExpiry())) {
+                // The lease was reclaimed, its units are no longer ours to hand out
+                long dropped = inventory.drainRemaining();
+                if (dropped > 0) {
+                    log.warn("Lease of reward {} was reclaimed, dropping {} local units", rewardId, dropped);
+                }
+            }
+            lease.extend(leaseTtlMs);
+        } catch (RuntimeException e) {
+            log.error("Failed to renew lease of reward {}", rewardId, e);
+        }
+    }
+
+    private void giveBack(Long rewardId, StripedInventory inventory) {
+        long unused = inventory.drainRemaining();
+        if (unused == 0) {
+            return;
+        }
+        try {
+            rewardLeaseService.giveBack(rewardId, nodeId, Math.toIntExact(unused));
+        } catch (RuntimeException e) {
+            inventory.addUnits(unused);
+            log.error("Failed to give back {} leased units of reward {}", unused, rewardId, e);
+        }
+    }
+
+    /**
+     * Drops the inventory of a reward after writing back what it consumed, and gives back
+     * the rest of its lease.
+     */
+    private void discard(Long rewardId) {
+        evictions.merge(rewardId, 1L, Long::sum);
+        StripedInventory inventory = inventories.remove(rewardId);
+        Lease lease = leases.remove(rewardId);
+        if (inventory == null) {
+            return;
+        }
+        if (lease == null) {
+            flush(rewardId, inventory);
+            return;
+        }
+        synchronized (lease) {
+            flushLease(rewardId, inventory, lease);
+            giveBack(rewardId, inventory);
+            lease.closed = true;
+        }
+    }
+
+    private LocalDateTime leaseExpiry() {
+        return LocalDateTime.now().plus(leaseTtlMs, ChronoUnit.MILLIS);
+    }
+
+    private StripedInventory getInventory(Long rewardId) {
+        if (strictRewards.contains(rewardId)) {
+            return null;
+        }
+        while (true) {
+            StripedInventory inventory = inventories.get(rewardId);
+            if (inventory != null) {
+                return inventory;
+            }
+            // Loaded outside the map: computeIfAbsent would hold the bin for the whole database read
+            long seen = evictions.getOrDefault(rewardId, 0L);
+            StripedInventory loaded = load(rewardId);
+            if (loaded == null) {
+                return null;
+            }
+            StripedInventory cached = inventories.compute(rewardId, (id, raced) -> {
+                if (raced != null) {
+                    return raced;
+                }
+                if (evictions.getOrDefault(id, 0L) != seen) {
+                    return null;
+                }
+                if (leasing) {
+                    leases.putIfAbsent(id, new Lease());
+                }
+                return loaded;
+            });
+            if (cached != null) {
+                return cached;
+            }
+            // Evicted while loading: units taken from an uncached inventory would never be flushed
+        }
+    }
+
+    /**
+     * Loads the stock of a reward. The first load after a start recovers what this node
+     * left unflushed, in a transaction of its own, and loads the same way again should
+     * that fail.
+     */
+    private StripedInventory load(Long rewardId) {
+        // A reward reloaded after an edit was flushed when it was dropped, only a restart leaves units behind
+        if (!recoveredRewards.contains(rewardId)) {
+            synchronized (recoveryLocks.computeIfAbsent(rewardId, id -> new Object())) {
+                if (!recoveredRewards.contains(rewardId)) {
+                    StripedInventory inventory = recovery.execute(status -> load(rewardId, true));
+                    recoveredRewards.add(rewardId);
+                    return inventory;
+                }
+            }
+        }
+        return load(rewardId, false);
+    }
+
+    private StripedInventory load(Long rewardId, boolean recover) {
+        Reward reward = rewardRepository.findById(rewardId)
+            .orElseThrow(() -> new ResourceNotFoundException("Reward", rewardId));
+        if (reward.isStrictInventory()) {
+            strictRewards.add(rewardId);
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        long today = now.toLocalDate().toEpochDay();
+        if (leasing) {
+            if (recover) {
+                // Units this node leased before a restart are unaccounted for, reclaim them first
+                rewardLeaseService.recover(rewardId, nodeId);
+            }
+            return new StripedInventory(stripes, 0, reward.getDailyLimit(), reward.getDailyCount(today), today);
+        }
+        int remaining = reward.getRemainingQuantity() != null ? reward.getRemainingQuantity() : 0;
+        int dailyCount = reward.getDailyCount(today);
+        if (recover) {
+            int unflushed = recoverUnflushed(rewardId, now, today);
+            remaining -= unflushed;
+            dailyCount += unflushed;
+        }
+
+        return new StripedInventory(stripes, remaining, reward.getDailyLimit(), dailyCount, today);
+    }
+
+    /**
+     * Writes back the units this node took from a reward before it last stopped but never
+     * flushed. Units it flushed for spins that were never committed come back to the stock.
+     *
+     * @return the units applied, negative for units handed back
+     */
+    private int recoverUnflushed(Long rewardId, LocalDateTime now, long today) {
+        long wins = rewardRepository.countWinsByNode(rewardId, nodeId);
+        int unflushed = Math.toIntExact(wins - rewardRepository.findFlushedUnits(rewardId, nodeId));
+        if (unflushed == 0) {
+            return 0;
+        }
+        log.warn("Recovering {} unflushed units of reward {} taken by node {}", unflushed, rewardId, nodeId);
+        rewardRepository.applyNodeInventoryDelta(rewardId, nodeId, unflushed, now, today);
+        return unflushed;
+    }
+
+    /**
+     * The lease this node holds on one reward.
+     */
+    private static final class Lease {
+
+        private volatile long validUntil = System.nanoTime();
+        private long lastActiveAt = System.nanoTime();
+        private boolean closed;
+
+        private boolean isValid() {
+            return validUntil - System.nanoTime() > 0;
+        }
+
+        /**
+         * Keeps the lease usable for half its time to live, leaving the other half as a
+         * margin before other nodes may reclaim it.
+         */
+        private void extend(long ttlMs) {
+            validUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs) / 2;
+        }
+    }
+}
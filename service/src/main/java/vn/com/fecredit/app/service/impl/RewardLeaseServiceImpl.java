@@ -0,0 +1,159 @@
+package vn.com.fecredit.app.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.RewardLease;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.repository.RewardLeaseRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardLeaseService;
+import vn.com.fecredit.app.service.RewardPacingService;
+
+import java.time.LocalDateTime;
+
+/**
+ * Book-keeping of the reward units leased by application nodes.
+ * <p>
+ * Leased units stay part of {@code rewards.remaining_quantity} until a node reports them
+ * consumed; {@code reward_leases} only records which node may hand them out. Granting a
+ * lease locks the {@code rewards} row, so two nodes can never lease the same unit, but
+ * that lock is taken once per block instead of once per win. Under the same lock a lease
+ * is capped at the slots {@link RewardPacingService} has opened and no node has taken or
+ * leased yet, so pacing holds for the stock as a whole however many nodes share it.
+ * <p>
+ * Consumption is reported with the node's flushed units, see
+ * {@link RewardRepository#applyNodeInventoryDelta}, and every win records the node whose
+ * lease its unit came from. A lease that was not renewed in time belongs to a node that is
+ * gone: its wins less its flushed units are the units it handed out but never reported, and
+ * only those are taken off the stock, capped at the units of the lease. A node that was only
+ * slow and reports them after all takes them off twice until it restarts, which undercounts
+ * the stock but never oversells it. A node recovering its own lease after a restart also
+ * gets back the units it reported for spins that were never committed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RewardLeaseServiceImpl implements RewardLeaseService {
+
+    private final RewardRepository rewardRepository;
+    private final RewardLeaseRepository rewardLeaseRepository;
+    private final RewardPacingService rewardPacingService;
+
+    @Override
+    @Transactional
+    public int acquire(Long rewardId, String nodeId, int units, LocalDateTime expiresAt) {
+        Reward reward = rewardRepository.findByIdForUpdate(rewardId)
+            .orElseThrow(() -> new ResourceNotFoundException("Reward", rewardId));
+        LocalDateTime now = LocalDateTime.now();
+        long leased = rewardLeaseRepository.sumUnitsByRewardId(rewardId);
+        long remaining = reward.getRemainingQuantity() != null ? reward.getRemainingQuantity() : 0;
+        long free = remaining - leased;
+        if (reward.getDailyLimit() != null) {
+            long dailyFree = reward.getDailyLimit() - reward.getDailyCount(now.toLocalDate().toEpochDay()) - leased;
+            free = Math.min(free, dailyFree);
+        }
+        long taken = reward.getTotalQuantity() != null ? reward.getTotalQuantity() - remaining : 0;
+        free = Math.min(free, rewardPacingService.getOpenedSlots(rewardId, now) - taken - leased);
+        int granted = (int) Math.max(0, Math.min(units, free));
+        if (granted == 0) {
+            return 0;
+        }
+
+        RewardLease lease = rewardLeaseRepository.findByRewardIdAndNodeId(rewardId, nodeId)
+            .orElseGet(() -> RewardLease.builder()
+                .reward(reward)
+                .nodeId(nodeId)
+                .syncedAt(now)
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build());
+        lease.setUnits(lease.getUnits() + granted);
+        lease.setExpiresAt(expiresAt);
+        rewardLeaseRepository.save(lease);
+        return granted;
+    }
+
+    @Override
+    @Transactional
+    public boolean renew(Long rewardId, String nodeId, LocalDateTime expiresAt) {
+        return rewardLeaseRepository.renew(rewardId, nodeId, expiresAt) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void applyConsumption(Long rewardId, String nodeId, int consumed, LocalDateTime syncedAt) {
+        rewardRepository.applyNodeInventoryDelta(rewardId, nodeId, consumed, syncedAt,
+            syncedAt.toLocalDate().toEpochDay());
+        rewardLeaseRepository.findByRewardIdAndNodeId(rewardId, nodeId).ifPresent(lease -> {
+            lease.consume(consumed, syncedAt);
+            rewardLeaseRepository.save(lease);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void giveBack(Long rewardId, String nodeId, int units) {
+        rewardLeaseRepository.findByRewardIdAndNodeId(rewardId, nodeId).ifPresent(lease -> {
+            lease.setUnits(Math.max(0, lease.getUnits() - units));
+            if (lease.getUnits() == 0) {
+                rewardLeaseRepository.delete(lease);
+            } else {
+                // Units taken while the lease was being handed back are reported by the next flush
+                rewardLeaseRepository.save(lease);
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void recover(Long rewardId, String nodeId) {
+        LocalDateTime now = LocalDateTime.now();
+        Reward reward = rewardRepository.findByIdForUpdate(rewardId)
+            .orElseThrow(() -> new ResourceNotFoundException("Reward", rewardId));
+        long unreported = countUnreported(rewardId, nodeId);
+        if (unreported != 0) {
+            // The node is restarting, nothing of it is in flight: the difference is exact either way
+            log.warn("Recovering {} unreported units of reward {} taken by node {}", unreported, rewardId, nodeId);
+            rewardRepository.applyNodeInventoryDelta(reward.getId(), nodeId, Math.toIntExact(unreported), now,
+                now.toLocalDate().toEpochDay());
+        }
+        rewardLeaseRepository.findByRewardIdAndNodeId(rewardId, nodeId).ifPresent(rewardLeaseRepository::delete);
+    }
+
+    @Override
+    @Transactional
+    public int reclaimExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int reclaimed = 0;
+        for (RewardLease lease : rewardLeaseRepository.findExpired(now)) {
+            reclaim(lease, now);
+            reclaimed++;
+        }
+        return reclaimed;
+    }
+
+    private void reclaim(RewardLease lease, LocalDateTime now) {
+        Reward reward = rewardRepository.findByIdForUpdate(lease.getReward().getId()).orElse(null);
+        if (reward != null && lease.getUnits() > 0) {
+            int unreported = (int) Math.min(lease.getUnits(), countUnreported(reward.getId(), lease.getNodeId()));
+            if (unreported > 0) {
+                log.warn("Reclaiming lease of node {} on reward {}: {} units were won but not reported",
+                    lease.getNodeId(), reward.getId(), unreported);
+                rewardRepository.applyNodeInventoryDelta(reward.getId(), lease.getNodeId(), unreported, now,
+                    now.toLocalDate().toEpochDay());
+            }
+        }
+        rewardLeaseRepository.delete(lease);
+    }
+
+    /**
+     * Counts the units a node handed out from its leases of a reward without reporting them,
+     * negative when it reported units for spins that were never committed.
+     */
+    private long countUnreported(Long rewardId, String nodeId) {
+        return rewardRepository.countWinsByNode(rewardId, nodeId) - rewardRepository.findFlushedUnits(rewardId, nodeId);
+    }
+}
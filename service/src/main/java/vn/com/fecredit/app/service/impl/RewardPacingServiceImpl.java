@@ -0,0 +1,150 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.model.WinPacingSchedule;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardPacingService;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paces the wins of every reward along a {@link WinPacingSchedule}.
+ * <p>
+ * The schedule of a reward spreads its total quantity over its whole window, from
+ * {@code validFrom} to {@code validUntil}; a reward without its own validity falls back to
+ * the window of its event. It is built on first use with the units already gone from the
+ * shared stock counted as claimed, so a restarted node resumes the schedule instead of
+ * starting it over. Deciding whether a drawn reward may be awarded is then an in-memory
+ * check against the next open slot, instead of counting today's wins in
+ * {@code spin_histories}. A reward whose window cannot be determined is not paced.
+ * Schedules are rebuilt after the reward is edited.
+ * <p>
+ * These claims only see the wins of this node. When nodes share the stock through leases,
+ * the leases are paced instead, see {@link #getOpenedSlots}: a node is only granted units
+ * for slots no node has taken or leased yet.
+ * <p>
+ * Published metric: {@code reward.pacing.deferred}, wins refused because the reward was
+ * ahead of its schedule.
+ */
+@Service
+@RequiredArgsConstructor
+public class RewardPacingServiceImpl implements RewardPacingService {
+
+    private final RewardRepository rewardRepository;
+    private final EventRepository eventRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.inventory.pacing.enabled:true}")
+    private boolean enabled = true;
+
+    private final Map<Long, WinPacingSchedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Evictions seen per reward. A schedule loaded while its reward was evicted is used
+     * for the claim that loaded it but not cached.
+     */
+    private final Map<Long, Long> evictions = new ConcurrentHashMap<>();
+
+    private Counter deferred;
+
+    @PostConstruct
+    void start() {
+        deferred = Counter.builder("reward.pacing.deferred")
+            .description("Wins refused because the reward was ahead of its pacing schedule")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public boolean tryClaim(Long rewardId) {
+        if (!enabled) {
+            return true;
+        }
+        if (getSchedule(rewardId).tryClaim(LocalDateTime.now())) {
+            return true;
+        }
+        deferred.increment();
+        return false;
+    }
+
+    @Override
+    public void release(Long rewardId) {
+        if (!enabled) {
+            return;
+        }
+        WinPacingSchedule schedule = schedules.get(rewardId);
+        if (schedule != null) {
+            schedule.release();
+        }
+    }
+
+    @Override
+    public long getOpenSlots(Long rewardId) {
+        return getSchedule(rewardId).getOpenSlots(LocalDateTime.now());
+    }
+
+    @Override
+    public long getOpenedSlots(Long rewardId, LocalDateTime at) {
+        if (!enabled) {
+            return Long.MAX_VALUE;
+        }
+        return getSchedule(rewardId).getOpenedSlots(at);
+    }
+
+    @Override
+    public void evict(Long rewardId) {
+        evictions.merge(rewardId, 1L, Long::sum);
+        schedules.remove(rewardId);
+    }
+
+    private WinPacingSchedule getSchedule(Long rewardId) {
+        WinPacingSchedule schedule = schedules.get(rewardId);
+        if (schedule != null) {
+            return schedule;
+        }
+        // Loaded outside the map: computeIfAbsent would hold the bin for the whole database read
+        long seen = evictions.getOrDefault(rewardId, 0L);
+        WinPacingSchedule loaded = load(rewardId);
+        WinPacingSchedule cached = schedules.compute(rewardId, (id, raced) -> {
+            if (raced != null) {
+                return raced;
+            }
+            return evictions.getOrDefault(id, 0L) == seen ? loaded : null;
+        });
+        return cached != null ? cached : loaded;
+    }
+
+    private WinPacingSchedule load(Long rewardId) {
+        Reward reward = rewardRepository.findById(rewardId)
+            .orElseThrow(() -> new ResourceNotFoundException("Reward", rewardId));
+        LocalDateTime start = reward.getValidFrom();
+        LocalDateTime end = reward.getValidUntil();
+        if (start == null || end == null) {
+            Optional<Event> event = eventRepository.findByRewardId(rewardId);
+            start = start != null ? start : event.map(Event::getStartTime).orElse(null);
+            end = end != null ? end : event.map(Event::getEndTime).orElse(null);
+        }
+        if (end == null) {
+            return WinPacingSchedule.unpaced();
+        }
+
+        int remaining = reward.getRemainingQuantity() != null ? reward.getRemainingQuantity() : 0;
+        if (start == null) {
+            // Nothing to anchor to: spread what is left from now on
+            return WinPacingSchedule.of(remaining, LocalDateTime.now(), end);
+        }
+        int total = reward.getTotalQuantity() != null ? reward.getTotalQuantity() : remaining;
+        return WinPacingSchedule.of(total, total - remaining, start, end);
+    }
+}
@@ -0,0 +1,347 @@
+package vn.com.fecredit.app.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.RewardPack;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.model.GiftPack;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.RewardPackRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardPackService;
+import vn.com.fecredit.app.service.RewardSelectionService;
+import vn.com.fecredit.app.service.SpinRandomSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+/**
+ * Gift distribution engine based on reward packs, as described in DistributedGiftSolution.md.
+ * <p>
+ * The reward inventory of a location is split once into packs that keep the global ratio
+ * between rewards, with empty slots sized from the location's effective win probability.
+ * A draw picks a random pack, preferring packs no other thread is drawing from, and takes
+ * one slot out of it. Every draw is written through to {@code reward_packs} or
+ * {@code reward_pack_items} with a guarded decrement before the result is returned, so the
+ * in-memory packs can be reloaded after a restart without losing or repeating a draw. A draw
+ * joins the caller's transaction, which must also commit the spin, and is put back into its
+ * pack if that transaction rolls back.
+ * <p>
+ * Packed units are moved out of {@code rewards.remaining_quantity} when the packs are
+ * initialized, so each unit is counted in exactly one place: a win drawn from a pack is
+ * committed with {@code stockTaken} and does not touch the reward stock again.
+ */
+@Service
+@RequiredArgsConstructor
+public class RewardPackServiceImpl implements RewardPackService {
+
+    static final String EMPTY_SLOT = "Empty";
+
+    private final RewardPackRepository rewardPackRepository;
+    private final RewardRepository rewardRepository;
+    private final EventLocationRepository eventLocationRepository;
+    private final RewardInventoryService rewardInventoryService;
+    private final RewardSelectionService rewardSelectionService;
+    private final SpinRandomSource spinRandomSource;
+
+    private final Map<Long, LocationPacks> locations = new ConcurrentHashMap<>();
+
+    /**
+     * Evictions seen per location. Packs loaded while their location was evicted are used
+     * for the draw that loaded them but not cached.
+     */
+    private final Map<Long, Long> evictions = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional
+    public Map<Integer, Map<String, Integer>> initializePacks(Long locationId, int packCount) {
+        if (packCount <= 0) {
+            throw new InvalidOperationException("Pack count must be positive");
+        }
+        EventLocation location = getLocation(locationId);
+        if (rewardPackRepository.existsByEventLocationId(locationId)) {
+            throw InvalidOperationException.forEntityOperation("EventLocation", locationId,
+                "initialize gift packs", "packs already exist");
+        }
+
+        List<Reward> rewards = rewardRepository.findByLocationAndStatus(location, AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .stream()
+            .filter(Reward::hasAvailableQuantity)
+            .collect(Collectors.toList());
+
+        int[] quantities = new int[rewards.size() + 1];
+        long totalGifts = 0;
+        for (int i = 0; i < rewards.size(); i++) {
+            quantities[i] = rewards.get(i).getRemainingQuantity();
+            totalGifts += quantities[i];
+        }
+        quantities[rewards.size()] = emptySlotsFor(totalGifts, location.getEffectiveWinProbability());
+
+        int[][] split = GiftPack.split(quantities, packCount);
+        List<RewardPack> packs = new ArrayList<>(packCount);
+        for (int p = 0; p < packCount; p++) {
+            Map<Long, Integer> rewardQuantities = new LinkedHashMap<>();
+            for (int i = 0; i < rewards.size(); i++) {
+                rewardQuantities.put(rewards.get(i).getId(), split[p][i]);
+            }
+            packs.add(RewardPack.builder()
+                .eventLocation(location)
+                .packNumber(p + 1)
+                .emptySlots(split[p][rewards.size()])
+                .rewardQuantities(rewardQuantities)
+                .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+                .build());
+        }
+
+        packs = rewardPackRepository.saveAll(packs);
+        for (int i = 0; i < rewards.size(); i++) {
+            Reward reward = rewards.get(i);
+            if (rewardRepository.takeQuantity(reward.getId(), quantities[i]) == 0) {
+                throw InvalidOperationException.forEntityOperation("Reward", reward.getId(),
+                    "pack into gift packs", "its stock changed while the packs were built");
+            }
+            rewardInventoryService.evict(reward.getId());
+        }
+        rewardSelectionService.invalidateLocation(locationId);
+        evictLocation(locationId);
+        return toContents(packs, rewards.stream().collect(Collectors.toMap(Reward::getId, Function.identity())));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SpinResultResponse draw(Long eventId, Long participantId, Long locationId) {
+        LocationPacks location = getLocationPacks(locationId);
+        if (!Objects.equals(location.eventId, eventId)) {
+            throw new InvalidOperationException("Location " + locationId + " does not belong to event " + eventId);
+        }
+
+        SpinResultResponse.SpinResultResponseBuilder result = SpinResultResponse.builder()
+            .participantId(participantId)
+            .eventId(eventId)
+            .locationId(locationId)
+            .spinTime(LocalDateTime.now());
+
+        long seed = spinRandomSource.nextSeed();
+        result.randomSeed(seed).randomStream(spinRandomSource.getStreamIndex());
+        RandomGenerator random = spinRandomSource.forSeed(seed);
+        GiftPack[] packs = location.packs;
+        int start = random.nextInt(packs.length);
+        // First pass only takes free packs, the second one waits for a busy pack
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < packs.length; i++) {
+                GiftPack pack = packs[(start + i) % packs.length];
+                if (pack.isExhausted()) {
+                    continue;
+                }
+                if (pass == 0) {
+                    if (!pack.getLock().tryLock()) {
+                        continue;
+                    }
+                } else {
+                    pack.getLock().lock();
+                }
+                try {
+                    int slot = drawAndPersist(locationId, pack, random);
+                    if (slot == GiftPack.EMPTY) {
+                        return result.win(false)
+                            .points(0)
+                            .message("Better luck next time")
+                            .build();
+                    }
+                    if (slot != GiftPack.NONE) {
+                        GiftPack.Gift gift = pack.getGifts().get(slot);
+                        return result.win(true)
+                            .rewardId(gift.getRewardId())
+                            .rewardName(gift.getName())
+                            .rewardCode(gift.getCode())
+                            .points(gift.getPoints() != null ? gift.getPoints() : 0)
+                            .message("Congratulations! You won " + gift.getName())
+                            .build();
+                    }
+                } finally {
+                    pack.getLock().unlock();
+                }
+            }
+        }
+
+        return result.win(false)
+            .points(0)
+            .message("All gift packs are exhausted")
+            .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Map<String, Integer>> getPackContents(Long locationId) {
+        List<RewardPack> packs = rewardPackRepository.findAllByEventLocationIdAndStatus(
+            locationId, AbstractStatusAwareEntity.STATUS_ACTIVE);
+        return toContents(packs, findRewards(packs));
+    }
+
+    @Override
+    public void evictLocation(Long locationId) {
+        evictions.merge(locationId, 1L, Long::sum);
+        locations.remove(locationId);
+    }
+
+    private LocationPacks getLocationPacks(Long locationId) {
+        LocationPacks current = locations.get(locationId);
+        if (current != null) {
+            return current;
+        }
+        // Loaded outside the map: computeIfAbsent would hold the bin for the whole database read
+        long seen = evictions.getOrDefault(locationId, 0L);
+        LocationPacks loaded = loadLocation(locationId);
+        LocationPacks cached = locations.compute(locationId, (id, raced) -> {
+            if (raced != null) {
+                return raced;
+            }
+            return evictions.getOrDefault(id, 0L) == seen ? loaded : null;
+        });
+        return cached != null ? cached : loaded;
+    }
+
+    private int drawAndPersist(Long locationId, GiftPack pack, RandomGenerator random) {
+        int slot = pack.draw(random);
+        if (slot == GiftPack.NONE) {
+            return slot;
+        }
+
+        int updated;
+        try {
+            updated = slot == GiftPack.EMPTY
+                ? rewardPackRepository.decrementEmptySlots(pack.getPackId())
+                : rewardPackRepository.decrementRewardQuantity(pack.getPackId(), pack.getGifts().get(slot).getRewardId());
+        } catch (RuntimeException e) {
+            pack.undo(slot);
+            throw e;
+        }
+
+        if (updated == 0) {
+            // The persisted pack is behind the in-memory one: reload it on the next spin
+            evictLocation(locationId);
+            return GiftPack.NONE;
+        }
+        undoOnRollback(locationId, pack, slot);
+        return slot;
+    }
+
+    private void undoOnRollback(Long locationId, GiftPack pack, int slot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    pack.getLock().lock();
+                    try {
+                        pack.undo(slot);
+                    } finally {
+                        pack.getLock().unlock();
+                    }
+                } else if (status == STATUS_UNKNOWN) {
+                    evictLocation(locationId);
+                }
+            }
+        });
+    }
+
+    private LocationPacks loadLocation(Long locationId) {
+        EventLocation location = getLocation(locationId);
+        List<RewardPack> packs = rewardPackRepository.findAllByEventLocationIdAndStatus(
+            locationId, AbstractStatusAwareEntity.STATUS_ACTIVE);
+        if (packs.isEmpty()) {
+            throw InvalidOperationException.forEntityOperation("EventLocation", locationId,
+                "draw", "gift packs have not been initialized");
+        }
+
+        Map<Long, Reward> rewards = findRewards(packs);
+        GiftPack[] giftPacks = new GiftPack[packs.size()];
+        for (int p = 0; p < packs.size(); p++) {
+            RewardPack pack = packs.get(p);
+            List<GiftPack.Gift> gifts = new ArrayList<>();
+            List<Integer> remaining = new ArrayList<>();
+            pack.getRewardQuantities().forEach((rewardId, quantity) -> {
+                Reward reward = rewards.get(rewardId);
+                if (reward != null) {
+                    gifts.add(new GiftPack.Gift(rewardId, reward.getCode(), reward.getName(), reward.getPoints()));
+                    remaining.add(quantity);
+                }
+            });
+            giftPacks[p] = new GiftPack(pack.getId(), pack.getPackNumber(), gifts,
+                remaining.stream().mapToInt(Integer::intValue).toArray(), pack.getEmptySlots());
+        }
+        return new LocationPacks(location.getEvent().getId(), giftPacks);
+    }
+
+    private Map<Long, Reward> findRewards(List<RewardPack> packs) {
+        Set<Long> rewardIds = new LinkedHashSet<>();
+        packs.forEach(pack -> rewardIds.addAll(pack.getRewardQuantities().keySet()));
+        return rewardRepository.findAllById(rewardIds).stream()
+            .collect(Collectors.toMap(Reward::getId, Function.identity()));
+    }
+
+    private Map<Integer, Map<String, Integer>> toContents(List<RewardPack> packs, Map<Long, Reward> rewards) {
+        Map<Integer, Map<String, Integer>> contents = new LinkedHashMap<>();
+        for (RewardPack pack : packs) {
+            Map<String, Integer> content = new LinkedHashMap<>();
+            pack.getRewardQuantities().forEach((rewardId, quantity) -> {
+                Reward reward = rewards.get(rewardId);
+                content.put(reward != null ? reward.getCode() : String.valueOf(rewardId), quantity);
+            });
+            content.put(EMPTY_SLOT, pack.getEmptySlots());
+            contents.put(pack.getPackNumber(), content);
+        }
+        return contents;
+    }
+
+    private EventLocation getLocation(Long locationId) {
+        return eventLocationRepository.findByIdWithRelationships(locationId)
+            .orElseThrow(() -> new ResourceNotFoundException("EventLocation", locationId));
+    }
+
+    /**
+     * Sizes the losing slots so that gifts make up {@code winProbability} of all slots.
+     */
+    static int emptySlotsFor(long totalGifts, Double winProbability) {
+        if (winProbability == null || winProbability >= 1.0 || totalGifts == 0) {
+            return 0;
+        }
+        if (winProbability <= 0) {
+            throw new InvalidOperationException("Win probability must be positive to build gift packs");
+        }
+        return Math.toIntExact(Math.round(totalGifts * (1.0 - winProbability) / winProbability));
+    }
+
+    private static final class LocationPacks {
+
+        private final Long eventId;
+        private final GiftPack[] packs;
+
+        private LocationPacks(Long eventId, GiftPack[] packs) {
+            this.eventId = eventId;
+            this.packs = packs;
+        }
+    }
+}
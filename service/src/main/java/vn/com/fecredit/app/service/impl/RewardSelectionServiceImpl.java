@@ -0,0 +1,324 @@
+package vn.com.fecredit.app.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Participant;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.exception.SpinNotAllowedException;
+import vn.com.fecredit.app.model.LocationSpinProfile;
+import vn.com.fecredit.app.model.RewardAliasTable;
+import vn.com.fecredit.app.projection.SpinCountProjection;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.ParticipantEventRepository;
+import vn.com.fecredit.app.repository.ParticipantRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+import vn.com.fecredit.app.service.RewardSelectionService;
+import vn.com.fecredit.app.service.SpinRandomSource;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reward selection backed by one {@link RewardAliasTable} per event location.
+ * <p>
+ * A table is built from the location's {@link LocationSpinProfile} and the stock of its
+ * rewards on first use and kept in memory, so a draw never touches the database. Tables are
+ * rebuilt for a single location when one of its rewards runs out, when a reward enters or
+ * leaves its validity window, when a golden hour starts or ends, at midnight (daily limits),
+ * when a new profile is swapped in, and whenever {@link #invalidateLocation(Long)} is called
+ * after a reward edit.
+ * The in-memory unit count only decides the draw; the caller still persists the decrement
+ * with the guarded repository update, which stays the source of truth for stock.
+ * <p>
+ * Every draw uses its own seed from {@link SpinRandomSource}. The seed is returned with the
+ * result and, with {@code app.spin.random.record-seed}, also as spin metadata, so a disputed
+ * outcome can be replayed against the same table.
+ */
+@Service
+@RequiredArgsConstructor
+public class RewardSelectionServiceImpl implements RewardSelectionService {
+
+    private final EventLocationRepository eventLocationRepository;
+    private final RewardRepository rewardRepository;
+    private final ParticipantRepository participantRepository;
+    private final ParticipantEventRepository participantEventRepository;
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final LocationSpinProfileService locationSpinProfileService;
+    private final SpinRandomSource spinRandomSource;
+
+    @Value("${app.spin.random.record-seed:false}")
+    private boolean recordSeed = false;
+
+    private final Map<Long, CompiledTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Invalidations seen per location. A table built while its location was invalidated is
+     * used for the draw that built it but not cached.
+     */
+    private final Map<Long, Long> invalidations = new ConcurrentHashMap<>();
+
+    @Override
+    public SpinResultResponse selectRandomReward(Long eventId, Long participantId, Long locationId) {
+        LocalDateTime now = LocalDateTime.now();
+        CompiledTable compiled = getCompiledTable(locationId, now);
+        RewardAliasTable table = compiled.table;
+        if (!Objects.equals(table.getEventId(), eventId)) {
+            throw new InvalidOperationException("Location " + locationId + " does not belong to event " + eventId);
+        }
+
+        long seed = spinRandomSource.nextSeed();
+        RewardAliasTable.Slot slot = table.draw(spinRandomSource.forSeed(seed));
+
+        SpinResultResponse.SpinResultResponseBuilder result = SpinResultResponse.builder()
+            .participantId(participantId)
+            .eventId(eventId)
+            .locationId(locationId)
+            .spinTime(now)
+            .randomSeed(seed)
+            .randomStream(spinRandomSource.getStreamIndex())
+            .goldenHourId(compiled.goldenHourId)
+            .metadata(recordSeed ? spinRandomSource.describe(seed) : null);
+        if (slot == null) {
+            return result.win(false)
+                .points(0)
+                .message("Better luck next time")
+                .build();
+        }
+        return result.win(true)
+            .rewardId(slot.getRewardId())
+            .rewardName(slot.getRewardName())
+            .rewardCode(slot.getRewardCode())
+            .points(slot.getPoints() != null ? slot.getPoints() : 0)
+            .message("Congratulations! You won " + slot.getRewardName())
+            .build();
+    }
+
+    @Override
+    public Map<Long, Double> calculateRewardProbabilities(Long eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Double> probabilities = new LinkedHashMap<>();
+        for (EventLocation location : getActiveLocations(eventId)) {
+            for (RewardAliasTable.Slot slot : getTable(location.getId(), now).getSlots()) {
+                probabilities.put(slot.getRewardId(), slot.getProbability());
+            }
+        }
+        return probabilities;
+    }
+
+    @Override
+    public Map<Long, Integer> getRewardDistribution(Long eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> distribution = new LinkedHashMap<>();
+        for (EventLocation location : getActiveLocations(eventId)) {
+            for (RewardAliasTable.Slot slot : getTable(location.getId(), now).getSlots()) {
+                distribution.put(slot.getRewardId(), slot.getRemaining());
+            }
+        }
+        return distribution;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SpinResultResponse> getWinningHistory(Long eventId, Long locationId) {
+        return spinHistoryRepository.findWinningSpins(eventId, locationId).stream()
+            .map(spin -> SpinResultResponse.builder()
+                .id(spin.getId())
+                .participantId(spin.getParticipantId())
+                .eventId(eventId)
+                .locationId(locationId)
+                .spinTime(spin.getSpinTime())
+                .win(true)
+                .rewardId(spin.getRewardId())
+                .rewardName(spin.getRewardName())
+                .rewardCode(spin.getRewardCode())
+                .points(spin.getPointsEarned())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Double> getWinRatesByLocation(Long eventId) {
+        Map<String, Double> rates = new HashMap<>();
+        for (SpinCountProjection counts : spinHistoryRepository.countSpinsByLocation(eventId)) {
+            rates.put(counts.getCode(), winRate(counts.getWins(), counts.getSpins()));
+        }
+        return rates;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Double> getWinRatesByReward(Long eventId) {
+        long spins = spinHistoryRepository.countSpinsByLocation(eventId).stream()
+            .mapToLong(SpinCountProjection::getSpins)
+            .sum();
+        if (spins == 0) {
+            return Map.of();
+        }
+        Map<String, Double> rates = new HashMap<>();
+        for (SpinCountProjection counts : spinHistoryRepository.countSpinsByReward(eventId)) {
+            if (counts.getWins() > 0) {
+                rates.put(counts.getCode(), (double) counts.getWins() / spins);
+            }
+        }
+        return rates;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLocationStatistics(Long eventId, Long locationId) {
+        RewardAliasTable table = getTable(locationId, LocalDateTime.now());
+        if (!Objects.equals(table.getEventId(), eventId)) {
+            throw new InvalidOperationException("Location " + locationId + " does not belong to event " + eventId);
+        }
+        Optional<SpinCountProjection> counts = spinHistoryRepository.countSpinsAtLocation(locationId);
+        long spins = counts.map(SpinCountProjection::getSpins).orElse(0L);
+        long wins = counts.map(SpinCountProjection::getWins).orElse(0L);
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("totalSpins", (int) spins);
+        statistics.put("totalWins", wins);
+        statistics.put("winRate", winRate(wins, spins));
+        statistics.put("configuredWinProbability", table.getWinProbability());
+        statistics.put("availableRewards", table.getSlots().size());
+        statistics.put("remainingUnits", table.getSlots().stream()
+            .mapToInt(RewardAliasTable.Slot::getRemaining)
+            .sum());
+        return statistics;
+    }
+
+    @Override
+    public Map<Long, Double> recalculateProbabilities(Long eventId) {
+        getActiveLocations(eventId).forEach(location -> tables.remove(location.getId()));
+        return calculateRewardProbabilities(eventId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void validateSpinEligibility(Long eventId, Long participantId, Long locationId) {
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(locationId);
+        if (!profile.belongsToEvent(eventId)) {
+            throw new InvalidOperationException("Location " + locationId + " does not belong to event " + eventId);
+        }
+        if (!profile.isActive()) {
+            throw SpinNotAllowedException.forReason("location " + profile.getLocationCode() + " is not active");
+        }
+
+        Participant participant = participantRepository.findById(participantId)
+            .orElseThrow(() -> new ResourceNotFoundException("Participant", participantId));
+        ParticipantEvent participantEvent = participantEventRepository
+            .findByParticipantAndLocation(participant, eventLocationRepository.getReferenceById(locationId))
+            .orElseThrow(() -> SpinNotAllowedException.forParticipant(participantId, "not registered at this location"));
+
+        if (!participantEvent.hasRemainingSpins()) {
+            throw SpinNotAllowedException.forNoRemainingSpins(participantId);
+        }
+        if (!profile.isUnderDailySpinLimit(participantEvent.getDailySpinCount())) {
+            throw SpinNotAllowedException.forDailyLimitReached(participantId, profile.getDailySpinLimit());
+        }
+    }
+
+    @Override
+    public void invalidateLocation(Long locationId) {
+        invalidations.merge(locationId, 1L, Long::sum);
+        tables.remove(locationId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Drop again once the change is visible so a draw in between cannot cache old data
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidations.merge(locationId, 1L, Long::sum);
+                    tables.remove(locationId);
+                }
+            });
+        }
+    }
+
+    private RewardAliasTable getTable(Long locationId, LocalDateTime now) {
+        return getCompiledTable(locationId, now).table;
+    }
+
+    private CompiledTable getCompiledTable(Long locationId, LocalDateTime now) {
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(locationId);
+        CompiledTable compiled = tables.get(locationId);
+        if (compiled != null && compiled.isCurrent(profile, now)) {
+            return compiled;
+        }
+        // Built outside the map: compute would hold the bin, and every location hashed to
+        // it, for the whole database read
+        long seen = invalidations.getOrDefault(locationId, 0L);
+        CompiledTable built = buildTable(profile, now);
+        tables.compute(locationId, (id, current) -> {
+            if (invalidations.getOrDefault(id, 0L) != seen) {
+                return current;
+            }
+            return current != null && current != compiled && current.isCurrent(profile, now) ? current : built;
+        });
+        return built;
+    }
+
+    private CompiledTable buildTable(LocationSpinProfile profile, LocalDateTime now) {
+        RewardAliasTable table = RewardAliasTable.build(
+            profile.getLocationId(),
+            profile.getEventId(),
+            rewardRepository.findAllById(profile.getRewardIds()),
+            profile.getWinProbability(now),
+            now
+        );
+        LocationSpinProfile.GoldenHourWindow goldenHour = profile.getGoldenHour(now);
+        return new CompiledTable(profile, table, goldenHour != null ? goldenHour.getId() : null,
+            profile.getNextBoundary(now));
+    }
+
+    private Set<EventLocation> getActiveLocations(Long eventId) {
+        return eventLocationRepository.findAllByEventIdAndStatus(eventId, AbstractStatusAwareEntity.STATUS_ACTIVE);
+    }
+
+    private static double winRate(long wins, long spins) {
+        return spins > 0 ? (double) wins / spins : 0.0;
+    }
+
+    /**
+     * A draw table together with the profile it was built from, the golden hour whose win
+     * probability it was built with, if any, and the next golden hour boundary, after which
+     * that probability no longer applies.
+     */
+    private static final class CompiledTable {
+
+        private final LocationSpinProfile profile;
+        private final RewardAliasTable table;
+        private final Long goldenHourId;
+        private final LocalDateTime boundary;
+
+        private CompiledTable(LocationSpinProfile profile, RewardAliasTable table, Long goldenHourId,
+                              LocalDateTime boundary) {
+            this.profile = profile;
+            this.table = table;
+            this.goldenHourId = goldenHourId;
+            this.boundary = boundary;
+        }
+
+        private boolean isCurrent(LocationSpinProfile current, LocalDateTime now) {
+            return profile == current && !table.isStale(now) && (boundary == null || now.isBefore(boundary));
+        }
+    }
+}
@@ -15,8 +15,11 @@ import vn.com.fecredit.app.mapper.RewardMapper;
 import vn.com.fecredit.app.repository.EventLocationRepository;
 import vn.com.fecredit.app.repository.EventRepository;
 import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardSelectionService;
 import vn.com.fecredit.app.service.RewardService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -30,15 +33,21 @@ public class RewardServiceImpl implements RewardService {
     private final EventLocationRepository eventLocationRepository;
     private final EventRepository eventRepository;
     private final RewardMapper rewardMapper;
+    private final RewardSelectionService rewardSelectionService;
+    private final RewardInventoryService rewardInventoryService;
 
     public RewardServiceImpl(RewardRepository rewardRepository,
                             EventLocationRepository eventLocationRepository,
                             EventRepository eventRepository,
-                            RewardMapper rewardMapper) {
+                            RewardMapper rewardMapper,
+                            RewardSelectionService rewardSelectionService,
+                            RewardInventoryService rewardInventoryService) {
         this.rewardRepository = rewardRepository;
         this.eventLocationRepository = eventLocationRepository;
         this.eventRepository = eventRepository;
         this.rewardMapper = rewardMapper;
+        this.rewardSelectionService = rewardSelectionService;
+        this.rewardInventoryService = rewardInventoryService;
     }
 
     @Override
@@ -56,11 +65,13 @@ public class RewardServiceImpl implements RewardService {
         reward.setStatus(AbstractStatusAwareEntity.STATUS_ACTIVE);
         
         reward = rewardRepository.save(reward);
+        rewardSelectionService.invalidateLocation(location.getId());
         return rewardMapper.toResponse(reward);
     }
 
     @Override
     public RewardDTO.Response update(Long id, RewardDTO.UpdateRequest request) {
+        rewardInventoryService.evict(id);
         Reward reward = getReward(id);
         
         if (request.getActive() != null) {
@@ -71,14 +82,17 @@ public class RewardServiceImpl implements RewardService {
         
         rewardMapper.updateEntity(reward, request);
         reward = rewardRepository.save(reward);
+        invalidateSelection(reward);
         return rewardMapper.toResponse(reward);
     }
 
     @Override
     public void delete(Long id) {
+        rewardInventoryService.evict(id);
         Reward reward = getReward(id);
         reward.setStatus(AbstractStatusAwareEntity.STATUS_INACTIVE);
         rewardRepository.save(reward);
+        invalidateSelection(reward);
     }
 
     @Override
@@ -128,18 +142,24 @@ public class RewardServiceImpl implements RewardService {
 
     @Override
     public void updateRemainingQuantity(Long id, Integer quantity) {
-        getReward(id); // Validate existence
+        Reward reward = getReward(id);
+        rewardInventoryService.evict(id);
         rewardRepository.updateRemainingQuantity(id, quantity);
+        invalidateSelection(reward);
     }
 
     @Override
     public void decrementRemainingQuantityById(Long id) {
-        rewardRepository.decrementRemainingQuantityById(id);
+        // Not a win: taken from the database, since the in-memory stock is accounted by the wins it hands out
+        rewardInventoryService.evict(id);
+        if (rewardRepository.decrementRemainingQuantityById(id, LocalDate.now().toEpochDay()) == 0) {
+            throw InvalidOperationException.forEntityOperation("Reward", id, "decrement", "out of stock");
+        }
     }
 
     @Override
     public boolean hasAvailableQuantity(Long id) {
-        return rewardRepository.hasAvailableQuantity(id);
+        return rewardInventoryService.getRemaining(id) > 0;
     }
 
     @Override
@@ -163,6 +183,12 @@ public class RewardServiceImpl implements RewardService {
                 .orElseThrow(() -> new EntityNotFoundException("Reward", "id", id));
     }
 
+    private void invalidateSelection(Reward reward) {
+        if (reward.getEventLocation() != null) {
+            rewardSelectionService.invalidateLocation(reward.getEventLocation().getId());
+        }
+    }
+
     private EventLocation getEventLocation(Long id) {
         return eventLocationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("EventLocation", "id", id));
@@ -19,6 +19,7 @@ import vn.com.fecredit.app.exception.ResourceNotFoundException;
 import vn.com.fecredit.app.mapper.RoleMapper;
 import vn.com.fecredit.app.repository.RoleRepository;
 import vn.com.fecredit.app.repository.UserRepository;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 import vn.com.fecredit.app.service.RoleService;
 
 @Service
@@ -28,6 +29,7 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final RoleMapper roleMapper;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     @Transactional
@@ -35,6 +37,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = roleMapper.toEntity(request);
         role.setStatus(1); // Set active by default
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -44,6 +47,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = findRoleById(id);
         roleMapper.updateEntity(role, request);
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -91,6 +95,7 @@ public class RoleServiceImpl implements RoleService {
             throw new IllegalStateException("Cannot delete role with assigned users");
         }
         roleRepository.delete(role);
+        referenceDataCacheService.evictRole(id);
     }
 
     @Override
@@ -99,6 +104,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = findRoleById(id);
         role.setStatus(1);
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -108,6 +114,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = findRoleById(id);
         role.setStatus(0);
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -165,6 +172,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = findRoleById(id);
         role.setPermissions(permissions);
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -174,6 +182,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = findRoleById(id);
         roleMapper.updateFromPermissionUpdate(role, request);
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -183,6 +192,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = findRoleById(id);
         roleMapper.updateFromPermissionUpdate(role, request);
         role = roleRepository.save(role);
+        referenceDataCacheService.evictRole(role.getId());
         return roleMapper.toResponse(role);
     }
 
@@ -0,0 +1,320 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.model.AdaptiveConcurrencyLimit;
+import vn.com.fecredit.app.service.SpinAdmissionService;
+
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the spin path.
+ * <p>
+ * When a golden hour starts every client spins at once, and the spins used to pile up on
+ * the connection pool until they timed out one after another. Here each event and each
+ * event location gets an {@link AdaptiveConcurrencyLimit}, and a spin only runs once both
+ * of its limits admit it. A spin that is not admitted is answered immediately with
+ * {@link SpinResultDTO.SpinStatus#RATE_LIMITED} and a {@code retryAfterMs} hint, instead of
+ * waiting for a connection. The limits start near the pool size, never exceed it, and
+ * follow the observed spin latency; spins failing because no connection or lock could be
+ * had cut them right away. Spins failing for any other reason give their slot back
+ * without a latency sample, so a burst of business rejections neither grows nor cuts a
+ * limit. Limits of events and locations without spins for a while are dropped together
+ * with their gauges.
+ * <p>
+ * Published metrics: {@code spin.admission.admitted}, {@code spin.admission.rejected}
+ * (tagged with the {@code scope} that refused), and {@code spin.admission.in-flight} and
+ * {@code spin.admission.limit} per event and per location.
+ */
+@Service
+@RequiredArgsConstructor
+public class SpinAdmissionServiceImpl implements SpinAdmissionService {
+
+    private static final String SCOPE_EVENT = "event";
+    private static final String SCOPE_LOCATION = "location";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.spin.admission.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.spin.admission.initial-limit:10}")
+    private int initialLimit = 10;
+
+    @Value("${app.spin.admission.min-limit:2}")
+    private int minLimit = 2;
+
+    @Value("${app.spin.admission.event-max-limit:200}")
+    private int eventMaxLimit = 200;
+
+    @Value("${app.spin.admission.location-max-limit:50}")
+    private int locationMaxLimit = 50;
+
+    @Value("${app.spin.admission.latency-tolerance:2.0}")
+    private double latencyTolerance = 2.0;
+
+    @Value("${app.spin.admission.backoff:0.9}")
+    private double backoff = 0.9;
+
+    @Value("${app.spin.admission.probe-interval:1000}")
+    private int probeInterval = 1000;
+
+    @Value("${app.spin.admission.min-retry-after-ms:100}")
+    private long minRetryAfterMs = 100;
+
+    @Value("${app.spin.admission.idle-eviction-ms:600000}")
+    private long idleEvictionMs = 600_000;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize = 10;
+
+    private final Map<Long, ScopedLimit> eventLimits = new ConcurrentHashMap<>();
+    private final Map<Long, ScopedLimit> locationLimits = new ConcurrentHashMap<>();
+
+    private Counter admitted;
+    private Counter rejectedByEvent;
+    private Counter rejectedByLocation;
+
+    @PostConstruct
+    void start() {
+        admitted = Counter.builder("spin.admission.admitted")
+            .description("Spins admitted to the spin path")
+            .register(meterRegistry);
+        rejectedByEvent = rejectedCounter(SCOPE_EVENT);
+        rejectedByLocation = rejectedCounter(SCOPE_LOCATION);
+    }
+
+    @Override
+    public SpinResultDTO execute(SpinRequest request, Supplier<SpinResultDTO> spin) {
+        if (!enabled) {
+            return spin.get();
+        }
+        Admission admission = new Admission();
+        SpinResultDTO rejection = admit(request, admission);
+        if (rejection != null) {
+            return rejection;
+        }
+        try {
+            SpinResultDTO result = spin.get();
+            admission.complete(null);
+            return result;
+        } catch (RuntimeException e) {
+            admission.complete(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<SpinResultDTO> submit(SpinRequest request,
+                                                   Supplier<CompletableFuture<SpinResultDTO>> spin) {
+        if (!enabled) {
+            return spin.get();
+        }
+        Admission admission = new Admission();
+        SpinResultDTO rejection = admit(request, admission);
+        if (rejection != null) {
+            return CompletableFuture.completedFuture(rejection);
+        }
+        CompletableFuture<SpinResultDTO> result;
+        try {
+            result = spin.get();
+        } catch (RuntimeException e) {
+            // Refused before any work was done, e.g. by a full queue
+            admission.ignore();
+            throw e;
+        }
+        return result.whenComplete((value, failure) -> admission.complete(failure));
+    }
+
+    @Override
+    public int getInFlight(Long eventId) {
+        ScopedLimit limit = eventLimits.get(eventId);
+        return limit != null ? limit.limit.getInFlight() : 0;
+    }
+
+    @Override
+    public int getLimit(Long eventId) {
+        ScopedLimit limit = eventLimits.get(eventId);
+        return limit != null ? limit.limit.getLimit() : Math.min(initialLimit, connectionPoolSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.spin.admission.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        evictIdle(eventLimits, idleSince);
+        evictIdle(locationLimits, idleSince);
+    }
+
+    private void evictIdle(Map<Long, ScopedLimit> limits, long idleSince) {
+        limits.values().removeIf(scoped -> {
+            if (scoped.limit.getInFlight() > 0 || scoped.lastUsedAt - idleSince > 0) {
+                return false;
+            }
+            meterRegistry.remove(scoped.inFlightGauge);
+            meterRegistry.remove(scoped.limitGauge);
+            return true;
+        });
+    }
+
+    /**
+     * Takes a slot of the location and of the event.
+     *
+     * @return null if the spin was admitted, the rejection to answer with otherwise
+     */
+    private SpinResultDTO admit(SpinRequest request, Admission admission) {
+        AdaptiveConcurrencyLimit location = limitOf(locationLimits, request.getEventLocationId(),
+            SCOPE_LOCATION, locationMaxLimit);
+        if (location != null && !location.tryAcquire()) {
+            rejectedByLocation.increment();
+            return rejected(request, location);
+        }
+        AdaptiveConcurrencyLimit event = limitOf(eventLimits, request.getEventId(), SCOPE_EVENT, eventMaxLimit);
+        if (event != null && !event.tryAcquire()) {
+            if (location != null) {
+                location.onIgnored();
+            }
+            rejectedByEvent.increment();
+            return rejected(request, event);
+        }
+        admission.location = location;
+        admission.event = event;
+        admission.startedAt = System.nanoTime();
+        admitted.increment();
+        return null;
+    }
+
+    private SpinResultDTO rejected(SpinRequest request, AdaptiveConcurrencyLimit limit) {
+        // Add up to half again as jitter so rejected clients do not come back as one wave
+        long base = Math.max(minRetryAfterMs, TimeUnit.NANOSECONDS.toMillis(limit.getSmoothedLatencyNanos()));
+        long retryAfterMs = base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+        return SpinResultDTO.builder()
+            .eventId(request.getEventId())
+            .participantId(request.getParticipantId())
+            .status(SpinResultDTO.SpinStatus.RATE_LIMITED)
+            .message("Too many spins at the moment, please try again shortly")
+            .retryAfterMs(retryAfterMs)
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+
+    private AdaptiveConcurrencyLimit limitOf(Map<Long, ScopedLimit> limits, Long id, String scope, int maxLimit) {
+        if (id == null) {
+            return null;
+        }
+        ScopedLimit scoped = limits.get(id);
+        if (scoped == null) {
+            scoped = limits.computeIfAbsent(id, key -> {
+                // More spins in flight than connections would only queue on the pool
+                AdaptiveConcurrencyLimit created = new AdaptiveConcurrencyLimit(initialLimit, minLimit,
+                    Math.min(maxLimit, connectionPoolSize), latencyTolerance, backoff, probeInterval);
+                Gauge inFlight = Gauge.builder("spin.admission.in-flight", created,
+                        AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("scope", scope)
+                    .tag("id", String.valueOf(key))
+                    .description("Admitted spins that have not completed yet")
+                    .register(meterRegistry);
+                Gauge limit = Gauge.builder("spin.admission.limit", created, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("scope", scope)
+                    .tag("id", String.valueOf(key))
+                    .description("Spins admitted at once")
+                    .register(meterRegistry);
+                return new ScopedLimit(created, inFlight, limit);
+            });
+        }
+        scoped.lastUsedAt = System.nanoTime();
+        return scoped.limit;
+    }
+
+    private Counter rejectedCounter(String scope) {
+        return Counter.builder("spin.admission.rejected")
+            .tag("scope", scope)
+            .description("Spins answered with RATE_LIMITED")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether a spin failed because a shared resource ran out rather than for a business reason.
+     */
+    private static boolean isCapacityFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException
+                || cause instanceof TransientDataAccessException
+                || cause instanceof SQLTransientException
+                || cause instanceof TimeoutException
+                || cause instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The limit of one event or location with the gauges published for it.
+     */
+    private static final class ScopedLimit {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final Gauge inFlightGauge;
+        private final Gauge limitGauge;
+        private volatile long lastUsedAt = System.nanoTime();
+
+        private ScopedLimit(AdaptiveConcurrencyLimit limit, Gauge inFlightGauge, Gauge limitGauge) {
+            this.limit = limit;
+            this.inFlightGauge = inFlightGauge;
+            this.limitGauge = limitGauge;
+        }
+    }
+
+    /**
+     * The slots held by one admitted spin.
+     */
+    private static final class Admission {
+
+        private AdaptiveConcurrencyLimit location;
+        private AdaptiveConcurrencyLimit event;
+        private long startedAt;
+
+        private void complete(Throwable failure) {
+            if (failure != null) {
+                release(isCapacityFailure(failure) ? AdaptiveConcurrencyLimit::onDropped
+                    : AdaptiveConcurrencyLimit::onIgnored);
+                return;
+            }
+            long latency = System.nanoTime() - startedAt;
+            release(limit -> limit.onSuccess(latency));
+        }
+
+        private void ignore() {
+            release(AdaptiveConcurrencyLimit::onIgnored);
+        }
+
+        private void release(Consumer<AdaptiveConcurrencyLimit> action) {
+            if (location != null) {
+                action.accept(location);
+            }
+            if (event != null) {
+                action.accept(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package vn.com.fecredit.app.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.projection.SpinBatchCommitProjection;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardSelectionService;
+import vn.com.fecredit.app.service.SpinBatchService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micro-batching spin pipeline, enabled with {@code app.spin.batch.enabled=true}.
+ * <p>
+ * Spins are collected per event location for at most {@code max-delay-ms} or until
+ * {@code max-size} spins are waiting. A batch is then decided at once against the
+ * location's reward table, its winning units are taken from {@link RewardInventoryService},
+ * and all participant counters and spin histories are written by a single
+ * {@link SpinHistoryRepository#commitSpinBatch} statement in one transaction. Every caller
+ * gets the result of its own spin. A participant event appears at most once per statement;
+ * a second spin of the same participant waits for the next batch, keeping arrival order.
+ * A spin whose idempotency key was already committed completes with a
+ * {@link DuplicateKeyException}, just like a single commit violating the key's constraint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.spin.batch.enabled", havingValue = "true")
+public class SpinBatchServiceImpl implements SpinBatchService {
+
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final RewardSelectionService rewardSelectionService;
+    private final RewardInventoryService rewardInventoryService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.spin.batch.max-size:64}")
+    private int maxBatchSize = 64;
+
+    @Value("${app.spin.batch.max-delay-ms:5}")
+    private long maxDelayMs = 5;
+
+    @Value("${app.spin.batch.threads:4}")
+    private int threads = 4;
+
+    private final Map<Long, LocationBatch> batches = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger created = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "spin-batch-" + created.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        batches.values().forEach(this::drain);
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public CompletableFuture<SpinResultDTO> submit(SpinRequest request, Long participantEventId) {
+        Long locationId = request.getEventLocationId();
+        if (locationId == null) {
+            throw new InvalidOperationException("Location is required for batched spins");
+        }
+
+        PendingSpin spin = new PendingSpin(request, participantEventId);
+        LocationBatch batch = batches.computeIfAbsent(locationId, LocationBatch::new);
+        batch.queue.add(spin);
+        int size = batch.size.incrementAndGet();
+        if (size == 1) {
+            scheduler.schedule(() -> drain(batch), maxDelayMs, TimeUnit.MILLISECONDS);
+        } else if (size % maxBatchSize == 0) {
+            scheduler.execute(() -> drain(batch));
+        }
+        return spin.result;
+    }
+
+    private void drain(LocationBatch batch) {
+        synchronized (batch) {
+            do {
+                List<PendingSpin> spins = batch.take(maxBatchSize);
+                if (spins.isEmpty()) {
+                    break;
+                }
+                process(batch.locationId, spins);
+            } while (batch.size.get() >= maxBatchSize);
+
+            if (batch.size.get() > 0) {
+                scheduler.schedule(() -> drain(batch), maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void process(Long locationId, List<PendingSpin> spins) {
+        List<PendingSpin> drawn = new ArrayList<>(spins.size());
+        for (PendingSpin spin : spins) {
+            try {
+                spin.outcome = rewardSelectionService.selectRandomReward(
+                    spin.request.getEventId(), spin.request.getParticipantId(), locationId);
+                drawn.add(spin);
+            } catch (RuntimeException e) {
+                spin.result.completeExceptionally(e);
+            }
+        }
+        if (drawn.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<SpinBatchCommitProjection> rows = transactionTemplate.execute(status -> commit(drawn, now));
+            for (int i = 0; i < drawn.size(); i++) {
+                PendingSpin spin = drawn.get(i);
+                SpinBatchCommitProjection row = rows.get(i);
+                if (row.getSpinId() == null && spin.taken && !spin.strict) {
+                    rewardInventoryService.release(spin.outcome.getRewardId());
+                }
+                if (row.getDuplicate()) {
+                    spin.result.completeExceptionally(new DuplicateKeyException(
+                        "Spin already committed with idempotency key " + spin.request.getIdempotencyKey()));
+                } else {
+                    spin.result.complete(toResult(spin, row, locationId, now));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to commit a batch of {} spins at location {}", drawn.size(), locationId, e);
+            for (PendingSpin spin : drawn) {
+                if (spin.taken && !spin.strict) {
+                    rewardInventoryService.release(spin.outcome.getRewardId());
+                }
+                spin.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private List<SpinBatchCommitProjection> commit(List<PendingSpin> spins, LocalDateTime now) {
+        int size = spins.size();
+        Long[] participantEventIds = new Long[size];
+        Long[] rewardIds = new Long[size];
+        Integer[] points = new Integer[size];
+        String[] metadata = new String[size];
+        String[] idempotencyKeys = new String[size];
+        String[] inventoryNodeIds = new String[size];
+        Long[] randomSeeds = new Long[size];
+        Integer[] randomStreams = new Integer[size];
+        Long[] goldenHourIds = new Long[size];
+        for (int i = 0; i < size; i++) {
+            PendingSpin spin = spins.get(i);
+            participantEventIds[i] = spin.participantEventId;
+            metadata[i] = spin.outcome.getMetadata();
+            idempotencyKeys[i] = spin.request.getIdempotencyKey();
+            randomSeeds[i] = spin.outcome.getRandomSeed();
+            randomStreams[i] = spin.outcome.getRandomStream();
+            goldenHourIds[i] = spin.outcome.getGoldenHourId();
+            if (spin.outcome.isWin()) {
+                Long rewardId = spin.outcome.getRewardId();
+                spin.strict = rewardInventoryService.isStrict(rewardId);
+                spin.taken = rewardInventoryService.tryConsume(rewardId);
+                if (spin.taken) {
+                    rewardIds[i] = rewardId;
+                    points[i] = spin.outcome.getPoints();
+                    inventoryNodeIds[i] = spin.strict ? null : rewardInventoryService.getNodeId();
+                }
+            }
+        }
+
+        List<SpinBatchCommitProjection> rows = spinHistoryRepository.commitSpinBatch(
+            participantEventIds, rewardIds, points, metadata, idempotencyKeys, inventoryNodeIds,
+            randomSeeds, randomStreams, goldenHourIds, now);
+        for (int i = 0; i < size; i++) {
+            PendingSpin spin = spins.get(i);
+            if (rows.get(i).getSpinId() == null && spin.taken && spin.strict) {
+                // Same transaction: give the unit back before the stock decrement commits
+                rewardInventoryService.release(spin.outcome.getRewardId());
+            }
+        }
+        return rows;
+    }
+
+    private SpinResultDTO toResult(PendingSpin spin, SpinBatchCommitProjection row, Long locationId, LocalDateTime now) {
+        SpinResultDTO.SpinResultDTOBuilder result = SpinResultDTO.builder()
+            .id(row.getSpinId())
+            .eventId(spin.request.getEventId())
+            .participantId(spin.request.getParticipantId())
+            .location(spin.request.getLocation() != null ? spin.request.getLocation() : String.valueOf(locationId))
+            .timestamp(now);
+
+        if (!row.getParticipantFound()) {
+            return result.status(SpinResultDTO.SpinStatus.INELIGIBLE)
+                .message("Participant is not registered at this location")
+                .build();
+        }
+        if (!row.getHasRemainingSpins()) {
+            return result.status(SpinResultDTO.SpinStatus.NO_REMAINING_SPINS)
+                .message("No remaining spins")
+                .build();
+        }
+        if (!row.getUnderDailyLimit()) {
+            return result.status(SpinResultDTO.SpinStatus.QUOTA_EXCEEDED)
+                .message("Daily spin limit reached")
+                .build();
+        }
+        if (!spin.taken) {
+            return result.status(SpinResultDTO.SpinStatus.SUCCESS)
+                .won(false)
+                .message("Better luck next time")
+                .build();
+        }
+        SpinResultResponse outcome = spin.outcome;
+        return result.status(SpinResultDTO.SpinStatus.SUCCESS)
+            .won(true)
+            .rewardId(outcome.getRewardId())
+            .rewardName(outcome.getRewardName())
+            .rewardCode(outcome.getRewardCode())
+            .message(outcome.getMessage())
+            .build();
+    }
+
+    private static final class PendingSpin {
+
+        private final SpinRequest request;
+        private final Long participantEventId;
+        private final CompletableFuture<SpinResultDTO> result = new CompletableFuture<>();
+        private SpinResultResponse outcome;
+        private boolean strict;
+        private boolean taken;
+
+        private PendingSpin(SpinRequest request, Long participantEventId) {
+            this.request = request;
+            this.participantEventId = participantEventId;
+        }
+    }
+
+    private static final class LocationBatch {
+
+        private final Long locationId;
+        private final Queue<PendingSpin> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        /** Spins held back because an earlier spin of the same participant was in the batch. */
+        private Deque<PendingSpin> deferred = new ArrayDeque<>();
+
+        private LocationBatch(Long locationId) {
+            this.locationId = locationId;
+        }
+
+        /**
+         * Takes up to {@code max} spins with distinct participant events, oldest first.
+         * Must be called while holding the monitor of this batch.
+         */
+        private List<PendingSpin> take(int max) {
+            List<PendingSpin> spins = new ArrayList<>();
+            Set<Long> participants = new HashSet<>();
+            Deque<PendingSpin> held = new ArrayDeque<>();
+            for (PendingSpin spin : deferred) {
+                if (spins.size() < max && participants.add(spin.participantEventId)) {
+                    spins.add(spin);
+                } else {
+                    held.add(spin);
+                }
+            }
+            PendingSpin spin;
+            while (spins.size() < max && (spin = queue.poll()) != null) {
+                if (participants.add(spin.participantEventId)) {
+                    spins.add(spin);
+                } else {
+                    held.add(spin);
+                }
+            }
+            deferred = held;
+            size.addAndGet(-spins.size());
+            return spins;
+        }
+    }
+}
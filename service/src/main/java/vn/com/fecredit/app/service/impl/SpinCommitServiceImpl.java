@@ -0,0 +1,111 @@
+package vn.com.fecredit.app.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fecredit.app.dto.SpinCommitDTO;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.projection.SpinCommitProjection;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.SpinCommitService;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persists a spin with a single statement.
+ * <p>
+ * The participant counters, the reward stock and the spin history used to be written by
+ * separate load-and-save steps. Here they are applied by
+ * {@link SpinHistoryRepository#commitSpin}, which evaluates the remaining-spins, daily-limit
+ * and stock guards in the database and reports which of them passed. For write-behind
+ * rewards the unit is taken from {@link RewardInventoryService} before the statement and
+ * handed back if the spin is not committed; the spin records the node it was taken on, so
+ * the node can recover it after a crash. Rewards drawn from a gift pack arrive with their
+ * unit already taken and leave the reward stock alone; a participant guard failing on such
+ * a spin throws, so the transaction the unit was drawn in rolls back and puts it back into
+ * its pack.
+ */
+@Service
+@RequiredArgsConstructor
+public class SpinCommitServiceImpl implements SpinCommitService {
+
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final RewardInventoryService rewardInventoryService;
+
+    @Override
+    @Transactional
+    public SpinCommitDTO.Result commit(SpinCommitDTO.Request request) {
+        Long rewardId = request.getRewardId();
+        boolean fromStock = rewardId != null && !request.isStockTaken();
+        boolean decrementStock = fromStock && rewardInventoryService.isStrict(rewardId);
+        boolean taken = fromStock && !decrementStock && rewardInventoryService.tryConsume(rewardId);
+        boolean inStock = !fromStock || decrementStock || taken;
+        int points = request.getPoints() != null ? request.getPoints() : 0;
+
+        SpinCommitProjection committed;
+        try {
+            committed = spinHistoryRepository.commitSpin(
+                request.getParticipantEventId(),
+                request.getLocationId(),
+                inStock ? rewardId : null,
+                points,
+                decrementStock,
+                request.getGoldenHourId(),
+                request.getMetadata(),
+                request.getIdempotencyKey(),
+                request.getRandomSeed(),
+                request.getRandomStream(),
+                taken ? rewardInventoryService.getNodeId() : null,
+                LocalDateTime.now());
+        } catch (RuntimeException e) {
+            if (taken) {
+                rewardInventoryService.release(rewardId);
+            }
+            throw e;
+        }
+
+        if (taken) {
+            if (committed.getSpinId() == null) {
+                rewardInventoryService.release(rewardId);
+            } else {
+                releaseOnRollback(rewardId);
+            }
+        }
+        if (!committed.getParticipantFound()) {
+            throw new ResourceNotFoundException("ParticipantEvent", request.getParticipantEventId());
+        }
+        if (rewardId != null && request.isStockTaken() && committed.getSpinId() == null) {
+            throw InvalidOperationException.forEntityOperation("ParticipantEvent", request.getParticipantEventId(),
+                "spin", committed.getHasRemainingSpins() ? "daily spin limit reached" : "no spins remaining");
+        }
+
+        boolean win = committed.getRewardGranted();
+        return SpinCommitDTO.Result.builder()
+            .spinId(committed.getSpinId())
+            .hasRemainingSpins(committed.getHasRemainingSpins())
+            .underDailyLimit(committed.getUnderDailyLimit())
+            .inStock(decrementStock ? win || committed.getSpinId() == null : inStock)
+            .win(win)
+            .rewardId(win ? rewardId : null)
+            .pointsEarned(win ? points : 0)
+            .build();
+    }
+
+    private void releaseOnRollback(Long rewardId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    rewardInventoryService.release(rewardId);
+                }
+            }
+        });
+    }
+}
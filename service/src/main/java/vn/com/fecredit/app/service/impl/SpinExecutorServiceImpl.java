@@ -0,0 +1,158 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import vn.com.fecredit.app.exception.SpinNotAllowedException;
+import vn.com.fecredit.app.model.StripedExecutor;
+import vn.com.fecredit.app.service.SpinExecutorService;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes spins per participant event.
+ * <p>
+ * Concurrent spins of the same participant used to race on the {@code @Version} column of
+ * {@code ParticipantEvent} and fail with optimistic lock errors. Here every spin is queued on
+ * the lane of its participant event, so spins of one participant run in the order they
+ * arrived and never overlap, while other participants keep spinning on the other lanes.
+ * A participant that keeps tapping is capped at a few pending spins instead of filling a lane.
+ * <p>
+ * {@link #execute} runs the spin on the caller's thread, so the caller's transaction,
+ * security context and MDC stay in effect. It holds the fair lock of the lane, which
+ * {@link #submit} tasks take as well, so queued and direct spins of one participant still
+ * never overlap.
+ * <p>
+ * Published metrics: {@code spin.executor.queue.depth} per lane, {@code spin.executor.pending}
+ * (participants with queued spins), {@code spin.executor.wait} (time spent queued) and
+ * {@code spin.executor.rejected}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpinExecutorServiceImpl implements SpinExecutorService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.spin.executor.lanes:16}")
+    private int lanes = 16;
+
+    @Value("${app.spin.executor.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${app.spin.executor.max-pending-per-participant:4}")
+    private int maxPendingPerParticipant = 4;
+
+    private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    private StripedExecutor executor;
+    private ReentrantLock[] laneLocks;
+    private Timer waitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void start() {
+        executor = new StripedExecutor("spin-lane", lanes, queueCapacity);
+        laneLocks = new ReentrantLock[executor.getLanes()];
+        for (int lane = 0; lane < laneLocks.length; lane++) {
+            laneLocks[lane] = new ReentrantLock(true);
+        }
+        for (int lane = 0; lane < executor.getLanes(); lane++) {
+            int index = lane;
+            Gauge.builder("spin.executor.queue.depth", executor, e -> e.getQueueDepth(index))
+                .tag("lane", String.valueOf(lane))
+                .description("Spins waiting on a lane")
+                .register(meterRegistry);
+        }
+        Gauge.builder("spin.executor.pending", pending, Map::size)
+            .description("Participant events with spins in flight")
+            .register(meterRegistry);
+        waitTimer = Timer.builder("spin.executor.wait")
+            .description("Time a spin spent queued behind earlier spins")
+            .register(meterRegistry);
+        rejected = Counter.builder("spin.executor.rejected")
+            .description("Spins rejected because too many were pending")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!executor.shutdown(10, TimeUnit.SECONDS)) {
+            log.warn("Spin lanes did not drain within 10 seconds, {} spins left", executor.getQueueDepth());
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Long participantEventId, Supplier<T> spin) {
+        acquire(participantEventId);
+        long queuedAt = System.nanoTime();
+        ReentrantLock lock = laneLocks[executor.laneOf(participantEventId)];
+        try {
+            return executor.submit(participantEventId, () -> {
+                lock.lock();
+                try {
+                    waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    return spin.get();
+                } finally {
+                    lock.unlock();
+                    release(participantEventId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(participantEventId);
+            rejected.increment();
+            throw SpinNotAllowedException.forParticipantEvent(participantEventId, "spin queue is full");
+        }
+    }
+
+    @Override
+    public <T> T execute(Long participantEventId, Supplier<T> spin) {
+        acquire(participantEventId);
+        long queuedAt = System.nanoTime();
+        ReentrantLock lock = laneLocks[executor.laneOf(participantEventId)];
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            release(participantEventId);
+            Thread.currentThread().interrupt();
+            throw SpinNotAllowedException.forParticipantEvent(participantEventId, "interrupted while waiting");
+        }
+        try {
+            waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            return spin.get();
+        } finally {
+            lock.unlock();
+            release(participantEventId);
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueueDepth();
+    }
+
+    private void acquire(Long participantEventId) {
+        if (pending.merge(participantEventId, 1, Integer::sum) > maxPendingPerParticipant) {
+            release(participantEventId);
+            rejected.increment();
+            throw SpinNotAllowedException.forParticipantEvent(participantEventId, "too many pending spins");
+        }
+    }
+
+    private void release(Long participantEventId) {
+        pending.computeIfPresent(participantEventId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,426 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.model.ExportProgress;
+import vn.com.fecredit.app.projection.RewardPackItemProjection;
+import vn.com.fecredit.app.projection.SpinExportProjection;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.RewardPackRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.FileStorageService;
+import vn.com.fecredit.app.service.SpinExportService;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the spins and gift packs of an event as gzip compressed CSV, in memory that does
+ * not grow with the number of rows.
+ * <p>
+ * An export is split into one segment per event location. Up to {@code parallelism}
+ * segments are read at once, each in its own read-only transaction from a database cursor
+ * that fetches rows in blocks, and compressed into a gzip member in a temporary file. The
+ * output receives a member holding the CSV header and then the segments in location
+ * order, each copied as soon as it and all segments before it are complete; gzip readers
+ * decompress concatenated members as one stream. At most {@code pending-segments}
+ * segments are read or waiting to be copied, so a slow output holds back the readers
+ * instead of filling the temporary directory.
+ * <p>
+ * Running exports and their progress are listed by {@link #getRunningExports()}.
+ * <p>
+ * Published metrics: {@code export.rows}, tagged with the export kind, and
+ * {@code export.running}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpinExportServiceImpl implements SpinExportService {
+
+    static final String SPIN_HEADER =
+        "spin_id,spin_time,location_code,participant_account,participant_name,win,reward_code,points_earned,finalized";
+    static final String PACK_HEADER =
+        "pack_id,pack_number,location_code,status,empty_slots,reward_code,remaining_quantity";
+
+    private static final int KILOBYTE = 1024;
+    private static final int PROGRESS_BATCH = 1024;
+
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final RewardPackRepository rewardPackRepository;
+    private final EventLocationRepository eventLocationRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final Optional<FileStorageService> fileStorageService;
+
+    @Value("${app.export.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${app.export.pending-segments:8}")
+    private int pendingSegments = 8;
+
+    @Value("${app.export.buffer-kb:64}")
+    private int bufferKb = 64;
+
+    @Value("${app.export.compression-level:1}")
+    private int compressionLevel = 1;
+
+    @Value("${app.export.temp-directory:${java.io.tmpdir}}")
+    private String tempDirectory = System.getProperty("java.io.tmpdir");
+
+    private final Map<String, ExportProgress> running = new ConcurrentHashMap<>();
+
+    private ExecutorService workers;
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger created = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "spin-export-" + created.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Gauge.builder("export.running", running, Map::size)
+            .description("Exports being written")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        workers.shutdownNow();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Export segments did not stop within 10 seconds");
+        }
+    }
+
+    @Override
+    public ExportProgress exportEventSpins(Long eventId, OutputStream output) {
+        return export("spins", eventId, SPIN_HEADER, output, this::writeSpins);
+    }
+
+    @Override
+    public ExportProgress exportEventSpins(Long eventId, String filename) {
+        FileStorageService storage = fileStorageService
+            .orElseThrow(() -> new InvalidOperationException("File storage is not configured"));
+        Path target = storage.load(filename);
+        // Written beside the target and moved over it, so a failed export leaves no partial file
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            ExportProgress progress;
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(partial), bufferKb * KILOBYTE)) {
+                progress = exportEventSpins(eventId, output);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return progress;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write export " + filename, e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    @Override
+    public ExportProgress exportRewardPacks(Long eventId, OutputStream output) {
+        return export("reward-packs", eventId, PACK_HEADER, output, this::writeRewardPacks);
+    }
+
+    @Override
+    public List<ExportProgress> getRunningExports() {
+        return List.copyOf(running.values());
+    }
+
+    private ExportProgress export(String kind, Long eventId, String header, OutputStream output,
+            SegmentWriter writer) {
+        List<EventLocation> locations = eventLocationRepository.findAllByEventId(eventId).stream()
+            .sorted(Comparator.comparing(EventLocation::getId))
+            .toList();
+        ExportProgress progress = new ExportProgress(UUID.randomUUID().toString(), kind, eventId, locations.size());
+        running.put(progress.getExportId(), progress);
+        Deque<Segment> pending = new ArrayDeque<>();
+        try {
+            progress.headerWritten(writeHeader(header, output));
+            int next = 0;
+            while (next < locations.size() || !pending.isEmpty()) {
+                while (next < locations.size() && pending.size() < pendingSegments) {
+                    EventLocation location = locations.get(next++);
+                    Segment segment = new Segment();
+                    segment.task = workers.submit(() -> segment.run(() -> writeSegment(location, writer, progress)));
+                    pending.addLast(segment);
+                }
+                Path segment = await(pending.peekFirst().file);
+                pending.removeFirst();
+                try {
+                    progress.segmentWritten(Files.copy(segment, output));
+                } finally {
+                    deleteQuietly(segment);
+                }
+            }
+            output.flush();
+            meterRegistry.counter("export.rows", "kind", kind).increment(progress.getRows());
+            log.info("Exported {} {} rows of event {} in {} bytes", progress.getRows(), kind, eventId,
+                progress.getBytes());
+            return progress;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export " + kind + " of event " + eventId, e);
+        } finally {
+            discard(pending);
+            running.remove(progress.getExportId());
+        }
+    }
+
+    private Path writeSegment(EventLocation location, SegmentWriter writer, ExportProgress progress)
+            throws IOException {
+        Path file = Files.createTempFile(Path.of(tempDirectory), "export-", ".csv.gz");
+        try {
+            try (Writer out = open(Files.newOutputStream(file))) {
+                readOnly.executeWithoutResult(status -> {
+                    try {
+                        writer.write(location, out, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            checkInterrupted();
+            return file;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private void writeSpins(EventLocation location, Writer out, ExportProgress progress) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        try (Stream<SpinExportProjection> rows =
+                spinHistoryRepository.streamExportRowsByEventLocationId(location.getId())) {
+            long count = 0;
+            for (Iterator<SpinExportProjection> iterator = rows.iterator(); iterator.hasNext(); ) {
+                SpinExportProjection row = iterator.next();
+                line.setLength(0);
+                appendField(line, row.getId()).append(',');
+                appendField(line, row.getSpinTime()).append(',');
+                appendField(line, row.getLocationCode()).append(',');
+                appendField(line, row.getParticipantAccount()).append(',');
+                appendField(line, row.getParticipantName()).append(',');
+                appendField(line, row.getWin()).append(',');
+                appendField(line, row.getRewardCode()).append(',');
+                appendField(line, row.getPointsEarned()).append(',');
+                appendField(line, row.getFinalized()).append('\n');
+                out.append(line);
+                count = countRow(count, progress);
+            }
+            progress.addRows(count % PROGRESS_BATCH);
+        }
+    }
+
+    private void writeRewardPacks(EventLocation location, Writer out, ExportProgress progress) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        try (Stream<RewardPackItemProjection> rows =
+                rewardPackRepository.streamItemsByEventLocationId(location.getId())) {
+            long count = 0;
+            for (Iterator<RewardPackItemProjection> iterator = rows.iterator(); iterator.hasNext(); ) {
+                RewardPackItemProjection row = iterator.next();
+                line.setLength(0);
+                appendField(line, row.getPackId()).append(',');
+                appendField(line, row.getPackNumber()).append(',');
+                appendField(line, location.getCode()).append(',');
+                appendField(line, row.getStatus()).append(',');
+                appendField(line, row.getEmptySlots()).append(',');
+                appendField(line, row.getRewardCode()).append(',');
+                appendField(line, row.getRemainingQuantity()).append('\n');
+                out.append(line);
+                count = countRow(count, progress);
+            }
+            progress.addRows(count % PROGRESS_BATCH);
+        }
+    }
+
+    /**
+     * Counts a written row, publishing progress and checking for cancellation once per batch.
+     */
+    private static long countRow(long count, ExportProgress progress) throws InterruptedIOException {
+        count++;
+        if (count % PROGRESS_BATCH == 0) {
+            progress.addRows(PROGRESS_BATCH);
+            checkInterrupted();
+        }
+        return count;
+    }
+
+    private long writeHeader(String header, OutputStream output) throws IOException {
+        ByteArrayOutputStream member = new ByteArrayOutputStream();
+        try (Writer out = open(member)) {
+            out.write(header);
+            out.write('\n');
+        }
+        member.writeTo(output);
+        return member.size();
+    }
+
+    private Writer open(OutputStream output) throws IOException {
+        int bufferSize = bufferKb * KILOBYTE;
+        int level = compressionLevel;
+        GZIPOutputStream gzip = new GZIPOutputStream(output, bufferSize) {
+            {
+                def.setLevel(level);
+            }
+        };
+        return new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    private static Path await(CompletableFuture<Path> segment) throws IOException {
+        try {
+            return segment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the segments of a failed export and deletes those already written. Segments
+     * not started yet never run; running ones are interrupted and waited for, so no file
+     * is left behind once this returns.
+     */
+    private static void discard(Deque<Segment> pending) {
+        List<CompletableFuture<Path>> running = new ArrayList<>(pending.size());
+        for (Segment segment : pending) {
+            if (segment.started.compareAndSet(false, true)) {
+                segment.task.cancel(false);
+            } else {
+                segment.task.cancel(true);
+                running.add(segment.file);
+            }
+        }
+        for (CompletableFuture<Path> file : running) {
+            try {
+                deleteQuietly(file.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while discarding export segments");
+                return;
+            } catch (ExecutionException e) {
+                // The segment deleted its own file when it failed
+            }
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Export segment cancelled");
+        }
+    }
+
+    private static StringBuilder appendField(StringBuilder line, Object value) {
+        if (value == null) {
+            return line;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(text);
+        }
+        return line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete export file {}", file, e);
+        }
+    }
+
+    /**
+     * A segment of an export and the worker task writing it. Cancelling a running task
+     * returns before the task stops, so the file is completed by the task itself, once
+     * written or failed. Whichever comes first of the task and {@link #discard} marks the
+     * segment started; a segment discarded first is never written.
+     */
+    private static final class Segment {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<Path> file = new CompletableFuture<>();
+        private Future<?> task;
+
+        void run(SegmentTask body) {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                file.complete(body.call());
+            } catch (IOException | RuntimeException | Error e) {
+                file.completeExceptionally(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SegmentTask {
+
+        Path call() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SegmentWriter {
+
+        void write(EventLocation location, Writer out, ExportProgress progress) throws IOException;
+    }
+}
@@ -0,0 +1,120 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.SpinHistoryPartitionService;
+
+import java.time.LocalDate;
+
+/**
+ * Maintenance of the monthly partitions of {@code spin_histories}.
+ * <p>
+ * Spins are written to the partition of their month. Partitions are created
+ * {@code months-ahead} months in advance, so a spin only falls back to the default
+ * partition when maintenance has not run for that long. With a positive
+ * {@code retention-months}, the partitions of months that ended longer ago are detached
+ * for archiving, or dropped when {@code drop-expired} is set; either way the rows leave
+ * the live table without a single {@code DELETE}. Idempotency keys are only needed while
+ * clients may still retry, and are deleted after {@code idempotency-key-retention-days}.
+ * <p>
+ * Every node runs the maintenance; the database functions doing the work take an advisory
+ * lock and skip what already exists, so concurrent runs are harmless.
+ * <p>
+ * Published metrics: {@code spin.history.partitions.created},
+ * {@code spin.history.partitions.removed} and {@code spin.history.idempotency-keys.purged}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpinHistoryPartitionServiceImpl implements SpinHistoryPartitionService {
+
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.spin.history.partition.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.spin.history.partition.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    /**
+     * Months of spins kept in the live table besides the current one, 0 to keep all.
+     */
+    @Value("${app.spin.history.partition.retention-months:0}")
+    private int retentionMonths = 0;
+
+    @Value("${app.spin.history.partition.drop-expired:false}")
+    private boolean dropExpired = false;
+
+    @Value("${app.spin.history.idempotency-key-retention-days:7}")
+    private int idempotencyKeyRetentionDays = 7;
+
+    private Counter created;
+    private Counter removed;
+    private Counter purged;
+
+    @PostConstruct
+    void start() {
+        created = Counter.builder("spin.history.partitions.created")
+            .description("Monthly spin history partitions created")
+            .register(meterRegistry);
+        removed = Counter.builder("spin.history.partitions.removed")
+            .description("Monthly spin history partitions detached or dropped by retention")
+            .register(meterRegistry);
+        purged = Counter.builder("spin.history.idempotency-keys.purged")
+            .description("Expired spin idempotency keys deleted")
+            .register(meterRegistry);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.spin.history.partition.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (enabled) {
+            maintain(LocalDate.now());
+        }
+    }
+
+    @Override
+    public void maintain(LocalDate today) {
+        LocalDate month = today.withDayOfMonth(1);
+        try {
+            int count = spinHistoryRepository.createPartitions(month, monthsAhead + 1);
+            if (count > 0) {
+                log.info("Created {} spin history partitions from {}", count, month);
+                created.increment(count);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to create spin history partitions from {}", month, e);
+        }
+
+        if (retentionMonths > 0) {
+            LocalDate cutoff = month.minusMonths(retentionMonths);
+            try {
+                int count = spinHistoryRepository.removePartitions(cutoff, dropExpired);
+                if (count > 0) {
+                    log.info("{} {} spin history partitions before {}",
+                        dropExpired ? "Dropped" : "Detached", count, cutoff);
+                    removed.increment(count);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to remove spin history partitions before {}", cutoff, e);
+            }
+        }
+
+        if (idempotencyKeyRetentionDays > 0) {
+            try {
+                purged.increment(spinHistoryRepository.deleteIdempotencyKeysBefore(
+                    today.minusDays(idempotencyKeyRetentionDays).atStartOfDay()));
+            } catch (RuntimeException e) {
+                log.error("Failed to purge spin idempotency keys", e);
+            }
+        }
+    }
+}
@@ -3,9 +3,14 @@ package vn.com.fecredit.app.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import vn.com.fecredit.app.dto.SpinHistoryDTO;
+import vn.com.fecredit.app.dto.common.PageRequest;
+import vn.com.fecredit.app.dto.common.PageResponse;
 import vn.com.fecredit.app.entity.ParticipantEvent;
 import vn.com.fecredit.app.entity.Reward;
 import vn.com.fecredit.app.entity.SpinHistory;
@@ -16,12 +21,12 @@ import vn.com.fecredit.app.repository.ParticipantEventRepository;
 import vn.com.fecredit.app.repository.RewardRepository;
 import vn.com.fecredit.app.repository.SpinHistoryRepository;
 import vn.com.fecredit.app.service.SpinHistoryService;
+import vn.com.fecredit.app.service.SpinJournalService;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,13 +37,16 @@ public class SpinHistoryServiceImpl implements SpinHistoryService {
     private final ParticipantEventRepository participantEventRepository;
     private final RewardRepository rewardRepository;
     private final SpinHistoryMapper spinHistoryMapper;
+    private final Optional<SpinJournalService> spinJournalService;
 
     @Override
     @Transactional
     public SpinHistoryDTO.Response createSpin(SpinHistoryDTO.CreateRequest request) {
         SpinHistory spinHistory = spinHistoryMapper.toEntity(request);
         validateNewSpin(spinHistory);
-        spinHistory = spinHistoryRepository.save(spinHistory);
+        spinHistory = spinJournalService.isPresent()
+            ? spinJournalService.get().append(spinHistory)
+            : spinHistoryRepository.save(spinHistory);
         return spinHistoryMapper.toResponse(spinHistory);
     }
 
@@ -95,17 +103,41 @@ public class SpinHistoryServiceImpl implements SpinHistoryService {
     }
 
     @Override
-    public List<SpinHistoryDTO.Summary> findAllByEventId(Long eventId) {
-        return spinHistoryMapper.toSummaryList(
-            spinHistoryRepository.findAllByEventId(eventId)
-        );
+    public PageResponse<SpinHistoryDTO.Response> scrollByParticipantEvent(Long participantEventId,
+            PageRequest pageRequest) {
+        Sort sort = pageRequest.toKeysetSort("spinTime", Sort.Direction.DESC);
+        Window<SpinHistoryDTO.Response> window = spinHistoryRepository
+            .findAllByParticipantEventId(participantEventId, pageRequest.toScrollPosition(sort), sort,
+                pageRequest.toLimit())
+            .map(spinHistoryMapper::toResponse);
+        return PageResponse.of(window,
+            pageRequest.isCountRequested() ? spinHistoryRepository.countByParticipantEventId(participantEventId) : null);
     }
 
     @Override
-    public List<SpinHistoryDTO.Summary> findAllByEventLocation(Long locationId) {
-        return spinHistoryMapper.toSummaryList(
-            spinHistoryRepository.findAllByEventLocationId(locationId)
-        );
+    public Page<SpinHistoryDTO.Summary> findAllByEventId(Long eventId, Pageable pageable) {
+        return spinHistoryRepository.findSummariesByEventId(eventId, pageable)
+            .map(spinHistoryMapper::toSummary);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<SpinHistoryDTO.Summary> streamAllByEventId(Long eventId) {
+        return spinHistoryRepository.streamSummariesByEventId(eventId)
+            .map(spinHistoryMapper::toSummary);
+    }
+
+    @Override
+    public Page<SpinHistoryDTO.Summary> findAllByEventLocation(Long locationId, Pageable pageable) {
+        return spinHistoryRepository.findSummariesByEventLocationId(locationId, pageable)
+            .map(spinHistoryMapper::toSummary);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<SpinHistoryDTO.Summary> streamAllByEventLocation(Long locationId) {
+        return spinHistoryRepository.streamSummariesByEventLocationId(locationId)
+            .map(spinHistoryMapper::toSummary);
     }
 
     @Override
@@ -117,18 +149,15 @@ public class SpinHistoryServiceImpl implements SpinHistoryService {
 
     @Override
     public SpinHistoryDTO.Statistics getParticipantEventStatistics(Long participantEventId) {
-        ParticipantEvent participantEvent = participantEventRepository.findById(participantEventId)
+        ParticipantEvent participantEvent = participantEventRepository.findWithDetailsById(participantEventId)
             .orElseThrow(() -> new EntityNotFoundException("ParticipantEvent", participantEventId));
-        return spinHistoryMapper.toStatistics(participantEvent);
+        return spinHistoryMapper.toStatistics(participantEvent,
+            spinHistoryRepository.summarizeSpins(participantEventId));
     }
 
     @Override
     public long countTotalSpins(Long participantEventId) {
-        return spinHistoryRepository.countSpinsInTimeRange(
-            participantEventId,
-            LocalDateTime.MIN,
-            LocalDateTime.MAX
-        );
+        return spinHistoryRepository.countByParticipantEventId(participantEventId);
     }
 
     @Override
@@ -150,9 +179,7 @@ public class SpinHistoryServiceImpl implements SpinHistoryService {
     @Override
     public List<SpinHistoryDTO.Summary> findSpinsByTimeRange(Long participantEventId, LocalDateTime startTime, LocalDateTime endTime) {
         return spinHistoryMapper.toSummaryList(
-            spinHistoryRepository.findAllByParticipantEventIdAndSpinTimeBetween(
-                participantEventId, startTime, endTime
-            )
+            spinHistoryRepository.findSpinsInPeriod(participantEventId, startTime, endTime)
         );
     }
 
@@ -175,9 +202,7 @@ public class SpinHistoryServiceImpl implements SpinHistoryService {
 
     @Override
     public boolean hasReachedDailyLimit(Long participantEventId) {
-        LocalDateTime start = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
-        LocalDateTime end = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
-        return spinHistoryRepository.countSpinsInTimeRange(participantEventId, start, end) >= 
+        return spinHistoryRepository.countTodaySpins(participantEventId) >= 
                getParticipantEvent(participantEventId).getMaxSpinsPerDay();
     }
 
@@ -0,0 +1,164 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.model.BoundedLruCache;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.SpinIdempotencyService;
+
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates spins submitted with an idempotency key.
+ * <p>
+ * Mobile clients retry a spin when the network drops the answer, and every retry used to
+ * consume another spin. The result of a keyed spin is now remembered in a
+ * {@link BoundedLruCache} per participant, event and key, and a retry is answered with
+ * the original {@link SpinResultDTO} without running the spin path; a retry arriving while
+ * the original is still running waits for it. Only results that recorded a spin are kept,
+ * so a spin that was refused or failed may simply be tried again.
+ * <p>
+ * The cache only covers this node and its recent keys. The key is also written to
+ * {@code spin_idempotency_keys}, whose primary key refuses a second spin with the same key;
+ * when the spin path fails on that constraint the committed spin is loaded and answered
+ * instead. The spin path must therefore commit in its own transaction.
+ * <p>
+ * Published metrics: {@code spin.idempotency.replayed}, retries answered with an earlier
+ * result, and {@code spin.idempotency.cached}, the keys currently remembered.
+ */
+@Service
+@RequiredArgsConstructor
+public class SpinIdempotencyServiceImpl implements SpinIdempotencyService {
+
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.spin.idempotency.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.spin.idempotency.max-keys:100000}")
+    private int maxKeys = 100000;
+
+    @Value("${app.spin.idempotency.stripes:64}")
+    private int stripes = 64;
+
+    private BoundedLruCache<String, CompletableFuture<SpinResultDTO>> results;
+
+    private Counter replayed;
+
+    @PostConstruct
+    void start() {
+        results = new BoundedLruCache<>(maxKeys, stripes);
+        replayed = Counter.builder("spin.idempotency.replayed")
+            .description("Spin retries answered with the result of the original spin")
+            .register(meterRegistry);
+        Gauge.builder("spin.idempotency.cached", this, SpinIdempotencyServiceImpl::getCachedKeys)
+            .description("Idempotency keys whose spin result is remembered")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public SpinResultDTO execute(SpinRequest request, Supplier<SpinResultDTO> spin) {
+        String key = request.getIdempotencyKey();
+        if (!enabled || key == null || key.isBlank()) {
+            return spin.get();
+        }
+
+        String cacheKey = request.getParticipantId() + ":" + request.getEventId() + ":" + key;
+        CompletableFuture<SpinResultDTO> attempt = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<SpinResultDTO> original = results.putIfAbsent(cacheKey, attempt);
+            if (original == null) {
+                return run(request, cacheKey, attempt, spin);
+            }
+            try {
+                SpinResultDTO result = original.join();
+                replayed.increment();
+                return result;
+            } catch (CompletionException | CancellationException e) {
+                // The original failed and was forgotten, so this retry runs the spin itself
+            }
+        }
+    }
+
+    @Override
+    public int getCachedKeys() {
+        return results.size();
+    }
+
+    private SpinResultDTO run(SpinRequest request, String cacheKey, CompletableFuture<SpinResultDTO> attempt,
+                              Supplier<SpinResultDTO> spin) {
+        SpinResultDTO result;
+        try {
+            result = spin.get();
+        } catch (DataIntegrityViolationException e) {
+            // The key was committed by another node, or before this node restarted
+            Optional<SpinResultDTO> committed = findCommitted(request);
+            if (committed.isEmpty()) {
+                fail(cacheKey, attempt, e);
+                throw e;
+            }
+            replayed.increment();
+            result = committed.get();
+        } catch (RuntimeException e) {
+            fail(cacheKey, attempt, e);
+            throw e;
+        }
+
+        if (result == null || result.getId() == null) {
+            results.remove(cacheKey, attempt);
+        }
+        attempt.complete(result);
+        return result;
+    }
+
+    private void fail(String cacheKey, CompletableFuture<SpinResultDTO> attempt, RuntimeException e) {
+        results.remove(cacheKey, attempt);
+        attempt.completeExceptionally(e);
+    }
+
+    private Optional<SpinResultDTO> findCommitted(SpinRequest request) {
+        return spinHistoryRepository.findByIdempotencyKey(
+                request.getParticipantId(), request.getEventId(), request.getIdempotencyKey())
+            .stream()
+            .findFirst()
+            .map(spin -> toResult(request, spin));
+    }
+
+    private SpinResultDTO toResult(SpinRequest request, SpinHistory spin) {
+        SpinResultDTO.SpinResultDTOBuilder result = SpinResultDTO.builder()
+            .id(spin.getId())
+            .eventId(request.getEventId())
+            .participantId(request.getParticipantId())
+            .location(request.getLocation())
+            .status(SpinResultDTO.SpinStatus.SUCCESS)
+            .timestamp(spin.getSpinTime());
+
+        Reward reward = spin.getReward();
+        if (!spin.isWin() || reward == null) {
+            return result.won(false)
+                .message("Better luck next time")
+                .build();
+        }
+        return result.won(true)
+            .rewardId(reward.getId())
+            .rewardName(reward.getName())
+            .rewardCode(reward.getCode())
+            .message("Congratulations! You won " + reward.getName())
+            .build();
+    }
+}
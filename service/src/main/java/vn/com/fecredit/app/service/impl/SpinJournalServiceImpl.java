@@ -0,0 +1,369 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.model.SpinJournal;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.SpinJournalService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Write-ahead journal for spin histories, enabled with {@code app.spin.journal.enabled=true}.
+ * <p>
+ * A new spin history is appended to a {@link SpinJournal} in {@code directory} and handed
+ * back as soon as the append returns, without waiting for the database. Called within a
+ * transaction, the spin is only appended once that transaction commits, so a spin whose
+ * transaction rolled back is never loaded. Its id is taken from a block reserved on
+ * {@code spin_histories_id_seq}, which must be incremented by {@code id-block-size}, so
+ * journaled spins never collide with ids handed out by Hibernate; the service refuses to
+ * start when the increment differs. With {@code fsync=INTERVAL} the journal is forced every
+ * {@code fsync-interval-ms}; see {@link SpinJournal.Fsync} for the other policies.
+ * <p>
+ * A loader drains the journal every {@code load-interval-ms} in batches of
+ * {@code batch-size} records. Each batch is streamed into {@code spin_histories} with
+ * {@code COPY} in one transaction, and the journal checkpoint is only moved past the batch
+ * after that transaction committed. A crash between the two loads the batch again; the
+ * rows are keyed by their journaled id and spin time and rows already present are skipped,
+ * so every spin is stored exactly once. The journal is drained when the service starts and
+ * before it stops; while the database is unreachable spins keep being journaled and the
+ * loader retries.
+ * <p>
+ * A batch the database rejects for its data, or holding a record that cannot be decoded,
+ * is split in halves and loaded again until the records at fault are isolated. Those are
+ * appended to the {@code dead-letter} file of the journal directory, one line per record
+ * with its Base64 payload and the reason, and the loader moves on. A record that fails its
+ * checksum after the journal was opened is set aside the same way, with the bytes as read,
+ * rather than stopping the loader at it. A crash before the checkpoint may append the same
+ * record again.
+ * <p>
+ * A journaled spin is not visible to queries until it was loaded, so counts such as the
+ * daily spin limit may lag by up to one load interval.
+ * <p>
+ * Published metrics: {@code spin.journal.appended}, {@code spin.journal.loaded},
+ * {@code spin.journal.dead-lettered}, and {@code spin.journal.backlog}, the bytes
+ * journaled but not loaded yet.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.spin.journal.enabled", havingValue = "true")
+public class SpinJournalServiceImpl implements SpinJournalService {
+
+    private static final int MEGABYTE = 1024 * 1024;
+    private static final String DEAD_LETTER = "dead-letter";
+
+    private final SpinHistoryRepository spinHistoryRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.spin.journal.directory:data/spin-journal}")
+    private String directory = "data/spin-journal";
+
+    @Value("${app.spin.journal.segment-size-mb:64}")
+    private int segmentSizeMb = 64;
+
+    @Value("${app.spin.journal.fsync:INTERVAL}")
+    private SpinJournal.Fsync fsync = SpinJournal.Fsync.INTERVAL;
+
+    @Value("${app.spin.journal.batch-size:5000}")
+    private int batchSize = 5000;
+
+    /**
+     * Must equal the increment of {@code spin_histories_id_seq}.
+     */
+    @Value("${app.spin.journal.id-block-size:50}")
+    private int idBlockSize = 50;
+
+    private SpinJournal journal;
+
+    private long nextId;
+    private long lastId;
+
+    private Counter appended;
+    private Counter loaded;
+    private Counter deadLettered;
+
+    @PostConstruct
+    void start() throws IOException {
+        Long increment = spinHistoryRepository.findIdBlockIncrement();
+        if (increment == null || increment != idBlockSize) {
+            throw new IllegalStateException("spin_histories_id_seq is incremented by " + increment
+                + " but app.spin.journal.id-block-size is " + idBlockSize);
+        }
+        journal = new SpinJournal(Path.of(directory), segmentSizeMb * MEGABYTE, fsync);
+        appended = Counter.builder("spin.journal.appended")
+            .description("Spin histories appended to the journal")
+            .register(meterRegistry);
+        loaded = Counter.builder("spin.journal.loaded")
+            .description("Spin histories loaded from the journal into the database")
+            .register(meterRegistry);
+        deadLettered = Counter.builder("spin.journal.dead-lettered")
+            .description("Journaled spin histories rejected by the database or corrupt, set aside in the dead-letter file")
+            .register(meterRegistry);
+        Gauge.builder("spin.journal.backlog", this, SpinJournalServiceImpl::getBacklogBytes)
+            .description("Bytes of spin histories journaled but not loaded yet")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        // Replays what an earlier run journaled but did not load
+        load();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        load();
+        journal.close();
+    }
+
+    @Override
+    public SpinHistory append(SpinHistory spinHistory) {
+        LocalDateTime now = LocalDateTime.now();
+        spinHistory.setId(nextId());
+        if (spinHistory.getSpinTime() == null) {
+            spinHistory.setSpinTime(now);
+        }
+        spinHistory.setVersion(0L);
+        spinHistory.setCreatedAt(now);
+        spinHistory.setUpdatedAt(now);
+        byte[] payload = encode(spinHistory);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    journal(payload);
+                }
+            });
+        } else {
+            journal(payload);
+        }
+        return spinHistory;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.spin.journal.load-interval-ms:200}")
+    public synchronized int load() {
+        int count = 0;
+        try {
+            while (true) {
+                List<SpinJournal.Entry> entries = journal.read(journal.getCheckpoint(), batchSize);
+                if (entries.isEmpty()) {
+                    break;
+                }
+                List<SpinJournal.Entry> intact = new ArrayList<>(entries.size());
+                for (SpinJournal.Entry entry : entries) {
+                    if (entry.isCorrupt()) {
+                        deadLetter(entry, new IllegalStateException("Corrupt journal record at " + entry.getPosition()));
+                    } else {
+                        intact.add(entry);
+                    }
+                }
+                count += copy(intact);
+                journal.checkpoint(entries.get(entries.size() - 1).getNext());
+                if (entries.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load spin journal from {}", journal.getCheckpoint(), e);
+        }
+        return count;
+    }
+
+    @Override
+    public long getBacklogBytes() {
+        return journal.getBacklogBytes();
+    }
+
+    @Scheduled(fixedDelayString = "${app.spin.journal.fsync-interval-ms:10}")
+    void force() {
+        if (fsync == SpinJournal.Fsync.INTERVAL) {
+            journal.force();
+        }
+    }
+
+    private void journal(byte[] payload) {
+        journal.append(payload);
+        appended.increment();
+    }
+
+    /**
+     * Copies journaled spins into the database, halving the batch until the records the
+     * database rejects are isolated and set aside.
+     *
+     * @return the number of spins loaded
+     */
+    private int copy(List<SpinJournal.Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        try {
+            StringBuilder csv = new StringBuilder(entries.size() * 128);
+            for (SpinJournal.Entry entry : entries) {
+                appendCsv(csv, entry.getPayload());
+            }
+            spinHistoryRepository.copySpins(csv.toString());
+            loaded.increment(entries.size());
+            return entries.size();
+        } catch (DataIntegrityViolationException | UncheckedIOException e) {
+            if (entries.size() == 1) {
+                deadLetter(entries.get(0), e);
+                return 0;
+            }
+            int half = entries.size() / 2;
+            return copy(entries.subList(0, half)) + copy(entries.subList(half, entries.size()));
+        }
+    }
+
+    private void deadLetter(SpinJournal.Entry entry, RuntimeException reason) throws IOException {
+        log.error("Setting aside journaled spin at {}", entry.getPosition(), reason);
+        String cause = String.valueOf(reason.getMessage());
+        Files.writeString(Path.of(directory).resolve(DEAD_LETTER),
+            Base64.getEncoder().encodeToString(entry.getPayload()) + '\t' + cause.replaceAll("\\s+", " ") + '\n',
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        deadLettered.increment();
+    }
+
+    private synchronized long nextId() {
+        if (nextId == 0 || nextId > lastId) {
+            lastId = spinHistoryRepository.reserveIdBlock();
+            nextId = lastId - idBlockSize + 1;
+        }
+        return nextId++;
+    }
+
+    private static byte[] encode(SpinHistory spin) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(spin.getId());
+            out.writeLong(spin.getParticipantEvent().getId());
+            writeId(out, spin.getEventLocation() != null ? spin.getEventLocation().getId() : null);
+            writeId(out, spin.getGoldenHour() != null ? spin.getGoldenHour().getId() : null);
+            writeId(out, spin.getReward() != null ? spin.getReward().getId() : null);
+            out.writeBoolean(Boolean.TRUE.equals(spin.getWin()));
+            out.writeInt(spin.getPointsEarned() != null ? spin.getPointsEarned() : 0);
+            out.writeBoolean(Boolean.TRUE.equals(spin.getFinalized()));
+            writeTime(out, spin.getSpinTime());
+            writeText(out, spin.getMetadata());
+            out.writeInt(spin.getStatus());
+            writeTime(out, spin.getCreatedAt());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a journaled spin. Only the ids of its associations are set.
+     */
+    static SpinHistory decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            SpinHistory spin = SpinHistory.builder()
+                .id(in.readLong())
+                .participantEvent(ParticipantEvent.builder().id(in.readLong()).build())
+                .build();
+            Long eventLocationId = readId(in);
+            Long goldenHourId = readId(in);
+            Long rewardId = readId(in);
+            spin.setEventLocation(eventLocationId != null ? EventLocation.builder().id(eventLocationId).build() : null);
+            spin.setGoldenHour(goldenHourId != null ? GoldenHour.builder().id(goldenHourId).build() : null);
+            spin.setReward(rewardId != null ? Reward.builder().id(rewardId).build() : null);
+            spin.setWin(in.readBoolean());
+            spin.setPointsEarned(in.readInt());
+            spin.setFinalized(in.readBoolean());
+            spin.setSpinTime(readTime(in));
+            spin.setMetadata(readText(in));
+            spin.setStatus(in.readInt());
+            spin.setVersion(0L);
+            spin.setCreatedAt(readTime(in));
+            spin.setUpdatedAt(spin.getCreatedAt());
+            return spin;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendCsv(StringBuilder csv, byte[] payload) {
+        SpinHistory spin = decode(payload);
+        csv.append(spin.getId()).append(',')
+            .append(spin.getParticipantEvent().getId()).append(',')
+            .append(spin.getEventLocation() != null ? spin.getEventLocation().getId() : "").append(',')
+            .append(spin.getGoldenHour() != null ? spin.getGoldenHour().getId() : "").append(',')
+            .append(spin.getReward() != null ? spin.getReward().getId() : "").append(',')
+            .append(spin.getWin()).append(',')
+            .append(spin.getPointsEarned()).append(',')
+            .append(spin.getFinalized()).append(',')
+            .append(spin.getSpinTime()).append(',');
+        if (spin.getMetadata() != null) {
+            // An unquoted empty field is NULL, a quoted one an empty string
+            csv.append('"').append(spin.getMetadata().replace("\"", "\"\"")).append('"');
+        }
+        csv.append(',')
+            .append(spin.getStatus()).append(',')
+            .append(spin.getVersion()).append(',')
+            .append(spin.getCreatedAt()).append(',')
+            .append(spin.getUpdatedAt()).append('\n');
+    }
+
+    private static void writeId(DataOutputStream out, Long id) throws IOException {
+        out.writeLong(id != null ? id : 0L);
+    }
+
+    private static Long readId(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        return id != 0L ? id : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
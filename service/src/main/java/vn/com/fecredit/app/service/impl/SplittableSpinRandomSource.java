@@ -0,0 +1,89 @@
+package vn.com.fecredit.app.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.service.SpinRandomSource;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * {@link SpinRandomSource} backed by a splittable generator from {@code java.util.random}.
+ * <p>
+ * A root generator seeded from system entropy is split once per thread; afterwards each
+ * thread draws seeds from its own stream and never touches memory written by another core.
+ * Streams are numbered in the order they were split.
+ * A spin's generator is created from its seed with the same algorithm, so replaying a seed
+ * yields the same numbers. The algorithm is chosen with {@code app.spin.random.algorithm}
+ * and must be splittable; the default {@code SplittableRandom} is the cheapest to create
+ * per spin, {@code L64X128MixRandom} and the other LXM generators trade speed for quality.
+ */
+@Service
+public class SplittableSpinRandomSource implements SpinRandomSource {
+
+    private static final String SPLITTABLE_RANDOM = "SplittableRandom";
+
+    @Value("${app.spin.random.algorithm:SplittableRandom}")
+    private String algorithm = "SplittableRandom";
+
+    private RandomGeneratorFactory<SplittableGenerator> factory;
+    private SplittableGenerator root;
+    private ThreadLocal<Stream> streams;
+    private int splits;
+
+    public SplittableSpinRandomSource() {
+    }
+
+    public SplittableSpinRandomSource(String algorithm) {
+        this.algorithm = algorithm;
+        start();
+    }
+
+    @PostConstruct
+    void start() {
+        RandomGeneratorFactory<SplittableGenerator> candidate;
+        try {
+            candidate = RandomGeneratorFactory.of(algorithm);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidOperationException("Unknown random algorithm: " + algorithm);
+        }
+        if (!candidate.isSplittable()) {
+            throw new InvalidOperationException("Random algorithm " + algorithm + " is not splittable");
+        }
+        factory = candidate;
+        root = factory.create();
+        streams = ThreadLocal.withInitial(this::split);
+    }
+
+    @Override
+    public long nextSeed() {
+        return streams.get().generator().nextLong();
+    }
+
+    @Override
+    public RandomGenerator forSeed(long seed) {
+        // Skip the reflective factory for the JDK default, it is created once per spin
+        return SPLITTABLE_RANDOM.equals(algorithm) ? new SplittableRandom(seed) : factory.create(seed);
+    }
+
+    @Override
+    public int getStreamIndex() {
+        return streams.get().index();
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    private synchronized Stream split() {
+        return new Stream(splits++, root.split());
+    }
+
+    private record Stream(int index, SplittableGenerator generator) {
+    }
+}
@@ -0,0 +1,391 @@
+package vn.com.fecredit.app.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.dto.WaitingRoomDTO;
+import vn.com.fecredit.app.exception.BusinessException;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.service.SpinAdmissionService;
+import vn.com.fecredit.app.service.WaitingRoomService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ticketed waiting room in front of {@link SpinAdmissionService}.
+ * <p>
+ * A spin that finds the waiting room of its event empty and is admitted right away runs on
+ * the caller's thread as usual. Any other spin takes a ticket and waits in a bounded
+ * in-memory queue per event. Tickets are started strictly in arrival order, each as soon as
+ * the admission limit of the event has a free slot, so the spin path stays at the
+ * concurrency it sustains best instead of shedding or thrashing. Clients poll
+ * {@link #getTicket(String)} for their position, an estimated wait and finally the result;
+ * that lookup only reads memory. Results are kept for {@code result-ttl-ms} after the spin.
+ * <p>
+ * All queue draining happens on one scheduler thread; queued spins run on a pool of
+ * {@code threads} workers, by default one per database connection, which is as many as the
+ * admission limit of an event ever lets in. The pool queues at most as many spins again
+ * and refuses the rest; a spin no worker takes stays at the head of its queue and is
+ * tried again after {@code poll-interval-ms}, like one the admission limit turned away. A
+ * queued spin runs with the security context and MDC of the caller that entered it, but
+ * outside the caller's transaction, so it must open its own. Published metrics: {@code spin.waiting-room.length} per event,
+ * {@code spin.waiting-room.wait} (time from ticket to start) and
+ * {@code spin.waiting-room.full} (spins turned away by a full queue).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    private final SpinAdmissionService spinAdmissionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.spin.waiting-room.capacity:10000}")
+    private int capacity = 10000;
+
+    @Value("${app.spin.waiting-room.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int threads = 10;
+
+    @Value("${app.spin.waiting-room.poll-interval-ms:20}")
+    private long pollIntervalMs = 20;
+
+    @Value("${app.spin.waiting-room.result-ttl-ms:60000}")
+    private long resultTtlMs = 60000;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Entry> tickets = new ConcurrentHashMap<>();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService scheduler;
+    private Timer waitTimer;
+    private Counter full;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger created = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads),
+            runnable -> {
+                Thread thread = new Thread(runnable, "spin-waiting-room-" + created.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spin-waiting-room-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        waitTimer = Timer.builder("spin.waiting-room.wait")
+            .description("Time a ticket waited before its spin started")
+            .register(meterRegistry);
+        full = Counter.builder("spin.waiting-room.full")
+            .description("Spins turned away because the waiting room was full")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Waiting room spins did not finish within 10 seconds");
+        }
+    }
+
+    @Override
+    public WaitingRoomDTO.Ticket enter(SpinRequest request, Supplier<SpinResultDTO> spin) {
+        Long eventId = request.getEventId();
+        if (eventId == null) {
+            throw new InvalidOperationException("Event is required to enter the waiting room");
+        }
+        Room room = rooms.computeIfAbsent(eventId, this::createRoom);
+
+        if (room.isEmpty()) {
+            SpinResultDTO result = spinAdmissionService.execute(request, spin);
+            if (!isRateLimited(result)) {
+                return WaitingRoomDTO.Ticket.builder()
+                    .eventId(eventId)
+                    .status(WaitingRoomDTO.TicketStatus.DONE)
+                    .position(0L)
+                    .estimatedWaitMs(0L)
+                    .result(result)
+                    .build();
+            }
+        }
+
+        Entry entry;
+        synchronized (room) {
+            if (room.queue.size() >= capacity) {
+                full.increment();
+                return WaitingRoomDTO.Ticket.builder()
+                    .eventId(eventId)
+                    .status(WaitingRoomDTO.TicketStatus.FULL)
+                    .position((long) room.queue.size())
+                    .estimatedWaitMs(estimateWait(room, room.queue.size()))
+                    .build();
+            }
+            entry = new Entry(UUID.randomUUID().toString(), room, room.issued++, request, inCallerContext(spin));
+            room.queue.add(entry);
+            tickets.put(entry.id, entry);
+        }
+        scheduler.execute(() -> drain(room));
+        return view(entry);
+    }
+
+    @Override
+    public WaitingRoomDTO.Ticket getTicket(String ticketId) {
+        Entry entry = tickets.get(ticketId);
+        if (entry == null) {
+            throw new ResourceNotFoundException("Ticket", ticketId);
+        }
+        return view(entry);
+    }
+
+    @Override
+    public int getQueueLength(Long eventId) {
+        Room room = rooms.get(eventId);
+        return room != null ? room.size() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.spin.waiting-room.cleanup-interval-ms:10000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        long ttl = TimeUnit.MILLISECONDS.toNanos(resultTtlMs);
+        tickets.values().removeIf(entry -> entry.status == WaitingRoomDTO.TicketStatus.DONE
+            && now - entry.completedAt > ttl);
+    }
+
+    /**
+     * Starts queued spins in order while the admission limit lets them through.
+     * Runs on the scheduler thread only.
+     */
+    private void drain(Room room) {
+        while (true) {
+            Entry entry;
+            synchronized (room) {
+                entry = room.queue.peek();
+            }
+            if (entry == null) {
+                return;
+            }
+
+            long startedAt = System.nanoTime();
+            CompletableFuture<SpinResultDTO> result;
+            try {
+                result = spinAdmissionService.submit(entry.request,
+                    () -> CompletableFuture.supplyAsync(entry.spin, workers));
+            } catch (RejectedExecutionException e) {
+                // No worker took the spin; admission already gave its slot back
+                retryLater(room);
+                return;
+            } catch (RuntimeException e) {
+                synchronized (room) {
+                    room.queue.poll();
+                    room.started++;
+                }
+                entry.complete(failed(entry.request, e));
+                continue;
+            }
+            if (result.isDone() && !result.isCompletedExceptionally() && isRateLimited(result.join())) {
+                retryLater(room);
+                return;
+            }
+
+            synchronized (room) {
+                room.queue.poll();
+                room.started++;
+            }
+            entry.status = WaitingRoomDTO.TicketStatus.RUNNING;
+            waitTimer.record(startedAt - entry.createdAt, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, failure) -> {
+                room.recordSpin(System.nanoTime() - startedAt);
+                entry.complete(value != null ? value : failed(entry.request, failure));
+                scheduler.execute(() -> drain(room));
+            });
+        }
+    }
+
+    /**
+     * Drains the room again after {@code poll-interval-ms}, leaving the head of its queue in place.
+     * Runs on the scheduler thread only.
+     */
+    private void retryLater(Room room) {
+        if (!room.retryScheduled) {
+            room.retryScheduled = true;
+            scheduler.schedule(() -> {
+                room.retryScheduled = false;
+                drain(room);
+            }, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private WaitingRoomDTO.Ticket view(Entry entry) {
+        WaitingRoomDTO.TicketStatus status = entry.status;
+        long position = status == WaitingRoomDTO.TicketStatus.WAITING
+            ? Math.max(1, entry.number - entry.room.started + 1)
+            : 0;
+        return WaitingRoomDTO.Ticket.builder()
+            .ticketId(entry.id)
+            .eventId(entry.room.eventId)
+            .status(status)
+            .position(position)
+            .estimatedWaitMs(estimateWait(entry.room, position))
+            .result(entry.result)
+            .build();
+    }
+
+    /**
+     * Spins ahead run in rounds of as many as are admitted at once, each taking about the
+     * recent spin latency.
+     */
+    private long estimateWait(Room room, long position) {
+        if (position <= 0) {
+            return 0;
+        }
+        int concurrency = Math.max(1, Math.min(threads, spinAdmissionService.getLimit(room.eventId)));
+        long rounds = (position + concurrency - 1) / concurrency;
+        long latencyMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(room.smoothedSpinNanos));
+        return rounds * latencyMs;
+    }
+
+    private Room createRoom(Long eventId) {
+        Room room = new Room(eventId);
+        Gauge.builder("spin.waiting-room.length", room, Room::size)
+            .tag("event", String.valueOf(eventId))
+            .description("Tickets waiting for their spin to start")
+            .register(meterRegistry);
+        return room;
+    }
+
+    /**
+     * Wraps a spin so it runs with the security context and MDC of the calling thread.
+     */
+    private static Supplier<SpinResultDTO> inCallerContext(Supplier<SpinResultDTO> spin) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            SecurityContextHolder.setContext(securityContext);
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                return spin.get();
+            } finally {
+                MDC.clear();
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    private static boolean isRateLimited(SpinResultDTO result) {
+        return result != null && SpinResultDTO.SpinStatus.RATE_LIMITED.equals(result.getStatus());
+    }
+
+    private static SpinResultDTO failed(SpinRequest request, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause()
+            : failure;
+        boolean business = cause instanceof BusinessException;
+        if (!business) {
+            log.error("Queued spin of participant {} failed", request.getParticipantId(), cause);
+        }
+        return SpinResultDTO.builder()
+            .eventId(request.getEventId())
+            .participantId(request.getParticipantId())
+            .status(business ? SpinResultDTO.SpinStatus.INELIGIBLE : SpinResultDTO.SpinStatus.SYSTEM_ERROR)
+            .message(business ? cause.getMessage() : "Spin failed, please try again")
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+
+    /**
+     * The queue of one event.
+     */
+    private static final class Room {
+
+        private final Long eventId;
+        private final Deque<Entry> queue = new ArrayDeque<>();
+        private long issued;
+        private volatile long started;
+        private volatile long smoothedSpinNanos;
+        private boolean retryScheduled;
+
+        private Room(Long eventId) {
+            this.eventId = eventId;
+        }
+
+        private synchronized int size() {
+            return queue.size();
+        }
+
+        private synchronized boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        private void recordSpin(long nanos) {
+            long smoothed = smoothedSpinNanos;
+            smoothedSpinNanos = smoothed == 0 ? nanos : (smoothed * 7 + nanos) / 8;
+        }
+    }
+
+    /**
+     * A ticket and the spin it stands for.
+     */
+    private static final class Entry {
+
+        private final String id;
+        private final Room room;
+        private final long number;
+        private final SpinRequest request;
+        private final Supplier<SpinResultDTO> spin;
+        private final long createdAt = System.nanoTime();
+        private volatile WaitingRoomDTO.TicketStatus status = WaitingRoomDTO.TicketStatus.WAITING;
+        private volatile SpinResultDTO result;
+        private volatile long completedAt;
+
+        private Entry(String id, Room room, long number, SpinRequest request, Supplier<SpinResultDTO> spin) {
+            this.id = id;
+            this.room = room;
+            this.number = number;
+            this.request = request;
+            this.spin = spin;
+        }
+
+        private void complete(SpinResultDTO result) {
+            this.result = result;
+            this.completedAt = System.nanoTime();
+            this.status = WaitingRoomDTO.TicketStatus.DONE;
+        }
+    }
+}
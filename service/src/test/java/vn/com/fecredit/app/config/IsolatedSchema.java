@@ -0,0 +1,92 @@
+package vn.com.fecredit.app.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * A schema of its own on the local test database, for tests that start application
+ * contexts of their own and let Hibernate create the tables. Hibernate drops whatever
+ * tables it is about to create, so pointed at the shared schema it would wipe the data of
+ * every other test; here it only ever sees this schema, which is dropped on close.
+ */
+public final class IsolatedSchema implements AutoCloseable {
+
+    public static final String DATABASE_URL = "jdbc:postgresql://localhost:5432/test_lucky_draw";
+    public static final String USERNAME = "postgres";
+    public static final String PASSWORD = "postgres";
+
+    private final String name;
+
+    private IsolatedSchema(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates an empty schema named after the prefix and a random suffix.
+     */
+    public static IsolatedSchema create(String prefix) {
+        IsolatedSchema schema = new IsolatedSchema(
+            prefix + "_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12));
+        schema.execute("CREATE SCHEMA " + schema.name);
+        return schema;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The JDBC URL of the test database with this schema first on the search path.
+     */
+    public String getUrl() {
+        return DATABASE_URL + "?currentSchema=" + name;
+    }
+
+    /**
+     * Adds what the migrations create beyond the tables Hibernate derives from the entities:
+     * the tables no entity maps, as in V202502221707 and V202502221709, and the id default
+     * the native spin inserts rely on. Call it once Hibernate created the tables.
+     */
+    public void createUnmappedSchema() {
+        execute(
+            "ALTER TABLE spin_histories ALTER COLUMN id SET DEFAULT nextval('spin_histories_id_seq')",
+            """
+            CREATE TABLE spin_idempotency_keys (
+                participant_event_id BIGINT NOT NULL,
+                idempotency_key VARCHAR(64) NOT NULL,
+                spin_history_id BIGINT NOT NULL,
+                created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (participant_event_id, idempotency_key)
+            )""",
+            """
+            CREATE TABLE reward_inventory_nodes (
+                reward_id BIGINT NOT NULL,
+                node_id VARCHAR(100) NOT NULL,
+                flushed_units BIGINT NOT NULL DEFAULT 0,
+                synced_at TIMESTAMP NOT NULL,
+                PRIMARY KEY (reward_id, node_id)
+            )""");
+    }
+
+    /**
+     * Runs SQL statements in this schema.
+     */
+    public void execute(String... statements) {
+        try (Connection connection = DriverManager.getConnection(getUrl(), USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to run SQL in schema " + name, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        execute("DROP SCHEMA IF EXISTS " + name + " CASCADE");
+    }
+}
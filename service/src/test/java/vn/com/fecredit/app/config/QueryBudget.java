@@ -0,0 +1,51 @@
+package vn.com.fecredit.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Fails a test when a block of code prepares more SQL statements than its budget, as
+ * counted by Hibernate statistics.
+ * <p>
+ * The persistence context is flushed and cleared and the second-level cache evicted before
+ * the block runs, so every entity and association it reads is loaded by a statement it
+ * issues. A mapper walking lazy associations row by row then shows up as a count that grows
+ * with the data instead of staying within a fixed budget.
+ */
+public class QueryBudget {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+    }
+
+    /**
+     * Runs the action and asserts it prepared at most {@code maxStatements} statements.
+     *
+     * @return what the action returned
+     */
+    public <T> T assertAtMost(int maxStatements, Supplier<T> action) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        T result = action.get();
+
+        assertThat(statistics.getPrepareStatementCount())
+            .as("SQL statements prepared, running queries %s", Arrays.toString(statistics.getQueries()))
+            .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+}
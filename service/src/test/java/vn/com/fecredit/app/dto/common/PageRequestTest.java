@@ -0,0 +1,102 @@
+package vn.com.fecredit.app.dto.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import vn.com.fecredit.app.exception.BusinessException;
+
+class PageRequestTest {
+
+    @Test
+    void cursorOfKeysetPage_ShouldContinueAfterItsLastRow() {
+        LocalDateTime lastSpinTime = LocalDateTime.of(2025, 3, 17, 10, 30, 15, 123_000_000);
+        Map<String, Object> lastKeys = new LinkedHashMap<>();
+        lastKeys.put("spinTime", lastSpinTime);
+        lastKeys.put("id", 42L);
+        Window<String> window = Window.from(List.of("a", "b"),
+            index -> index == 1 ? ScrollPosition.forward(lastKeys) : ScrollPosition.keyset(), true);
+
+        PageResponse<String> page = PageResponse.of(window, null);
+
+        assertThat(page.getPagination()).isNull();
+        assertThat(page.getCursor().isHasNext()).isTrue();
+        assertThat(page.getCursor().getTotalElements()).isNull();
+        PageRequest next = PageRequest.after(page.getCursor().getNextCursor(), 2);
+        assertThat(next.isKeysetMode()).isTrue();
+        KeysetScrollPosition position = (KeysetScrollPosition) next.toScrollPosition(
+            next.toKeysetSort("spinTime", Sort.Direction.DESC));
+        assertThat(position.getKeys()).containsExactly(Map.entry("spinTime", lastSpinTime), Map.entry("id", 42L));
+        assertThat(position.scrollsForward()).isTrue();
+    }
+
+    @Test
+    void lastKeysetPage_ShouldHaveNoCursor() {
+        Window<String> window = Window.from(List.of("a"), index -> ScrollPosition.forward(Map.of("id", 1L)), false);
+
+        PageResponse<String> page = PageResponse.of(window, 1L);
+
+        assertThat(page.getCursor().getNextCursor()).isNull();
+        assertThat(page.getCursor().getTotalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    void firstKeysetPage_ShouldStartAtInitialPosition() {
+        PageRequest request = PageRequest.first(10);
+        request.setKeyset(true);
+
+        assertThat(request.toScrollPosition(Sort.by("id")).isInitial()).isTrue();
+        assertThat(request.toLimit().max()).isEqualTo(10);
+    }
+
+    @Test
+    void toKeysetSort_ShouldBreakTiesById() {
+        PageRequest request = PageRequest.first();
+
+        assertThat(request.toKeysetSort("spinTime", Sort.Direction.DESC))
+            .containsExactly(Sort.Order.desc("spinTime"), Sort.Order.desc("id"));
+        request.setSortBy("id");
+        assertThat(request.toKeysetSort("spinTime", Sort.Direction.DESC)).containsExactly(Sort.Order.desc("id"));
+    }
+
+    @Test
+    void tamperedCursor_ShouldBeRejected() {
+        PageRequest request = PageRequest.after("not-a-cursor", 10);
+
+        assertThatThrownBy(() -> request.toScrollPosition(Sort.by("id"))).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> PageCursor.decode("")).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void cursorOfAnotherSort_ShouldBeRejected() {
+        PageRequest request = PageRequest.after(PageCursor.encode(ScrollPosition.forward(Map.of("id", 42L))), 10);
+        Sort sort = request.toKeysetSort("spinTime", Sort.Direction.DESC);
+
+        assertThatThrownBy(() -> request.toScrollPosition(sort))
+            .isInstanceOf(BusinessException.class)
+            .hasMessage("Page cursor does not match the sort order");
+    }
+
+    @Test
+    void cursorWithNullKey_ShouldBeRejected() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("spinTime", null);
+        keys.put("id", 42L);
+        PageRequest request = PageRequest.after(PageCursor.encode(ScrollPosition.forward(keys)), 10);
+        Sort sort = request.toKeysetSort("spinTime", Sort.Direction.DESC);
+
+        assertThatThrownBy(() -> request.toScrollPosition(sort))
+            .isInstanceOf(BusinessException.class)
+            .hasMessage("Page cursor does not match the sort order");
+    }
+}
@@ -31,6 +31,7 @@ import vn.com.fecredit.app.entity.Event;
 import vn.com.fecredit.app.exception.ResourceNotFoundException;
 import vn.com.fecredit.app.mapper.EventMapper;
 import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 
 @ExtendWith(MockitoExtension.class)
 class EventServiceImplTest {
@@ -41,6 +42,9 @@ class EventServiceImplTest {
     @Mock
     private EventMapper eventMapper;
 
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
     @InjectMocks
     private EventServiceImpl eventService;
 
@@ -340,13 +344,13 @@ class EventServiceImplTest {
         @Test
         void getEventStatistics_WithMultipleEvents_ShouldAggregateCorrectly() {
             Event event2 = event.toBuilder().id(2L).build();
-            when(eventRepository.findAll()).thenReturn(List.of(event, event2));
+            when(eventRepository.findAllWithLocations()).thenReturn(List.of(event, event2));
             
             EventDTO.Statistics stats = EventDTO.Statistics.builder()
                     .totalEvents(2L)
                     .activeEvents(2L)
                     .build();
-            when(eventMapper.toStatistics(List.of(event, event2))).thenReturn(stats);
+            when(eventMapper.toStatistics(List.of(event, event2), 0L)).thenReturn(stats);
 
             EventDTO.Statistics result = eventService.getEventStatistics();
 
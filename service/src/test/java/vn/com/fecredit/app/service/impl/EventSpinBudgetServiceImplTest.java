@@ -0,0 +1,157 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.EventSpinCounterRepository;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
+
+@ExtendWith(MockitoExtension.class)
+class EventSpinBudgetServiceImplTest {
+
+    @Mock
+    private EventSpinCounterRepository eventSpinCounterRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
+    @InjectMocks
+    private EventSpinBudgetServiceImpl eventSpinBudgetService;
+
+    @Test
+    void tryConsume_ShouldShardBudgetOnFirstUse() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(0, 16);
+        when(eventRepository.existsById(1L)).thenReturn(true);
+        when(eventSpinCounterRepository.decrement(eq(1L), anyInt(), eq(16))).thenReturn(1);
+
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+
+        verify(eventSpinCounterRepository).createShards(1L, 16);
+        verify(eventSpinCounterRepository, times(2)).countShardsByEventId(1L);
+    }
+
+    @Test
+    void tryConsume_ShouldRememberShardsCreatedInTransactionOnlyOnceCommitted() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(0, 16, 16);
+        when(eventRepository.existsById(1L)).thenReturn(true);
+        when(eventSpinCounterRepository.decrement(eq(1L), anyInt(), eq(16))).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+            assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+            verify(eventSpinCounterRepository, times(3)).countShardsByEventId(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+        verify(eventSpinCounterRepository, times(3)).countShardsByEventId(1L);
+        verify(eventSpinCounterRepository).createShards(1L, 16);
+    }
+
+    @Test
+    void tryConsume_ShouldProbeAgainWhileBudgetIsLeft() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(4);
+        when(eventSpinCounterRepository.decrement(eq(1L), anyInt(), eq(4))).thenReturn(0, 0, 1);
+        when(eventSpinCounterRepository.sumRemainingByEventId(1L)).thenReturn(3L);
+
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+        verify(eventSpinCounterRepository, times(3)).decrement(eq(1L), anyInt(), eq(4));
+    }
+
+    @Test
+    void tryConsume_ShouldRefuseWhenBudgetIsUsedUp() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(4);
+        when(eventSpinCounterRepository.decrement(eq(1L), anyInt(), eq(4))).thenReturn(0);
+        when(eventSpinCounterRepository.sumRemainingByEventId(1L)).thenReturn(0L);
+
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isFalse();
+        verify(eventSpinCounterRepository, times(1)).decrement(eq(1L), anyInt(), eq(4));
+    }
+
+    @Test
+    void tryConsume_ShouldNotLimitEventWithoutBudget() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(0);
+        when(eventRepository.existsById(1L)).thenReturn(true);
+
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+        assertThat(eventSpinBudgetService.getRemaining(1L)).isEqualTo(Long.MAX_VALUE);
+        verify(eventSpinCounterRepository, never()).decrement(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void compact_ShouldShardBudgetAddedToEventWithoutOne() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(0, 0, 4);
+        when(eventRepository.existsById(1L)).thenReturn(true);
+        when(eventSpinCounterRepository.decrement(eq(1L), anyInt(), eq(4))).thenReturn(1);
+
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+        eventSpinBudgetService.compact();
+        assertThat(eventSpinBudgetService.tryConsume(1L)).isTrue();
+
+        verify(eventSpinCounterRepository, times(3)).countShardsByEventId(1L);
+        verify(eventSpinCounterRepository).decrement(eq(1L), anyInt(), eq(4));
+    }
+
+    @Test
+    void tryConsume_ShouldRejectUnknownEvent() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(0);
+        when(eventRepository.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> eventSpinBudgetService.tryConsume(1L))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void release_ShouldGiveSpinBackToAShard() {
+        when(eventSpinCounterRepository.countShardsByEventId(1L)).thenReturn(4);
+
+        eventSpinBudgetService.release(1L);
+
+        verify(eventSpinCounterRepository).increment(eq(1L), intThat(shard -> shard >= 0 && shard < 4));
+    }
+
+    @Test
+    void compact_ShouldContinueAfterFailingEvent() {
+        when(eventSpinCounterRepository.findShardedEventIds()).thenReturn(List.of(1L, 2L));
+        when(eventSpinCounterRepository.compact(1L)).thenThrow(new IllegalStateException("lock timeout"));
+
+        eventSpinBudgetService.compact();
+
+        verify(eventSpinCounterRepository).compact(2L);
+    }
+
+    @Test
+    void compact_ShouldEvictCachedEventOfCompactedBudget() {
+        when(eventSpinCounterRepository.findShardedEventIds()).thenReturn(List.of(1L, 2L));
+        when(eventSpinCounterRepository.compact(1L)).thenThrow(new IllegalStateException("lock timeout"));
+
+        eventSpinBudgetService.compact();
+
+        verify(referenceDataCacheService).evictEvent(2L);
+        verify(referenceDataCacheService, never()).evictEvent(1L);
+    }
+}
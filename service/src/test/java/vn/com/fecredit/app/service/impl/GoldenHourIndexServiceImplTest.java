@@ -0,0 +1,154 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.model.LocationSpinProfile;
+import vn.com.fecredit.app.model.LocationSpinProfile.GoldenHourWindow;
+import vn.com.fecredit.app.repository.GoldenHourRepository;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+
+@ExtendWith(MockitoExtension.class)
+class GoldenHourIndexServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(1).toLocalDate().atStartOfDay();
+
+    @Mock
+    private LocationSpinProfileService locationSpinProfileService;
+
+    @Mock
+    private GoldenHourRepository goldenHourRepository;
+
+    @InjectMocks
+    private GoldenHourIndexServiceImpl goldenHourIndexService;
+
+    private EventLocation location;
+
+    @BeforeEach
+    void setUp() {
+        location = EventLocation.builder()
+            .id(10L)
+            .code("LOC001")
+            .event(Event.builder().id(1L).build())
+            .defaultWinProbability(0.2)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+
+    @Test
+    void findActive_ShouldMatchLinearScanOverManyWindows() {
+        Random random = new Random(42);
+        List<GoldenHour> goldenHours = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            LocalDateTime start = DAY.plusMinutes(random.nextInt(60 * 24 * 30));
+            goldenHours.add(goldenHour(id, start, start.plusMinutes(1 + random.nextInt(240)), 1.0));
+        }
+        givenProfile(goldenHours);
+
+        for (int i = 0; i < 5_000; i++) {
+            LocalDateTime at = DAY.plusSeconds(random.nextInt(60 * 60 * 24 * 31));
+            GoldenHour expected = null;
+            for (GoldenHour goldenHour : goldenHours) {
+                if (!at.isBefore(goldenHour.getStartTime()) && !at.isAfter(goldenHour.getEndTime())
+                        && (expected == null || !goldenHour.getStartTime().isBefore(expected.getStartTime()))) {
+                    expected = goldenHour;
+                }
+            }
+            LocalDateTime expectedStart = expected != null ? expected.getStartTime() : null;
+            assertThat(goldenHourIndexService.findActive(10L, at).map(GoldenHourWindow::getStartTime).orElse(null))
+                .isEqualTo(expectedStart);
+        }
+    }
+
+    @Test
+    void findActive_ShouldPreferLatestStartedWindowAndReportBoundaries() {
+        givenProfile(List.of(
+            goldenHour(1L, DAY.withHour(8), DAY.withHour(18), 2.0),
+            goldenHour(2L, DAY.withHour(12), DAY.withHour(13), 5.0)));
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(10L);
+
+        assertThat(goldenHourIndexService.getGoldenHourMultiplier(1L, 10L, DAY.withHour(9))).isEqualTo(2.0);
+        assertThat(goldenHourIndexService.getGoldenHourMultiplier(1L, 10L, DAY.withHour(12).withMinute(30))).isEqualTo(5.0);
+        assertThat(goldenHourIndexService.getGoldenHourMultiplier(1L, 10L, DAY.withHour(14))).isEqualTo(2.0);
+        assertThat(goldenHourIndexService.getGoldenHourMultiplier(1L, 10L, DAY.withHour(20))).isEqualTo(1.0);
+        assertThat(profile.getNextBoundary(DAY.withHour(9))).isEqualTo(DAY.withHour(12));
+        assertThat(profile.getNextBoundary(DAY.withHour(12))).isEqualTo(DAY.withHour(13).plusNanos(1));
+    }
+
+    @Test
+    void isGoldenHourActive_ShouldBeFalseForLocationOfAnotherEvent() {
+        givenProfile(List.of(goldenHour(1L, DAY.withHour(8), DAY.withHour(18), 2.0)));
+
+        assertThat(goldenHourIndexService.isGoldenHourActive(1L, 10L, DAY.withHour(9))).isTrue();
+        assertThat(goldenHourIndexService.isGoldenHourActive(2L, 10L, DAY.withHour(9))).isFalse();
+        assertThat(goldenHourIndexService.getGoldenHourMultiplier(2L, 10L, DAY.withHour(9))).isEqualTo(1.0);
+    }
+
+    @Test
+    void hasOverlappingHours_ShouldAnswerFromIndexAndIgnoreEditedGoldenHour() {
+        givenProfile(List.of(
+            goldenHour(1L, DAY.withHour(8), DAY.withHour(10), 2.0),
+            goldenHour(2L, DAY.withHour(14), DAY.withHour(16), 2.0)));
+
+        assertThat(goldenHourIndexService.hasOverlappingHours(10L, DAY.withHour(10), DAY.withHour(11), null)).isTrue();
+        assertThat(goldenHourIndexService.hasOverlappingHours(10L, DAY.withHour(11), DAY.withHour(13), null)).isFalse();
+        assertThat(goldenHourIndexService.hasOverlappingHours(10L, DAY.withHour(9), DAY.withHour(15), null)).isTrue();
+        assertThat(goldenHourIndexService.hasOverlappingHours(10L, DAY.withHour(7), DAY.withHour(9), 1L)).isFalse();
+        verifyNoInteractions(goldenHourRepository);
+    }
+
+    @Test
+    void hasOverlappingHours_ShouldFallBackToRepositoryBeforeHorizon() {
+        givenProfile(List.of());
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        when(goldenHourRepository.hasOverlappingHoursExcluding(anyLong(), anyInt(), any(), any(), any()))
+            .thenReturn(true);
+
+        assertThat(goldenHourIndexService.hasOverlappingHours(10L, start, start.plusHours(1), 5L)).isTrue();
+        verify(goldenHourRepository).hasOverlappingHoursExcluding(10L, EntityStatus.ACTIVE.getValue(),
+            start, start.plusHours(1), 5L);
+    }
+
+    @Test
+    void hasOverlappingHours_ShouldRejectInvertedRange() {
+        assertThatThrownBy(() -> goldenHourIndexService.hasOverlappingHours(10L, DAY.withHour(10), DAY.withHour(9), null))
+            .isInstanceOf(InvalidOperationException.class);
+    }
+
+    private void givenProfile(List<GoldenHour> goldenHours) {
+        when(locationSpinProfileService.getProfile(10L))
+            .thenReturn(LocationSpinProfile.compile(location, List.of(), goldenHours, LocalDateTime.now()));
+    }
+
+    private GoldenHour goldenHour(Long id, LocalDateTime start, LocalDateTime end, double pointsMultiplier) {
+        GoldenHour goldenHour = GoldenHour.builder()
+            .id(id)
+            .eventLocation(location)
+            .startTime(start)
+            .endTime(end)
+            .build();
+        goldenHour.setPointsMultiplier(pointsMultiplier);
+        return goldenHour;
+    }
+}
@@ -0,0 +1,77 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.mockito.Mockito.*;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import jakarta.persistence.EntityManagerFactory;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+
+@ExtendWith(MockitoExtension.class)
+class LocationSpinProfileInvalidatorTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private LocationSpinProfileService locationSpinProfileService;
+
+    @InjectMocks
+    private LocationSpinProfileInvalidator invalidator;
+
+    private final EventLocation location = EventLocation.builder().id(10L).build();
+
+    @Test
+    void onPostInsert_ShouldInvalidateOwnerOfEachSource() {
+        invalidator.onPostInsert(insert(Reward.builder().id(100L).eventLocation(location).build()));
+        invalidator.onPostInsert(insert(GoldenHour.builder().id(50L).eventLocation(location).build()));
+        invalidator.onPostInsert(insert(Event.builder().id(1L).build()));
+        invalidator.onPostInsert(insert(Region.builder().id(2L).build()));
+
+        verify(locationSpinProfileService, times(2)).invalidateLocation(10L);
+        verify(locationSpinProfileService).invalidateEvent(1L);
+        verify(locationSpinProfileService).invalidateRegion(2L);
+    }
+
+    @Test
+    void onPostUpdate_ShouldIgnoreStockOnlyChanges() {
+        Reward reward = Reward.builder().id(100L).eventLocation(location).build();
+        String[] properties = {"dailyCount", "remainingQuantity", "updatedAt", "winProbability"};
+
+        invalidator.onPostUpdate(update(reward, properties, 0, 1, 2));
+        verifyNoInteractions(locationSpinProfileService);
+
+        invalidator.onPostUpdate(update(reward, properties, 1, 3));
+        verify(locationSpinProfileService).invalidateLocation(10L);
+    }
+
+    @Test
+    void onPostDelete_ShouldInvalidateDeletedLocation() {
+        invalidator.onPostDelete(new PostDeleteEvent(location, 10L, null, null, null));
+
+        verify(locationSpinProfileService).invalidateLocation(10L);
+    }
+
+    private static PostInsertEvent insert(Object entity) {
+        return new PostInsertEvent(entity, null, null, null, null);
+    }
+
+    private static PostUpdateEvent update(Object entity, String[] properties, int... dirty) {
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getPropertyNames()).thenReturn(properties);
+        return new PostUpdateEvent(entity, null, null, null, dirty, persister, null);
+    }
+}
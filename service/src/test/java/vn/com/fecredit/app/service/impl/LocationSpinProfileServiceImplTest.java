@@ -0,0 +1,237 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.model.LocationSpinProfile;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.GoldenHourRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+
+@ExtendWith(MockitoExtension.class)
+class LocationSpinProfileServiceImplTest {
+
+    @Mock
+    private EventLocationRepository eventLocationRepository;
+
+    @Mock
+    private RewardRepository rewardRepository;
+
+    @Mock
+    private GoldenHourRepository goldenHourRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LocationSpinProfileServiceImpl locationSpinProfileService;
+
+    private Event event;
+    private Region region;
+
+    @BeforeEach
+    void setUp() {
+        locationSpinProfileService = new LocationSpinProfileServiceImpl(eventLocationRepository, rewardRepository,
+            goldenHourRepository, transactionManager);
+        locationSpinProfileService.start();
+
+        event = Event.builder()
+            .id(1L)
+            .code("EVENT001")
+            .initialSpins(10)
+            .dailySpinLimit(5)
+            .defaultWinProbability(0.1)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+        region = Region.builder()
+            .id(2L)
+            .code("NORTH")
+            .defaultWinProbability(0.25)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+        lenient().when(rewardRepository.findByLocationAndStatus(any(EventLocation.class), anyInt()))
+            .thenReturn(List.of());
+        lenient().when(goldenHourRepository.findScheduled(anyLong(), anyInt(), any()))
+            .thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        locationSpinProfileService.stop();
+    }
+
+    @Test
+    void getProfile_ShouldResolveCascadeOnceAndServeFromMemory() {
+        EventLocation location = location(10L, null, 3);
+        when(eventLocationRepository.findByIdWithRelationships(10L)).thenReturn(Optional.of(location));
+        Reward reward = Reward.builder().id(100L).code("PRIZE").name("Prize").points(10).winProbability(0.05).build();
+        when(rewardRepository.findByLocationAndStatus(location, EntityStatus.ACTIVE.getValue()))
+            .thenReturn(List.of(reward));
+        GoldenHour goldenHour = GoldenHour.builder()
+            .id(50L)
+            .startTime(LocalDateTime.now().plusHours(1))
+            .endTime(LocalDateTime.now().plusHours(2))
+            .build();
+        goldenHour.setWinProbabilityMultiplier(2.0);
+        when(goldenHourRepository.findScheduled(anyLong(), anyInt(), any())).thenReturn(List.of(goldenHour));
+
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(10L);
+
+        assertThat(locationSpinProfileService.getProfile(10L)).isSameAs(profile);
+        verify(eventLocationRepository, times(1)).findByIdWithRelationships(10L);
+        assertThat(profile.getEventId()).isEqualTo(1L);
+        assertThat(profile.getRegionId()).isEqualTo(2L);
+        assertThat(profile.getWinProbability()).isEqualTo(0.25);
+        assertThat(profile.getDailySpinLimit()).isEqualTo(3);
+        assertThat(profile.getInitialSpins()).isEqualTo(10);
+        assertThat(profile.getRewardIds()).containsExactly(100L);
+        assertThat(profile.getWinProbability(LocalDateTime.now())).isEqualTo(0.25);
+        assertThat(profile.getWinProbability(goldenHour.getStartTime().plusMinutes(1))).isCloseTo(0.5, within(1e-9));
+        assertThat(profile.getNextBoundary(LocalDateTime.now())).isEqualTo(goldenHour.getStartTime());
+    }
+
+    @Test
+    void getProfile_ShouldTreatMissingDailySpinLimitAsUnlimited() {
+        event.setDailySpinLimit(null);
+        when(eventLocationRepository.findByIdWithRelationships(10L)).thenReturn(Optional.of(location(10L, null, null)));
+
+        LocationSpinProfile profile = locationSpinProfileService.getProfile(10L);
+
+        assertThat(profile.getDailySpinLimit()).isNull();
+        assertThat(profile.isUnderDailySpinLimit(0)).isTrue();
+        assertThat(profile.isUnderDailySpinLimit(1_000)).isTrue();
+    }
+
+    @Test
+    void getProfile_ShouldFailForUnknownLocation() {
+        when(eventLocationRepository.findByIdWithRelationships(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> locationSpinProfileService.getProfile(99L))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void invalidateLocation_ShouldSwapInRecompiledProfile() throws InterruptedException {
+        when(eventLocationRepository.findByIdWithRelationships(10L))
+            .thenReturn(Optional.of(location(10L, 0.3, null)), Optional.of(location(10L, 0.4, null)));
+        LocationSpinProfile before = locationSpinProfileService.getProfile(10L);
+
+        locationSpinProfileService.invalidateLocation(10L);
+
+        LocationSpinProfile after = awaitSwap(10L, before);
+        assertThat(before.getWinProbability()).isEqualTo(0.3);
+        assertThat(after.getWinProbability()).isEqualTo(0.4);
+    }
+
+    @Test
+    void invalidateLocation_ShouldRecompileProfileWhoseFirstCompileItRaced() throws InterruptedException {
+        when(eventLocationRepository.findByIdWithRelationships(10L))
+            .thenAnswer(invocation -> {
+                locationSpinProfileService.invalidateLocation(10L);
+                return Optional.of(location(10L, 0.3, null));
+            })
+            .thenReturn(Optional.of(location(10L, 0.4, null)));
+
+        LocationSpinProfile first = locationSpinProfileService.getProfile(10L);
+
+        assertThat(first.getWinProbability()).isEqualTo(0.3);
+        assertThat(awaitSwap(10L, first).getWinProbability()).isEqualTo(0.4);
+    }
+
+    @Test
+    void invalidateEvent_ShouldOnlyRecompileLocationsOfThatEvent() throws InterruptedException {
+        EventLocation other = location(11L, null, null);
+        other.setEvent(Event.builder().id(9L).dailySpinLimit(1).build());
+        when(eventLocationRepository.findByIdWithRelationships(10L)).thenReturn(Optional.of(location(10L, null, null)));
+        when(eventLocationRepository.findByIdWithRelationships(11L)).thenReturn(Optional.of(other));
+        LocationSpinProfile before = locationSpinProfileService.getProfile(10L);
+        LocationSpinProfile untouched = locationSpinProfileService.getProfile(11L);
+
+        locationSpinProfileService.invalidateEvent(1L);
+
+        awaitSwap(10L, before);
+        assertThat(locationSpinProfileService.getProfile(11L)).isSameAs(untouched);
+    }
+
+    @Test
+    void invalidateLocation_ShouldWaitForCommitInsideTransaction() throws InterruptedException {
+        when(eventLocationRepository.findByIdWithRelationships(10L)).thenReturn(Optional.of(location(10L, null, null)));
+        LocationSpinProfile before = locationSpinProfileService.getProfile(10L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            locationSpinProfileService.invalidateLocation(10L);
+            TimeUnit.MILLISECONDS.sleep(50);
+            assertThat(locationSpinProfileService.getProfile(10L)).isSameAs(before);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        awaitSwap(10L, before);
+    }
+
+    @Test
+    void invalidateLocation_ShouldDropProfileOfDeletedLocation() throws InterruptedException {
+        when(eventLocationRepository.findByIdWithRelationships(10L))
+            .thenReturn(Optional.of(location(10L, null, null)), Optional.empty());
+        locationSpinProfileService.getProfile(10L);
+
+        locationSpinProfileService.invalidateLocation(10L);
+
+        verify(eventLocationRepository, timeout(5_000).times(2)).findByIdWithRelationships(10L);
+        locationSpinProfileService.stop();
+        assertThatThrownBy(() -> locationSpinProfileService.getProfile(10L))
+            .isInstanceOf(ResourceNotFoundException.class);
+        locationSpinProfileService.start();
+    }
+
+    private EventLocation location(Long id, Double winProbability, Integer dailySpinLimit) {
+        return EventLocation.builder()
+            .id(id)
+            .code("LOC" + id)
+            .event(event)
+            .region(region)
+            .defaultWinProbability(winProbability)
+            .dailySpinLimit(dailySpinLimit)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+
+    private LocationSpinProfile awaitSwap(Long locationId, LocationSpinProfile previous) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        LocationSpinProfile current;
+        while ((current = locationSpinProfileService.getProfile(locationId)) == previous) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        return current;
+    }
+}
@@ -24,6 +24,7 @@ import vn.com.fecredit.app.entity.Region;
 import vn.com.fecredit.app.exception.EntityNotFoundException;
 import vn.com.fecredit.app.mapper.ProvinceMapper;
 import vn.com.fecredit.app.repository.ProvinceRepository;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 
 @ExtendWith(MockitoExtension.class)
 class ProvinceServiceImplTest {
@@ -34,6 +35,9 @@ class ProvinceServiceImplTest {
     @Mock
     private ProvinceMapper provinceMapper;
 
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
     @InjectMocks
     private ProvinceServiceImpl provinceService;
 
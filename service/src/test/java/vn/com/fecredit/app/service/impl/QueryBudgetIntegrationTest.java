@@ -0,0 +1,245 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.com.fecredit.app.config.QueryBudget;
+import vn.com.fecredit.app.dto.EventDTO;
+import vn.com.fecredit.app.dto.SpinHistoryDTO;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Participant;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.ParticipantEventRepository;
+import vn.com.fecredit.app.repository.ParticipantRepository;
+import vn.com.fecredit.app.repository.RegionRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.EventService;
+import vn.com.fecredit.app.service.SpinHistoryService;
+
+/**
+ * Holds the service read paths to a fixed number of SQL statements, whatever the number of
+ * spins, participants and locations they map, so a change reintroducing lazy loading per
+ * row fails here.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = {"/schema-test.sql", "/data-test.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Transactional
+class QueryBudgetIntegrationTest {
+
+    private static final int LOCATIONS = 3;
+    private static final int PARTICIPANTS_PER_LOCATION = 4;
+    private static final int SPINS_PER_PARTICIPANT = 5;
+
+    @Autowired
+    private SpinHistoryService spinHistoryService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventLocationRepository eventLocationRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private ParticipantEventRepository participantEventRepository;
+
+    @Autowired
+    private RewardRepository rewardRepository;
+
+    @Autowired
+    private SpinHistoryRepository spinHistoryRepository;
+
+    private QueryBudget queryBudget;
+    private Event event;
+    private ParticipantEvent participantEvent;
+    private SpinHistory spin;
+
+    @BeforeEach
+    void setUp() {
+        queryBudget = new QueryBudget(entityManager);
+        LocalDateTime now = LocalDateTime.now();
+
+        Region region = regionRepository.save(Region.builder()
+            .name("Budget Region")
+            .code("BUDGET_REGION")
+            .status(1)
+            .build());
+        event = eventRepository.save(Event.builder()
+            .name("Budget Event")
+            .code("BUDGET")
+            .startTime(now.minusDays(1))
+            .endTime(now.plusDays(1))
+            .status(1)
+            .build());
+
+        List<SpinHistory> spins = new ArrayList<>();
+        for (int l = 0; l < LOCATIONS; l++) {
+            EventLocation location = eventLocationRepository.save(EventLocation.builder()
+                .name("Budget Location " + l)
+                .code("BUDGET_LOC_" + l)
+                .event(event)
+                .region(region)
+                .status(1)
+                .build());
+            Reward reward = rewardRepository.save(Reward.builder()
+                .name("Budget Reward " + l)
+                .code("BUDGET_RWD_" + l)
+                .eventLocation(location)
+                .points(10)
+                .status(1)
+                .build());
+
+            for (int p = 0; p < PARTICIPANTS_PER_LOCATION; p++) {
+                String account = "budget-" + l + "-" + p;
+                Participant participant = participantRepository.save(Participant.builder()
+                    .account(account)
+                    .name("Participant " + account)
+                    .phone("09" + l + p + "0000000")
+                    .status(1)
+                    .build());
+                ParticipantEvent registration = participantEventRepository.save(ParticipantEvent.builder()
+                    .event(event)
+                    .eventLocation(location)
+                    .participant(participant)
+                    .totalSpins(SPINS_PER_PARTICIPANT)
+                    .remainingSpins(0)
+                    .status(1)
+                    .build());
+                if (participantEvent == null) {
+                    participantEvent = registration;
+                }
+
+                for (int s = 0; s < SPINS_PER_PARTICIPANT; s++) {
+                    SpinHistory spinHistory = SpinHistory.builder()
+                        .participantEvent(registration)
+                        .eventLocation(location)
+                        .spinTime(now.minusMinutes(s))
+                        .finalized(true)
+                        .status(1)
+                        .build();
+                    if (s % 2 == 0) {
+                        spinHistory.markAsWin(reward, 10);
+                    } else {
+                        spinHistory.markAsLoss();
+                    }
+                    spins.add(spinHistory);
+                }
+            }
+        }
+        spinHistoryRepository.saveAll(spins);
+        spin = spins.get(0);
+    }
+
+    @Test
+    void getById_LoadsSpinWithItsAssociationsInOneStatement() {
+        SpinHistoryDTO.Response response = queryBudget.assertAtMost(1,
+            () -> spinHistoryService.getById(spin.getId()));
+
+        assertThat(response.getParticipantName()).isNotNull();
+        assertThat(response.getEventName()).isEqualTo("Budget Event");
+        assertThat(response.getLocationName()).isNotNull();
+        assertThat(response.getRewardName()).isNotNull();
+    }
+
+    @Test
+    void findAll_MapsAPageWithoutLoadingPerSpin() {
+        Page<SpinHistoryDTO.Response> page = queryBudget.assertAtMost(2,
+            () -> spinHistoryService.findAll(PageRequest.of(0, 20)));
+
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getContent()).allSatisfy(response -> assertThat(response.getEventName()).isNotNull());
+    }
+
+    @Test
+    void findAllByParticipantEvent_MapsAPageWithoutLoadingPerSpin() {
+        Page<SpinHistoryDTO.Response> page = queryBudget.assertAtMost(2,
+            () -> spinHistoryService.findAllByParticipantEvent(participantEvent.getId(), PageRequest.of(0, 20)));
+
+        assertThat(page.getContent()).hasSize(SPINS_PER_PARTICIPANT);
+    }
+
+    @Test
+    void summaryReads_LoadSpinsInOneStatement() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(queryBudget.assertAtMost(1,
+            () -> spinHistoryService.findRecentSpins(participantEvent.getId(), 10)))
+            .hasSize(SPINS_PER_PARTICIPANT);
+        assertThat(queryBudget.assertAtMost(1,
+            () -> spinHistoryService.findSpinsByTimeRange(participantEvent.getId(), now.minusHours(1), now.plusHours(1))))
+            .hasSize(SPINS_PER_PARTICIPANT);
+        assertThat(queryBudget.assertAtMost(1,
+            () -> spinHistoryService.findLatestSpin(participantEvent.getId())))
+            .isPresent();
+    }
+
+    @Test
+    void getParticipantEventStatistics_AggregatesInsteadOfLoadingSpins() {
+        SpinHistoryDTO.Statistics statistics = queryBudget.assertAtMost(2,
+            () -> spinHistoryService.getParticipantEventStatistics(participantEvent.getId()));
+
+        assertThat(statistics.getTotalSpins()).isEqualTo(SPINS_PER_PARTICIPANT);
+        assertThat(statistics.getWinningSpins()).isEqualTo(3);
+        assertThat(statistics.getTotalPoints()).isEqualTo(30);
+        assertThat(statistics.getWinRate()).isEqualTo(0.6);
+        assertThat(statistics.getParticipantName()).isNotNull();
+        assertThat(statistics.getLocationName()).isNotNull();
+    }
+
+    @Test
+    void eventReads_CountLocationsAndParticipantsInOneStatement() {
+        EventDTO.Response response = queryBudget.assertAtMost(2,
+            () -> eventService.getEventById(event.getId()));
+        assertThat(response.getLocationCount()).isEqualTo(LOCATIONS);
+        assertThat(response.getParticipantCount()).isEqualTo(LOCATIONS * PARTICIPANTS_PER_LOCATION);
+
+        Page<EventDTO.Response> page = queryBudget.assertAtMost(3,
+            () -> eventService.getAllEvents(PageRequest.of(0, 20)));
+        assertThat(page.getContent()).anySatisfy(
+            event -> assertThat(event.getParticipantCount()).isEqualTo(LOCATIONS * PARTICIPANTS_PER_LOCATION));
+    }
+
+    @Test
+    void eventStatistics_DoNotLoadRegistrations() {
+        EventDTO.Statistics statistics = queryBudget.assertAtMost(2,
+            () -> eventService.getEventStatistics(event.getId()));
+        assertThat(statistics.getTotalLocations()).isEqualTo(LOCATIONS);
+        assertThat(statistics.getTotalParticipants()).isEqualTo(LOCATIONS * PARTICIPANTS_PER_LOCATION);
+
+        queryBudget.assertAtMost(2, () -> eventService.getEventStatistics());
+    }
+}
@@ -0,0 +1,69 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import jakarta.persistence.EntityManagerFactory;
+import vn.com.fecredit.app.dto.RegionDTO;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.base.CacheRegions;
+import vn.com.fecredit.app.service.RegionService;
+
+/**
+ * Checks the second-level cache as the application runs it: the JCache regions of
+ * caffeine.conf, read and written through the services. Not transactional, so that every
+ * service call runs in a session of its own and a repeated read can only be answered by
+ * the second-level cache.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Sql(scripts = {"/schema-test.sql", "/data-test.sql"})
+class ReferenceDataCacheIntegrationTest {
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    void region_ShouldBeReadFromCacheUntilWritten() {
+        CacheRegionStatistics regions = sessionFactory.getStatistics()
+            .getDomainDataRegionStatistics(CacheRegions.REGION);
+
+        regionService.getRegion(1L);
+        regionService.getRegion(1L);
+
+        assertThat(regions.getMissCount()).isEqualTo(1);
+        assertThat(regions.getHitCount()).isEqualTo(1);
+        assertThat(sessionFactory.getCache().containsEntity(Region.class, 1L)).isTrue();
+
+        regionService.updateRegion(1L, RegionDTO.UpdateRequest.builder()
+            .name("Updated North")
+            .build());
+
+        assertThat(sessionFactory.getCache().containsEntity(Region.class, 1L)).isFalse();
+        long misses = regions.getMissCount();
+        assertThat(regionService.getRegion(1L)).get()
+            .extracting(RegionDTO.Response::getName)
+            .isEqualTo("Updated North");
+        assertThat(regions.getMissCount()).isEqualTo(misses + 1);
+    }
+}
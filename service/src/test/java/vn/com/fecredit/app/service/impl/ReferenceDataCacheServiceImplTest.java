@@ -0,0 +1,122 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.Province;
+import vn.com.fecredit.app.entity.Role;
+import vn.com.fecredit.app.entity.base.CacheRegions;
+
+class ReferenceDataCacheServiceImplTest {
+
+    private Cache cache;
+    private Statistics statistics;
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceDataCacheServiceImpl referenceDataCacheService;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        cache = mock(Cache.class);
+        statistics = mock(Statistics.class);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        meterRegistry = new SimpleMeterRegistry();
+        referenceDataCacheService = new ReferenceDataCacheServiceImpl(entityManagerFactory, meterRegistry);
+        referenceDataCacheService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictProvince_ShouldEvictProvinceRegionCollectionAndQueries() {
+        referenceDataCacheService.evictProvince(5L, 2L);
+
+        verify(cache).evictEntityData(Province.class, 5L);
+        verify(cache).evictCollectionData("vn.com.fecredit.app.entity.Region.provinces", 2L);
+        verify(cache).evictQueryRegion(CacheRegions.QUERIES);
+    }
+
+    @Test
+    void evictProvince_ShouldSkipCollectionWithoutRegion() {
+        referenceDataCacheService.evictProvince(5L, null);
+
+        verify(cache).evictEntityData(Province.class, 5L);
+        verify(cache, never()).evictCollectionData(anyString(), any());
+    }
+
+    @Test
+    void evictRole_ShouldEvictPermissions() {
+        referenceDataCacheService.evictRole(3L);
+
+        verify(cache).evictEntityData(Role.class, 3L);
+        verify(cache).evictCollectionData("vn.com.fecredit.app.entity.Role.permissions", 3L);
+    }
+
+    @Test
+    void evictEvent_ShouldEvictAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        referenceDataCacheService.evictEvent(7L);
+
+        verify(cache).evictEntityData(Event.class, 7L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cache, times(2)).evictEntityData(Event.class, 7L);
+        verify(cache, times(2)).evictCollectionData("vn.com.fecredit.app.entity.Event.provinces", 7L);
+        verify(cache, times(2)).evictQueryRegion(CacheRegions.QUERIES);
+    }
+
+    @Test
+    void getHitRatio_ShouldPublishPerRegionStatistics() {
+        CacheRegionStatistics regionStatistics = regionStatistics(3, 1);
+        when(statistics.getDomainDataRegionStatistics(CacheRegions.ROLE)).thenReturn(regionStatistics);
+        CacheRegionStatistics queryStatistics = regionStatistics(1, 1);
+        when(statistics.getQueryRegionStatistics(CacheRegions.QUERIES)).thenReturn(queryStatistics);
+
+        assertThat(referenceDataCacheService.getHitRatio(CacheRegions.ROLE)).isEqualTo(0.75);
+        assertThat(meterRegistry.get("cache.reference.hit.ratio").tag("region", CacheRegions.QUERIES)
+            .gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.reference.hits").tag("region", CacheRegions.ROLE)
+            .functionCounter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("cache.reference.misses").tag("region", CacheRegions.ROLE)
+            .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getHitRatio_ShouldBeUndefinedForUnknownRegion() {
+        when(statistics.getDomainDataRegionStatistics(CacheRegions.EVENT))
+            .thenThrow(new IllegalArgumentException("Unknown cache region"));
+
+        assertThat(referenceDataCacheService.getHitRatio(CacheRegions.EVENT)).isNaN();
+        assertThat(meterRegistry.get("cache.reference.hits").tag("region", CacheRegions.EVENT)
+            .functionCounter().count()).isZero();
+    }
+
+    private static CacheRegionStatistics regionStatistics(long hits, long misses) {
+        CacheRegionStatistics regionStatistics = mock(CacheRegionStatistics.class);
+        when(regionStatistics.getHitCount()).thenReturn(hits);
+        when(regionStatistics.getMissCount()).thenReturn(misses);
+        return regionStatistics;
+    }
+}
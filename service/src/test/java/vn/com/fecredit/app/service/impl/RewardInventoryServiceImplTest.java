@@ -0,0 +1,363 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardLeaseService;
+import vn.com.fecredit.app.service.RewardPacingService;
+
+@ExtendWith(MockitoExtension.class)
+class RewardInventoryServiceImplTest {
+
+    @Mock
+    private RewardRepository rewardRepository;
+
+    @Mock
+    private RewardPacingService rewardPacingService;
+
+    @Mock
+    private RewardLeaseService rewardLeaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RewardInventoryServiceImpl rewardInventoryService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(rewardPacingService.tryClaim(anyLong())).thenReturn(true);
+        ReflectionTestUtils.setField(rewardInventoryService, "nodeId", "node-1");
+        rewardInventoryService.start();
+    }
+
+    @Test
+    void start_ShouldFallBackToHostNameForBlankNodeId() {
+        RewardInventoryServiceImpl service = new RewardInventoryServiceImpl(
+            rewardRepository, rewardPacingService, rewardLeaseService, transactionManager);
+        ReflectionTestUtils.setField(service, "nodeId", " ");
+
+        service.start();
+
+        assertThat((String) ReflectionTestUtils.getField(service, "nodeId")).isNotBlank();
+    }
+
+    @Test
+    void tryConsume_ShouldNeverOversellUnderConcurrency() throws Exception {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 500, null)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(executor.submit(() -> rewardInventoryService.tryConsume(1L)));
+        }
+        int granted = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                granted++;
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(granted).isEqualTo(500);
+        assertThat(rewardInventoryService.getRemaining(1L)).isZero();
+        verify(rewardRepository, times(1)).findById(1L);
+        verify(rewardRepository, never()).decrementRemainingQuantityById(anyLong(), anyLong());
+    }
+
+    @Test
+    void tryConsume_ShouldNotTakeStockAheadOfPacingSchedule() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 10, null)));
+        when(rewardPacingService.tryClaim(1L)).thenReturn(false);
+
+        assertThat(rewardInventoryService.tryConsume(1L)).isFalse();
+        assertThat(rewardInventoryService.getRemaining(1L)).isEqualTo(10);
+        verify(rewardPacingService, never()).release(1L);
+    }
+
+    @Test
+    void tryConsume_ShouldGiveBackPacingSlotWhenStockIsGone() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 0, null)));
+
+        assertThat(rewardInventoryService.tryConsume(1L)).isFalse();
+        verify(rewardPacingService).release(1L);
+    }
+
+    @Test
+    void tryConsume_ShouldRespectDailyLimit() {
+        Reward reward = reward(1L, 10, 3);
+        reward.setDailyCount(1);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward));
+
+        assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+        assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+        assertThat(rewardInventoryService.tryConsume(1L)).isFalse();
+        assertThat(rewardInventoryService.getRemaining(1L)).isEqualTo(8);
+    }
+
+    @Test
+    void flush_ShouldWriteBackConsumedUnitsOnce() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 10, null)));
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.release(1L);
+
+        rewardInventoryService.flush();
+        rewardInventoryService.flush();
+
+        verify(rewardRepository, times(1))
+            .applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(2), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void flush_ShouldKeepUnitsWhenWriteFails() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 10, null)));
+        when(rewardRepository.applyNodeInventoryDelta(eq(1L), eq("node-1"), anyInt(), any(LocalDateTime.class), anyLong()))
+            .thenThrow(new RuntimeException("connection lost"))
+            .thenReturn(1);
+        rewardInventoryService.tryConsume(1L);
+
+        rewardInventoryService.flush();
+        rewardInventoryService.flush();
+
+        verify(rewardRepository, times(2))
+            .applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(1), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void tryConsume_ShouldIgnoreDailyCountOfEarlierDay() {
+        Reward reward = reward(1L, 10, 2);
+        reward.setDailyCount(2);
+        reward.setDailyCountDay(LocalDate.now().minusDays(1).toEpochDay());
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward));
+
+        assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+        assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+        assertThat(rewardInventoryService.tryConsume(1L)).isFalse();
+    }
+
+    @Test
+    void tryConsume_ShouldGoToDatabaseForStrictRewards() {
+        Reward reward = reward(1L, 10, null);
+        reward.setStrictInventory(true);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward));
+        when(rewardRepository.decrementRemainingQuantityById(eq(1L), anyLong())).thenReturn(1, 0);
+
+        assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+        assertThat(rewardInventoryService.tryConsume(1L)).isFalse();
+
+        verify(rewardRepository, times(1)).findById(1L);
+        rewardInventoryService.flush();
+        verify(rewardRepository, never()).applyInventoryDelta(anyLong(), anyInt(), any(LocalDateTime.class), anyLong());
+        verify(rewardRepository, never())
+            .applyNodeInventoryDelta(anyLong(), any(), anyInt(), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void load_ShouldWriteBackUnitsThisNodeNeverFlushed() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 10, null)));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(7L);
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenReturn(3L);
+
+        assertThat(rewardInventoryService.getRemaining(1L)).isEqualTo(6);
+        verify(rewardRepository).applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(4), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void load_ShouldGiveBackUnitsFlushedForSpinsNeverCommitted() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 10, null)));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(2L);
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenReturn(3L);
+
+        assertThat(rewardInventoryService.getRemaining(1L)).isEqualTo(11);
+        verify(rewardRepository).applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(-1), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void load_ShouldRecoverExactlyTheWinTakenWhileFlushing() {
+        AtomicInteger remaining = new AtomicInteger(10);
+        AtomicLong wins = new AtomicLong();
+        AtomicLong flushed = new AtomicLong();
+        when(rewardRepository.findById(1L)).thenAnswer(invocation -> Optional.of(reward(1L, remaining.get(), null)));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenAnswer(invocation -> wins.get());
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenAnswer(invocation -> flushed.get());
+        when(rewardRepository.applyNodeInventoryDelta(eq(1L), eq("node-1"), anyInt(), any(LocalDateTime.class), anyLong()))
+            .thenAnswer(invocation -> {
+                int consumed = invocation.getArgument(2);
+                if (wins.get() == 1) {
+                    // A spin takes a unit and commits after the flush drained the counter
+                    assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+                    wins.incrementAndGet();
+                }
+                remaining.addAndGet(-consumed);
+                flushed.addAndGet(consumed);
+                return 1;
+            });
+
+        assertThat(rewardInventoryService.tryConsume(1L)).isTrue();
+        wins.incrementAndGet();
+        rewardInventoryService.flush();
+        assertThat(remaining.get()).isEqualTo(9);
+
+        // The node crashes before the next flush
+        RewardInventoryServiceImpl restarted = restart();
+        assertThat(restarted.getRemaining(1L)).isEqualTo(8);
+        assertThat(flushed.get()).isEqualTo(wins.get());
+
+        assertThat(restart().getRemaining(1L)).isEqualTo(8);
+    }
+
+    @Test
+    void load_ShouldRecoverAgainWhenRecoveryFails() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 10, null)));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(2L);
+        when(rewardRepository.applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(2), any(LocalDateTime.class), anyLong()))
+            .thenThrow(new IllegalStateException("connection lost"))
+            .thenReturn(1);
+
+        assertThatThrownBy(() -> rewardInventoryService.tryConsume(1L)).isInstanceOf(IllegalStateException.class);
+        verify(transactionManager).rollback(any());
+
+        assertThat(rewardInventoryService.getRemaining(1L)).isEqualTo(8);
+        verify(rewardRepository, times(2)).countWinsByNode(1L, "node-1");
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void evict_ShouldFlushAndReload() {
+        when(rewardRepository.findById(1L))
+            .thenReturn(Optional.of(reward(1L, 10, null)))
+            .thenReturn(Optional.of(reward(1L, 20, null)));
+        rewardInventoryService.tryConsume(1L);
+
+        rewardInventoryService.evict(1L);
+
+        verify(rewardRepository).applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(1), any(LocalDateTime.class), anyLong());
+        assertThat(rewardInventoryService.getRemaining(1L)).isEqualTo(20);
+        // Flushed on eviction, nothing is left to recover on reload
+        verify(rewardRepository, times(1)).countWinsByNode(1L, "node-1");
+    }
+
+    @Test
+    void tryConsume_WithLease_ShouldLeaseAnotherBlockWhenLocalStockRunsOut() {
+        enableLeasing(3);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 5, null)));
+        when(rewardLeaseService.acquire(eq(1L), eq("node-1"), eq(3), any(LocalDateTime.class)))
+            .thenReturn(3, 2, 0);
+
+        int granted = 0;
+        while (rewardInventoryService.tryConsume(1L)) {
+            granted++;
+        }
+
+        assertThat(granted).isEqualTo(5);
+        verify(rewardLeaseService).recover(1L, "node-1");
+        verify(rewardLeaseService, times(3)).acquire(eq(1L), eq("node-1"), eq(3), any(LocalDateTime.class));
+        verify(rewardRepository, never()).countWinsByNode(any(), any());
+        // Leases are paced when granted
+        verify(rewardPacingService, never()).tryClaim(anyLong());
+    }
+
+    @Test
+    void flush_WithLease_ShouldReportConsumptionAgainstLease() {
+        enableLeasing(10);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 100, null)));
+        when(rewardLeaseService.acquire(eq(1L), eq("node-1"), eq(10), any(LocalDateTime.class))).thenReturn(10);
+        when(rewardLeaseService.renew(eq(1L), eq("node-1"), any(LocalDateTime.class))).thenReturn(true);
+
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.flush();
+
+        verify(rewardLeaseService).applyConsumption(eq(1L), eq("node-1"), eq(2), any(LocalDateTime.class));
+        verify(rewardLeaseService, atLeastOnce()).renew(eq(1L), eq("node-1"), any(LocalDateTime.class));
+        verify(rewardLeaseService).reclaimExpired();
+        verify(rewardRepository, never()).applyNodeInventoryDelta(anyLong(), any(), anyInt(), any(), anyLong());
+    }
+
+    @Test
+    void flush_WithLease_ShouldDropLocalUnitsOfReclaimedLease() {
+        enableLeasing(10);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 100, null)));
+        when(rewardLeaseService.acquire(eq(1L), eq("node-1"), eq(10), any(LocalDateTime.class))).thenReturn(10);
+
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.flush();
+        rewardInventoryService.shutdown();
+
+        verify(rewardLeaseService, never()).giveBack(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void shutdown_WithLease_ShouldGiveBackUnusedUnits() {
+        enableLeasing(10);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1L, 100, null)));
+        when(rewardLeaseService.acquire(eq(1L), eq("node-1"), eq(10), any(LocalDateTime.class))).thenReturn(10);
+        when(rewardLeaseService.renew(eq(1L), eq("node-1"), any(LocalDateTime.class))).thenReturn(true);
+
+        rewardInventoryService.tryConsume(1L);
+        rewardInventoryService.shutdown();
+
+        verify(rewardLeaseService).applyConsumption(eq(1L), eq("node-1"), eq(1), any(LocalDateTime.class));
+        verify(rewardLeaseService).giveBack(1L, "node-1", 9);
+    }
+
+    private RewardInventoryServiceImpl restart() {
+        RewardInventoryServiceImpl restarted =
+            new RewardInventoryServiceImpl(rewardRepository, rewardPacingService, rewardLeaseService, transactionManager);
+        ReflectionTestUtils.setField(restarted, "nodeId", "node-1");
+        restarted.start();
+        return restarted;
+    }
+
+    private void enableLeasing(int blockSize) {
+        ReflectionTestUtils.setField(rewardInventoryService, "leasing", true);
+        ReflectionTestUtils.setField(rewardInventoryService, "leaseBlockSize", blockSize);
+        ReflectionTestUtils.setField(rewardInventoryService, "nodeId", "node-1");
+    }
+
+    private Reward reward(Long id, int remaining, Integer dailyLimit) {
+        return Reward.builder()
+            .id(id)
+            .code("REWARD" + id)
+            .name("Reward " + id)
+            .totalQuantity(remaining)
+            .remainingQuantity(remaining)
+            .dailyLimit(dailyLimit)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(1))
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+}
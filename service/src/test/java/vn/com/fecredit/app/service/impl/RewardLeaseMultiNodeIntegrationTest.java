@@ -0,0 +1,277 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.config.IsolatedSchema;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Participant;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.ParticipantEventRepository;
+import vn.com.fecredit.app.repository.ParticipantRepository;
+import vn.com.fecredit.app.repository.RegionRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+
+/**
+ * Starts several application nodes against a schema of their own on the local test
+ * database and lets them draw the same reward at once through leased inventory.
+ */
+class RewardLeaseMultiNodeIntegrationTest {
+
+    private static final int NODES = 3;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int STOCK = 200;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private IsolatedSchema schema;
+    private Long rewardId;
+    private ParticipantEvent participantEvent;
+
+    @BeforeEach
+    void setUp() {
+        schema = IsolatedSchema.create("reward_lease_test");
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(startNode(i));
+        }
+        schema.createUnmappedSchema();
+        rewardId = createReward(nodes.get(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        try {
+            nodes.forEach(ConfigurableApplicationContext::close);
+        } finally {
+            schema.close();
+        }
+    }
+
+    @Test
+    void nodesDrawingUntilStockIsGone_ShouldHandOutEveryUnitExactlyOnce() throws Exception {
+        List<Future<Integer>> draws = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        for (ConfigurableApplicationContext node : nodes) {
+            RewardInventoryService inventory = node.getBean(RewardInventoryService.class);
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                draws.add(executor.submit(() -> {
+                    int granted = 0;
+                    while (inventory.tryConsume(rewardId)) {
+                        granted++;
+                    }
+                    return granted;
+                }));
+            }
+        }
+        int granted = 0;
+        for (Future<Integer> draw : draws) {
+            granted += draw.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        JdbcTemplate jdbc = nodes.get(0).getBean(JdbcTemplate.class);
+        stopNodes();
+
+        assertThat(granted).isEqualTo(STOCK);
+        assertThat(remainingQuantity(jdbc)).isZero();
+        assertThat(leasedUnits(jdbc)).isZero();
+    }
+
+    @Test
+    void nodesShuttingDown_ShouldGiveBackEveryUnusedUnit() {
+        int perNode = 15;
+        for (ConfigurableApplicationContext node : nodes) {
+            RewardInventoryService inventory = node.getBean(RewardInventoryService.class);
+            for (int i = 0; i < perNode; i++) {
+                assertThat(inventory.tryConsume(rewardId)).isTrue();
+            }
+        }
+        JdbcTemplate jdbc = nodes.get(0).getBean(JdbcTemplate.class);
+        assertThat(leasedUnits(jdbc)).isPositive();
+
+        stopNodes();
+
+        assertThat(remainingQuantity(jdbc)).isEqualTo(STOCK - NODES * perNode);
+        assertThat(leasedUnits(jdbc)).isZero();
+    }
+
+    @Test
+    void nodeCrashingWithUnreportedWins_ShouldHaveOnlyItsOwnWinsTakenOffTheStock() {
+        RewardInventoryService crashing = nodes.get(1).getBean(RewardInventoryService.class);
+        RewardInventoryService busy = nodes.get(2).getBean(RewardInventoryService.class);
+        for (int i = 0; i < 7; i++) {
+            assertThat(crashing.tryConsume(rewardId)).isTrue();
+            recordWin("node-1");
+        }
+        // Another node keeps winning without having reported yet
+        for (int i = 0; i < 5; i++) {
+            assertThat(busy.tryConsume(rewardId)).isTrue();
+            recordWin("node-2");
+        }
+        JdbcTemplate jdbc = nodes.get(0).getBean(JdbcTemplate.class);
+
+        // node-1 stops renewing: its lease runs out and a live node reclaims it
+        jdbc.update("UPDATE reward_leases SET expires_at = ? WHERE reward_id = ? AND node_id = 'node-1'",
+            LocalDateTime.now().minusMinutes(1), rewardId);
+        nodes.get(0).getBean(RewardInventoryService.class).flush();
+
+        assertThat(remainingQuantity(jdbc)).isEqualTo(STOCK - 7);
+        assertThat(leasedUnits(jdbc, "node-1")).isZero();
+
+        busy.flush();
+        assertThat(remainingQuantity(jdbc)).isEqualTo(STOCK - 12);
+
+        // node-1 was only slow and reports its units after all, they are taken off twice
+        nodes.remove(1).close();
+        assertThat(remainingQuantity(jdbc)).isEqualTo(STOCK - 19);
+
+        // Until it restarts and hands back what it reported beyond its wins
+        ConfigurableApplicationContext restarted = startNode(1);
+        nodes.add(restarted);
+        assertThat(restarted.getBean(RewardInventoryService.class).tryConsume(rewardId)).isTrue();
+        assertThat(remainingQuantity(jdbc)).isEqualTo(STOCK - 12);
+    }
+
+    private void recordWin(String nodeId) {
+        ConfigurableApplicationContext node = nodes.get(0);
+        Reward reward = node.getBean(RewardRepository.class).getReferenceById(rewardId);
+        SpinHistory spin = SpinHistory.builder()
+            .participantEvent(participantEvent)
+            .spinTime(LocalDateTime.now())
+            .finalized(true)
+            .inventoryNodeId(nodeId)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build();
+        spin.markAsWin(reward, 10);
+        node.getBean(SpinHistoryRepository.class).save(spin);
+    }
+
+    private void stopNodes() {
+        // Close every node but the first, whose data source is used to check the result
+        for (int i = nodes.size() - 1; i > 0; i--) {
+            nodes.remove(i).close();
+        }
+        nodes.get(0).getBean(RewardInventoryServiceImpl.class).shutdown();
+    }
+
+    private ConfigurableApplicationContext startNode(int index) {
+        return new SpringApplicationBuilder(NodeConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + schema.getUrl(),
+                "spring.datasource.username=" + IsolatedSchema.USERNAME,
+                "spring.datasource.password=" + IsolatedSchema.PASSWORD,
+                "spring.jpa.hibernate.ddl-auto=" + (index == 0 ? "create" : "none"),
+                "spring.flyway.enabled=false",
+                "spring.sql.init.mode=never",
+                "app.inventory.pacing.enabled=false",
+                "app.inventory.lease.enabled=true",
+                "app.inventory.lease.block-size=10",
+                "app.inventory.lease.node-id=node-" + index)
+            .run();
+    }
+
+    private Long createReward(ConfigurableApplicationContext node) {
+        Region region = node.getBean(RegionRepository.class).save(Region.builder()
+            .name("Lease Region")
+            .code("LEASE_REGION")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        Event event = node.getBean(EventRepository.class).save(Event.builder()
+            .name("Lease Event")
+            .code("LEASE_EVENT")
+            .startTime(LocalDateTime.now().minusDays(1))
+            .endTime(LocalDateTime.now().plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        EventLocation location = node.getBean(EventLocationRepository.class).save(EventLocation.builder()
+            .event(event)
+            .region(region)
+            .name("Lease Location")
+            .code("LEASE_LOC")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        Participant participant = node.getBean(ParticipantRepository.class).save(Participant.builder()
+            .account("lease-participant")
+            .name("Lease Participant")
+            .phone("0900000000")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        participantEvent = node.getBean(ParticipantEventRepository.class).save(ParticipantEvent.builder()
+            .event(event)
+            .eventLocation(location)
+            .participant(participant)
+            .totalSpins(100)
+            .remainingSpins(100)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        return node.getBean(RewardRepository.class).save(Reward.builder()
+            .eventLocation(location)
+            .name("Lease Reward")
+            .code("LEASE_REWARD")
+            .totalQuantity(STOCK)
+            .remainingQuantity(STOCK)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(30))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build()).getId();
+    }
+
+    private int remainingQuantity(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT remaining_quantity FROM rewards WHERE id = ?", Integer.class, rewardId);
+    }
+
+    private int leasedUnits(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COALESCE(SUM(units), 0) FROM reward_leases WHERE reward_id = ?",
+            Integer.class, rewardId);
+    }
+
+    private int leasedUnits(JdbcTemplate jdbc, String nodeId) {
+        return jdbc.queryForObject(
+            "SELECT COALESCE(SUM(units), 0) FROM reward_leases WHERE reward_id = ? AND node_id = ?",
+            Integer.class, rewardId, nodeId);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Reward.class)
+    @EnableJpaRepositories(basePackageClasses = RewardRepository.class)
+    @Import({RewardInventoryServiceImpl.class, RewardLeaseServiceImpl.class, RewardPacingServiceImpl.class})
+    static class NodeConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
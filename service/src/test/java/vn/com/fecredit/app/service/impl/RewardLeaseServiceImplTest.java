@@ -0,0 +1,210 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.RewardLease;
+import vn.com.fecredit.app.repository.RewardLeaseRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardPacingService;
+
+@ExtendWith(MockitoExtension.class)
+class RewardLeaseServiceImplTest {
+
+    @Mock
+    private RewardRepository rewardRepository;
+
+    @Mock
+    private RewardLeaseRepository rewardLeaseRepository;
+
+    @Mock
+    private RewardPacingService rewardPacingService;
+
+    @InjectMocks
+    private RewardLeaseServiceImpl rewardLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(rewardPacingService.getOpenedSlots(anyLong(), any(LocalDateTime.class)))
+            .thenReturn(Long.MAX_VALUE);
+    }
+
+    @Test
+    void acquire_ShouldOnlyGrantUnitsNotLeasedByOtherNodes() {
+        Reward reward = reward(100, null);
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward));
+        when(rewardLeaseRepository.sumUnitsByRewardId(1L)).thenReturn(80L);
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-1")).thenReturn(Optional.empty());
+
+        int granted = rewardLeaseService.acquire(1L, "node-1", 50, LocalDateTime.now().plusSeconds(30));
+
+        assertThat(granted).isEqualTo(20);
+        ArgumentCaptor<RewardLease> saved = ArgumentCaptor.forClass(RewardLease.class);
+        verify(rewardLeaseRepository).save(saved.capture());
+        assertThat(saved.getValue().getUnits()).isEqualTo(20);
+        assertThat(saved.getValue().getNodeId()).isEqualTo("node-1");
+        assertThat(saved.getValue().getReward()).isSameAs(reward);
+    }
+
+    @Test
+    void acquire_ShouldKeepWithinTodaysAllowance() {
+        Reward reward = reward(100, 10);
+        reward.setDailyCount(4);
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward));
+        when(rewardLeaseRepository.sumUnitsByRewardId(1L)).thenReturn(5L);
+        RewardLease existing = lease(reward, 5, LocalDateTime.now());
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-1")).thenReturn(Optional.of(existing));
+
+        assertThat(rewardLeaseService.acquire(1L, "node-1", 50, LocalDateTime.now().plusSeconds(30))).isEqualTo(1);
+        assertThat(existing.getUnits()).isEqualTo(6);
+    }
+
+    @Test
+    void acquire_ShouldGrantNothingWhenStockIsLeasedOut() {
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward(100, null)));
+        when(rewardLeaseRepository.sumUnitsByRewardId(1L)).thenReturn(100L);
+
+        assertThat(rewardLeaseService.acquire(1L, "node-1", 50, LocalDateTime.now().plusSeconds(30))).isZero();
+        verify(rewardLeaseRepository, never()).save(any());
+    }
+
+    @Test
+    void acquire_ShouldOnlyGrantSlotsNoNodeHasTakenOrLeased() {
+        Reward reward = reward(100, null);
+        reward.setRemainingQuantity(70);
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward));
+        when(rewardLeaseRepository.sumUnitsByRewardId(1L)).thenReturn(5L);
+        when(rewardPacingService.getOpenedSlots(eq(1L), any(LocalDateTime.class))).thenReturn(40L);
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-2")).thenReturn(Optional.empty());
+
+        // 30 units were won and 5 are leased out, so only 5 of the 40 opened slots are left
+        assertThat(rewardLeaseService.acquire(1L, "node-2", 50, LocalDateTime.now().plusSeconds(30))).isEqualTo(5);
+    }
+
+    @Test
+    void applyConsumption_ShouldUpdateRewardAndLease() {
+        Reward reward = reward(100, null);
+        RewardLease lease = lease(reward, 50, LocalDateTime.now().minusSeconds(1));
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-1")).thenReturn(Optional.of(lease));
+        LocalDateTime now = LocalDateTime.now();
+
+        rewardLeaseService.applyConsumption(1L, "node-1", 12, now);
+
+        verify(rewardRepository).applyNodeInventoryDelta(1L, "node-1", 12, now, LocalDate.now().toEpochDay());
+        assertThat(lease.getUnits()).isEqualTo(38);
+        assertThat(lease.getSyncedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void giveBack_ShouldDeleteLeaseOnceEveryUnitIsBack() {
+        RewardLease lease = lease(reward(100, null), 9, LocalDateTime.now());
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-1")).thenReturn(Optional.of(lease));
+
+        rewardLeaseService.giveBack(1L, "node-1", 9);
+
+        verify(rewardLeaseRepository).delete(lease);
+    }
+
+    @Test
+    void reclaimExpired_ShouldTakeOnlyUnreportedWinsOfTheNodeOffTheStock() {
+        Reward reward = reward(100, null);
+        RewardLease lease = lease(reward, 10, LocalDateTime.now().minusMinutes(5));
+        when(rewardLeaseRepository.findExpired(any(LocalDateTime.class))).thenReturn(List.of(lease));
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(30L);
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenReturn(26L);
+
+        assertThat(rewardLeaseService.reclaimExpired()).isEqualTo(1);
+
+        verify(rewardRepository).applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(4), any(LocalDateTime.class), anyLong());
+        verify(rewardRepository, never()).applyInventoryDelta(anyLong(), anyInt(), any(), anyLong());
+        verify(rewardLeaseRepository).delete(lease);
+    }
+
+    @Test
+    void reclaimExpired_ShouldLeaveStockAloneWhenTheNodeReportedMoreThanItWon() {
+        Reward reward = reward(100, null);
+        RewardLease lease = lease(reward, 10, LocalDateTime.now().minusMinutes(5));
+        when(rewardLeaseRepository.findExpired(any(LocalDateTime.class))).thenReturn(List.of(lease));
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(5L);
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenReturn(7L);
+
+        rewardLeaseService.reclaimExpired();
+
+        // The node may still be alive and commit those spins
+        verify(rewardRepository, never()).applyNodeInventoryDelta(anyLong(), any(), anyInt(), any(), anyLong());
+        verify(rewardLeaseRepository).delete(lease);
+    }
+
+    @Test
+    void recover_ShouldSettleUnitsTheCrashedNodeNeverReported() {
+        Reward reward = reward(100, null);
+        RewardLease lease = lease(reward, 10, LocalDateTime.now().minusMinutes(5));
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward));
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-1")).thenReturn(Optional.of(lease));
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(12L);
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenReturn(9L);
+
+        rewardLeaseService.recover(1L, "node-1");
+
+        verify(rewardRepository).applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(3), any(LocalDateTime.class), anyLong());
+        verify(rewardLeaseRepository).delete(lease);
+    }
+
+    @Test
+    void recover_ShouldHandBackUnitsReportedForSpinsNeverCommitted() {
+        when(rewardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reward(100, null)));
+        when(rewardLeaseRepository.findByRewardIdAndNodeId(1L, "node-1")).thenReturn(Optional.empty());
+        when(rewardRepository.countWinsByNode(1L, "node-1")).thenReturn(5L);
+        when(rewardRepository.findFlushedUnits(1L, "node-1")).thenReturn(7L);
+
+        rewardLeaseService.recover(1L, "node-1");
+
+        verify(rewardRepository).applyNodeInventoryDelta(eq(1L), eq("node-1"), eq(-2), any(LocalDateTime.class), anyLong());
+        verify(rewardLeaseRepository, never()).delete(any());
+    }
+
+    private Reward reward(int remaining, Integer dailyLimit) {
+        return Reward.builder()
+            .id(1L)
+            .code("REWARD1")
+            .name("Reward 1")
+            .totalQuantity(remaining)
+            .remainingQuantity(remaining)
+            .dailyLimit(dailyLimit)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(1))
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+
+    private RewardLease lease(Reward reward, int units, LocalDateTime syncedAt) {
+        return RewardLease.builder()
+            .reward(reward)
+            .nodeId("node-1")
+            .units(units)
+            .syncedAt(syncedAt)
+            .expiresAt(syncedAt.plusSeconds(30))
+            .build();
+    }
+}
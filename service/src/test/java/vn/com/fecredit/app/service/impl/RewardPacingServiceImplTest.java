@@ -0,0 +1,174 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.model.WinPacingSchedule;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+
+class RewardPacingServiceImplTest {
+
+    private RewardRepository rewardRepository;
+    private EventRepository eventRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private RewardPacingServiceImpl rewardPacingService;
+
+    @BeforeEach
+    void setUp() {
+        rewardRepository = mock(RewardRepository.class);
+        eventRepository = mock(EventRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        rewardPacingService = new RewardPacingServiceImpl(rewardRepository, eventRepository, meterRegistry);
+        rewardPacingService.start();
+    }
+
+    @Test
+    void tryClaim_ShouldAwardOneWinPerOpenSlot() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(
+            reward(10, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(10))));
+
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+        assertThat(rewardPacingService.tryClaim(1L)).isFalse();
+        assertThat(meterRegistry.get("reward.pacing.deferred").counter().count()).isEqualTo(1.0);
+
+        rewardPacingService.release(1L);
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void tryClaim_ShouldFallBackToEventWindow() {
+        Event event = Event.builder()
+            .startTime(LocalDateTime.now().minusHours(1))
+            .endTime(LocalDateTime.now().plusDays(1))
+            .build();
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(2, null, null)));
+        when(eventRepository.findByRewardId(1L)).thenReturn(Optional.of(event));
+
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+        assertThat(rewardPacingService.tryClaim(1L)).isFalse();
+        assertThat(rewardPacingService.getOpenSlots(1L)).isZero();
+    }
+
+    @Test
+    void tryClaim_ShouldResumeScheduleFromValidFromAfterRestart() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime validFrom = now.minusDays(4).minusHours(1);
+        Reward reward = reward(5, validFrom, validFrom.plusDays(10));
+        reward.setTotalQuantity(10);
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward));
+
+        // One slot a day: the 5 opened so far were all awarded before the restart
+        assertThat(rewardPacingService.getOpenedSlots(1L, now)).isEqualTo(5);
+        assertThat(rewardPacingService.getOpenSlots(1L)).isZero();
+        assertThat(rewardPacingService.tryClaim(1L)).isFalse();
+        assertThat(rewardPacingService.getOpenedSlots(1L, now.plusDays(1))).isEqualTo(6);
+    }
+
+    @Test
+    void getOpenedSlots_ShouldNotLimitWhenDisabled() {
+        ReflectionTestUtils.setField(rewardPacingService, "enabled", false);
+
+        assertThat(rewardPacingService.getOpenedSlots(1L, LocalDateTime.now())).isEqualTo(Long.MAX_VALUE);
+        verifyNoInteractions(rewardRepository);
+    }
+
+    @Test
+    void tryClaim_ShouldNotPaceRewardWithoutWindow() {
+        when(rewardRepository.findById(1L)).thenReturn(Optional.of(reward(1, null, null)));
+        when(eventRepository.findByRewardId(1L)).thenReturn(Optional.empty());
+
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+    }
+
+    @Test
+    void tryClaim_ShouldAllowEverythingWhenDisabled() {
+        ReflectionTestUtils.setField(rewardPacingService, "enabled", false);
+
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+        verifyNoInteractions(rewardRepository);
+    }
+
+    @Test
+    void evict_ShouldRebuildScheduleFromRemainingQuantity() {
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+        when(rewardRepository.findById(1L))
+            .thenReturn(Optional.of(reward(100, null, end)))
+            .thenReturn(Optional.of(reward(0, null, end)));
+
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+        rewardPacingService.evict(1L);
+
+        assertThat(rewardPacingService.tryClaim(1L)).isFalse();
+    }
+
+    @Test
+    void evict_ShouldNotCacheScheduleLoadedBeforeTheEdit() {
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+        when(rewardRepository.findById(1L))
+            .thenAnswer(invocation -> {
+                // The reward is edited while its old row is being read
+                rewardPacingService.evict(1L);
+                return Optional.of(reward(100, null, end));
+            })
+            .thenReturn(Optional.of(reward(0, null, end)));
+
+        assertThat(rewardPacingService.tryClaim(1L)).isTrue();
+
+        assertThat(rewardPacingService.tryClaim(1L)).isFalse();
+        verify(rewardRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void schedule_ShouldCarryOverMissedSlots() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+        WinPacingSchedule schedule = WinPacingSchedule.of(4, start, start.plusHours(4));
+
+        assertThat(schedule.tryClaim(start.minusMinutes(1))).isFalse();
+        assertThat(schedule.getOpenSlots(start.plusMinutes(150))).isEqualTo(3);
+        assertThat(schedule.tryClaim(start.plusMinutes(150))).isTrue();
+        assertThat(schedule.tryClaim(start.plusMinutes(150))).isTrue();
+        assertThat(schedule.tryClaim(start.plusMinutes(150))).isTrue();
+        assertThat(schedule.tryClaim(start.plusMinutes(150))).isFalse();
+        assertThat(schedule.tryClaim(start.plusHours(3))).isTrue();
+        assertThat(schedule.tryClaim(start.plusHours(5))).isFalse();
+        assertThat(schedule.getClaimed()).isEqualTo(4);
+    }
+
+    @Test
+    void schedule_ShouldCountAwardedUnitsAsClaimed() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+        WinPacingSchedule schedule = WinPacingSchedule.of(4, 2, start, start.plusHours(4));
+
+        assertThat(schedule.getOpenedSlots(start.plusMinutes(90))).isEqualTo(2);
+        assertThat(schedule.tryClaim(start.plusMinutes(90))).isFalse();
+        assertThat(schedule.tryClaim(start.plusMinutes(120))).isTrue();
+        assertThat(schedule.getClaimed()).isEqualTo(3);
+    }
+
+    private Reward reward(int remaining, LocalDateTime validFrom, LocalDateTime validUntil) {
+        return Reward.builder()
+            .id(1L)
+            .code("REWARD1")
+            .name("Reward 1")
+            .totalQuantity(remaining)
+            .remainingQuantity(remaining)
+            .validFrom(validFrom)
+            .validUntil(validUntil)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+}
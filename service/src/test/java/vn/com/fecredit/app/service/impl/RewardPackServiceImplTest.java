@@ -0,0 +1,278 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.RewardPack;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.RewardPackRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardSelectionService;
+import vn.com.fecredit.app.service.SpinRandomSource;
+
+@ExtendWith(MockitoExtension.class)
+class RewardPackServiceImplTest {
+
+    @Mock
+    private RewardPackRepository rewardPackRepository;
+
+    @Mock
+    private RewardRepository rewardRepository;
+
+    @Mock
+    private EventLocationRepository eventLocationRepository;
+
+    @Mock
+    private RewardInventoryService rewardInventoryService;
+
+    @Mock
+    private RewardSelectionService rewardSelectionService;
+
+    @Spy
+    private SpinRandomSource spinRandomSource = new SplittableSpinRandomSource("SplittableRandom");
+
+    @InjectMocks
+    private RewardPackServiceImpl rewardPackService;
+
+    private EventLocation location;
+
+    @BeforeEach
+    void setUp() {
+        Event event = Event.builder()
+            .id(1L)
+            .code("EVENT001")
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+
+        location = EventLocation.builder()
+            .id(10L)
+            .code("LOC001")
+            .event(event)
+            .defaultWinProbability(0.5)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+
+        lenient().when(eventLocationRepository.findByIdWithRelationships(10L)).thenReturn(Optional.of(location));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void initializePacks_ShouldKeepRewardRatioInEveryPack() {
+        Reward gift1 = reward(100L, "GIFT1", 40);
+        Reward gift2 = reward(101L, "GIFT2", 20);
+        Reward gift3 = reward(102L, "GIFT3", 10);
+        when(rewardPackRepository.existsByEventLocationId(10L)).thenReturn(false);
+        when(rewardRepository.findByLocationAndStatus(any(EventLocation.class), anyInt()))
+            .thenReturn(List.of(gift1, gift2, gift3));
+        when(rewardPackRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(rewardRepository.takeQuantity(anyLong(), anyInt())).thenReturn(1);
+
+        Map<Integer, Map<String, Integer>> contents = rewardPackService.initializePacks(10L, 4);
+
+        ArgumentCaptor<List<RewardPack>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rewardPackRepository).saveAll(captor.capture());
+        List<RewardPack> packs = captor.getValue();
+        assertThat(packs).hasSize(4);
+        assertThat(packs).allSatisfy(pack -> {
+            assertThat(pack.getRewardQuantity(100L)).isEqualTo(10);
+            assertThat(pack.getRewardQuantity(101L)).isEqualTo(5);
+            assertThat(pack.getRewardQuantity(102L)).isBetween(2, 3);
+            assertThat(pack.getEmptySlots()).isBetween(17, 18);
+        });
+        assertThat(packs.stream().mapToInt(RewardPack::getRemainingSlots).sum()).isEqualTo(140);
+        assertThat(contents).containsOnlyKeys(1, 2, 3, 4);
+        assertThat(contents.get(1)).containsKeys("GIFT1", "GIFT2", "GIFT3", RewardPackServiceImpl.EMPTY_SLOT);
+        verify(rewardRepository).takeQuantity(100L, 40);
+        verify(rewardRepository).takeQuantity(101L, 20);
+        verify(rewardRepository).takeQuantity(102L, 10);
+        verify(rewardInventoryService).evict(100L);
+        verify(rewardSelectionService).invalidateLocation(10L);
+    }
+
+    @Test
+    void initializePacks_ShouldFailWhenStockChangesWhilePacking() {
+        when(rewardPackRepository.existsByEventLocationId(10L)).thenReturn(false);
+        when(rewardRepository.findByLocationAndStatus(any(EventLocation.class), anyInt()))
+            .thenReturn(List.of(reward(100L, "GIFT1", 40)));
+        when(rewardPackRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(rewardRepository.takeQuantity(100L, 40)).thenReturn(0);
+
+        assertThatThrownBy(() -> rewardPackService.initializePacks(10L, 4))
+            .isInstanceOf(InvalidOperationException.class);
+    }
+
+    @Test
+    void initializePacks_ShouldRejectSecondInitialization() {
+        when(rewardPackRepository.existsByEventLocationId(10L)).thenReturn(true);
+
+        assertThatThrownBy(() -> rewardPackService.initializePacks(10L, 4))
+            .isInstanceOf(InvalidOperationException.class);
+        verify(rewardPackRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void draw_ShouldPersistEveryDrawAndReportExhaustion() {
+        givenPacks(pack(1L, 1, 100L, 1, 1));
+        when(rewardPackRepository.decrementRewardQuantity(1L, 100L)).thenReturn(1);
+        when(rewardPackRepository.decrementEmptySlots(1L)).thenReturn(1);
+
+        List<SpinResultResponse> results = List.of(
+            rewardPackService.draw(1L, 5L, 10L),
+            rewardPackService.draw(1L, 5L, 10L));
+        SpinResultResponse exhausted = rewardPackService.draw(1L, 5L, 10L);
+
+        assertThat(results).filteredOn(SpinResultResponse::isWin)
+            .singleElement()
+            .satisfies(result -> assertThat(result.getRewardCode()).isEqualTo("GIFT1"));
+        assertThat(exhausted.isWin()).isFalse();
+        assertThat(exhausted.getMessage()).isEqualTo("All gift packs are exhausted");
+        verify(rewardPackRepository).decrementRewardQuantity(1L, 100L);
+        verify(rewardPackRepository).decrementEmptySlots(1L);
+    }
+
+    @Test
+    void draw_ShouldReloadPacksWhenPersistedStateIsBehind() {
+        givenPacks(pack(1L, 1, 100L, 1, 0));
+        when(rewardPackRepository.decrementRewardQuantity(1L, 100L)).thenReturn(0);
+
+        rewardPackService.draw(1L, 5L, 10L);
+        rewardPackService.draw(1L, 5L, 10L);
+
+        verify(rewardPackRepository, times(2)).findAllByEventLocationIdAndStatus(10L, EntityStatus.ACTIVE.getValue());
+    }
+
+    @Test
+    void draw_ShouldPutDrawBackWhenTransactionRollsBack() {
+        givenPacks(pack(1L, 1, 100L, 1, 0));
+        when(rewardPackRepository.decrementRewardQuantity(1L, 100L)).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(rewardPackService.draw(1L, 5L, 10L).isWin()).isTrue();
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(rewardPackService.draw(1L, 5L, 10L).isWin()).isTrue();
+        verify(rewardPackRepository, times(1)).findAllByEventLocationIdAndStatus(10L, EntityStatus.ACTIVE.getValue());
+    }
+
+    @Test
+    void draw_ShouldNeverHandOutMoreThanPackedUnderConcurrency() throws Exception {
+        List<RewardPack> packs = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            packs.add(pack((long) i, i, 100L, 50, 200));
+        }
+        givenPacks(packs.toArray(new RewardPack[0]));
+        when(rewardPackRepository.decrementRewardQuantity(anyLong(), anyLong())).thenReturn(1);
+        when(rewardPackRepository.decrementEmptySlots(anyLong())).thenReturn(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<SpinResultResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_100; i++) {
+            futures.add(executor.submit(() -> rewardPackService.draw(1L, 5L, 10L)));
+        }
+        int wins = 0;
+        int exhausted = 0;
+        for (Future<SpinResultResponse> future : futures) {
+            SpinResultResponse result = future.get();
+            if (result.isWin()) {
+                wins++;
+            } else if ("All gift packs are exhausted".equals(result.getMessage())) {
+                exhausted++;
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(wins).isEqualTo(200);
+        assertThat(exhausted).isEqualTo(100);
+    }
+
+    @Test
+    void draw_ShouldFailWhenPacksAreNotInitialized() {
+        when(rewardPackRepository.findAllByEventLocationIdAndStatus(10L, EntityStatus.ACTIVE.getValue()))
+            .thenReturn(List.of());
+
+        assertThatThrownBy(() -> rewardPackService.draw(1L, 5L, 10L))
+            .isInstanceOf(InvalidOperationException.class);
+    }
+
+    @Test
+    void emptySlotsFor_ShouldMatchWinProbability() {
+        assertThat(RewardPackServiceImpl.emptySlotsFor(100, 0.2)).isEqualTo(400);
+        assertThat(RewardPackServiceImpl.emptySlotsFor(100, 1.0)).isZero();
+        assertThat(RewardPackServiceImpl.emptySlotsFor(100, null)).isZero();
+        assertThatThrownBy(() -> RewardPackServiceImpl.emptySlotsFor(100, 0.0))
+            .isInstanceOf(InvalidOperationException.class);
+    }
+
+    private void givenPacks(RewardPack... packs) {
+        when(rewardPackRepository.findAllByEventLocationIdAndStatus(10L, EntityStatus.ACTIVE.getValue()))
+            .thenReturn(List.of(packs));
+        when(rewardRepository.findAllById(anyIterable())).thenReturn(List.of(reward(100L, "GIFT1", 100)));
+    }
+
+    private RewardPack pack(Long id, int number, Long rewardId, int quantity, int emptySlots) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(rewardId, quantity);
+        return RewardPack.builder()
+            .id(id)
+            .eventLocation(location)
+            .packNumber(number)
+            .emptySlots(emptySlots)
+            .rewardQuantities(quantities)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+
+    private Reward reward(Long id, String code, int remaining) {
+        return Reward.builder()
+            .id(id)
+            .code(code)
+            .name(code)
+            .points(10)
+            .totalQuantity(remaining)
+            .remainingQuantity(remaining)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(1))
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+}
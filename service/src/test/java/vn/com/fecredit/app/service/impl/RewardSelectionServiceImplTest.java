@@ -0,0 +1,312 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vn.com.fecredit.app.common.EntityStatus;
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.model.LocationSpinProfile;
+import vn.com.fecredit.app.projection.SpinCountProjection;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.ParticipantEventRepository;
+import vn.com.fecredit.app.repository.ParticipantRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.LocationSpinProfileService;
+import vn.com.fecredit.app.service.SpinRandomSource;
+
+@ExtendWith(MockitoExtension.class)
+class RewardSelectionServiceImplTest {
+
+    @Mock
+    private EventLocationRepository eventLocationRepository;
+
+    @Mock
+    private RewardRepository rewardRepository;
+
+    @Mock
+    private ParticipantRepository participantRepository;
+
+    @Mock
+    private ParticipantEventRepository participantEventRepository;
+
+    @Mock
+    private SpinHistoryRepository spinHistoryRepository;
+
+    @Mock
+    private LocationSpinProfileService locationSpinProfileService;
+
+    @Spy
+    private SpinRandomSource spinRandomSource = new SplittableSpinRandomSource("SplittableRandom");
+
+    @InjectMocks
+    private RewardSelectionServiceImpl rewardSelectionService;
+
+    private EventLocation location;
+
+    @BeforeEach
+    void setUp() {
+        Event event = Event.builder()
+            .id(1L)
+            .code("EVENT001")
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+
+        location = EventLocation.builder()
+            .id(10L)
+            .code("LOC001")
+            .event(event)
+            .defaultWinProbability(0.2)
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+
+        lenient().when(locationSpinProfileService.getProfile(10L)).thenReturn(profile(List.of()));
+    }
+
+    @Test
+    void selectRandomReward_ShouldFollowConfiguredProbabilitiesWithoutQueryingPerDraw() {
+        Reward common = reward(100L, "COMMON", 0.3, 1_000_000);
+        Reward rare = reward(101L, "RARE", 0.1, 1_000_000);
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(common, rare));
+
+        int draws = 200_000;
+        int commonWins = 0;
+        int rareWins = 0;
+        for (int i = 0; i < draws; i++) {
+            SpinResultResponse result = rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+            if (result.isWin()) {
+                if ("COMMON".equals(result.getRewardCode())) {
+                    commonWins++;
+                } else {
+                    rareWins++;
+                }
+            }
+        }
+
+        assertThat((double) commonWins / draws).isCloseTo(0.3, within(0.01));
+        assertThat((double) rareWins / draws).isCloseTo(0.1, within(0.01));
+        verify(rewardRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void selectRandomReward_ShouldShareLocationProbabilityAmongRewardsWithoutOwnProbability() {
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(reward(100L, "A", null, 10), reward(101L, "B", null, 10)));
+        when(eventLocationRepository.findAllByEventIdAndStatus(1L, EntityStatus.ACTIVE.getValue()))
+            .thenReturn(Set.of(location));
+
+        assertThat(rewardSelectionService.calculateRewardProbabilities(1L))
+            .containsOnlyKeys(100L, 101L)
+            .allSatisfy((code, probability) -> assertThat(probability).isCloseTo(0.1, within(1e-9)));
+    }
+
+    @Test
+    void selectRandomReward_ShouldRebuildTableWhenRewardIsExhausted() {
+        Reward first = reward(100L, "PRIZE", 1.0, 3);
+        Reward soldOut = reward(100L, "PRIZE", 1.0, 0);
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(first), List.of(soldOut));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rewardSelectionService.selectRandomReward(1L, 5L, 10L).isWin()).isTrue();
+        }
+        SpinResultResponse afterExhaustion = rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+
+        assertThat(afterExhaustion.isWin()).isFalse();
+        verify(rewardRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    void selectRandomReward_ShouldRespectDailyLimit() {
+        Reward limited = reward(100L, "DAILY", 1.0, 100);
+        limited.setDailyLimit(2);
+        limited.setDailyCount(1);
+        Reward limitReached = limited.toBuilder().dailyCount(2).build();
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(limited), List.of(limitReached));
+
+        assertThat(rewardSelectionService.selectRandomReward(1L, 5L, 10L).isWin()).isTrue();
+        assertThat(rewardSelectionService.selectRandomReward(1L, 5L, 10L).isWin()).isFalse();
+    }
+
+    @Test
+    void invalidateLocation_ShouldForceRebuildOnNextDraw() {
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(reward(100L, "PRIZE", 0.5, 10)));
+
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+        rewardSelectionService.invalidateLocation(10L);
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+
+        verify(rewardRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    void calculateRewardProbabilities_ShouldKeepRewardsSharingACodeAtDifferentLocations() {
+        EventLocation other = location.toBuilder().id(11L).code("LOC002").build();
+        when(locationSpinProfileService.getProfile(11L))
+            .thenReturn(LocationSpinProfile.compile(other, List.of(), List.of(), LocalDateTime.now()));
+        when(eventLocationRepository.findAllByEventIdAndStatus(1L, EntityStatus.ACTIVE.getValue()))
+            .thenReturn(Set.of(location, other));
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(reward(100L, "PRIZE", 0.1, 10)), List.of(reward(200L, "PRIZE", 0.3, 10)));
+
+        assertThat(rewardSelectionService.calculateRewardProbabilities(1L))
+            .containsOnlyKeys(100L, 200L);
+    }
+
+    @Test
+    void invalidateLocation_ShouldNotCacheTableBuiltWhileInvalidated() {
+        when(rewardRepository.findAllById(any()))
+            .thenAnswer(invocation -> {
+                rewardSelectionService.invalidateLocation(10L);
+                return List.of(reward(100L, "PRIZE", 0.5, 10));
+            })
+            .thenReturn(List.of(reward(100L, "PRIZE", 0.5, 10)));
+
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+
+        verify(rewardRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    void selectRandomReward_ShouldRejectLocationOfAnotherEvent() {
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of());
+
+        assertThatThrownBy(() -> rewardSelectionService.selectRandomReward(2L, 5L, 10L))
+            .isInstanceOf(InvalidOperationException.class);
+    }
+
+    @Test
+    void selectRandomReward_ShouldUseGoldenHourProbabilityWhileItLasts() {
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(reward(100L, "A", null, 1_000_000)));
+        GoldenHour goldenHour = GoldenHour.builder()
+            .id(50L)
+            .startTime(LocalDateTime.now().minusMinutes(5))
+            .endTime(LocalDateTime.now().plusMinutes(5))
+            .build();
+        goldenHour.setWinProbabilityMultiplier(3.0);
+        when(locationSpinProfileService.getProfile(10L)).thenReturn(profile(List.of(goldenHour)));
+
+        assertThat((double) rewardSelectionService.getLocationStatistics(1L, 10L).get("configuredWinProbability"))
+            .isCloseTo(0.6, within(1e-9));
+    }
+
+    @Test
+    void selectRandomReward_ShouldRebuildTableWhenNewProfileIsSwappedIn() {
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(reward(100L, "PRIZE", 0.5, 10)));
+
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+        when(locationSpinProfileService.getProfile(10L)).thenReturn(profile(List.of()));
+        rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+
+        verify(rewardRepository, times(2)).findAllById(any());
+        verify(eventLocationRepository, never()).findByIdWithRelationships(any());
+    }
+
+    @Test
+    void selectRandomReward_ShouldRecordSeedThatReplaysOutcome() {
+        when(rewardRepository.findAllById(any()))
+            .thenReturn(List.of(reward(100L, "A", 0.25, 1_000_000), reward(101L, "B", 0.25, 1_000_000)));
+        ReflectionTestUtils.setField(rewardSelectionService, "recordSeed", true);
+
+        List<SpinResultResponse> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            SpinResultResponse result = rewardSelectionService.selectRandomReward(1L, 5L, 10L);
+            assertThat(result.getMetadata())
+                .isEqualTo("{\"rng\":\"SplittableRandom\",\"seed\":" + result.getRandomSeed() + "}");
+            results.add(result);
+        }
+
+        Long[] seeds = results.stream().map(SpinResultResponse::getRandomSeed).toArray(Long[]::new);
+        doReturn(seeds[0], (Object[]) Arrays.copyOfRange(seeds, 1, seeds.length)).when(spinRandomSource).nextSeed();
+        for (SpinResultResponse result : results) {
+            assertThat(rewardSelectionService.selectRandomReward(1L, 5L, 10L).getRewardCode())
+                .isEqualTo(result.getRewardCode());
+        }
+    }
+
+    @Test
+    void getWinRatesByReward_ShouldDivideRewardWinsByEventSpinsFromAggregates() {
+        when(spinHistoryRepository.countSpinsByLocation(1L))
+            .thenReturn(List.of(counts("LOC001", 60, 9), counts("LOC002", 40, 1)));
+        when(spinHistoryRepository.countSpinsByReward(1L))
+            .thenReturn(List.of(counts("A", 8, 8), counts("B", 2, 2)));
+
+        assertThat(rewardSelectionService.getWinRatesByReward(1L))
+            .containsEntry("A", 0.08)
+            .containsEntry("B", 0.02);
+        assertThat(rewardSelectionService.getWinRatesByLocation(1L))
+            .containsEntry("LOC001", 0.15)
+            .containsEntry("LOC002", 0.025);
+        verify(spinHistoryRepository, never()).findAll();
+    }
+
+    private LocationSpinProfile profile(List<GoldenHour> goldenHours) {
+        return LocationSpinProfile.compile(location, List.of(), goldenHours, LocalDateTime.now());
+    }
+
+    private Reward reward(Long id, String code, Double winProbability, int remaining) {
+        return Reward.builder()
+            .id(id)
+            .code(code)
+            .name(code)
+            .points(10)
+            .winProbability(winProbability)
+            .totalQuantity(remaining)
+            .remainingQuantity(remaining)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(1))
+            .status(EntityStatus.ACTIVE.getValue())
+            .build();
+    }
+
+    private static SpinCountProjection counts(String code, long spins, long wins) {
+        return new SpinCountProjection() {
+            @Override
+            public String getCode() {
+                return code;
+            }
+
+            @Override
+            public long getSpins() {
+                return spins;
+            }
+
+            @Override
+            public long getWins() {
+                return wins;
+            }
+        };
+    }
+}
@@ -30,6 +30,8 @@ import vn.com.fecredit.app.mapper.RewardMapper;
 import vn.com.fecredit.app.repository.EventLocationRepository;
 import vn.com.fecredit.app.repository.EventRepository;
 import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardSelectionService;
 
 @ExtendWith(MockitoExtension.class)
 class RewardServiceImplTest {
@@ -46,6 +48,12 @@ class RewardServiceImplTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private RewardSelectionService rewardSelectionService;
+
+    @Mock
+    private RewardInventoryService rewardInventoryService;
+
     private RewardServiceImpl rewardService;
 
     @Captor
@@ -65,7 +73,9 @@ class RewardServiceImplTest {
             rewardRepository,
             eventLocationRepository,
             eventRepository,
-            rewardMapper
+            rewardMapper,
+            rewardSelectionService,
+            rewardInventoryService
         );
 
         testEvent = Event.builder()
@@ -188,6 +198,7 @@ class RewardServiceImplTest {
             Reward savedReward = rewardCaptor.getValue();
             assertThat(savedReward.getStatus()).isEqualTo(EntityStatus.ACTIVE.getValue());
             assertThat(savedReward.getEventLocation()).isEqualTo(location);
+            verify(rewardSelectionService).invalidateLocation(location.getId());
         }
     }
 
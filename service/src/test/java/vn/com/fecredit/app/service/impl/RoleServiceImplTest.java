@@ -38,6 +38,7 @@ import vn.com.fecredit.app.exception.ResourceNotFoundException;
 import vn.com.fecredit.app.mapper.RoleMapper;
 import vn.com.fecredit.app.repository.RoleRepository;
 import vn.com.fecredit.app.repository.UserRepository;
+import vn.com.fecredit.app.service.ReferenceDataCacheService;
 
 @ExtendWith(MockitoExtension.class)
 class RoleServiceImplTest {
@@ -51,6 +52,9 @@ class RoleServiceImplTest {
     @Mock
     private RoleMapper roleMapper;
 
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
     @InjectMocks
     private RoleServiceImpl roleService;
 
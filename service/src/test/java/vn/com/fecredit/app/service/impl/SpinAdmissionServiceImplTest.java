@@ -0,0 +1,175 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.exception.SpinNotAllowedException;
+
+class SpinAdmissionServiceImplTest {
+
+    private static final long SPIN_MILLIS = 20;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpinAdmissionServiceImpl spinAdmissionService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        spinAdmissionService = new SpinAdmissionServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(spinAdmissionService, "initialLimit", 2);
+        ReflectionTestUtils.setField(spinAdmissionService, "minLimit", 1);
+        spinAdmissionService.start();
+    }
+
+    @Test
+    void execute_ShouldAnswerRateLimitedWhenLocationIsAtItsLimit() {
+        CompletableFuture<SpinResultDTO> first = new CompletableFuture<>();
+        CompletableFuture<SpinResultDTO> second = new CompletableFuture<>();
+        spinAdmissionService.submit(request(10L), () -> first);
+        spinAdmissionService.submit(request(10L), () -> second);
+
+        SpinResultDTO result = spinAdmissionService.execute(request(10L), SpinAdmissionServiceImplTest::success);
+
+        assertThat(result.getStatus()).isEqualTo(SpinResultDTO.SpinStatus.RATE_LIMITED);
+        assertThat(result.getRetryAfterMs()).isGreaterThanOrEqualTo(100L);
+        assertThat(spinAdmissionService.getInFlight(1L)).isEqualTo(2);
+        assertThat(meterRegistry.get("spin.admission.rejected").tag("scope", "location").counter().count())
+            .isEqualTo(1.0);
+
+        first.complete(success());
+        second.complete(success());
+
+        assertThat(spinAdmissionService.getInFlight(1L)).isZero();
+        assertThat(spinAdmissionService.execute(request(10L), SpinAdmissionServiceImplTest::success).getStatus())
+            .isEqualTo(SpinResultDTO.SpinStatus.SUCCESS);
+    }
+
+    @Test
+    void execute_ShouldGiveBackLocationSlotWhenEventRejects() {
+        ReflectionTestUtils.setField(spinAdmissionService, "eventMaxLimit", 1);
+        spinAdmissionService.submit(request(10L), CompletableFuture::new);
+
+        SpinResultDTO result = spinAdmissionService.execute(request(11L), SpinAdmissionServiceImplTest::success);
+
+        assertThat(result.getStatus()).isEqualTo(SpinResultDTO.SpinStatus.RATE_LIMITED);
+        assertThat(meterRegistry.get("spin.admission.rejected").tag("scope", "event").counter().count())
+            .isEqualTo(1.0);
+        assertThat(meterRegistry.get("spin.admission.in-flight").tag("scope", "location").tag("id", "11")
+            .gauge().value()).isZero();
+    }
+
+    @Test
+    void submit_ShouldCutLimitWhenSpinsRunOutOfConnections() {
+        ReflectionTestUtils.setField(spinAdmissionService, "initialLimit", 10);
+
+        CompletableFuture<SpinResultDTO> result = spinAdmissionService.submit(request(10L),
+            () -> CompletableFuture.failedFuture(new CannotCreateTransactionException("pool exhausted")));
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(spinAdmissionService.getLimit(1L)).isEqualTo(9);
+        assertThat(spinAdmissionService.getInFlight(1L)).isZero();
+    }
+
+    @Test
+    void execute_ShouldKeepLimitForBusinessRejections() {
+        spinAdmissionService.execute(request(10L), SpinAdmissionServiceImplTest::slowSuccess);
+
+        for (int i = 0; i < 20; i++) {
+            assertThatThrownBy(() -> spinAdmissionService.execute(request(10L), () -> {
+                throw SpinNotAllowedException.forReason("no spins left");
+            })).isInstanceOf(SpinNotAllowedException.class);
+        }
+
+        // Fast rejections are far below the baseline; sampled, they would have moved the limit
+        assertThat(spinAdmissionService.getLimit(1L)).isEqualTo(2);
+        assertThat(spinAdmissionService.getInFlight(1L)).isZero();
+    }
+
+    @Test
+    void execute_ShouldNotAdmitMoreSpinsThanConnections() {
+        ReflectionTestUtils.setField(spinAdmissionService, "initialLimit", 50);
+        ReflectionTestUtils.setField(spinAdmissionService, "connectionPoolSize", 3);
+
+        spinAdmissionService.execute(request(10L), SpinAdmissionServiceImplTest::success);
+
+        assertThat(spinAdmissionService.getLimit(1L)).isEqualTo(3);
+        assertThat(meterRegistry.get("spin.admission.limit").tag("scope", "location").tag("id", "10")
+            .gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void evictIdle_ShouldDropIdleLimitsWithTheirGauges() {
+        CompletableFuture<SpinResultDTO> busy = new CompletableFuture<>();
+        spinAdmissionService.submit(request(10L), () -> busy);
+        spinAdmissionService.execute(request(11L), SpinAdmissionServiceImplTest::success);
+        ReflectionTestUtils.setField(spinAdmissionService, "idleEvictionMs", 0L);
+
+        spinAdmissionService.evictIdle();
+
+        assertThat(meterRegistry.find("spin.admission.limit").tag("scope", "location").tag("id", "11").gauge())
+            .isNull();
+        assertThat(meterRegistry.find("spin.admission.limit").tag("scope", "location").tag("id", "10").gauge())
+            .isNotNull();
+        assertThat(spinAdmissionService.getInFlight(1L)).isEqualTo(1);
+
+        busy.complete(success());
+        spinAdmissionService.evictIdle();
+
+        assertThat(meterRegistry.find("spin.admission.in-flight").gauges()).isEmpty();
+        assertThat(meterRegistry.find("spin.admission.limit").gauges()).isEmpty();
+    }
+
+    @Test
+    void submit_ShouldGrowLimitOnlyWhileItIsUsed() {
+        for (int i = 0; i < 20; i++) {
+            spinAdmissionService.execute(request(10L), SpinAdmissionServiceImplTest::slowSuccess);
+        }
+        assertThat(spinAdmissionService.getLimit(1L)).isEqualTo(2);
+
+        for (int i = 0; i < 20; i++) {
+            CompletableFuture<SpinResultDTO> first = new CompletableFuture<>();
+            CompletableFuture<SpinResultDTO> second = new CompletableFuture<>();
+            spinAdmissionService.submit(request(10L), () -> first);
+            spinAdmissionService.submit(request(10L), () -> second);
+            first.complete(slowSuccess());
+            second.complete(success());
+        }
+
+        // Growth stops once two spins in flight no longer use half of the limit
+        assertThat(spinAdmissionService.getLimit(1L)).isEqualTo(4);
+    }
+
+    private static SpinRequest request(Long locationId) {
+        return SpinRequest.builder()
+            .eventId(1L)
+            .participantId(7L)
+            .eventLocationId(locationId)
+            .build();
+    }
+
+    private static SpinResultDTO success() {
+        return SpinResultDTO.builder().status(SpinResultDTO.SpinStatus.SUCCESS).build();
+    }
+
+    /**
+     * A spin taking long enough that scheduling noise stays well within the default tolerance.
+     */
+    private static SpinResultDTO slowSuccess() {
+        try {
+            Thread.sleep(SPIN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return success();
+    }
+}
@@ -0,0 +1,245 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import vn.com.fecredit.app.dto.SpinDTO.SpinResultResponse;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.projection.SpinBatchCommitProjection;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+import vn.com.fecredit.app.service.RewardSelectionService;
+
+@ExtendWith(MockitoExtension.class)
+class SpinBatchServiceImplTest {
+
+    @Mock
+    private SpinHistoryRepository spinHistoryRepository;
+
+    @Mock
+    private RewardSelectionService rewardSelectionService;
+
+    @Mock
+    private RewardInventoryService rewardInventoryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SpinBatchServiceImpl spinBatchService;
+
+    @BeforeEach
+    void setUp() {
+        spinBatchService = new SpinBatchServiceImpl(spinHistoryRepository, rewardSelectionService,
+            rewardInventoryService, transactionManager);
+        ReflectionTestUtils.setField(spinBatchService, "maxDelayMs", 50L);
+        spinBatchService.start();
+        lenient().when(rewardSelectionService.selectRandomReward(anyLong(), anyLong(), anyLong()))
+            .thenReturn(loss());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        spinBatchService.stop();
+    }
+
+    @Test
+    void submit_ShouldCommitConcurrentSpinsOfLocationInOneStatement() throws Exception {
+        givenCommitted(row -> true);
+
+        List<CompletableFuture<SpinResultDTO>> results = new ArrayList<>();
+        for (long participant = 1; participant <= 10; participant++) {
+            results.add(spinBatchService.submit(request(participant), 100 + participant));
+        }
+
+        for (CompletableFuture<SpinResultDTO> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(SpinResultDTO.SpinStatus.SUCCESS);
+        }
+        verify(spinHistoryRepository, times(1)).commitSpinBatch(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        assertThat(results.get(3).get().getParticipantId()).isEqualTo(4L);
+        assertThat(results.get(3).get().getId()).isEqualTo(4L);
+    }
+
+    @Test
+    void submit_ShouldSplitSpinsOfSameParticipantAcrossStatementsInOrder() throws Exception {
+        givenCommitted(row -> true);
+
+        CompletableFuture<SpinResultDTO> first = spinBatchService.submit(request(1L), 101L);
+        CompletableFuture<SpinResultDTO> second = spinBatchService.submit(request(1L), 101L);
+        CompletableFuture<SpinResultDTO> other = spinBatchService.submit(request(2L), 102L);
+        CompletableFuture.allOf(first, second, other).get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Long[]> captor = ArgumentCaptor.forClass(Long[].class);
+        verify(spinHistoryRepository, times(2)).commitSpinBatch(captor.capture(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        assertThat(captor.getAllValues().get(0)).containsExactly(101L, 102L);
+        assertThat(captor.getAllValues().get(1)).containsExactly(101L);
+    }
+
+    @Test
+    void submit_ShouldReportFailedGuardsAndReleaseWriteBehindStock() throws Exception {
+        when(rewardSelectionService.selectRandomReward(anyLong(), anyLong(), anyLong())).thenReturn(win(7L));
+        when(rewardInventoryService.isStrict(7L)).thenReturn(false);
+        when(rewardInventoryService.tryConsume(7L)).thenReturn(true);
+        givenCommitted(row -> row != 2);
+
+        CompletableFuture<SpinResultDTO> won = spinBatchService.submit(request(1L), 101L);
+        CompletableFuture<SpinResultDTO> limited = spinBatchService.submit(request(2L), 102L);
+
+        assertThat(won.get(5, TimeUnit.SECONDS).isWin()).isTrue();
+        assertThat(won.get().getRewardCode()).isEqualTo("GIFT");
+        assertThat(limited.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(SpinResultDTO.SpinStatus.QUOTA_EXCEEDED);
+        verify(rewardInventoryService, times(1)).release(7L);
+    }
+
+    @Test
+    void submit_ShouldRecordLossWhenStockIsGone() throws Exception {
+        when(rewardSelectionService.selectRandomReward(anyLong(), anyLong(), anyLong())).thenReturn(win(7L));
+        when(rewardInventoryService.tryConsume(7L)).thenReturn(false);
+        givenCommitted(row -> true);
+
+        SpinResultDTO result = spinBatchService.submit(request(1L), 101L).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.isWin()).isFalse();
+        ArgumentCaptor<Long[]> rewardIds = ArgumentCaptor.forClass(Long[].class);
+        verify(spinHistoryRepository).commitSpinBatch(any(), rewardIds.capture(), any(), any(), any(), any(), any(), any(), any(), any());
+        assertThat(rewardIds.getValue()).containsOnlyNulls();
+    }
+
+    @Test
+    void submit_ShouldPassTheReplayColumnsOfEachSpin() throws Exception {
+        SpinResultResponse outcome = win(7L);
+        outcome.setRandomSeed(42L);
+        outcome.setRandomStream(3);
+        outcome.setGoldenHourId(5L);
+        when(rewardSelectionService.selectRandomReward(anyLong(), anyLong(), anyLong())).thenReturn(outcome);
+        when(rewardInventoryService.tryConsume(7L)).thenReturn(true);
+        givenCommitted(row -> true);
+
+        spinBatchService.submit(request(1L), 101L).get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Long[]> randomSeeds = ArgumentCaptor.forClass(Long[].class);
+        ArgumentCaptor<Integer[]> randomStreams = ArgumentCaptor.forClass(Integer[].class);
+        ArgumentCaptor<Long[]> goldenHourIds = ArgumentCaptor.forClass(Long[].class);
+        verify(spinHistoryRepository).commitSpinBatch(any(), any(), any(), any(), any(), any(),
+            randomSeeds.capture(), randomStreams.capture(), goldenHourIds.capture(), any());
+        assertThat(randomSeeds.getValue()).containsExactly(42L);
+        assertThat(randomStreams.getValue()).containsExactly(3);
+        assertThat(goldenHourIds.getValue()).containsExactly(5L);
+    }
+
+    @Test
+    void submit_ShouldFailEveryCallerAndReleaseStockWhenBatchFails() {
+        when(rewardSelectionService.selectRandomReward(anyLong(), anyLong(), anyLong())).thenReturn(win(7L));
+        when(rewardInventoryService.tryConsume(7L)).thenReturn(true);
+        when(spinHistoryRepository.commitSpinBatch(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+            .thenThrow(new RuntimeException("connection lost"));
+
+        CompletableFuture<SpinResultDTO> first = spinBatchService.submit(request(1L), 101L);
+        CompletableFuture<SpinResultDTO> second = spinBatchService.submit(request(2L), 102L);
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        verify(rewardInventoryService, times(2)).release(7L);
+    }
+
+    /**
+     * Stubs the batch statement; {@code passed} decides per 1-based row whether its guards passed.
+     */
+    private void givenCommitted(LongPredicate passed) {
+        when(spinHistoryRepository.commitSpinBatch(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Long[] participantEventIds = invocation.getArgument(0);
+            List<SpinBatchCommitProjection> rows = new ArrayList<>();
+            for (int ord = 1; ord <= participantEventIds.length; ord++) {
+                rows.add(new Row(ord, participantEventIds[ord - 1] - 100, passed.test(ord)));
+            }
+            return rows;
+        });
+    }
+
+    private static SpinRequest request(Long participantId) {
+        return SpinRequest.builder()
+            .eventId(1L)
+            .participantId(participantId)
+            .eventLocationId(10L)
+            .build();
+    }
+
+    private static SpinResultResponse loss() {
+        return SpinResultResponse.builder().win(false).points(0).message("Better luck next time").build();
+    }
+
+    private static SpinResultResponse win(Long rewardId) {
+        return SpinResultResponse.builder()
+            .win(true)
+            .rewardId(rewardId)
+            .rewardCode("GIFT")
+            .rewardName("Gift")
+            .points(10)
+            .message("Congratulations! You won Gift")
+            .build();
+    }
+
+    private static final class Row implements SpinBatchCommitProjection {
+
+        private final long ord;
+        private final Long spinId;
+        private final boolean committed;
+
+        private Row(long ord, Long spinId, boolean committed) {
+            this.ord = ord;
+            this.spinId = committed ? spinId : null;
+            this.committed = committed;
+        }
+
+        @Override
+        public long getOrd() {
+            return ord;
+        }
+
+        @Override
+        public Long getSpinId() {
+            return spinId;
+        }
+
+        @Override
+        public boolean getParticipantFound() {
+            return true;
+        }
+
+        @Override
+        public boolean getHasRemainingSpins() {
+            return true;
+        }
+
+        @Override
+        public boolean getUnderDailyLimit() {
+            return committed;
+        }
+
+        @Override
+        public boolean getDuplicate() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.config.IsolatedSchema;
+import vn.com.fecredit.app.dto.SpinCommitDTO;
+import vn.com.fecredit.app.entity.Event;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.entity.GoldenHour;
+import vn.com.fecredit.app.entity.Participant;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Region;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.base.AbstractStatusAwareEntity;
+import vn.com.fecredit.app.projection.SpinBatchCommitProjection;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.EventRepository;
+import vn.com.fecredit.app.repository.GoldenHourRepository;
+import vn.com.fecredit.app.repository.ParticipantEventRepository;
+import vn.com.fecredit.app.repository.ParticipantRepository;
+import vn.com.fecredit.app.repository.RegionRepository;
+import vn.com.fecredit.app.repository.RewardRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.SpinCommitService;
+
+/**
+ * Runs the single-statement spin commit against PostgreSQL, in a schema of its own, and
+ * checks each guard it evaluates: remaining spins, the daily spin limit with and without a
+ * limit set, and reward stock. The batch commit is run against an idempotency key committed
+ * concurrently, and both commits are checked to store what a replay of the spin needs.
+ */
+class SpinCommitIntegrationTest {
+
+    private IsolatedSchema schema;
+    private ConfigurableApplicationContext context;
+    private SpinCommitService spinCommitService;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        schema = IsolatedSchema.create("spin_commit_test");
+        context = new SpringApplicationBuilder(CommitConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + schema.getUrl(),
+                "spring.datasource.username=" + IsolatedSchema.USERNAME,
+                "spring.datasource.password=" + IsolatedSchema.PASSWORD,
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.flyway.enabled=false",
+                "spring.sql.init.mode=never",
+                "app.inventory.pacing.enabled=false")
+            .run();
+        schema.createUnmappedSchema();
+        spinCommitService = context.getBean(SpinCommitService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        try {
+            context.close();
+        } finally {
+            schema.close();
+        }
+    }
+
+    @Test
+    void commit_ShouldStopAtTheDailySpinLimit() {
+        ParticipantEvent participantEvent = register(2, 10);
+
+        assertThat(spinCommitService.commit(loss(participantEvent)).isCommitted()).isTrue();
+        assertThat(spinCommitService.commit(loss(participantEvent)).isCommitted()).isTrue();
+        SpinCommitDTO.Result third = spinCommitService.commit(loss(participantEvent));
+
+        assertThat(third.isCommitted()).isFalse();
+        assertThat(third.isHasRemainingSpins()).isTrue();
+        assertThat(third.isUnderDailyLimit()).isFalse();
+        assertThat(remainingSpins(participantEvent)).isEqualTo(8);
+    }
+
+    @Test
+    void commit_ShouldStoreTheRandomSeedWithTheSpin() {
+        ParticipantEvent participantEvent = register(null, 10);
+        SpinCommitDTO.Request request = loss(participantEvent);
+        request.setRandomSeed(-7_046_029_254_386_353_131L);
+        request.setRandomStream(3);
+
+        Long spinId = spinCommitService.commit(request).getSpinId();
+
+        assertThat(jdbc.queryForMap("SELECT random_seed, random_stream FROM spin_histories WHERE id = ?", spinId))
+            .containsEntry("random_seed", -7_046_029_254_386_353_131L)
+            .containsEntry("random_stream", 3);
+    }
+
+    @Test
+    void commitSpinBatch_ShouldStoreTheRandomSeedAndGoldenHourOfEachSpin() {
+        ParticipantEvent first = register(null, 10);
+        ParticipantEvent second = join(first, "commit-participant-2");
+        Long goldenHourId = context.getBean(GoldenHourRepository.class).save(GoldenHour.builder()
+            .eventLocation(first.getEventLocation())
+            .name("Commit Golden Hour")
+            .code("COMMIT_GOLDEN_HOUR")
+            .startTime(LocalDateTime.now().minusHours(1))
+            .endTime(LocalDateTime.now().plusHours(1))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build()).getId();
+
+        List<SpinBatchCommitProjection> rows = new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+            .execute(status -> context.getBean(SpinHistoryRepository.class).commitSpinBatch(
+                new Long[] {first.getId(), second.getId()}, new Long[] {null, null}, new Integer[] {0, 0},
+                new String[] {"{}", "{}"}, new String[] {null, null}, new String[] {null, null},
+                new Long[] {-7_046_029_254_386_353_131L, 11L}, new Integer[] {3, 4}, new Long[] {goldenHourId, null},
+                LocalDateTime.now()));
+
+        assertThat(jdbc.queryForMap("SELECT random_seed, random_stream, golden_hour_id FROM spin_histories WHERE id = ?",
+            rows.get(0).getSpinId()))
+            .containsEntry("random_seed", -7_046_029_254_386_353_131L)
+            .containsEntry("random_stream", 3)
+            .containsEntry("golden_hour_id", goldenHourId);
+        assertThat(jdbc.queryForMap("SELECT random_seed, random_stream, golden_hour_id FROM spin_histories WHERE id = ?",
+            rows.get(1).getSpinId()))
+            .containsEntry("random_seed", 11L)
+            .containsEntry("random_stream", 4)
+            .containsEntry("golden_hour_id", null);
+    }
+
+    @Test
+    void commit_ShouldTreatMissingDailySpinLimitAsUnlimited() {
+        ParticipantEvent participantEvent = register(null, 10);
+
+        for (int i = 0; i < 10; i++) {
+            SpinCommitDTO.Result result = spinCommitService.commit(loss(participantEvent));
+            assertThat(result.isCommitted()).isTrue();
+            assertThat(result.isUnderDailyLimit()).isTrue();
+        }
+        assertThat(remainingSpins(participantEvent)).isZero();
+    }
+
+    @Test
+    void commit_ShouldStopWhenNoSpinsRemain() {
+        ParticipantEvent participantEvent = register(null, 1);
+
+        assertThat(spinCommitService.commit(loss(participantEvent)).isCommitted()).isTrue();
+        SpinCommitDTO.Result second = spinCommitService.commit(loss(participantEvent));
+
+        assertThat(second.isCommitted()).isFalse();
+        assertThat(second.isHasRemainingSpins()).isFalse();
+    }
+
+    @Test
+    void commit_ShouldRecordALossOnceStrictStockIsExhausted() {
+        ParticipantEvent participantEvent = register(null, 10);
+        Long rewardId = reward(participantEvent.getEventLocation(), 1);
+
+        SpinCommitDTO.Result first = spinCommitService.commit(win(participantEvent, rewardId));
+        SpinCommitDTO.Result second = spinCommitService.commit(win(participantEvent, rewardId));
+
+        assertThat(first.isWin()).isTrue();
+        assertThat(first.isInStock()).isTrue();
+        assertThat(second.isCommitted()).isTrue();
+        assertThat(second.isWin()).isFalse();
+        assertThat(second.isInStock()).isFalse();
+        assertThat(jdbc.queryForObject("SELECT remaining_quantity FROM rewards WHERE id = ?", Integer.class, rewardId))
+            .isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM spin_histories WHERE reward_id = ? AND win",
+            Integer.class, rewardId)).isEqualTo(1);
+    }
+
+    @Test
+    void commitSpinBatch_ShouldSkipOnlyTheSpinWhoseKeyCommittedWhileItRan() throws Exception {
+        ParticipantEvent first = register(null, 10);
+        ParticipantEvent second = join(first, "commit-participant-2");
+        SpinHistoryRepository spinHistoryRepository = context.getBean(SpinHistoryRepository.class);
+        TransactionTemplate transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        LocalDateTime now = LocalDateTime.now();
+
+        // A single commit of the same key holds the participant event until the batch waits on it
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> single = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+            spinHistoryRepository.commitSpin(first.getId(), first.getEventLocation().getId(), null, 0, false,
+                null, "{}", "key-1", null, null, null, now);
+            await(release);
+        }));
+        waitForUncommittedKey();
+        CompletableFuture<List<SpinBatchCommitProjection>> batch = CompletableFuture.supplyAsync(() ->
+            transactions.execute(status -> spinHistoryRepository.commitSpinBatch(
+                new Long[] {first.getId(), second.getId()}, new Long[] {null, null}, new Integer[] {0, 0},
+                new String[] {"{}", "{}"}, new String[] {"key-1", "key-2"}, new String[] {null, null},
+                new Long[] {null, null}, new Integer[] {null, null}, new Long[] {null, null}, now)));
+        waitForLockWait();
+        release.countDown();
+        single.get(10, TimeUnit.SECONDS);
+
+        List<SpinBatchCommitProjection> rows = batch.get(10, TimeUnit.SECONDS);
+
+        assertThat(rows.get(0).getDuplicate()).isTrue();
+        assertThat(rows.get(0).getSpinId()).isNull();
+        assertThat(rows.get(1).getDuplicate()).isFalse();
+        assertThat(rows.get(1).getSpinId()).isNotNull();
+        assertThat(remainingSpins(first)).isEqualTo(9);
+        assertThat(remainingSpins(second)).isEqualTo(9);
+        assertThat(jdbc.queryForObject("SELECT spin_history_id FROM spin_idempotency_keys WHERE idempotency_key = 'key-2'",
+            Long.class)).isEqualTo(rows.get(1).getSpinId());
+    }
+
+    private ParticipantEvent register(Integer dailySpinLimit, int spins) {
+        Region region = context.getBean(RegionRepository.class).save(Region.builder()
+            .name("Commit Region")
+            .code("COMMIT_REGION")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        Event event = context.getBean(EventRepository.class).save(Event.builder()
+            .name("Commit Event")
+            .code("COMMIT_EVENT")
+            .startTime(LocalDateTime.now().minusDays(1))
+            .endTime(LocalDateTime.now().plusDays(1))
+            .dailySpinLimit(null)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        EventLocation location = context.getBean(EventLocationRepository.class).save(EventLocation.builder()
+            .event(event)
+            .region(region)
+            .name("Commit Location")
+            .code("COMMIT_LOC")
+            .dailySpinLimit(dailySpinLimit)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        Participant participant = context.getBean(ParticipantRepository.class).save(Participant.builder()
+            .account("commit-participant")
+            .name("Commit Participant")
+            .phone("0900000001")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        return context.getBean(ParticipantEventRepository.class).save(ParticipantEvent.builder()
+            .event(event)
+            .eventLocation(location)
+            .participant(participant)
+            .totalSpins(0)
+            .remainingSpins(spins)
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+    }
+
+    private ParticipantEvent join(ParticipantEvent registered, String account) {
+        Participant participant = context.getBean(ParticipantRepository.class).save(Participant.builder()
+            .account(account)
+            .name("Commit Participant")
+            .phone("0900000002")
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+        return context.getBean(ParticipantEventRepository.class).save(ParticipantEvent.builder()
+            .event(registered.getEvent())
+            .eventLocation(registered.getEventLocation())
+            .participant(participant)
+            .totalSpins(0)
+            .remainingSpins(registered.getRemainingSpins())
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build());
+    }
+
+    private Long reward(EventLocation location, int stock) {
+        return context.getBean(RewardRepository.class).save(Reward.builder()
+            .eventLocation(location)
+            .name("Commit Reward")
+            .code("COMMIT_REWARD")
+            .points(10)
+            .totalQuantity(stock)
+            .remainingQuantity(stock)
+            .strictInventory(true)
+            .validFrom(LocalDateTime.now().minusDays(1))
+            .validUntil(LocalDateTime.now().plusDays(1))
+            .status(AbstractStatusAwareEntity.STATUS_ACTIVE)
+            .build()).getId();
+    }
+
+    private SpinCommitDTO.Request loss(ParticipantEvent participantEvent) {
+        return SpinCommitDTO.Request.builder()
+            .participantEventId(participantEvent.getId())
+            .locationId(participantEvent.getEventLocation().getId())
+            .metadata("{}")
+            .build();
+    }
+
+    private SpinCommitDTO.Request win(ParticipantEvent participantEvent, Long rewardId) {
+        SpinCommitDTO.Request request = loss(participantEvent);
+        request.setRewardId(rewardId);
+        request.setPoints(10);
+        return request;
+    }
+
+    private void waitForUncommittedKey() throws InterruptedException {
+        // The uncommitted spin is visible to no one, but the lock it took on the key table is
+        waitUntil("SELECT COUNT(*) FROM pg_locks l JOIN pg_class c ON c.oid = l.relation "
+            + "WHERE c.relname = 'spin_idempotency_keys' AND l.mode = 'RowExclusiveLock'");
+    }
+
+    private void waitForLockWait() throws InterruptedException {
+        waitUntil("SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()");
+    }
+
+    private void waitUntil(String countQuery) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbc.queryForObject(countQuery, Integer.class) == 0) {
+            assertThat(System.nanoTime()).as("waiting for " + countQuery).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int remainingSpins(ParticipantEvent participantEvent) {
+        return jdbc.queryForObject("SELECT remaining_spins FROM participant_events WHERE id = ?",
+            Integer.class, participantEvent.getId());
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Reward.class)
+    @EnableJpaRepositories(basePackageClasses = RewardRepository.class)
+    @Import({SpinCommitServiceImpl.class, RewardInventoryServiceImpl.class, RewardLeaseServiceImpl.class,
+        RewardPacingServiceImpl.class})
+    static class CommitConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import vn.com.fecredit.app.dto.SpinCommitDTO;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+import vn.com.fecredit.app.projection.SpinCommitProjection;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.RewardInventoryService;
+
+@ExtendWith(MockitoExtension.class)
+class SpinCommitServiceImplTest {
+
+    @Mock
+    private SpinHistoryRepository spinHistoryRepository;
+
+    @Mock
+    private RewardInventoryService rewardInventoryService;
+
+    @InjectMocks
+    private SpinCommitServiceImpl spinCommitService;
+
+    @Test
+    void commit_ShouldTakeWriteBehindStockBeforeStatement() {
+        when(rewardInventoryService.isStrict(100L)).thenReturn(false);
+        when(rewardInventoryService.tryConsume(100L)).thenReturn(true);
+        when(rewardInventoryService.getNodeId()).thenReturn("node-1");
+        givenCommitted(1000L, true, true, true, true);
+
+        SpinCommitDTO.Result result = spinCommitService.commit(request(100L));
+
+        assertThat(result.isCommitted()).isTrue();
+        assertThat(result.isWin()).isTrue();
+        assertThat(result.getRewardId()).isEqualTo(100L);
+        assertThat(result.getPointsEarned()).isEqualTo(50);
+        verify(spinHistoryRepository).commitSpin(eq(5L), eq(10L), eq(100L), eq(50), eq(false),
+            isNull(), eq("{}"), isNull(), isNull(), isNull(), eq("node-1"), any(LocalDateTime.class));
+        verify(rewardInventoryService, never()).release(any());
+    }
+
+    @Test
+    void commit_ShouldDecrementStrictStockInStatement() {
+        when(rewardInventoryService.isStrict(100L)).thenReturn(true);
+        givenCommitted(1000L, true, true, true, false);
+
+        SpinCommitDTO.Result result = spinCommitService.commit(request(100L));
+
+        assertThat(result.isCommitted()).isTrue();
+        assertThat(result.isWin()).isFalse();
+        assertThat(result.isInStock()).isFalse();
+        assertThat(result.getPointsEarned()).isZero();
+        verify(spinHistoryRepository).commitSpin(eq(5L), eq(10L), eq(100L), eq(50), eq(true),
+            isNull(), eq("{}"), isNull(), isNull(), isNull(), isNull(), any(LocalDateTime.class));
+        verify(rewardInventoryService, never()).tryConsume(any());
+    }
+
+    @Test
+    void commit_ShouldRecordLossWhenWriteBehindStockIsGone() {
+        when(rewardInventoryService.isStrict(100L)).thenReturn(false);
+        when(rewardInventoryService.tryConsume(100L)).thenReturn(false);
+        givenCommitted(1000L, true, true, true, false);
+
+        SpinCommitDTO.Result result = spinCommitService.commit(request(100L));
+
+        assertThat(result.isWin()).isFalse();
+        assertThat(result.isInStock()).isFalse();
+        verify(spinHistoryRepository).commitSpin(eq(5L), eq(10L), isNull(), eq(50), eq(false),
+            isNull(), eq("{}"), isNull(), isNull(), isNull(), isNull(), any(LocalDateTime.class));
+        verify(rewardInventoryService, never()).release(any());
+    }
+
+    @Test
+    void commit_ShouldReleaseStockWhenParticipantGuardFails() {
+        when(rewardInventoryService.isStrict(100L)).thenReturn(false);
+        when(rewardInventoryService.tryConsume(100L)).thenReturn(true);
+        givenCommitted(null, true, true, false, false);
+
+        SpinCommitDTO.Result result = spinCommitService.commit(request(100L));
+
+        assertThat(result.isCommitted()).isFalse();
+        assertThat(result.isHasRemainingSpins()).isTrue();
+        assertThat(result.isUnderDailyLimit()).isFalse();
+        verify(rewardInventoryService).release(100L);
+    }
+
+    @Test
+    void commit_ShouldLeaveRewardStockAloneForPackDraws() {
+        givenCommitted(1000L, true, true, true, true);
+        SpinCommitDTO.Request request = request(100L);
+        request.setStockTaken(true);
+
+        SpinCommitDTO.Result result = spinCommitService.commit(request);
+
+        assertThat(result.isWin()).isTrue();
+        assertThat(result.isInStock()).isTrue();
+        verify(spinHistoryRepository).commitSpin(eq(5L), eq(10L), eq(100L), eq(50), eq(false),
+            isNull(), eq("{}"), isNull(), isNull(), isNull(), isNull(), any(LocalDateTime.class));
+        verifyNoInteractions(rewardInventoryService);
+    }
+
+    @Test
+    void commit_ShouldFailPackDrawWhenParticipantGuardFails() {
+        givenCommitted(null, true, false, true, false);
+        SpinCommitDTO.Request request = request(100L);
+        request.setStockTaken(true);
+
+        assertThatThrownBy(() -> spinCommitService.commit(request))
+            .isInstanceOf(InvalidOperationException.class)
+            .hasMessageContaining("no spins remaining");
+        verifyNoInteractions(rewardInventoryService);
+    }
+
+    @Test
+    void commit_ShouldStoreRandomSeedWithSpin() {
+        givenCommitted(1000L, true, true, true, false);
+        SpinCommitDTO.Request request = request(null);
+        request.setRandomSeed(42L);
+        request.setRandomStream(3);
+
+        spinCommitService.commit(request);
+
+        verify(spinHistoryRepository).commitSpin(eq(5L), eq(10L), isNull(), eq(50), eq(false),
+            isNull(), eq("{}"), isNull(), eq(42L), eq(3), isNull(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void commit_ShouldReleaseStockWhenStatementFails() {
+        when(rewardInventoryService.isStrict(100L)).thenReturn(false);
+        when(rewardInventoryService.tryConsume(100L)).thenReturn(true);
+        when(spinHistoryRepository.commitSpin(any(), any(), any(), anyInt(), anyBoolean(), any(), any(), any(), any(), any(), any(), any()))
+            .thenThrow(new RuntimeException("connection lost"));
+
+        assertThatThrownBy(() -> spinCommitService.commit(request(100L)))
+            .isInstanceOf(RuntimeException.class);
+        verify(rewardInventoryService).release(100L);
+    }
+
+    @Test
+    void commit_ShouldFailForUnknownParticipantEvent() {
+        givenCommitted(null, false, false, false, false);
+
+        assertThatThrownBy(() -> spinCommitService.commit(request(null)))
+            .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(rewardInventoryService);
+    }
+
+    private void givenCommitted(Long spinId, boolean found, boolean hasSpins, boolean underLimit, boolean granted) {
+        SpinCommitProjection projection = mock(SpinCommitProjection.class);
+        lenient().when(projection.getSpinId()).thenReturn(spinId);
+        lenient().when(projection.getParticipantFound()).thenReturn(found);
+        lenient().when(projection.getHasRemainingSpins()).thenReturn(hasSpins);
+        lenient().when(projection.getUnderDailyLimit()).thenReturn(underLimit);
+        lenient().when(projection.getRewardGranted()).thenReturn(granted);
+        when(spinHistoryRepository.commitSpin(any(), any(), any(), anyInt(), anyBoolean(), any(), any(), any(), any(), any(), any(), any()))
+            .thenReturn(projection);
+    }
+
+    private SpinCommitDTO.Request request(Long rewardId) {
+        return SpinCommitDTO.Request.builder()
+            .participantEventId(5L)
+            .locationId(10L)
+            .rewardId(rewardId)
+            .points(50)
+            .metadata("{}")
+            .build();
+    }
+}
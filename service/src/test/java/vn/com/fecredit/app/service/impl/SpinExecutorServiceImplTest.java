@@ -0,0 +1,159 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.exception.InvalidOperationException;
+import vn.com.fecredit.app.exception.SpinNotAllowedException;
+
+class SpinExecutorServiceImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpinExecutorServiceImpl spinExecutorService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        spinExecutorService = new SpinExecutorServiceImpl(meterRegistry);
+        spinExecutorService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        spinExecutorService.stop();
+    }
+
+    @Test
+    void submit_ShouldRunSpinsOfOneParticipantInOrderWithoutOverlap() {
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int spin = i;
+            futures.add(spinExecutorService.submit(7L, () -> {
+                assertThat(running.incrementAndGet()).isEqualTo(1);
+                sleep(5);
+                order.add(spin);
+                running.decrementAndGet();
+                return spin;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(order).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void submit_ShouldRunOtherParticipantsInParallel() throws Exception {
+        CountDownLatch otherRan = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocked = spinExecutorService.submit(1L, () -> await(otherRan));
+
+        spinExecutorService.execute(2L, () -> {
+            otherRan.countDown();
+            return null;
+        });
+
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void submit_ShouldRejectParticipantWithTooManyPendingSpins() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> accepted = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accepted.add(spinExecutorService.submit(7L, () -> await(release)));
+        }
+
+        assertThatThrownBy(() -> spinExecutorService.submit(7L, () -> true))
+            .isInstanceOf(SpinNotAllowedException.class);
+        assertThat(meterRegistry.get("spin.executor.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(spinExecutorService.getQueueDepth()).isBetween(3, 4);
+        assertThat(meterRegistry.get("spin.executor.pending").gauge().value()).isEqualTo(1.0);
+
+        release.countDown();
+        CompletableFuture.allOf(accepted.toArray(new CompletableFuture[0])).join();
+        assertThat(spinExecutorService.execute(7L, () -> true)).isTrue();
+        assertThat(meterRegistry.get("spin.executor.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void execute_ShouldRunSpinOnCallerThread() {
+        Thread caller = Thread.currentThread();
+
+        assertThat(spinExecutorService.execute(7L, Thread::currentThread)).isSameAs(caller);
+    }
+
+    @Test
+    void execute_ShouldWaitForQueuedSpinOfSameParticipant() {
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Boolean> queued = spinExecutorService.submit(7L, () -> {
+            started.countDown();
+            sleep(50);
+            order.add("queued");
+            return true;
+        });
+        await(started);
+
+        spinExecutorService.execute(7L, () -> order.add("direct"));
+
+        assertThat(queued.join()).isTrue();
+        assertThat(order).containsExactly("queued", "direct");
+    }
+
+    @Test
+    void execute_ShouldRejectParticipantWithTooManyPendingSpins() {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            spinExecutorService.submit(7L, () -> await(release));
+        }
+
+        assertThatThrownBy(() -> spinExecutorService.execute(7L, () -> true))
+            .isInstanceOf(SpinNotAllowedException.class)
+            .hasMessageContaining("Participant event with id: 7");
+        release.countDown();
+    }
+
+    @Test
+    void execute_ShouldRethrowSpinFailure() {
+        assertThatThrownBy(() -> spinExecutorService.execute(7L, () -> {
+            throw new InvalidOperationException("Reward is out of stock");
+        })).isInstanceOf(InvalidOperationException.class);
+    }
+
+    @Test
+    void start_ShouldPublishQueueDepthPerLane() {
+        assertThat(meterRegistry.get("spin.executor.queue.depth").gauges()).hasSize(16);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
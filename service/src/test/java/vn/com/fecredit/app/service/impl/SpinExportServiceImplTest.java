@@ -0,0 +1,211 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.entity.EventLocation;
+import vn.com.fecredit.app.model.ExportProgress;
+import vn.com.fecredit.app.projection.RewardPackItemProjection;
+import vn.com.fecredit.app.projection.SpinExportProjection;
+import vn.com.fecredit.app.repository.EventLocationRepository;
+import vn.com.fecredit.app.repository.RewardPackRepository;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+import vn.com.fecredit.app.service.FileStorageService;
+
+class SpinExportServiceImplTest {
+
+    private static final LocalDateTime SPIN_TIME = LocalDateTime.of(2025, 3, 17, 10, 30);
+
+    @TempDir
+    Path directory;
+
+    private SpinHistoryRepository spinHistoryRepository;
+    private RewardPackRepository rewardPackRepository;
+    private EventLocationRepository eventLocationRepository;
+    private FileStorageService fileStorageService;
+    private SimpleMeterRegistry meterRegistry;
+    private SpinExportServiceImpl spinExportService;
+
+    @BeforeEach
+    void setUp() {
+        spinHistoryRepository = mock(SpinHistoryRepository.class);
+        rewardPackRepository = mock(RewardPackRepository.class);
+        eventLocationRepository = mock(EventLocationRepository.class);
+        fileStorageService = mock(FileStorageService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(eventLocationRepository.findAllByEventId(1L))
+            .thenReturn(Set.of(location(30L, "LOC3"), location(10L, "LOC1"), location(20L, "LOC2")));
+        spinExportService = new SpinExportServiceImpl(spinHistoryRepository, rewardPackRepository,
+            eventLocationRepository, mock(PlatformTransactionManager.class), meterRegistry,
+            Optional.of(fileStorageService));
+        ReflectionTestUtils.setField(spinExportService, "tempDirectory", directory.toString());
+        ReflectionTestUtils.setField(spinExportService, "pendingSegments", 2);
+        spinExportService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        spinExportService.stop();
+    }
+
+    @Test
+    void exportEventSpins_ShouldStitchLocationSegmentsInOrder() throws IOException {
+        for (long locationId : new long[] {10L, 20L, 30L}) {
+            when(spinHistoryRepository.streamExportRowsByEventLocationId(locationId))
+                .thenAnswer(invocation -> spins(locationId, 3));
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ExportProgress progress = spinExportService.exportEventSpins(1L, output);
+
+        List<String> lines = gunzip(output.toByteArray()).lines().toList();
+        assertThat(lines).hasSize(10);
+        assertThat(lines.get(0)).isEqualTo(SpinExportServiceImpl.SPIN_HEADER);
+        assertThat(lines.get(1)).isEqualTo("10000,2025-03-17T10:30,LOC10,acc0,\"Nguyen, \"\"An\"\"\",true,R1,10,true");
+        assertThat(lines.subList(1, 10)).extracting(line -> line.substring(0, 2))
+            .containsExactly("10", "10", "10", "20", "20", "20", "30", "30", "30");
+        assertThat(progress.getRows()).isEqualTo(9);
+        assertThat(progress.getCompletedSegments()).isEqualTo(3);
+        assertThat(progress.getBytes()).isEqualTo(output.size());
+        assertThat(spinExportService.getRunningExports()).isEmpty();
+        assertThat(meterRegistry.get("export.rows").tag("kind", "spins").counter().count()).isEqualTo(9);
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void exportRewardPacks_ShouldWriteOneRowPerPackItem() throws IOException {
+        RewardPackItemProjection item = mock(RewardPackItemProjection.class);
+        when(item.getPackId()).thenReturn(5L);
+        when(item.getPackNumber()).thenReturn(1);
+        when(item.getStatus()).thenReturn(1);
+        when(item.getEmptySlots()).thenReturn(90);
+        when(item.getRewardCode()).thenReturn("GIFT");
+        when(item.getRemainingQuantity()).thenReturn(10);
+        when(rewardPackRepository.streamItemsByEventLocationId(anyLong())).thenAnswer(invocation -> Stream.empty());
+        when(rewardPackRepository.streamItemsByEventLocationId(20L)).thenAnswer(invocation -> Stream.of(item));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        spinExportService.exportRewardPacks(1L, output);
+
+        assertThat(gunzip(output.toByteArray()).lines())
+            .containsExactly(SpinExportServiceImpl.PACK_HEADER, "5,1,LOC2,1,90,GIFT,10");
+    }
+
+    @Test
+    void exportEventSpins_ShouldDeleteSegmentsWhenALocationFails() {
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        when(spinHistoryRepository.streamExportRowsByEventLocationId(10L)).thenAnswer(invocation -> {
+            secondStarted.await();
+            throw new IllegalStateException("cursor closed");
+        });
+        // Only stops once interrupted, so the export must wait for it to delete its file
+        when(spinHistoryRepository.streamExportRowsByEventLocationId(20L)).thenAnswer(invocation -> {
+            secondStarted.countDown();
+            return spins(20L, Long.MAX_VALUE);
+        });
+
+        assertThatThrownBy(() -> spinExportService.exportEventSpins(1L, new ByteArrayOutputStream()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("cursor closed");
+
+        assertThat(spinExportService.getRunningExports()).isEmpty();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void exportEventSpinsToFile_ShouldReplaceTargetOnlyWhenComplete() throws IOException {
+        Path target = Files.createDirectory(directory.resolve("exports")).resolve("event-1.csv.gz");
+        when(fileStorageService.load("event-1.csv.gz")).thenReturn(target);
+        when(spinHistoryRepository.streamExportRowsByEventLocationId(anyLong()))
+            .thenAnswer(invocation -> spins(invocation.getArgument(0), 2));
+
+        ExportProgress progress = spinExportService.exportEventSpins(1L, "event-1.csv.gz");
+
+        assertThat(gunzip(Files.readAllBytes(target)).lines()).hasSize(7);
+        assertThat(Files.size(target)).isEqualTo(progress.getBytes());
+        assertThat(target.resolveSibling("event-1.csv.gz.part")).doesNotExist();
+    }
+
+    @Test
+    void exportEventSpins_ShouldExportTenMillionRowsWithoutHeapGrowth() {
+        long rowsPerLocation = 10_000_000 / 3 + 1;
+        long baseline = usedHeapAfterGc();
+        AtomicLong peak = new AtomicLong(baseline);
+        when(spinHistoryRepository.streamExportRowsByEventLocationId(anyLong()))
+            .thenAnswer(invocation -> spins(invocation.getArgument(0), rowsPerLocation)
+                .peek(row -> {
+                    if (row.getId() % 1_000_000 == 0) {
+                        peak.accumulateAndGet(usedHeapAfterGc(), Math::max);
+                    }
+                }));
+        AtomicLong written = new AtomicLong();
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written.addAndGet(len);
+            }
+        };
+
+        ExportProgress progress = spinExportService.exportEventSpins(1L, discard);
+
+        assertThat(progress.getRows()).isEqualTo(3 * rowsPerLocation).isGreaterThanOrEqualTo(10_000_000);
+        assertThat(progress.getBytes()).isEqualTo(written.get());
+        // Retaining even one small object per row would add well over a gigabyte
+        assertThat(peak.get() - baseline).as("heap growth from %d bytes", baseline).isLessThan(256L * 1024 * 1024);
+    }
+
+    private static Stream<SpinExportProjection> spins(long locationId, long count) {
+        return LongStream.range(0, count).mapToObj(i -> new SpinExportProjection(
+            locationId * 1000 + i, SPIN_TIME, "LOC" + locationId, "acc" + (i % 100),
+            i == 0 ? "Nguyen, \"An\"" : "Participant", i % 10 == 0, i % 10 == 0 ? "R1" : null,
+            i % 10 == 0 ? 10 : 0, true));
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static EventLocation location(Long id, String code) {
+        return EventLocation.builder().id(id).code(code).build();
+    }
+}
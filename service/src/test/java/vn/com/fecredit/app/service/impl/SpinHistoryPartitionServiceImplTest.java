@@ -0,0 +1,102 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+
+class SpinHistoryPartitionServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 17);
+
+    private SpinHistoryRepository spinHistoryRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SpinHistoryPartitionServiceImpl spinHistoryPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        spinHistoryRepository = mock(SpinHistoryRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        spinHistoryPartitionService = new SpinHistoryPartitionServiceImpl(spinHistoryRepository, meterRegistry);
+        spinHistoryPartitionService.start();
+    }
+
+    @Test
+    void maintain_ShouldCreateCurrentAndUpcomingMonths() {
+        when(spinHistoryRepository.createPartitions(LocalDate.of(2025, 3, 1), 4)).thenReturn(1);
+
+        spinHistoryPartitionService.maintain(TODAY);
+
+        verify(spinHistoryRepository).createPartitions(LocalDate.of(2025, 3, 1), 4);
+        assertThat(meterRegistry.counter("spin.history.partitions.created").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void maintain_ShouldKeepAllMonthsWithoutRetention() {
+        spinHistoryPartitionService.maintain(TODAY);
+
+        verify(spinHistoryRepository, never()).removePartitions(any(), anyBoolean());
+    }
+
+    @Test
+    void maintain_ShouldDetachMonthsOutsideRetention() {
+        ReflectionTestUtils.setField(spinHistoryPartitionService, "retentionMonths", 6);
+        when(spinHistoryRepository.removePartitions(LocalDate.of(2024, 9, 1), false)).thenReturn(2);
+
+        spinHistoryPartitionService.maintain(TODAY);
+
+        verify(spinHistoryRepository).removePartitions(LocalDate.of(2024, 9, 1), false);
+        assertThat(meterRegistry.counter("spin.history.partitions.removed").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void maintain_ShouldDropMonthsOutsideRetentionWhenConfigured() {
+        ReflectionTestUtils.setField(spinHistoryPartitionService, "retentionMonths", 1);
+        ReflectionTestUtils.setField(spinHistoryPartitionService, "dropExpired", true);
+
+        spinHistoryPartitionService.maintain(TODAY);
+
+        verify(spinHistoryRepository).removePartitions(LocalDate.of(2025, 2, 1), true);
+    }
+
+    @Test
+    void maintain_ShouldPurgeExpiredIdempotencyKeys() {
+        when(spinHistoryRepository.deleteIdempotencyKeysBefore(TODAY.minusDays(7).atStartOfDay())).thenReturn(5);
+
+        spinHistoryPartitionService.maintain(TODAY);
+
+        assertThat(meterRegistry.counter("spin.history.idempotency-keys.purged").count()).isEqualTo(5.0);
+    }
+
+    @Test
+    void maintain_ShouldApplyRetentionWhenCreatingPartitionsFails() {
+        ReflectionTestUtils.setField(spinHistoryPartitionService, "retentionMonths", 6);
+        when(spinHistoryRepository.createPartitions(any(), anyInt()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        spinHistoryPartitionService.maintain(TODAY);
+
+        verify(spinHistoryRepository).removePartitions(LocalDate.of(2024, 9, 1), false);
+        verify(spinHistoryRepository).deleteIdempotencyKeysBefore(any());
+    }
+
+    @Test
+    void maintain_ShouldDoNothingWhenDisabled() {
+        ReflectionTestUtils.setField(spinHistoryPartitionService, "enabled", false);
+
+        spinHistoryPartitionService.maintain();
+
+        verifyNoInteractions(spinHistoryRepository);
+    }
+}
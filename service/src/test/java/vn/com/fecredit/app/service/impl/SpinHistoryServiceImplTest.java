@@ -29,6 +29,7 @@ import vn.com.fecredit.app.entity.SpinHistory;
 import vn.com.fecredit.app.exception.EntityNotFoundException;
 import vn.com.fecredit.app.exception.InvalidOperationException;
 import vn.com.fecredit.app.mapper.SpinHistoryMapper;
+import vn.com.fecredit.app.projection.SpinStatisticsProjection;
 import vn.com.fecredit.app.repository.ParticipantEventRepository;
 import vn.com.fecredit.app.repository.RewardRepository;
 import vn.com.fecredit.app.repository.SpinHistoryRepository;
@@ -166,13 +167,15 @@ class SpinHistoryServiceImplTest {
     @Test
     void whenGetStatistics_thenReturnStats() {
         // Given
-        when(participantEventRepository.findById(1L)).thenReturn(Optional.of(participantEvent));
+        when(participantEventRepository.findWithDetailsById(1L)).thenReturn(Optional.of(participantEvent));
+        SpinStatisticsProjection spins = mock(SpinStatisticsProjection.class);
+        when(spinHistoryRepository.summarizeSpins(1L)).thenReturn(spins);
         SpinHistoryDTO.Statistics stats = SpinHistoryDTO.Statistics.builder()
             .participantEventId(1L)
             .totalSpins(5)
             .winningSpins(2)
             .build();
-        when(spinHistoryMapper.toStatistics(participantEvent)).thenReturn(stats);
+        when(spinHistoryMapper.toStatistics(participantEvent, spins)).thenReturn(stats);
 
         // When
         SpinHistoryDTO.Statistics result = spinHistoryService.getParticipantEventStatistics(1L);
@@ -0,0 +1,181 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+
+class SpinIdempotencyServiceImplTest {
+
+    private SpinHistoryRepository spinHistoryRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SpinIdempotencyServiceImpl spinIdempotencyService;
+
+    private final AtomicInteger spins = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        spinHistoryRepository = mock(SpinHistoryRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        spinIdempotencyService = new SpinIdempotencyServiceImpl(spinHistoryRepository, meterRegistry);
+        spinIdempotencyService.start();
+    }
+
+    @Test
+    void execute_ShouldAnswerRetryWithOriginalResult() {
+        SpinResultDTO first = spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+        SpinResultDTO retry = spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+
+        assertThat(retry).isSameAs(first);
+        assertThat(spins).hasValue(1);
+        assertThat(meterRegistry.counter("spin.idempotency.replayed").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_ShouldScopeKeysToParticipant() {
+        spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+        spinIdempotencyService.execute(request(2L, "key-1"), this::spin);
+
+        assertThat(spins).hasValue(2);
+    }
+
+    @Test
+    void execute_ShouldRunEverySpinWithoutKey() {
+        spinIdempotencyService.execute(request(1L, null), this::spin);
+        spinIdempotencyService.execute(request(1L, null), this::spin);
+
+        assertThat(spins).hasValue(2);
+        assertThat(spinIdempotencyService.getCachedKeys()).isZero();
+    }
+
+    @Test
+    void execute_ShouldRunRetryOfSpinThatRecordedNothing() {
+        SpinResultDTO refused = SpinResultDTO.builder().status(SpinResultDTO.SpinStatus.RATE_LIMITED).build();
+
+        spinIdempotencyService.execute(request(1L, "key-1"), () -> refused);
+        spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+
+        assertThat(spins).hasValue(1);
+    }
+
+    @Test
+    void execute_ShouldRunRetryOfFailedSpin() {
+        assertThatThrownBy(() -> spinIdempotencyService.execute(request(1L, "key-1"), () -> {
+            throw new IllegalStateException("connection lost");
+        })).isInstanceOf(IllegalStateException.class);
+
+        spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+
+        assertThat(spins).hasValue(1);
+    }
+
+    @Test
+    void execute_ShouldLetConcurrentRetryWaitForOriginal() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<SpinResultDTO> original = CompletableFuture.supplyAsync(() ->
+            spinIdempotencyService.execute(request(1L, "key-1"), () -> {
+                started.countDown();
+                await(finish);
+                return spin();
+            }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<SpinResultDTO> retry = CompletableFuture.supplyAsync(() ->
+            spinIdempotencyService.execute(request(1L, "key-1"), this::spin));
+        finish.countDown();
+
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isSameAs(original.get(5, TimeUnit.SECONDS));
+        assertThat(spins).hasValue(1);
+    }
+
+    @Test
+    void execute_ShouldAnswerWithCommittedSpinWhenKeyWasUsedElsewhere() {
+        Reward reward = Reward.builder().id(7L).name("Gift").code("GIFT").build();
+        SpinHistory committed = SpinHistory.builder()
+            .id(42L)
+            .reward(reward)
+            .win(true)
+            .spinTime(LocalDateTime.now())
+            .build();
+        when(spinHistoryRepository.findByIdempotencyKey(1L, 1L, "key-1")).thenReturn(List.of(committed));
+
+        SpinResultDTO result = spinIdempotencyService.execute(request(1L, "key-1"), () -> {
+            throw new DataIntegrityViolationException("pk_spin_idempotency_keys");
+        });
+
+        assertThat(result.getId()).isEqualTo(42L);
+        assertThat(result.isWin()).isTrue();
+        assertThat(result.getRewardId()).isEqualTo(7L);
+        assertThat(result.getRewardCode()).isEqualTo("GIFT");
+    }
+
+    @Test
+    void execute_ShouldRethrowConstraintViolationOfOtherCause() {
+        when(spinHistoryRepository.findByIdempotencyKey(1L, 1L, "key-1")).thenReturn(List.of());
+
+        assertThatThrownBy(() -> spinIdempotencyService.execute(request(1L, "key-1"), () -> {
+            throw new DataIntegrityViolationException("fk_spin_histories_participant_event");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void execute_ShouldForgetLeastRecentlyUsedKeys() {
+        spinIdempotencyService = new SpinIdempotencyServiceImpl(spinHistoryRepository, meterRegistry);
+        ReflectionTestUtils.setField(spinIdempotencyService, "maxKeys", 2);
+        ReflectionTestUtils.setField(spinIdempotencyService, "stripes", 1);
+        spinIdempotencyService.start();
+
+        spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+        spinIdempotencyService.execute(request(1L, "key-2"), this::spin);
+        spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+        spinIdempotencyService.execute(request(1L, "key-3"), this::spin);
+        assertThat(spinIdempotencyService.getCachedKeys()).isEqualTo(2);
+
+        spinIdempotencyService.execute(request(1L, "key-1"), this::spin);
+        assertThat(spins).hasValue(3);
+        spinIdempotencyService.execute(request(1L, "key-2"), this::spin);
+        assertThat(spins).hasValue(4);
+    }
+
+    private SpinResultDTO spin() {
+        return SpinResultDTO.builder()
+            .id((long) spins.incrementAndGet())
+            .status(SpinResultDTO.SpinStatus.SUCCESS)
+            .build();
+    }
+
+    private static SpinRequest request(Long participantId, String idempotencyKey) {
+        return SpinRequest.builder()
+            .eventId(1L)
+            .participantId(participantId)
+            .idempotencyKey(idempotencyKey)
+            .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.entity.ParticipantEvent;
+import vn.com.fecredit.app.entity.Reward;
+import vn.com.fecredit.app.entity.SpinHistory;
+import vn.com.fecredit.app.model.SpinJournal;
+import vn.com.fecredit.app.repository.SpinHistoryRepository;
+
+class SpinJournalServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    private SpinHistoryRepository spinHistoryRepository;
+    private SpinJournalServiceImpl spinJournalService;
+    private SimpleMeterRegistry meterRegistry;
+
+    private final List<String> copied = new ArrayList<>();
+    private long idBlock;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spinHistoryRepository = mock(SpinHistoryRepository.class);
+        when(spinHistoryRepository.findIdBlockIncrement()).thenReturn(50L);
+        when(spinHistoryRepository.reserveIdBlock()).thenAnswer(invocation -> idBlock += 50);
+        when(spinHistoryRepository.copySpins(anyString())).thenAnswer(invocation -> {
+            String csv = invocation.getArgument(0);
+            copied.addAll(csv.lines().toList());
+            return (int) csv.lines().count();
+        });
+        spinJournalService = start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        spinJournalService.stop();
+    }
+
+    @Test
+    void append_ShouldAssignIdsFromReservedBlocks() {
+        for (int i = 0; i < 51; i++) {
+            spinJournalService.append(spin());
+        }
+
+        assertThat(spinJournalService.append(spin()).getId()).isEqualTo(52L);
+        verify(spinHistoryRepository, times(2)).reserveIdBlock();
+        verify(spinHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    void append_ShouldJournalSpinOnlyOnceTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            SpinHistory spin = spinJournalService.append(spin());
+
+            assertThat(spin.getId()).isNotNull();
+            assertThat(spinJournalService.getBacklogBytes()).isZero();
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(spinJournalService.load()).isEqualTo(1);
+    }
+
+    @Test
+    void append_ShouldNotJournalSpinWhoseTransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            spinJournalService.append(spin());
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(spinJournalService.getBacklogBytes()).isZero();
+        assertThat(spinJournalService.load()).isZero();
+    }
+
+    @Test
+    void load_ShouldCopyJournaledSpinsOnce() {
+        SpinHistory spin = spinJournalService.append(SpinHistory.builder()
+            .participantEvent(ParticipantEvent.builder().id(5L).build())
+            .reward(Reward.builder().id(7L).build())
+            .win(true)
+            .pointsEarned(10)
+            .finalized(true)
+            .spinTime(LocalDateTime.of(2025, 3, 17, 10, 30, 15, 123_000_000))
+            .metadata("{\"note\":\"a, b\"}")
+            .build());
+
+        assertThat(spinJournalService.load()).isEqualTo(1);
+        assertThat(spinJournalService.load()).isZero();
+
+        assertThat(copied).hasSize(1);
+        assertThat(copied.get(0)).startsWith(spin.getId() + ",5,,,7,true,10,true,2025-03-17T10:30:15.123,"
+            + "\"{\"\"note\"\":\"\"a, b\"\"}\",1,0,");
+        assertThat(spinJournalService.getBacklogBytes()).isZero();
+    }
+
+    @Test
+    void load_ShouldWriteNullMetadataAsEmptyField() {
+        spinJournalService.append(spin());
+
+        spinJournalService.load();
+
+        assertThat(copied.get(0)).contains(",,1,0,");
+    }
+
+    @Test
+    void load_ShouldLoadInBatches() {
+        ReflectionTestUtils.setField(spinJournalService, "batchSize", 2);
+        for (int i = 0; i < 5; i++) {
+            spinJournalService.append(spin());
+        }
+
+        assertThat(spinJournalService.load()).isEqualTo(5);
+        verify(spinHistoryRepository, times(3)).copySpins(anyString());
+    }
+
+    @Test
+    void load_ShouldKeepSpinsJournaledWhileDatabaseIsDown() {
+        spinJournalService.append(spin());
+        when(spinHistoryRepository.copySpins(anyString()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThat(spinJournalService.load()).isZero();
+
+        assertThat(spinJournalService.getBacklogBytes()).isPositive();
+    }
+
+    @Test
+    void load_ShouldDeadLetterOnlyTheSpinTheDatabaseRejects() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            spinJournalService.append(spin());
+        }
+        long poison = spinJournalService.append(SpinHistory.builder()
+            .participantEvent(ParticipantEvent.builder().id(666L).build())
+            .spinTime(LocalDateTime.now())
+            .build()).getId();
+        spinJournalService.append(spin());
+        when(spinHistoryRepository.copySpins(anyString())).thenAnswer(invocation -> {
+            String csv = invocation.getArgument(0);
+            if (csv.lines().anyMatch(line -> line.startsWith(poison + ",666,"))) {
+                throw new DataIntegrityViolationException("violates foreign key constraint");
+            }
+            copied.addAll(csv.lines().toList());
+            return (int) csv.lines().count();
+        });
+
+        assertThat(spinJournalService.load()).isEqualTo(6);
+
+        assertThat(copied).hasSize(6).noneMatch(line -> line.startsWith(poison + ","));
+        assertThat(Files.readAllLines(directory.resolve("dead-letter")))
+            .singleElement().asString().endsWith("\tviolates foreign key constraint");
+        assertThat(meterRegistry.counter("spin.journal.dead-lettered").count()).isEqualTo(1);
+        assertThat(spinJournalService.getBacklogBytes()).isZero();
+    }
+
+    @Test
+    void load_ShouldDeadLetterRecordCorruptedAfterStartAndCheckpointPastIt() throws IOException {
+        spinJournalService.append(spin());
+        spinJournalService.append(spin());
+        spinJournalService.append(spin());
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Corrupt the payload of the second record under the running journal
+            int second = 8 + readLength(channel);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), second + 8 + 4);
+        }
+
+        assertThat(spinJournalService.load()).isEqualTo(2);
+
+        assertThat(copied).hasSize(2);
+        assertThat(Files.readAllLines(directory.resolve("dead-letter")))
+            .singleElement().asString().contains("\tCorrupt journal record at 0:");
+        assertThat(meterRegistry.counter("spin.journal.dead-lettered").count()).isEqualTo(1);
+        assertThat(spinJournalService.getBacklogBytes()).isZero();
+        spinJournalService.append(spin());
+        assertThat(spinJournalService.load()).isEqualTo(1);
+    }
+
+    @Test
+    void start_ShouldFailWhenSequenceIncrementDiffersFromIdBlockSize() {
+        when(spinHistoryRepository.findIdBlockIncrement()).thenReturn(1L);
+
+        assertThatThrownBy(this::start)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("app.spin.journal.id-block-size");
+    }
+
+    @Test
+    void start_ShouldReplaySpinsNotLoadedBeforeRestart() throws IOException {
+        spinJournalService.append(spin());
+        spinJournalService.append(spin());
+        closeWithoutLoading();
+
+        spinJournalService = start();
+
+        assertThat(copied).hasSize(2);
+    }
+
+    @Test
+    void start_ShouldNotReplaySpinsAlreadyLoaded() throws IOException {
+        spinJournalService.append(spin());
+        spinJournalService.load();
+        closeWithoutLoading();
+
+        spinJournalService = start();
+
+        assertThat(copied).hasSize(1);
+    }
+
+    @Test
+    void start_ShouldDropRecordTornByCrash() throws IOException {
+        spinJournalService.append(spin());
+        spinJournalService.append(spin());
+        closeWithoutLoading();
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Corrupt the payload of the second record
+            int second = 8 + readLength(channel);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), second + 8 + 4);
+        }
+
+        spinJournalService = start();
+
+        assertThat(copied).hasSize(1);
+        spinJournalService.append(spin());
+        spinJournalService.load();
+        assertThat(copied).hasSize(2);
+    }
+
+    private SpinJournalServiceImpl start() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        SpinJournalServiceImpl service = new SpinJournalServiceImpl(spinHistoryRepository, meterRegistry);
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+        ReflectionTestUtils.setField(service, "segmentSizeMb", 1);
+        service.start();
+        return service;
+    }
+
+    private void closeWithoutLoading() throws IOException {
+        ((SpinJournal) ReflectionTestUtils.getField(spinJournalService, "journal")).close();
+    }
+
+    private Path segment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-"))
+                .findFirst().orElseThrow();
+        }
+    }
+
+    private static int readLength(FileChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        channel.read(length, 0);
+        return length.getInt(0);
+    }
+
+    private static SpinHistory spin() {
+        return SpinHistory.builder()
+            .participantEvent(ParticipantEvent.builder().id(5L).build())
+            .win(false)
+            .pointsEarned(0)
+            .finalized(false)
+            .spinTime(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,84 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import vn.com.fecredit.app.exception.InvalidOperationException;
+
+class SplittableSpinRandomSourceTest {
+
+    @Test
+    void forSeed_ShouldReplaySameStreamForSameSeed() {
+        for (String algorithm : new String[] {"L64X128MixRandom", "SplittableRandom"}) {
+            SplittableSpinRandomSource source = new SplittableSpinRandomSource(algorithm);
+            long seed = source.nextSeed();
+
+            RandomGenerator original = source.forSeed(seed);
+            RandomGenerator replay = new SplittableSpinRandomSource(algorithm).forSeed(seed);
+
+            for (int i = 0; i < 1_000; i++) {
+                assertThat(replay.nextLong()).isEqualTo(original.nextLong());
+            }
+        }
+    }
+
+    @Test
+    void nextSeed_ShouldGiveEveryThreadItsOwnStream() throws InterruptedException {
+        SplittableSpinRandomSource source = new SplittableSpinRandomSource("L64X128MixRandom");
+        Set<Long> seeds = ConcurrentHashMap.newKeySet();
+        int threads = 32;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    seeds.add(source.nextSeed());
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(seeds).hasSize(threads * perThread);
+    }
+
+    @Test
+    void getStreamIndex_ShouldNumberThreadStreamsInSplitOrder() throws Exception {
+        SplittableSpinRandomSource source = new SplittableSpinRandomSource("SplittableRandom");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            int first = source.getStreamIndex();
+            int other = executor.submit(source::getStreamIndex).get(5, TimeUnit.SECONDS);
+
+            assertThat(source.getStreamIndex()).isEqualTo(first);
+            assertThat(other).isNotEqualTo(first);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void start_ShouldRejectGeneratorThatCannotBeSplit() {
+        assertThatThrownBy(() -> new SplittableSpinRandomSource("Random"))
+            .isInstanceOf(InvalidOperationException.class);
+        assertThatThrownBy(() -> new SplittableSpinRandomSource("NoSuchRandom"))
+            .isInstanceOf(InvalidOperationException.class);
+    }
+}
@@ -0,0 +1,195 @@
+package vn.com.fecredit.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.com.fecredit.app.dto.SpinRequest;
+import vn.com.fecredit.app.dto.SpinResultDTO;
+import vn.com.fecredit.app.dto.WaitingRoomDTO;
+import vn.com.fecredit.app.exception.ResourceNotFoundException;
+
+class WaitingRoomServiceImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpinAdmissionServiceImpl spinAdmissionService;
+    private WaitingRoomServiceImpl waitingRoomService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        spinAdmissionService = new SpinAdmissionServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(spinAdmissionService, "initialLimit", 1);
+        ReflectionTestUtils.setField(spinAdmissionService, "minLimit", 1);
+        ReflectionTestUtils.setField(spinAdmissionService, "eventMaxLimit", 1);
+        spinAdmissionService.start();
+
+        waitingRoomService = new WaitingRoomServiceImpl(spinAdmissionService, meterRegistry);
+        waitingRoomService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        waitingRoomService.stop();
+    }
+
+    @Test
+    void enter_ShouldSpinRightAwayWhenRoomIsEmptyAndSpinIsAdmitted() {
+        WaitingRoomDTO.Ticket ticket = waitingRoomService.enter(request(1L), () -> success(1L));
+
+        assertThat(ticket.isDone()).isTrue();
+        assertThat(ticket.getTicketId()).isNull();
+        assertThat(ticket.getResult().getParticipantId()).isEqualTo(1L);
+    }
+
+    @Test
+    void enter_ShouldQueueExcessSpinsAndRunThemInArrivalOrder() throws Exception {
+        CompletableFuture<SpinResultDTO> blocking = new CompletableFuture<>();
+        spinAdmissionService.submit(request(0L), () -> blocking);
+
+        List<Long> order = Collections.synchronizedList(new ArrayList<>());
+        List<WaitingRoomDTO.Ticket> tickets = new ArrayList<>();
+        for (long participant = 1; participant <= 3; participant++) {
+            long id = participant;
+            tickets.add(waitingRoomService.enter(request(id), () -> {
+                order.add(id);
+                return success(id);
+            }));
+        }
+
+        assertThat(tickets).extracting(WaitingRoomDTO.Ticket::getStatus)
+            .containsOnly(WaitingRoomDTO.TicketStatus.WAITING);
+        assertThat(tickets).extracting(WaitingRoomDTO.Ticket::getPosition).containsExactly(1L, 2L, 3L);
+        assertThat(tickets.get(2).getEstimatedWaitMs()).isGreaterThan(tickets.get(0).getEstimatedWaitMs());
+        assertThat(waitingRoomService.getQueueLength(1L)).isEqualTo(3);
+
+        blocking.complete(success(0L));
+
+        WaitingRoomDTO.Ticket last = awaitDone(tickets.get(2).getTicketId());
+        assertThat(last.getResult().getParticipantId()).isEqualTo(3L);
+        assertThat(order).containsExactly(1L, 2L, 3L);
+        assertThat(waitingRoomService.getQueueLength(1L)).isZero();
+    }
+
+    @Test
+    void enter_ShouldTurnAwaySpinsWhenRoomIsFull() {
+        ReflectionTestUtils.setField(waitingRoomService, "capacity", 1);
+        spinAdmissionService.submit(request(0L), CompletableFuture::new);
+
+        WaitingRoomDTO.Ticket queued = waitingRoomService.enter(request(1L), () -> success(1L));
+        WaitingRoomDTO.Ticket turnedAway = waitingRoomService.enter(request(2L), () -> success(2L));
+
+        assertThat(queued.getStatus()).isEqualTo(WaitingRoomDTO.TicketStatus.WAITING);
+        assertThat(turnedAway.getStatus()).isEqualTo(WaitingRoomDTO.TicketStatus.FULL);
+        assertThat(meterRegistry.get("spin.waiting-room.full").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void enter_ShouldRunQueuedSpinInCallerContext() throws Exception {
+        CompletableFuture<SpinResultDTO> blocking = new CompletableFuture<>();
+        spinAdmissionService.submit(request(0L), () -> blocking);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        WaitingRoomDTO.Ticket ticket;
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("participant-1", null));
+        MDC.put("requestId", "request-1");
+        try {
+            ticket = waitingRoomService.enter(request(1L), () -> {
+                seen.add(SecurityContextHolder.getContext().getAuthentication().getName());
+                seen.add(MDC.get("requestId"));
+                return success(1L);
+            });
+        } finally {
+            MDC.clear();
+            SecurityContextHolder.clearContext();
+        }
+
+        blocking.complete(success(0L));
+
+        assertThat(awaitDone(ticket.getTicketId()).getResult().getStatus())
+            .isEqualTo(SpinResultDTO.SpinStatus.SUCCESS);
+        assertThat(seen).containsExactly("participant-1", "request-1");
+    }
+
+    @Test
+    void enter_ShouldKeepTicketsNoWorkerTakesQueuedUntilOneIsFree() throws Exception {
+        CompletableFuture<SpinResultDTO> blocking = new CompletableFuture<>();
+        spinAdmissionService.submit(request(0L), () -> blocking);
+        WaitingRoomDTO.Ticket first = waitingRoomService.enter(request(1L), () -> success(1L));
+        WaitingRoomDTO.Ticket second = waitingRoomService.enter(request(2L), () -> success(2L));
+        // Every worker busy and the pool's queue full
+        ExecutorService workers = (ExecutorService) ReflectionTestUtils.getField(waitingRoomService, "workers");
+        CountDownLatch busy = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            workers.execute(() -> await(busy));
+        }
+
+        blocking.complete(success(0L));
+        Thread.sleep(200);
+
+        assertThat(waitingRoomService.getTicket(first.getTicketId()).getStatus())
+            .isEqualTo(WaitingRoomDTO.TicketStatus.WAITING);
+        assertThat(waitingRoomService.getQueueLength(1L)).isEqualTo(2);
+        assertThat(spinAdmissionService.getInFlight(1L)).isZero();
+
+        busy.countDown();
+
+        assertThat(awaitDone(first.getTicketId()).getResult().getParticipantId()).isEqualTo(1L);
+        assertThat(awaitDone(second.getTicketId()).getResult().getParticipantId()).isEqualTo(2L);
+        assertThat(waitingRoomService.getQueueLength(1L)).isZero();
+    }
+
+    @Test
+    void getTicket_ShouldThrowForUnknownTicket() {
+        assertThatThrownBy(() -> waitingRoomService.getTicket("missing"))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private WaitingRoomDTO.Ticket awaitDone(String ticketId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        WaitingRoomDTO.Ticket ticket = waitingRoomService.getTicket(ticketId);
+        while (!ticket.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            ticket = waitingRoomService.getTicket(ticketId);
+        }
+        assertThat(ticket.isDone()).isTrue();
+        return ticket;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SpinRequest request(Long participantId) {
+        return SpinRequest.builder()
+            .eventId(1L)
+            .participantId(participantId)
+            .build();
+    }
+
+    private static SpinResultDTO success(Long participantId) {
+        return SpinResultDTO.builder()
+            .participantId(participantId)
+            .status(SpinResultDTO.SpinStatus.SUCCESS)
+            .build();
+    }
+}
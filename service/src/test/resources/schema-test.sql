@@ -47,6 +47,7 @@ CREATE TABLE participant_events (
     remaining_spins INTEGER DEFAULT 0,
     initial_spins INTEGER DEFAULT 0,
     daily_spins_used INTEGER DEFAULT 0,
+    daily_spins_day BIGINT,
     status INTEGER DEFAULT 1,
     created_date TIMESTAMP,
     last_modified_date TIMESTAMP,
@@ -77,5 +78,8 @@ CREATE TABLE spin_histories (
     created_date TIMESTAMP,
     last_modified_date TIMESTAMP,
     version INTEGER DEFAULT 0,
-    metadata TEXT
+    metadata TEXT,
+    inventory_node_id VARCHAR(100),
+    random_seed BIGINT,
+    random_stream INTEGER
 );
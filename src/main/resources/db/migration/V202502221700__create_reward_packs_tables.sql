@@ -0,0 +1,27 @@
+CREATE TABLE reward_packs (
+    id BIGSERIAL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    event_location_id BIGINT NOT NULL,
+    pack_number INTEGER NOT NULL,
+    empty_slots INTEGER NOT NULL DEFAULT 0,
+    status INTEGER NOT NULL DEFAULT 1,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_reward_packs_event_location FOREIGN KEY (event_location_id) REFERENCES event_locations(id) ON DELETE CASCADE,
+    CONSTRAINT uk_reward_packs_location_number UNIQUE (event_location_id, pack_number),
+    CONSTRAINT chk_reward_packs_empty_slots CHECK (empty_slots >= 0)
+);
+
+CREATE TABLE reward_pack_items (
+    pack_id BIGINT NOT NULL,
+    reward_id BIGINT NOT NULL,
+    remaining_quantity INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (pack_id, reward_id),
+    CONSTRAINT fk_reward_pack_items_pack FOREIGN KEY (pack_id) REFERENCES reward_packs(id) ON DELETE CASCADE,
+    CONSTRAINT fk_reward_pack_items_reward FOREIGN KEY (reward_id) REFERENCES rewards(id) ON DELETE CASCADE,
+    CONSTRAINT chk_reward_pack_items_remaining CHECK (remaining_quantity >= 0)
+);
+
+CREATE INDEX idx_reward_pack_items_reward ON reward_pack_items(reward_id);
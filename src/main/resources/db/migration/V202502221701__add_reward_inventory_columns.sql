@@ -0,0 +1,7 @@
+-- Support for the write-behind reward inventory
+ALTER TABLE rewards
+    ADD COLUMN strict_inventory BOOLEAN NOT NULL DEFAULT false,
+    ADD COLUMN inventory_synced_at TIMESTAMP;
+
+COMMENT ON COLUMN rewards.strict_inventory IS 'Decrement remaining_quantity synchronously for every win';
+COMMENT ON COLUMN rewards.inventory_synced_at IS 'Time up to which in-memory consumption has been flushed';
@@ -0,0 +1,14 @@
+-- Daily counters remember the epoch day they belong to and read as zero on a later day,
+-- which replaces the midnight reset of every counter
+ALTER TABLE participant_events
+    ADD COLUMN daily_spins_day BIGINT;
+
+ALTER TABLE rewards
+    ADD COLUMN daily_count_day BIGINT;
+
+ALTER TABLE golden_hours
+    ADD COLUMN uses_day BIGINT;
+
+COMMENT ON COLUMN participant_events.daily_spins_day IS 'Epoch day daily_spins_used belongs to';
+COMMENT ON COLUMN rewards.daily_count_day IS 'Epoch day daily_count belongs to';
+COMMENT ON COLUMN golden_hours.uses_day IS 'Epoch day total_uses belongs to';
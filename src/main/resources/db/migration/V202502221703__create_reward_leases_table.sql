@@ -0,0 +1,24 @@
+-- Blocks of reward units leased by application nodes
+CREATE TABLE reward_leases (
+    id BIGSERIAL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    reward_id BIGINT NOT NULL,
+    node_id VARCHAR(100) NOT NULL,
+    units INTEGER NOT NULL DEFAULT 0,
+    synced_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    status INTEGER NOT NULL DEFAULT 1,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_reward_leases_reward FOREIGN KEY (reward_id) REFERENCES rewards(id) ON DELETE CASCADE,
+    CONSTRAINT uk_reward_leases_reward_node UNIQUE (reward_id, node_id),
+    CONSTRAINT chk_reward_leases_units CHECK (units >= 0)
+);
+
+CREATE INDEX idx_reward_leases_expires_at ON reward_leases(expires_at);
+
+COMMENT ON TABLE reward_leases IS 'Reward units reserved by one application node until consumed, returned or expired';
+COMMENT ON COLUMN reward_leases.units IS 'Leased units not yet reported as consumed';
+COMMENT ON COLUMN reward_leases.synced_at IS 'Time up to which consumption of the lease has been reported';
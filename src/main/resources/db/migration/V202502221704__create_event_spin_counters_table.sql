@@ -0,0 +1,19 @@
+-- Sharded event-wide spin budget
+CREATE TABLE event_spin_counters (
+    id BIGSERIAL PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    event_id BIGINT NOT NULL,
+    shard INTEGER NOT NULL,
+    remaining BIGINT NOT NULL DEFAULT 0,
+    status INTEGER NOT NULL DEFAULT 1,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_event_spin_counters_event FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    CONSTRAINT uk_event_spin_counters_event_shard UNIQUE (event_id, shard),
+    CONSTRAINT chk_event_spin_counters_remaining CHECK (remaining >= 0)
+);
+
+COMMENT ON TABLE event_spin_counters IS 'Shards of events.remaining_spins, decremented at random and summed on read';
+COMMENT ON COLUMN events.remaining_spins IS 'Remaining spins; once sharded, a snapshot written back by compaction';
@@ -0,0 +1,9 @@
+-- Spins submitted with an idempotency key are recorded at most once per participant event,
+-- so a client retrying a spin can never consume a second one
+ALTER TABLE spin_histories
+    ADD COLUMN idempotency_key VARCHAR(64);
+
+ALTER TABLE spin_histories
+    ADD CONSTRAINT uk_spin_histories_idempotency_key UNIQUE (participant_event_id, idempotency_key);
+
+COMMENT ON COLUMN spin_histories.idempotency_key IS 'Client supplied key identifying retries of the same spin';
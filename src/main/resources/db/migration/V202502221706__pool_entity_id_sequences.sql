@@ -0,0 +1,29 @@
+-- Entity ids are drawn from a sequence per table, 50 values per call, so Hibernate can
+-- batch inserts. Serial sequences are renamed to <table>_id_seq where needed and tables
+-- without one get it; inserts relying on the column default keep using the same sequence.
+DO $$
+DECLARE
+    t TEXT;
+    seq TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'roles', 'regions', 'provinces', 'events', 'event_locations',
+                             'participants', 'participant_events', 'rewards', 'reward_packs',
+                             'reward_leases', 'golden_hours', 'spin_histories', 'event_spin_counters',
+                             'blacklisted_tokens']
+    LOOP
+        CONTINUE WHEN to_regclass(t) IS NULL;
+
+        seq := pg_get_serial_sequence(t, 'id');
+        IF seq IS NULL THEN
+            EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', t || '_id_seq', t);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, t || '_id_seq');
+        ELSIF seq <> format('public.%I', t || '_id_seq') THEN
+            EXECUTE format('ALTER SEQUENCE %s RENAME TO %I', seq, t || '_id_seq');
+        END IF;
+
+        -- The pooled optimizer hands out the 50 ids up to each value it reads, so the next
+        -- value must lie 50 past the highest id in use
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 50, false)', t || '_id_seq', t);
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t || '_id_seq');
+    END LOOP;
+END $$;
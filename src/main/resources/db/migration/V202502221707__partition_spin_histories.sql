@@ -0,0 +1,148 @@
+-- Spin histories are range partitioned by month of spin_time, so queries bounded by spin
+-- time only read the months they cover and old months can be detached or dropped whole.
+-- Partitions are named spin_histories_pYYYYMM; spins outside every month partition land
+-- in spin_histories_default until their month is created.
+ALTER TABLE spin_histories RENAME TO spin_histories_legacy;
+
+UPDATE spin_histories_legacy SET spin_time = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE spin_time IS NULL;
+
+CREATE TABLE spin_histories (
+    LIKE spin_histories_legacy INCLUDING DEFAULTS INCLUDING COMMENTS
+) PARTITION BY RANGE (spin_time);
+
+ALTER TABLE spin_histories ALTER COLUMN spin_time SET NOT NULL;
+
+-- A primary key of a partitioned table must contain the partition key
+ALTER TABLE spin_histories ADD CONSTRAINT pk_spin_histories PRIMARY KEY (id, spin_time);
+
+ALTER SEQUENCE spin_histories_id_seq OWNED BY spin_histories.id;
+
+ALTER TABLE spin_histories
+    ADD CONSTRAINT fk_spin_histories_participant_event
+        FOREIGN KEY (participant_event_id) REFERENCES participant_events(id),
+    ADD CONSTRAINT fk_spin_histories_reward
+        FOREIGN KEY (reward_id) REFERENCES rewards(id) ON DELETE SET NULL,
+    ADD CONSTRAINT fk_spin_histories_event_location
+        FOREIGN KEY (event_location_id) REFERENCES event_locations(id),
+    ADD CONSTRAINT fk_spin_histories_golden_hour
+        FOREIGN KEY (golden_hour_id) REFERENCES golden_hours(id);
+
+CREATE TABLE spin_histories_default PARTITION OF spin_histories DEFAULT;
+
+-- Creates the month partitions from the month of from_month on, skipping existing ones.
+-- Rows of a new month already kept by the default partition are moved into it. Nodes
+-- running maintenance at once are serialized by an advisory lock.
+CREATE OR REPLACE FUNCTION create_spin_history_partitions(from_month DATE, months INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    month_end DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+    pending BOOLEAN;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('spin_histories_partitions'));
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := date_trunc('month', from_month) + make_interval(months => i);
+        month_end := month_start + INTERVAL '1 month';
+        partition_name := 'spin_histories_p' || to_char(month_start, 'YYYYMM');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+
+        SELECT EXISTS (SELECT 1 FROM spin_histories_default
+                       WHERE spin_time >= month_start AND spin_time < month_end) INTO pending;
+        IF pending THEN
+            CREATE TEMP TABLE spin_histories_pending ON COMMIT DROP AS
+                SELECT * FROM spin_histories_default WHERE spin_time >= month_start AND spin_time < month_end;
+            DELETE FROM spin_histories_default WHERE spin_time >= month_start AND spin_time < month_end;
+        END IF;
+
+        EXECUTE format('CREATE TABLE %I PARTITION OF spin_histories FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, month_end);
+
+        IF pending THEN
+            INSERT INTO spin_histories SELECT * FROM spin_histories_pending;
+            DROP TABLE spin_histories_pending;
+        END IF;
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches, or drops, the month partitions that end on or before the month of before_month.
+-- A detached partition keeps its rows as a plain table for archiving.
+CREATE OR REPLACE FUNCTION remove_spin_history_partitions(before_month DATE, drop_rows BOOLEAN)
+RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT;
+    removed INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('spin_histories_partitions'));
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'spin_histories'::regclass
+          AND c.relname ~ '^spin_histories_p[0-9]{6}$'
+          AND to_date(substring(c.relname FROM 17), 'YYYYMM') + INTERVAL '1 month'
+              <= date_trunc('month', before_month)
+        ORDER BY c.relname
+    LOOP
+        IF drop_rows THEN
+            EXECUTE format('DROP TABLE %I', partition_name);
+        ELSE
+            EXECUTE format('ALTER TABLE spin_histories DETACH PARTITION %I', partition_name);
+        END IF;
+        removed := removed + 1;
+    END LOOP;
+    RETURN removed;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Months from the oldest spin up to three months ahead
+DO $$
+DECLARE
+    first_month DATE := date_trunc('month', COALESCE((SELECT MIN(spin_time) FROM spin_histories_legacy),
+                                                     CURRENT_DATE));
+BEGIN
+    PERFORM create_spin_history_partitions(first_month,
+        CAST((EXTRACT(YEAR FROM CURRENT_DATE) - EXTRACT(YEAR FROM first_month)) * 12
+             + EXTRACT(MONTH FROM CURRENT_DATE) - EXTRACT(MONTH FROM first_month) + 4 AS INTEGER));
+END $$;
+
+INSERT INTO spin_histories SELECT * FROM spin_histories_legacy;
+
+DROP TABLE spin_histories_legacy;
+
+-- Indexes on the parent are created on every partition; the spin time columns let
+-- time-bounded lookups of one participant or location use a single index range
+CREATE INDEX idx_spin_histories_participant_event_time ON spin_histories (participant_event_id, spin_time);
+CREATE INDEX idx_spin_histories_event_location_time ON spin_histories (event_location_id, spin_time);
+CREATE INDEX idx_spin_histories_reward ON spin_histories (reward_id);
+CREATE INDEX idx_spin_histories_golden_hour ON spin_histories (golden_hour_id);
+CREATE INDEX idx_spin_histories_spin_time ON spin_histories (spin_time);
+CREATE INDEX idx_spin_histories_idempotency_key ON spin_histories (participant_event_id, idempotency_key)
+    WHERE idempotency_key IS NOT NULL;
+
+-- A unique constraint of a partitioned table must contain the partition key, so keys that
+-- must be unique per participant event across months move to their own table
+CREATE TABLE spin_idempotency_keys (
+    participant_event_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(64) NOT NULL,
+    spin_history_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_spin_idempotency_keys PRIMARY KEY (participant_event_id, idempotency_key),
+    CONSTRAINT fk_spin_idempotency_keys_participant_event
+        FOREIGN KEY (participant_event_id) REFERENCES participant_events(id) ON DELETE CASCADE
+);
+
+INSERT INTO spin_idempotency_keys (participant_event_id, idempotency_key, spin_history_id, created_at)
+SELECT participant_event_id, idempotency_key, MIN(id), MIN(spin_time)
+FROM spin_histories
+WHERE idempotency_key IS NOT NULL
+GROUP BY participant_event_id, idempotency_key;
+
+CREATE INDEX idx_spin_idempotency_keys_created_at ON spin_idempotency_keys (created_at);
+
+COMMENT ON TABLE spin_histories IS 'Spin history, range partitioned by month of spin_time';
+COMMENT ON TABLE spin_idempotency_keys IS 'Idempotency keys already committed per participant event';
@@ -0,0 +1,28 @@
+-- Indexes backing the spin history queries of SpinHistoryRepository and RewardRepository.
+-- Every time predicate on spin_time is a half-open range, so the composite indexes serve
+-- both the participant or location lookup and the time bound. The composite indexes were
+-- created with the partitioned table and are only repeated for databases built otherwise.
+CREATE INDEX IF NOT EXISTS idx_spin_histories_participant_event_time
+    ON spin_histories (participant_event_id, spin_time);
+
+CREATE INDEX IF NOT EXISTS idx_spin_histories_event_location_time
+    ON spin_histories (event_location_id, spin_time);
+
+-- countWinsSince: wins of a reward after a point in time
+CREATE INDEX IF NOT EXISTS idx_spin_histories_reward_win_time
+    ON spin_histories (reward_id, spin_time)
+    WHERE win = true;
+
+-- countWinningSpins: the few winning spins of a participant event
+CREATE INDEX IF NOT EXISTS idx_spin_histories_participant_event_win
+    ON spin_histories (participant_event_id)
+    WHERE win = true;
+
+-- existsByParticipantEventIdAndFinalizedFalse: spins still being resolved, almost none
+CREATE INDEX IF NOT EXISTS idx_spin_histories_participant_event_unfinalized
+    ON spin_histories (participant_event_id)
+    WHERE finalized = false;
+
+-- findByIdempotencyKey: participant events of a participant in an event
+CREATE INDEX IF NOT EXISTS idx_participant_events_participant_event
+    ON participant_events (participant_id, event_id);
@@ -0,0 +1,22 @@
+-- Per-node accounting of the write-behind reward inventory
+ALTER TABLE spin_histories
+    ADD COLUMN inventory_node_id VARCHAR(100);
+
+COMMENT ON COLUMN spin_histories.inventory_node_id IS 'Node whose in-memory stock the unit of a win was taken from';
+
+-- countWinsByNode: wins of a reward taken from one node's in-memory stock
+CREATE INDEX IF NOT EXISTS idx_spin_histories_reward_node_win
+    ON spin_histories (reward_id, inventory_node_id)
+    WHERE win = true;
+
+CREATE TABLE reward_inventory_nodes (
+    reward_id BIGINT NOT NULL,
+    node_id VARCHAR(100) NOT NULL,
+    flushed_units BIGINT NOT NULL DEFAULT 0,
+    synced_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_reward_inventory_nodes PRIMARY KEY (reward_id, node_id),
+    CONSTRAINT fk_reward_inventory_nodes_reward FOREIGN KEY (reward_id) REFERENCES rewards(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE reward_inventory_nodes IS 'Units each node has flushed from its in-memory stock of a reward';
+COMMENT ON COLUMN reward_inventory_nodes.flushed_units IS 'Units written to rewards.remaining_quantity so far, less units handed back';
@@ -0,0 +1,7 @@
+-- Random stream a spin outcome was drawn from, for replaying disputed spins
+ALTER TABLE spin_histories
+    ADD COLUMN random_seed BIGINT,
+    ADD COLUMN random_stream INTEGER;
+
+COMMENT ON COLUMN spin_histories.random_seed IS 'Seed of the generator the outcome was drawn from';
+COMMENT ON COLUMN spin_histories.random_stream IS 'Per-thread seed stream of the node the seed was taken from';
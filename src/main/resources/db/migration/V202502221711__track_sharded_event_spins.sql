@@ -0,0 +1,10 @@
+-- Value of events.remaining_spins the shards last agreed with, so compaction can tell an edit from its own write-back
+ALTER TABLE events
+    ADD COLUMN sharded_spins BIGINT;
+
+UPDATE events e
+SET sharded_spins = e.remaining_spins
+WHERE EXISTS (SELECT 1 FROM event_spin_counters c WHERE c.event_id = e.id);
+
+COMMENT ON COLUMN events.sharded_spins IS 'remaining_spins as last split into or written back from the shards';
+COMMENT ON COLUMN events.remaining_spins IS 'Remaining spins; once sharded, a snapshot written back by compaction, which applies edits to it as a delta on the shards';